@@ -22,8 +22,13 @@ package appeng.client.me;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.regex.Pattern;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
 
 import net.minecraft.item.ItemStack;
 
@@ -32,6 +37,7 @@ import cpw.mods.fml.relauncher.ReflectionHelper;
 import appeng.api.AEApi;
 import appeng.api.config.SearchBoxMode;
 import appeng.api.config.Settings;
+import appeng.api.config.SortDir;
 import appeng.api.config.SortOrder;
 import appeng.api.config.ViewItems;
 import appeng.api.config.YesNo;
@@ -42,16 +48,36 @@ import appeng.client.gui.widgets.ISortSource;
 import appeng.core.AEConfig;
 import appeng.items.storage.ItemViewCell;
 import appeng.util.ItemSorters;
-import appeng.util.Platform;
 import appeng.util.prioitylist.IPartitionList;
 
 
 public class ItemRepo
 {
 
+	// same as ItemSorters.CONFIG_BASED_SORT_BY_NAME, but with the display names cached by the index.
+	private static final Comparator<ItemSearchIndex.Entry> NAME_ORDER = new Comparator<ItemSearchIndex.Entry>()
+	{
+
+		@Override
+		public int compare( ItemSearchIndex.Entry o1, ItemSearchIndex.Entry o2 )
+		{
+			if( ItemSorters.Direction == SortDir.ASCENDING )
+			{
+				return o1.displayName.compareToIgnoreCase( o2.displayName );
+			}
+			return o2.displayName.compareToIgnoreCase( o1.displayName );
+		}
+	};
+
 	private final IItemList<IAEItemStack> list = AEApi.instance().storage().createItemList();
 	private final ArrayList<IAEItemStack> view = new ArrayList<IAEItemStack>();
 	private final ArrayList<ItemStack> dsp = new ArrayList<ItemStack>();
+	private final ItemSearchIndex index = new ItemSearchIndex();
+	// every known type in the current sort order, resorted entries get moved instead of sorting everything again.
+	private final ArrayList<ItemSearchIndex.Entry> sorted = new ArrayList<ItemSearchIndex.Entry>();
+	private final Set<ItemSearchIndex.Entry> resort = new HashSet<ItemSearchIndex.Entry>();
+	private Enum sortedBy;
+	private Enum sortedDir;
 	private final IScrollSource src;
 	private final ISortSource sortSrc;
 
@@ -108,6 +134,13 @@ public class ItemRepo
 		else
 		{
 			this.list.add( is );
+			st = this.list.findPrecise( is );
+		}
+
+		final ItemSearchIndex.Entry e = this.index.update( st );
+		if( e != null && this.sortedBy == SortOrder.AMOUNT )
+		{
+			this.resort.add( e );
 		}
 	}
 
@@ -143,26 +176,29 @@ public class ItemRepo
 			this.innerSearch = this.innerSearch.substring( 1 );
 		}
 
-		Pattern m = null;
-		try
+		// tooltips are only looked at once something is searched for.
+		this.updateSortOrder( this.index.indexPending( terminalSearchToolTips && !this.innerSearch.isEmpty() ) );
+
+		final BitSet matches = this.index.search( this.innerSearch, searchMod, terminalSearchToolTips );
+		if( matches == null )
 		{
-			m = Pattern.compile( this.innerSearch.toLowerCase(), Pattern.CASE_INSENSITIVE );
+			return;
 		}
-		catch( Throwable ignore )
+
+		for( ItemSearchIndex.Entry e : this.sorted )
 		{
-			try
+			if( !matches.get( e.id ) )
 			{
-				m = Pattern.compile( Pattern.quote( this.innerSearch.toLowerCase() ), Pattern.CASE_INSENSITIVE );
+				continue;
 			}
-			catch( Throwable __ )
+
+			IAEItemStack is = e.stack;
+
+			if( !is.isMeaningful() )
 			{
-				return;
+				continue;
 			}
-		}
 
-		boolean notDone = false;
-		for( IAEItemStack is : this.list )
-		{
 			if( this.myPartitionList != null )
 			{
 				if( !this.myPartitionList.isListed( is ) )
@@ -187,61 +223,90 @@ public class ItemRepo
 				continue;
 			}
 
-			String dspName = searchMod ? Platform.getModId( is ) : Platform.getItemDisplayName( is );
-			notDone = true;
+			this.view.add( is );
+		}
 
-			if( m.matcher( dspName.toLowerCase() ).find() )
-			{
-				this.view.add( is );
-				notDone = false;
-			}
+		for( IAEItemStack is : this.view )
+		{
+			this.dsp.add( is.getItemStack() );
+		}
+	}
+
+	/**
+	 * keeps {@link #sorted} in the order selected by the terminal, only new types and types whose amount changed
+	 * while sorting by amount are moved.
+	 */
+	private void updateSortOrder( List<ItemSearchIndex.Entry> added )
+	{
+		Enum sortBy = this.sortSrc.getSortBy();
+		Enum sortDir = this.sortSrc.getSortDir();
+
+		ItemSorters.Direction = (appeng.api.config.SortDir) sortDir;
+		ItemSorters.init();
+
+		final Comparator<ItemSearchIndex.Entry> c = this.getComparator( sortBy );
+
+		if( sortBy != this.sortedBy || sortDir != this.sortedDir || ( added.size() + this.resort.size() ) * 8 > this.sorted.size() )
+		{
+			this.sortedBy = sortBy;
+			this.sortedDir = sortDir;
+			this.resort.clear();
+
+			this.sorted.clear();
+			this.sorted.addAll( this.index.getEntries() );
+			Collections.sort( this.sorted, c );
+			return;
+		}
+
+		this.resort.removeAll( added );
 
-			if( terminalSearchToolTips && notDone )
+		if( !this.resort.isEmpty() )
+		{
+			final Iterator<ItemSearchIndex.Entry> i = this.sorted.iterator();
+			while( i.hasNext() )
 			{
-				for( Object lp : Platform.getTooltip( is ) )
+				if( this.resort.contains( i.next() ) )
 				{
-					if( lp instanceof String && m.matcher( (CharSequence) lp ).find() )
-					{
-						this.view.add( is );
-						notDone = false;
-						break;
-					}
+					i.remove();
 				}
 			}
 
-			/*
-			 * if ( terminalSearchMods && notDone ) { if ( m.matcher( Platform.getMod( is.getItemStack() ) ).find() ) {
-			 * view.add( is ); notDone = false; } }
-			 */
-		}
-
-		Enum SortBy = this.sortSrc.getSortBy();
-		Enum SortDir = this.sortSrc.getSortDir();
+			for( ItemSearchIndex.Entry e : this.resort )
+			{
+				this.insertSorted( e, c );
+			}
 
-		ItemSorters.Direction = (appeng.api.config.SortDir) SortDir;
-		ItemSorters.init();
+			this.resort.clear();
+		}
 
-		if( SortBy == SortOrder.MOD )
+		for( ItemSearchIndex.Entry e : added )
 		{
-			Collections.sort( this.view, ItemSorters.CONFIG_BASED_SORT_BY_MOD );
+			this.insertSorted( e, c );
 		}
-		else if( SortBy == SortOrder.AMOUNT )
+	}
+
+	private void insertSorted( ItemSearchIndex.Entry e, Comparator<ItemSearchIndex.Entry> c )
+	{
+		final int idx = Collections.binarySearch( this.sorted, e, c );
+		this.sorted.add( idx < 0 ? -idx - 1 : idx, e );
+	}
+
+	private Comparator<ItemSearchIndex.Entry> getComparator( Enum sortBy )
+	{
+		if( sortBy == SortOrder.MOD )
 		{
-			Collections.sort( this.view, ItemSorters.CONFIG_BASED_SORT_BY_SIZE );
+			return new EntryComparator( ItemSorters.CONFIG_BASED_SORT_BY_MOD );
 		}
-		else if( SortBy == SortOrder.INVTWEAKS )
+		else if( sortBy == SortOrder.AMOUNT )
 		{
-			Collections.sort( this.view, ItemSorters.CONFIG_BASED_SORT_BY_INV_TWEAKS );
+			return new EntryComparator( ItemSorters.CONFIG_BASED_SORT_BY_SIZE );
 		}
-		else
+		else if( sortBy == SortOrder.INVTWEAKS )
 		{
-			Collections.sort( this.view, ItemSorters.CONFIG_BASED_SORT_BY_NAME );
+			return new EntryComparator( ItemSorters.CONFIG_BASED_SORT_BY_INV_TWEAKS );
 		}
 
-		for( IAEItemStack is : this.view )
-		{
-			this.dsp.add( is.getItemStack() );
-		}
+		return NAME_ORDER;
 	}
 
 	private void updateNEI( String filter )
@@ -276,6 +341,11 @@ public class ItemRepo
 	public void clear()
 	{
 		this.list.resetStatus();
+
+		if( this.sortedBy == SortOrder.AMOUNT )
+		{
+			this.sortedBy = null;
+		}
 	}
 
 	public boolean hasPower()
@@ -287,4 +357,21 @@ public class ItemRepo
 	{
 		this.hasPower = hasPower;
 	}
+
+	private static final class EntryComparator implements Comparator<ItemSearchIndex.Entry>
+	{
+
+		private final Comparator<IAEItemStack> sorter;
+
+		private EntryComparator( Comparator<IAEItemStack> sorter )
+		{
+			this.sorter = sorter;
+		}
+
+		@Override
+		public int compare( ItemSearchIndex.Entry o1, ItemSearchIndex.Entry o2 )
+		{
+			return this.sorter.compare( o1.stack, o2.stack );
+		}
+	}
 }
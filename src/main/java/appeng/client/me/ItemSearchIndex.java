@@ -0,0 +1,381 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+
+package appeng.client.me;
+
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.oredict.OreDictionary;
+
+import appeng.api.storage.data.IAEItemStack;
+import appeng.util.Platform;
+
+
+/**
+ * Search index over the item types a terminal has seen.
+ *
+ * Every type gets an entry with its lower cased display name, mod id and, once tooltip search is used, its tooltip
+ * lines and ore dictionary names. Literal searches look up candidates through a trigram index, a search that only
+ * extends the previous one just re-checks the previous matches and the types added since.
+ */
+final class ItemSearchIndex
+{
+
+	private static final int GRAM = 3;
+	private static final String REGEX_CHARS = "\\^$.|?*+()[]{}";
+
+	private final Map<IAEItemStack, Entry> entries = new HashMap<IAEItemStack, Entry>();
+	private final List<Entry> byId = new ArrayList<Entry>();
+	private final List<Entry> pending = new ArrayList<Entry>();
+
+	// grams of names, ore names and tooltips; grams of mod ids.
+	private final Map<String, IntList> names = new HashMap<String, IntList>();
+	private final Map<String, IntList> mods = new HashMap<String, IntList>();
+	private boolean indexTooltips = false;
+
+	private String lastQuery = null;
+	private boolean lastSearchMod;
+	private boolean lastSearchTooltips;
+	private BitSet lastMatches;
+	private int lastSize;
+
+	/**
+	 * Registers a new item type, or updates the stack of a known one.
+	 *
+	 * @return the entry, or null if the type is new.
+	 */
+	Entry update( IAEItemStack record )
+	{
+		Entry e = this.entries.get( record );
+
+		if( e == null )
+		{
+			e = new Entry( this.byId.size(), record );
+			this.entries.put( record, e );
+			this.byId.add( e );
+			this.pending.add( e );
+			return null;
+		}
+
+		e.stack = record;
+		return e;
+	}
+
+	List<Entry> getEntries()
+	{
+		return this.byId;
+	}
+
+	/**
+	 * computes the search text of types added since the last call.
+	 *
+	 * @return entries which got their text
+	 */
+	List<Entry> indexPending( boolean searchTooltips )
+	{
+		if( searchTooltips && !this.indexTooltips )
+		{
+			this.indexTooltips = true;
+
+			for( Entry e : this.byId )
+			{
+				if( e.name != null )
+				{
+					this.indexExtended( e );
+				}
+			}
+		}
+
+		if( this.pending.isEmpty() )
+		{
+			return this.pending;
+		}
+
+		final List<Entry> added = new ArrayList<Entry>( this.pending );
+		this.pending.clear();
+
+		for( Entry e : added )
+		{
+			e.displayName = Platform.getItemDisplayName( e.stack );
+			e.name = e.displayName.toLowerCase();
+			e.mod = Platform.getModId( e.stack ).toLowerCase();
+
+			this.addGrams( this.names, e.name, e.id );
+			this.addGrams( this.mods, e.mod, e.id );
+
+			if( this.indexTooltips )
+			{
+				this.indexExtended( e );
+			}
+		}
+
+		return added;
+	}
+
+	private void indexExtended( Entry e )
+	{
+		final List<String> lines = new ArrayList<String>();
+
+		for( Object lp : Platform.getTooltip( e.stack ) )
+		{
+			if( lp instanceof String )
+			{
+				lines.add( ( (String) lp ).toLowerCase() );
+			}
+		}
+
+		final ItemStack is = e.stack.getItemStack();
+		if( is != null && is.getItem() != null )
+		{
+			for( int ore : OreDictionary.getOreIDs( is ) )
+			{
+				lines.add( OreDictionary.getOreName( ore ).toLowerCase() );
+			}
+		}
+
+		e.extended = lines.toArray( new String[lines.size()] );
+
+		for( String line : e.extended )
+		{
+			this.addGrams( this.names, line, e.id );
+		}
+	}
+
+	/**
+	 * @return ids of the matching entries, or null if the search is not a valid pattern.
+	 */
+	BitSet search( String search, boolean searchMod, boolean searchTooltips )
+	{
+		final String query = search.toLowerCase();
+
+		this.indexPending( searchTooltips && !query.isEmpty() );
+
+		final int size = this.byId.size();
+		final BitSet matches = new BitSet( size );
+
+		Pattern regex = null;
+		if( !isLiteral( query ) )
+		{
+			try
+			{
+				regex = Pattern.compile( query, Pattern.CASE_INSENSITIVE );
+			}
+			catch( Throwable ignore )
+			{
+				try
+				{
+					regex = Pattern.compile( Pattern.quote( query ), Pattern.CASE_INSENSITIVE );
+				}
+				catch( Throwable __ )
+				{
+					this.lastQuery = null;
+					return null;
+				}
+			}
+		}
+
+		if( query.isEmpty() )
+		{
+			matches.set( 0, size );
+		}
+		else
+		{
+			final BitSet candidates = this.getCandidates( query, regex == null, searchMod, searchTooltips, size );
+
+			for( int id = candidates.nextSetBit( 0 ); id >= 0; id = candidates.nextSetBit( id + 1 ) )
+			{
+				if( this.matches( this.byId.get( id ), query, regex, searchMod, searchTooltips ) )
+				{
+					matches.set( id );
+				}
+			}
+		}
+
+		this.lastQuery = regex == null ? query : null;
+		this.lastSearchMod = searchMod;
+		this.lastSearchTooltips = searchTooltips;
+		this.lastMatches = matches;
+		this.lastSize = size;
+
+		return matches;
+	}
+
+	private BitSet getCandidates( String query, boolean literal, boolean searchMod, boolean searchTooltips, int size )
+	{
+		final BitSet candidates = new BitSet( size );
+
+		if( literal && this.lastQuery != null && query.startsWith( this.lastQuery ) && this.lastSearchMod == searchMod && this.lastSearchTooltips == searchTooltips )
+		{
+			// the search only got longer, anything that matches now matched before.
+			candidates.or( this.lastMatches );
+			candidates.set( this.lastSize, size );
+		}
+		else if( literal && query.length() >= GRAM )
+		{
+			this.addPostings( candidates, searchMod ? this.mods : this.names, query );
+
+			if( searchMod && searchTooltips )
+			{
+				this.addPostings( candidates, this.names, query );
+			}
+		}
+		else
+		{
+			candidates.set( 0, size );
+		}
+
+		return candidates;
+	}
+
+	/**
+	 * adds the entries containing the rarest gram of the query.
+	 */
+	private void addPostings( BitSet candidates, Map<String, IntList> index, String query )
+	{
+		IntList rarest = null;
+
+		for( int x = 0; x + GRAM <= query.length(); x++ )
+		{
+			final IntList postings = index.get( query.substring( x, x + GRAM ) );
+			if( postings == null )
+			{
+				return;
+			}
+
+			if( rarest == null || postings.size < rarest.size )
+			{
+				rarest = postings;
+			}
+		}
+
+		if( rarest != null )
+		{
+			for( int x = 0; x < rarest.size; x++ )
+			{
+				candidates.set( rarest.data[x] );
+			}
+		}
+	}
+
+	private boolean matches( Entry e, String query, Pattern regex, boolean searchMod, boolean searchTooltips )
+	{
+		if( this.find( searchMod ? e.mod : e.name, query, regex ) )
+		{
+			return true;
+		}
+
+		if( searchTooltips && e.extended != null )
+		{
+			for( String line : e.extended )
+			{
+				if( this.find( line, query, regex ) )
+				{
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	private boolean find( String text, String query, Pattern regex )
+	{
+		return regex == null ? text.contains( query ) : regex.matcher( text ).find();
+	}
+
+	private void addGrams( Map<String, IntList> index, String text, int id )
+	{
+		for( int x = 0; x + GRAM <= text.length(); x++ )
+		{
+			final String gram = text.substring( x, x + GRAM );
+
+			IntList postings = index.get( gram );
+			if( postings == null )
+			{
+				index.put( gram, postings = new IntList() );
+			}
+
+			postings.add( id );
+		}
+	}
+
+	private static boolean isLiteral( String query )
+	{
+		for( int x = 0; x < query.length(); x++ )
+		{
+			if( REGEX_CHARS.indexOf( query.charAt( x ) ) >= 0 )
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	static final class Entry
+	{
+
+		final int id;
+		IAEItemStack stack;
+		String displayName;
+		String name;
+		String mod;
+		String[] extended;
+
+		private Entry( int id, IAEItemStack stack )
+		{
+			this.id = id;
+			this.stack = stack;
+		}
+	}
+
+	/**
+	 * entry ids in the order they were indexed.
+	 */
+	private static final class IntList
+	{
+
+		private int[] data = new int[4];
+		private int size = 0;
+
+		private void add( int id )
+		{
+			if( this.size > 0 && this.data[this.size - 1] == id )
+			{
+				return;
+			}
+
+			if( this.size == this.data.length )
+			{
+				final int[] grown = new int[this.size * 2];
+				System.arraycopy( this.data, 0, grown, 0, this.size );
+				this.data = grown;
+			}
+
+			this.data[this.size++] = id;
+		}
+	}
+}
@@ -19,10 +19,13 @@
 package appeng.container.implementations;
 
 
+import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.entity.player.InventoryPlayer;
+import net.minecraft.item.ItemStack;
 
 import appeng.container.AEBaseContainer;
 import appeng.container.slot.SlotRestrictedInput;
+import appeng.me.storage.CellInventory;
 import appeng.tile.storage.TileChest;
 
 
@@ -40,4 +43,12 @@ public class ContainerChest extends AEBaseContainer
 
 		this.bindPlayerInventory( ip, 0, 166 - /* height of player inventory */82 );
 	}
+
+	@Override
+	public ItemStack transferStackInSlot( EntityPlayer p, int idx )
+	{
+		// shift clicking copies the stack before the slot is emptied, so the cell has to be current before that.
+		CellInventory.flushPendingChanges( this.getSlot( idx ).getStack() );
+		return super.transferStackInSlot( p, idx );
+	}
 }
@@ -19,8 +19,10 @@
 package appeng.container.implementations;
 
 
+import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.entity.player.InventoryPlayer;
 import net.minecraft.inventory.IInventory;
+import net.minecraft.item.ItemStack;
 
 import appeng.api.config.FullnessMode;
 import appeng.api.config.OperationMode;
@@ -30,6 +32,7 @@ import appeng.api.config.Settings;
 import appeng.container.guisync.GuiSync;
 import appeng.container.slot.SlotOutput;
 import appeng.container.slot.SlotRestrictedInput;
+import appeng.me.storage.CellInventory;
 import appeng.tile.storage.TileIOPort;
 import appeng.util.Platform;
 
@@ -114,4 +117,12 @@ public class ContainerIOPort extends ContainerUpgradeable
 
 		this.standardDetectAndSendChanges();
 	}
+
+	@Override
+	public ItemStack transferStackInSlot( EntityPlayer p, int idx )
+	{
+		// shift clicking copies the stack before the slot is emptied, so the cell has to be current before that.
+		CellInventory.flushPendingChanges( this.getSlot( idx ).getStack() );
+		return super.transferStackInSlot( p, idx );
+	}
 }
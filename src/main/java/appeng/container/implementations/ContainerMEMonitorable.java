@@ -60,6 +60,7 @@ import appeng.container.AEBaseContainer;
 import appeng.container.guisync.GuiSync;
 import appeng.container.slot.SlotRestrictedInput;
 import appeng.core.AELog;
+import appeng.core.sync.ItemSyncSession;
 import appeng.core.sync.network.NetworkHandler;
 import appeng.core.sync.packets.PacketMEInventoryUpdate;
 import appeng.core.sync.packets.PacketValueConfig;
@@ -84,6 +85,7 @@ public class ContainerMEMonitorable extends AEBaseContainer implements IConfigMa
 	public IConfigManagerHost gui;
 	IConfigManager serverCM;
 	private IGridNode networkNode;
+	private ItemSyncSession syncSession = new ItemSyncSession();
 
 	public ContainerMEMonitorable( InventoryPlayer ip, ITerminalHost monitorable )
 	{
@@ -204,7 +206,7 @@ public class ContainerMEMonitorable extends AEBaseContainer implements IConfigMa
 				{
 					IItemList<IAEItemStack> monitorCache = this.monitor.getStorageList();
 
-					PacketMEInventoryUpdate piu = new PacketMEInventoryUpdate();
+					PacketMEInventoryUpdate piu = new PacketMEInventoryUpdate( (byte) 0, this.syncSession );
 
 					for( IAEItemStack is : this.items )
 					{
@@ -311,7 +313,10 @@ public class ContainerMEMonitorable extends AEBaseContainer implements IConfigMa
 		{
 			try
 			{
-				PacketMEInventoryUpdate piu = new PacketMEInventoryUpdate();
+				// the client gets the full inventory, start over with a fresh dictionary.
+				this.syncSession = new ItemSyncSession();
+
+				PacketMEInventoryUpdate piu = new PacketMEInventoryUpdate( (byte) 0, this.syncSession );
 				IItemList<IAEItemStack> monitorCache = this.monitor.getStorageList();
 
 				for( IAEItemStack send : monitorCache )
@@ -324,7 +329,7 @@ public class ContainerMEMonitorable extends AEBaseContainer implements IConfigMa
 					{
 						NetworkHandler.instance.sendTo( piu, (EntityPlayerMP) c );
 
-						piu = new PacketMEInventoryUpdate();
+						piu = new PacketMEInventoryUpdate( (byte) 0, this.syncSession );
 						piu.appendItem( send );
 					}
 				}
@@ -31,7 +31,6 @@ import net.minecraft.inventory.InventoryCrafting;
 import net.minecraft.inventory.Slot;
 import net.minecraft.inventory.SlotCrafting;
 import net.minecraft.item.ItemStack;
-import net.minecraft.item.crafting.CraftingManager;
 import net.minecraft.item.crafting.IRecipe;
 import net.minecraft.nbt.NBTBase;
 import net.minecraft.nbt.NBTTagCompound;
@@ -161,7 +160,7 @@ public class ContainerPatternTerm extends ContainerMEMonitorable implements IAEA
 			ic.setInventorySlotContents( x, this.crafting.getStackInSlot( x ) );
 		}
 
-		ItemStack is = CraftingManager.getInstance().findMatchingRecipe( ic, this.getPlayerInv().player.worldObj );
+		ItemStack is = Platform.findMatchingRecipeOutput( ic, this.getPlayerInv().player.worldObj );
 		this.cOut.setInventorySlotContents( 0, is );
 		return is;
 	}
@@ -100,6 +100,8 @@ public final class AEConfig extends Configuration implements IConfigurableObject
 	public double meteoriteSpawnChance = 0.3;
 	public int[] meteoriteDimensionWhitelist = new int[] { 0 };
 	public int craftingCalculationTimePerTick = 5;
+	public int craftingCalculationThreads = 2;
+	public int tileUpdatesPerPlayerPerTick = 64;
 	PowerUnits selectedPowerUnit = PowerUnits.AE;
 	private double WirelessBaseCost = 8;
 	private double WirelessCostMultiplier = 1;
@@ -219,6 +221,12 @@ public final class AEConfig extends Configuration implements IConfigurableObject
 		if( this.isFeatureEnabled( AEFeature.CraftingCPU ) )
 		{
 			this.craftingCalculationTimePerTick = this.get( "craftingCPU", "craftingCalculationTimePerTick", this.craftingCalculationTimePerTick ).getInt( this.craftingCalculationTimePerTick );
+			this.craftingCalculationThreads = this.get( "craftingCPU", "craftingCalculationThreads", this.craftingCalculationThreads ).getInt( this.craftingCalculationThreads );
+		}
+
+		if( this.isFeatureEnabled( AEFeature.CoalescedTileUpdates ) )
+		{
+			this.tileUpdatesPerPlayerPerTick = this.get( "tileUpdates", "tileUpdatesPerPlayerPerTick", this.tileUpdatesPerPlayerPerTick ).getInt( this.tileUpdatesPerPlayerPerTick );
 		}
 
 		this.updatable = true;
@@ -36,10 +36,13 @@ import appeng.api.storage.IStorageHelper;
 import appeng.api.storage.data.IAEFluidStack;
 import appeng.api.storage.data.IAEItemStack;
 import appeng.api.storage.data.IItemList;
+import appeng.core.AEConfig;
+import appeng.core.features.AEFeature;
 import appeng.crafting.CraftingLink;
 import appeng.util.Platform;
 import appeng.util.item.AEFluidStack;
 import appeng.util.item.AEItemStack;
+import appeng.util.item.IndexedItemList;
 import appeng.util.item.ItemList;
 
 
@@ -67,15 +70,30 @@ public class ApiStorage implements IStorageHelper
 	@Override
 	public IItemList<IAEItemStack> createItemList()
 	{
+		if( this.useIndexedLists() )
+		{
+			return new IndexedItemList<IAEItemStack>( IAEItemStack.class );
+		}
+
 		return new ItemList<IAEItemStack>( IAEItemStack.class );
 	}
 
 	@Override
 	public IItemList<IAEFluidStack> createFluidList()
 	{
+		if( this.useIndexedLists() )
+		{
+			return new IndexedItemList<IAEFluidStack>( IAEFluidStack.class );
+		}
+
 		return new ItemList<IAEFluidStack>( IAEFluidStack.class );
 	}
 
+	private boolean useIndexedLists()
+	{
+		return AEConfig.instance != null && AEConfig.instance.isFeatureEnabled( AEFeature.IndexedItemList );
+	}
+
 	@Override
 	public IAEItemStack readItemFromPacket( ByteBuf input ) throws IOException
 	{
@@ -71,7 +71,9 @@ public enum AEFeature
 
 	enableDisassemblyCrafting( "Crafting" ), MolecularAssembler( "CraftingFeatures" ), MeteoriteCompass( "Tools" ), Patterns( "CraftingFeatures" ),
 
-	ChunkLoggerTrace( "Commands", false ), LogSecurityAudits( "Misc", false ), Achievements( "Misc" );
+	ChunkLoggerTrace( "Commands", false ), LogSecurityAudits( "Misc", false ), Achievements( "Misc" ),
+
+	IndexedItemList( "Performance" ), IncrementalPathing( "Performance" ), CoalescedTileUpdates( "Performance" );
 
 	public final String category;
 	public final boolean isVisible;
@@ -48,6 +48,7 @@ import appeng.core.sync.packets.PacketPatternSlot;
 import appeng.core.sync.packets.PacketProgressBar;
 import appeng.core.sync.packets.PacketSwapSlots;
 import appeng.core.sync.packets.PacketSwitchGuis;
+import appeng.core.sync.packets.PacketTileUpdates;
 import appeng.core.sync.packets.PacketTransitionEffect;
 import appeng.core.sync.packets.PacketValueConfig;
 
@@ -104,7 +105,9 @@ public class AppEngPacketHandlerBase
 
 		PACKET_COMPRESSED_NBT( PacketCompressedNBT.class ),
 
-		PACKET_PAINTED_ENTITY( PacketPaintedEntity.class );
+		PACKET_PAINTED_ENTITY( PacketPaintedEntity.class ),
+
+		PACKET_TILE_UPDATES( PacketTileUpdates.class );
 
 		private final Class<? extends AppEngPacket> packetClass;
 		private final Constructor<? extends AppEngPacket> packetConstructor;
@@ -0,0 +1,133 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.core.sync;
+
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import appeng.api.storage.data.IAEItemStack;
+
+
+/**
+ * Server side half of the dictionary used by {@link appeng.core.sync.packets.PacketMEInventoryUpdate}.
+ *
+ * Every item definition is sent to the client once per session, afterwards only its dictionary id and how much its
+ * amounts changed since they were last sent. A session belongs to a single container and all its packets have to be
+ * sent to the same client, in order.
+ */
+public class ItemSyncSession
+{
+
+	private static final AtomicInteger NEXT_SESSION = new AtomicInteger();
+
+	private final int sessionId;
+	private final Map<IAEItemStack, Integer> ids = new HashMap<IAEItemStack, Integer>();
+	// the amounts the client has for each id, indexed by id.
+	private long[] stackSizes = new long[16];
+	private long[] countRequestables = new long[16];
+	private boolean started = false;
+
+	public ItemSyncSession()
+	{
+		int id;
+		do
+		{
+			id = NEXT_SESSION.incrementAndGet() & Integer.MAX_VALUE;
+		}
+		while( id == 0 );
+
+		this.sessionId = id;
+	}
+
+	public int getSessionId()
+	{
+		return this.sessionId;
+	}
+
+	/**
+	 * @return true exactly once, for the first packet of this session, which tells the client to drop its dictionary.
+	 */
+	public boolean start()
+	{
+		if( this.started )
+		{
+			return false;
+		}
+
+		this.started = true;
+		return true;
+	}
+
+	/**
+	 * @return the dictionary id of the stack, or -1 if it is not known to the client yet.
+	 */
+	public int getId( IAEItemStack is )
+	{
+		Integer id = this.ids.get( is );
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * assigns the next id to a stack, the client assigns the same id once it reads the definition.
+	 */
+	public int define( IAEItemStack is )
+	{
+		int id = this.ids.size();
+		IAEItemStack key = is.copy();
+		key.reset();
+		this.ids.put( key, id );
+
+		if( id >= this.stackSizes.length )
+		{
+			this.stackSizes = Arrays.copyOf( this.stackSizes, id * 2 );
+			this.countRequestables = Arrays.copyOf( this.countRequestables, id * 2 );
+		}
+
+		this.setAmounts( id, is );
+		return id;
+	}
+
+	/**
+	 * @return the stack size the client was last sent for the id.
+	 */
+	public long getStackSize( int id )
+	{
+		return this.stackSizes[id];
+	}
+
+	/**
+	 * @return the requestable count the client was last sent for the id.
+	 */
+	public long getCountRequestable( int id )
+	{
+		return this.countRequestables[id];
+	}
+
+	/**
+	 * remembers the amounts of the stack as sent to the client, the next delta for its id is relative to them.
+	 */
+	public void setAmounts( int id, IAEItemStack is )
+	{
+		this.stackSizes[id] = is.getStackSize();
+		this.countRequestables[id] = is.getCountRequestable();
+	}
+}
@@ -0,0 +1,400 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+
+package appeng.core.sync;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.server.management.PlayerManager;
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
+
+import appeng.core.AEConfig;
+import appeng.core.AELog;
+import appeng.core.sync.network.NetworkHandler;
+import appeng.core.sync.packets.PacketTileUpdates;
+import appeng.tile.AEBaseTile;
+
+
+/**
+ * Collects {@link AEBaseTile#markForUpdate()} calls on the server and sends them once per tick, instead of a
+ * description packet per call.
+ *
+ * Marks are grouped per chunk and repeated marks of the same tile within a tick, or while an earlier update is still
+ * waiting for a player, are merged. Each player receives at most {@link AEConfig#tileUpdatesPerPlayerPerTick} tile
+ * updates per tick, closest tiles first, updates which had to wait gain priority so distant tiles are not starved. All
+ * updates for a player are bundled into as few {@link PacketTileUpdates} as possible, the tile data is written once
+ * per tick, when the update is actually sent, so it is always current.
+ */
+public final class TileUpdateCoalescer
+{
+
+	public static final TileUpdateCoalescer INSTANCE = new TileUpdateCoalescer();
+
+	/**
+	 * bundles are split once their tile data reaches this size.
+	 */
+	private static final int MAX_BUNDLE_BYTES = 32 * 1024;
+	private static final byte[] NO_DATA = new byte[0];
+
+	private final Map<World, Map<Long, Set<AEBaseTile>>> marked = new WeakHashMap<World, Map<Long, Set<AEBaseTile>>>();
+	private final Map<EntityPlayerMP, PlayerQueue> players = new WeakHashMap<EntityPlayerMP, PlayerQueue>();
+	private long tick = 0;
+
+	private long marks = 0;
+	private long suppressed = 0;
+	private long sent = 0;
+	private long deferred = 0;
+	private long packets = 0;
+
+	private TileUpdateCoalescer()
+	{
+	}
+
+	public synchronized void markForUpdate( AEBaseTile tile )
+	{
+		this.marks++;
+
+		final World world = tile.getWorldObj();
+		Map<Long, Set<AEBaseTile>> chunks = this.marked.get( world );
+		if( chunks == null )
+		{
+			this.marked.put( world, chunks = new HashMap<Long, Set<AEBaseTile>>() );
+		}
+
+		final Long chunk = ChunkCoordIntPair.chunkXZ2Int( tile.xCoord >> 4, tile.zCoord >> 4 );
+		Set<AEBaseTile> tiles = chunks.get( chunk );
+		if( tiles == null )
+		{
+			chunks.put( chunk, tiles = new LinkedHashSet<AEBaseTile>() );
+		}
+
+		if( !tiles.add( tile ) )
+		{
+			this.suppressed++;
+		}
+	}
+
+	/**
+	 * called once per server tick, after everything else had a chance to mark its tiles.
+	 */
+	public synchronized void tick()
+	{
+		this.tick++;
+
+		for( Map.Entry<World, Map<Long, Set<AEBaseTile>>> e : this.marked.entrySet() )
+		{
+			if( e.getKey() instanceof WorldServer )
+			{
+				this.queueForWatchers( (WorldServer) e.getKey(), e.getValue().values() );
+			}
+		}
+		this.marked.clear();
+
+		if( this.players.isEmpty() )
+		{
+			return;
+		}
+
+		final Map<AEBaseTile, byte[]> payloads = new IdentityHashMap<AEBaseTile, byte[]>();
+		final Iterator<Map.Entry<EntityPlayerMP, PlayerQueue>> i = this.players.entrySet().iterator();
+
+		while( i.hasNext() )
+		{
+			final Map.Entry<EntityPlayerMP, PlayerQueue> e = i.next();
+			final EntityPlayerMP player = e.getKey();
+			final PlayerQueue queue = e.getValue();
+
+			if( player.isDead || player.worldObj != queue.world )
+			{
+				i.remove();
+				continue;
+			}
+
+			this.send( player, queue, payloads );
+
+			if( queue.pending.isEmpty() )
+			{
+				i.remove();
+			}
+		}
+	}
+
+	public synchronized void unloadWorld( World world )
+	{
+		this.marked.remove( world );
+
+		final Iterator<PlayerQueue> i = this.players.values().iterator();
+		while( i.hasNext() )
+		{
+			if( i.next().world == world )
+			{
+				i.remove();
+			}
+		}
+	}
+
+	public synchronized void clear()
+	{
+		this.marked.clear();
+		this.players.clear();
+	}
+
+	private void queueForWatchers( WorldServer world, Collection<Set<AEBaseTile>> chunks )
+	{
+		final PlayerManager pm = world.getPlayerManager();
+
+		for( Set<AEBaseTile> tiles : chunks )
+		{
+			final AEBaseTile first = tiles.iterator().next();
+			final int cx = first.xCoord >> 4;
+			final int cz = first.zCoord >> 4;
+
+			for( Object o : world.playerEntities )
+			{
+				final EntityPlayerMP player = (EntityPlayerMP) o;
+
+				// players not watching the chunk get the current state with the chunk itself.
+				if( pm.isPlayerWatchingChunk( player, cx, cz ) )
+				{
+					PlayerQueue queue = this.players.get( player );
+					if( queue == null || queue.world != world )
+					{
+						this.players.put( player, queue = new PlayerQueue( world ) );
+					}
+
+					for( AEBaseTile tile : tiles )
+					{
+						if( queue.pending.containsKey( tile ) )
+						{
+							this.suppressed++;
+						}
+						else
+						{
+							queue.pending.put( tile, this.tick );
+						}
+					}
+				}
+			}
+		}
+	}
+
+	private void send( EntityPlayerMP player, PlayerQueue queue, Map<AEBaseTile, byte[]> payloads )
+	{
+		final int limit = AEConfig.instance.tileUpdatesPerPlayerPerTick;
+		final List<AEBaseTile> selected;
+
+		if( limit <= 0 || queue.pending.size() <= limit )
+		{
+			selected = new ArrayList<AEBaseTile>( queue.pending.keySet() );
+			queue.pending.clear();
+		}
+		else
+		{
+			final AEBaseTile[] candidates = queue.pending.keySet().toArray( new AEBaseTile[queue.pending.size()] );
+			Arrays.sort( candidates, new UpdatePriority( player, queue, this.tick ) );
+
+			selected = Arrays.asList( candidates ).subList( 0, limit );
+			for( AEBaseTile tile : selected )
+			{
+				queue.pending.remove( tile );
+			}
+
+			this.deferred += queue.pending.size();
+		}
+
+		final int dimension = queue.world.provider.dimensionId;
+		final List<AEBaseTile> bundleTiles = new ArrayList<AEBaseTile>();
+		final List<byte[]> bundleData = new ArrayList<byte[]>();
+		int bundleBytes = 0;
+
+		for( AEBaseTile tile : selected )
+		{
+			if( tile.isInvalid() || tile.getWorldObj() != queue.world )
+			{
+				continue;
+			}
+
+			byte[] data = payloads.get( tile );
+			if( data == null )
+			{
+				payloads.put( tile, data = this.writeTile( tile ) );
+			}
+
+			if( data.length == 0 )
+			{
+				continue;
+			}
+
+			bundleTiles.add( tile );
+			bundleData.add( data );
+			bundleBytes += data.length;
+
+			if( bundleBytes >= MAX_BUNDLE_BYTES )
+			{
+				this.sendBundle( player, dimension, bundleTiles, bundleData );
+				bundleTiles.clear();
+				bundleData.clear();
+				bundleBytes = 0;
+			}
+		}
+
+		if( !bundleTiles.isEmpty() )
+		{
+			this.sendBundle( player, dimension, bundleTiles, bundleData );
+		}
+	}
+
+	private byte[] writeTile( AEBaseTile tile )
+	{
+		final ByteBuf stream = Unpooled.buffer();
+		tile.writeToStream( stream );
+
+		if( stream.readableBytes() == 0 )
+		{
+			return NO_DATA;
+		}
+
+		final byte[] data = new byte[stream.readableBytes()];
+		stream.readBytes( data );
+		return data;
+	}
+
+	private void sendBundle( EntityPlayerMP player, int dimension, List<AEBaseTile> tiles, List<byte[]> data )
+	{
+		try
+		{
+			NetworkHandler.instance.sendTo( new PacketTileUpdates( dimension, tiles, data ), player );
+			this.sent += tiles.size();
+			this.packets++;
+		}
+		catch( Throwable t )
+		{
+			AELog.error( t );
+		}
+	}
+
+	public synchronized long getMarks()
+	{
+		return this.marks;
+	}
+
+	public synchronized long getSuppressed()
+	{
+		return this.suppressed;
+	}
+
+	public synchronized long getSent()
+	{
+		return this.sent;
+	}
+
+	public synchronized long getDeferred()
+	{
+		return this.deferred;
+	}
+
+	public synchronized long getPackets()
+	{
+		return this.packets;
+	}
+
+	public synchronized int getPending()
+	{
+		int pending = 0;
+		for( PlayerQueue queue : this.players.values() )
+		{
+			pending += queue.pending.size();
+		}
+		return pending;
+	}
+
+	private static final class PlayerQueue
+	{
+
+		private final World world;
+
+		/**
+		 * tiles waiting to be sent, with the tick they were queued in.
+		 */
+		private final Map<AEBaseTile, Long> pending = new LinkedHashMap<AEBaseTile, Long>();
+
+		private PlayerQueue( World world )
+		{
+			this.world = world;
+		}
+	}
+
+	/**
+	 * closest first, the distance is divided by the number of ticks the update has been waiting.
+	 */
+	private static final class UpdatePriority implements Comparator<AEBaseTile>
+	{
+
+		private final EntityPlayerMP player;
+		private final PlayerQueue queue;
+		private final long tick;
+		private final Map<AEBaseTile, Double> scores = new IdentityHashMap<AEBaseTile, Double>();
+
+		private UpdatePriority( EntityPlayerMP player, PlayerQueue queue, long tick )
+		{
+			this.player = player;
+			this.queue = queue;
+			this.tick = tick;
+		}
+
+		@Override
+		public int compare( AEBaseTile a, AEBaseTile b )
+		{
+			return Double.compare( this.score( a ), this.score( b ) );
+		}
+
+		private double score( AEBaseTile tile )
+		{
+			Double score = this.scores.get( tile );
+
+			if( score == null )
+			{
+				final double distance = this.player.getDistanceSq( tile.xCoord + 0.5, tile.yCoord + 0.5, tile.zCoord + 0.5 );
+				final long waited = this.tick - this.queue.pending.get( tile );
+				this.scores.put( tile, score = distance / ( 1 + waited ) );
+			}
+
+			return score;
+		}
+	}
+}
@@ -20,13 +20,13 @@ package appeng.core.sync.packets;
 
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.nio.BufferOverflowException;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 import javax.annotation.Nullable;
 
@@ -46,18 +46,62 @@ import appeng.client.gui.implementations.GuiCraftConfirm;
 import appeng.client.gui.implementations.GuiCraftingCPU;
 import appeng.client.gui.implementations.GuiMEMonitorable;
 import appeng.client.gui.implementations.GuiNetworkStatus;
-import appeng.core.AELog;
 import appeng.core.sync.AppEngPacket;
+import appeng.core.sync.ItemSyncSession;
 import appeng.core.sync.network.INetworkInfo;
 import appeng.util.item.AEItemStack;
 
 
+/**
+ * Sends a list of item stacks to the client, deflated.
+ *
+ * Packets created with an {@link ItemSyncSession} only send each item definition once per session, after that a stack
+ * is sent as its dictionary id and the signed change of its amounts since the session last sent them.
+ */
 public class PacketMEInventoryUpdate extends AppEngPacket
 {
 	private static final int UNCOMPRESSED_PACKET_BYTE_LIMIT = 16 * 1024 * 1024;
 	private static final int OPERATION_BYTE_LIMIT = 2 * 1024;
-	private static final int TEMP_BUFFER_SIZE = 1024;
-	private static final int STREAM_MASK = 0xff;
+	private static final int TEMP_BUFFER_SIZE = 8 * 1024;
+
+	private static final int FLAG_SESSION = 1;
+	private static final int FLAG_RESET = 2;
+
+	private static final int RECORD_CRAFTABLE = 1;
+	private static final int RECORD_DEFINITION = 2;
+	private static final int RECORD_SHIFT = 2;
+
+	// packets are built and sent on the server thread, one deflater is reused for all of them.
+	private static final ThreadLocal<Deflater> DEFLATER = new ThreadLocal<Deflater>()
+	{
+		@Override
+		protected Deflater initialValue()
+		{
+			return new Deflater( Deflater.DEFAULT_COMPRESSION );
+		}
+	};
+
+	private static final ThreadLocal<Inflater> INFLATER = new ThreadLocal<Inflater>()
+	{
+		@Override
+		protected Inflater initialValue()
+		{
+			return new Inflater();
+		}
+	};
+
+	private static final ThreadLocal<byte[]> TEMP_BUFFER = new ThreadLocal<byte[]>()
+	{
+		@Override
+		protected byte[] initialValue()
+		{
+			return new byte[TEMP_BUFFER_SIZE];
+		}
+	};
+
+	// client side dictionary, packets are decoded on a single network thread.
+	private static final List<IAEItemStack> CLIENT_DICTIONARY = new ArrayList<IAEItemStack>();
+	private static int clientSession = 0;
 
 	// input.
 	@Nullable
@@ -66,55 +110,95 @@ public class PacketMEInventoryUpdate extends AppEngPacket
 	private final byte ref;
 
 	@Nullable
-	private final ByteBuf data;
+	private final ByteBuf uncompressed;
 	@Nullable
-	private final GZIPOutputStream compressFrame;
+	private final ItemSyncSession session;
 
-	private int writtenBytes = 0;
+	// the compressed packet, kept until another item is appended.
+	@Nullable
+	private ByteBuf data;
+	private boolean reset = false;
+	private boolean compressed = false;
 	private boolean empty = true;
 
 	// automatic.
 	public PacketMEInventoryUpdate( final ByteBuf stream ) throws IOException
 	{
-		this.data = null;
-		this.compressFrame = null;
+		this.uncompressed = null;
+		this.session = null;
 		this.list = new LinkedList<IAEItemStack>();
 		this.ref = stream.readByte();
 
-		// int originalBytes = stream.readableBytes();
-
-		GZIPInputStream gzReader = new GZIPInputStream( new InputStream()
-		{
-			@Override
-			public int read() throws IOException
-			{
-				if( stream.readableBytes() <= 0 )
-				{
-					return -1;
-				}
+		final int flags = stream.readByte();
+		final int sessionId = readVarInt( stream );
 
-				return stream.readByte() & STREAM_MASK;
-			}
-		} );
+		final ByteBuf data = inflate( stream );
 
-		ByteBuf uncompressed = Unpooled.buffer( stream.readableBytes() );
-		byte[] tmp = new byte[TEMP_BUFFER_SIZE];
-		while( gzReader.available() != 0 )
+		if( ( flags & FLAG_SESSION ) == 0 )
 		{
-			int bytes = gzReader.read( tmp );
-			if( bytes > 0 )
+			while( data.readableBytes() > 0 )
 			{
-				uncompressed.writeBytes( tmp, 0, bytes );
+				this.list.add( AEItemStack.loadItemStackFromPacket( data ) );
 			}
 		}
-		gzReader.close();
+		else
+		{
+			synchronized( CLIENT_DICTIONARY )
+			{
+				if( ( flags & FLAG_RESET ) != 0 )
+				{
+					CLIENT_DICTIONARY.clear();
+					clientSession = sessionId;
+				}
 
-		// int uncompressedBytes = uncompressed.readableBytes();
-		// AELog.info( "Receiver: " + originalBytes + " -> " + uncompressedBytes );
+				final boolean known = clientSession == sessionId;
 
-		while( uncompressed.readableBytes() > 0 )
-		{
-			this.list.add( AEItemStack.loadItemStackFromPacket( uncompressed ) );
+				while( data.readableBytes() > 0 )
+				{
+					final int header = readVarInt( data );
+					final int id = header >>> RECORD_SHIFT;
+
+					final IAEItemStack is;
+					if( ( header & RECORD_DEFINITION ) != 0 )
+					{
+						is = AEItemStack.loadItemStackFromPacket( data );
+
+						if( known )
+						{
+							while( CLIENT_DICTIONARY.size() <= id )
+							{
+								CLIENT_DICTIONARY.add( null );
+							}
+
+							// unknown items still take their id.
+							CLIENT_DICTIONARY.set( id, is == null ? null : is.copy() );
+						}
+					}
+					else
+					{
+						final long stackSizeDelta = readSignedVarLong( data );
+						final long countRequestableDelta = readSignedVarLong( data );
+						final IAEItemStack definition = known && id < CLIENT_DICTIONARY.size() ? CLIENT_DICTIONARY.get( id ) : null;
+
+						if( definition == null )
+						{
+							continue;
+						}
+
+						// the dictionary keeps the amounts the deltas are relative to.
+						definition.setStackSize( definition.getStackSize() + stackSizeDelta );
+						definition.setCountRequestable( definition.getCountRequestable() + countRequestableDelta );
+
+						is = definition.copy();
+						is.setCraftable( ( header & RECORD_CRAFTABLE ) != 0 );
+					}
+
+					if( is != null )
+					{
+						this.list.add( is );
+					}
+				}
+			}
 		}
 
 		this.empty = this.list.isEmpty();
@@ -128,22 +212,108 @@ public class PacketMEInventoryUpdate extends AppEngPacket
 
 	// api
 	public PacketMEInventoryUpdate( byte ref ) throws IOException
+	{
+		this( ref, null );
+	}
+
+	/**
+	 * @param session dictionary shared by all packets for one client, or null to send every stack in full.
+	 */
+	public PacketMEInventoryUpdate( byte ref, @Nullable ItemSyncSession session ) throws IOException
 	{
 		this.ref = ref;
-		this.data = Unpooled.buffer( OPERATION_BYTE_LIMIT );
-		this.data.writeInt( this.getPacketID() );
-		this.data.writeByte( this.ref );
+		this.session = session;
+		this.list = null;
+		this.uncompressed = Unpooled.buffer( OPERATION_BYTE_LIMIT );
+	}
+
+	private static ByteBuf inflate( ByteBuf stream ) throws IOException
+	{
+		final byte[] input = new byte[stream.readableBytes()];
+		stream.readBytes( input );
 
-		this.compressFrame = new GZIPOutputStream( new OutputStream()
+		final Inflater inflater = INFLATER.get();
+		final byte[] tmp = TEMP_BUFFER.get();
+		final ByteBuf out = Unpooled.buffer( input.length * 4 );
+
+		inflater.reset();
+		inflater.setInput( input );
+
+		try
 		{
-			@Override
-			public void write( int value ) throws IOException
+			while( !inflater.finished() )
 			{
-				PacketMEInventoryUpdate.this.data.writeByte( value );
+				final int bytes = inflater.inflate( tmp );
+				if( bytes > 0 )
+				{
+					out.writeBytes( tmp, 0, bytes );
+				}
+				else if( inflater.needsInput() || inflater.needsDictionary() )
+				{
+					throw new IOException( "Truncated ME inventory update." );
+				}
+
+				if( out.readableBytes() > UNCOMPRESSED_PACKET_BYTE_LIMIT )
+				{
+					throw new IOException( "ME inventory update is too large." );
+				}
 			}
-		} );
+		}
+		catch( DataFormatException e )
+		{
+			throw new IOException( e );
+		}
 
-		this.list = null;
+		return out;
+	}
+
+	private static void writeVarInt( ByteBuf out, int value )
+	{
+		writeVarLong( out, value & 0xffffffffL );
+	}
+
+	private static int readVarInt( ByteBuf in )
+	{
+		return (int) readVarLong( in );
+	}
+
+	private static void writeVarLong( ByteBuf out, long value )
+	{
+		while( ( value & ~0x7fL ) != 0 )
+		{
+			out.writeByte( (int) ( value & 0x7f ) | 0x80 );
+			value >>>= 7;
+		}
+
+		out.writeByte( (int) value );
+	}
+
+	private static void writeSignedVarLong( ByteBuf out, long value )
+	{
+		writeVarLong( out, ( value << 1 ) ^ ( value >> 63 ) );
+	}
+
+	private static long readSignedVarLong( ByteBuf in )
+	{
+		final long value = readVarLong( in );
+		return ( value >>> 1 ) ^ -( value & 1 );
+	}
+
+	private static long readVarLong( ByteBuf in )
+	{
+		long value = 0;
+		int shift = 0;
+		byte b;
+
+		do
+		{
+			b = in.readByte();
+			value |= (long) ( b & 0x7f ) << shift;
+			shift += 7;
+		}
+		while( ( b & 0x80 ) != 0 && shift < 64 );
+
+		return value;
 	}
 
 	@Override
@@ -177,42 +347,118 @@ public class PacketMEInventoryUpdate extends AppEngPacket
 	@Override
 	public FMLProxyPacket getProxy()
 	{
+		if( !this.compressed )
+		{
+			this.compressed = true;
+			this.configureWrite( this.getData() );
+		}
+
+		return super.getProxy();
+	}
+
+	/**
+	 * @return the whole packet, deflated with the deflater of this thread.
+	 */
+	private ByteBuf getData()
+	{
+		if( this.data != null )
+		{
+			return this.data;
+		}
+
+		int flags = 0;
+		if( this.session != null )
+		{
+			flags |= FLAG_SESSION;
+			if( this.reset )
+			{
+				flags |= FLAG_RESET;
+			}
+		}
+
+		final Deflater deflater = DEFLATER.get();
+		final byte[] tmp = TEMP_BUFFER.get();
+		final ByteBuf out = Unpooled.buffer( OPERATION_BYTE_LIMIT + this.uncompressed.readableBytes() / 4 );
+
+		out.writeInt( this.getPacketID() );
+		out.writeByte( this.ref );
+		out.writeByte( flags );
+		writeVarInt( out, this.session == null ? 0 : this.session.getSessionId() );
+
 		try
 		{
-			this.compressFrame.close();
+			deflater.setInput( this.uncompressed.array(), this.uncompressed.arrayOffset() + this.uncompressed.readerIndex(), this.uncompressed.readableBytes() );
+			deflater.finish();
 
-			this.configureWrite( this.data );
-			return super.getProxy();
+			while( !deflater.finished() )
+			{
+				final int bytes = deflater.deflate( tmp );
+				out.writeBytes( tmp, 0, bytes );
+			}
 		}
-		catch( IOException e )
+		finally
 		{
-			AELog.error( e );
+			// ready for the next packet, even if this one failed.
+			deflater.reset();
 		}
 
-		return null;
+		return this.data = out;
 	}
 
 	public void appendItem( IAEItemStack is ) throws IOException, BufferOverflowException
 	{
-		ByteBuf tmp = Unpooled.buffer( OPERATION_BYTE_LIMIT );
-		is.writeToPacket( tmp );
-
-		this.compressFrame.flush();
-		if( this.writtenBytes + tmp.readableBytes() > UNCOMPRESSED_PACKET_BYTE_LIMIT )
+		if( this.uncompressed.readableBytes() + OPERATION_BYTE_LIMIT > UNCOMPRESSED_PACKET_BYTE_LIMIT )
 		{
 			throw new BufferOverflowException();
 		}
+
+		if( this.compressed )
+		{
+			throw new IllegalStateException( "Packet was already sent." );
+		}
+
+		this.data = null;
+
+		if( this.session == null )
+		{
+			is.writeToPacket( this.uncompressed );
+		}
 		else
 		{
-			this.writtenBytes += tmp.readableBytes();
-			this.compressFrame.write( tmp.array(), 0, tmp.readableBytes() );
-			this.empty = false;
+			if( this.empty && this.session.start() )
+			{
+				this.reset = true;
+			}
+
+			final int craftable = is.isCraftable() ? RECORD_CRAFTABLE : 0;
+			final int id = this.session.getId( is );
+
+			if( id < 0 )
+			{
+				writeVarInt( this.uncompressed, ( this.session.define( is ) << RECORD_SHIFT ) | RECORD_DEFINITION | craftable );
+				is.writeToPacket( this.uncompressed );
+			}
+			else
+			{
+				writeVarInt( this.uncompressed, ( id << RECORD_SHIFT ) | craftable );
+				writeSignedVarLong( this.uncompressed, is.getStackSize() - this.session.getStackSize( id ) );
+				writeSignedVarLong( this.uncompressed, is.getCountRequestable() - this.session.getCountRequestable( id ) );
+				this.session.setAmounts( id, is );
+			}
 		}
+
+		this.empty = false;
 	}
 
+	/**
+	 * Compresses the packet so far, the result is kept until the next item is appended, so checking the length once
+	 * per batch of items is cheap.
+	 *
+	 * @return the size of the packet, compressed.
+	 */
 	public int getLength()
 	{
-		return this.data.readableBytes();
+		return this.getData().readableBytes();
 	}
 
 	public boolean isEmpty()
@@ -0,0 +1,132 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+
+package appeng.core.sync.packets;
+
+
+import java.util.List;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.world.World;
+
+import cpw.mods.fml.relauncher.Side;
+import cpw.mods.fml.relauncher.SideOnly;
+
+import appeng.core.sync.AppEngPacket;
+import appeng.core.sync.TileUpdateCoalescer;
+import appeng.core.sync.network.INetworkInfo;
+import appeng.tile.AEBaseTile;
+
+
+/**
+ * Carries the {@link AEBaseTile#writeToStream(ByteBuf)} data of several tiles of one dimension, sent by
+ * {@link TileUpdateCoalescer} instead of one description packet per tile.
+ */
+public class PacketTileUpdates extends AppEngPacket
+{
+
+	private final int dimension;
+	private final int[] x;
+	private final int[] y;
+	private final int[] z;
+	private final byte[][] payloads;
+
+	// automatic.
+	public PacketTileUpdates( ByteBuf stream )
+	{
+		this.dimension = stream.readInt();
+
+		final int count = stream.readInt();
+		this.x = new int[count];
+		this.y = new int[count];
+		this.z = new int[count];
+		this.payloads = new byte[count][];
+
+		for( int i = 0; i < count; i++ )
+		{
+			this.x[i] = stream.readInt();
+			this.y[i] = stream.readUnsignedByte();
+			this.z[i] = stream.readInt();
+			this.payloads[i] = new byte[stream.readInt()];
+			stream.readBytes( this.payloads[i] );
+		}
+	}
+
+	// api
+	public PacketTileUpdates( int dimension, List<AEBaseTile> tiles, List<byte[]> payloads )
+	{
+		final int count = tiles.size();
+		this.dimension = dimension;
+		this.x = new int[count];
+		this.y = new int[count];
+		this.z = new int[count];
+		this.payloads = new byte[count][];
+
+		ByteBuf data = Unpooled.buffer();
+
+		data.writeInt( this.getPacketID() );
+		data.writeInt( dimension );
+		data.writeInt( count );
+
+		for( int i = 0; i < count; i++ )
+		{
+			final AEBaseTile tile = tiles.get( i );
+			data.writeInt( this.x[i] = tile.xCoord );
+			data.writeByte( this.y[i] = tile.yCoord );
+			data.writeInt( this.z[i] = tile.zCoord );
+			this.payloads[i] = payloads.get( i );
+			data.writeInt( this.payloads[i].length );
+			data.writeBytes( this.payloads[i] );
+		}
+
+		this.configureWrite( data );
+	}
+
+	@Override
+	@SideOnly( Side.CLIENT )
+	public void clientPacketData( INetworkInfo network, AppEngPacket packet, EntityPlayer player )
+	{
+		final World world = player.getEntityWorld();
+
+		if( world == null || world.provider.dimensionId != this.dimension )
+		{
+			return;
+		}
+
+		for( int i = 0; i < this.payloads.length; i++ )
+		{
+			if( !world.blockExists( this.x[i], this.y[i], this.z[i] ) )
+			{
+				continue;
+			}
+
+			final TileEntity te = world.getTileEntity( this.x[i], this.y[i], this.z[i] );
+
+			// same as a description packet, see AEBaseTile.onDataPacket
+			if( te instanceof AEBaseTile && ( (AEBaseTile) te ).readFromStream( Unpooled.wrappedBuffer( this.payloads[i] ) ) )
+			{
+				( (AEBaseTile) te ).markForUpdate();
+			}
+		}
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.core.worlddata;
+
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import javax.annotation.Nonnull;
+
+import appeng.core.AELog;
+
+
+/**
+ * One bit per chunk of a square area, kept in a memory mapped file so setting a flag never rewrites anything.
+ */
+final class GeneratedChunkFlags
+{
+	static final int AREA_BITS = 9;
+	private static final int AREA_MASK = ( 1 << AREA_BITS ) - 1;
+	private static final int FILE_SIZE = ( 1 << ( AREA_BITS * 2 ) ) / 8;
+
+	@Nonnull
+	private final ByteBuffer bits;
+	private final RandomAccessFile file;
+
+	private GeneratedChunkFlags( @Nonnull final ByteBuffer bits, final RandomAccessFile file )
+	{
+		this.bits = bits;
+		this.file = file;
+	}
+
+	/**
+	 * maps the file, if that fails the flags are kept in memory only, so world generation can go on.
+	 */
+	@Nonnull
+	static GeneratedChunkFlags open( @Nonnull final File location )
+	{
+		RandomAccessFile raf = null;
+
+		try
+		{
+			raf = new RandomAccessFile( location, "rw" );
+			if( raf.length() < FILE_SIZE )
+			{
+				raf.setLength( FILE_SIZE );
+			}
+
+			final MappedByteBuffer mapped = raf.getChannel().map( FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE );
+			return new GeneratedChunkFlags( mapped, raf );
+		}
+		catch( IOException e )
+		{
+			AELog.error( e );
+			close( raf );
+			return new GeneratedChunkFlags( ByteBuffer.allocate( FILE_SIZE ), null );
+		}
+	}
+
+	private static int bitIndex( final int chunkX, final int chunkZ )
+	{
+		return ( ( chunkZ & AREA_MASK ) << AREA_BITS ) | ( chunkX & AREA_MASK );
+	}
+
+	boolean get( final int chunkX, final int chunkZ )
+	{
+		final int index = bitIndex( chunkX, chunkZ );
+		return ( this.bits.get( index >> 3 ) & ( 1 << ( index & 7 ) ) ) != 0;
+	}
+
+	/**
+	 * not atomic, callers lock the region of the chunk.
+	 */
+	void set( final int chunkX, final int chunkZ )
+	{
+		final int index = bitIndex( chunkX, chunkZ );
+		final byte old = this.bits.get( index >> 3 );
+		this.bits.put( index >> 3, (byte) ( old | ( 1 << ( index & 7 ) ) ) );
+	}
+
+	void force()
+	{
+		if( this.bits instanceof MappedByteBuffer )
+		{
+			( (MappedByteBuffer) this.bits ).force();
+		}
+	}
+
+	void close()
+	{
+		this.force();
+		close( this.file );
+	}
+
+	private static void close( final RandomAccessFile raf )
+	{
+		if( raf != null )
+		{
+			try
+			{
+				raf.close();
+			}
+			catch( IOException e )
+			{
+				AELog.error( e );
+			}
+		}
+	}
+}
@@ -0,0 +1,440 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.core.worlddata;
+
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import appeng.core.AELog;
+
+
+/**
+ * Binary store of grid storage blobs by id.
+ *
+ * The file is a log of records, each an id, a length and a checksum followed by the blob, or a length of -1 for a
+ * removed id. Loading only reads the record headers to index where the latest blob of each id is, blobs are read when
+ * asked for. Writes are kept until {@link #flush()} appends them, unchanged blobs are not written again. Once more
+ * than half the file is superseded records it is compacted into a new file.
+ */
+final class GridStorageStore
+{
+	private static final int MAGIC = 0x41453247; // AE2G
+	private static final int VERSION = 1;
+	private static final int FILE_HEADER = 8;
+	private static final int RECORD_HEADER = 16;
+	private static final int REMOVED = -1;
+	private static final long MIN_COMPACT_SIZE = 1 << 16;
+
+	@Nonnull
+	private final File location;
+	private final Map<Long, Entry> index = new HashMap<Long, Entry>();
+	private final Map<Long, byte[]> pending = new LinkedHashMap<Long, byte[]>();
+	private RandomAccessFile file;
+	private long end;
+	private long dead;
+
+	GridStorageStore( @Nonnull final File location )
+	{
+		this.location = location;
+	}
+
+	boolean exists()
+	{
+		return this.location.isFile() || this.getBackup().isFile();
+	}
+
+	private File getBackup()
+	{
+		return new File( this.location.getPath() + ".bak" );
+	}
+
+	private File getTemporary()
+	{
+		return new File( this.location.getPath() + ".tmp" );
+	}
+
+	int size()
+	{
+		return this.index.size();
+	}
+
+	long getFileSize()
+	{
+		return this.end;
+	}
+
+	void open() throws IOException
+	{
+		// a compaction was interrupted between the two renames.
+		if( !this.location.isFile() && this.getBackup().isFile() && !this.getBackup().renameTo( this.location ) )
+		{
+			throw new IOException( "Unable to restore " + this.getBackup().getAbsolutePath() );
+		}
+
+		this.index.clear();
+		this.dead = 0;
+		this.end = this.location.isFile() ? this.readIndex() : FILE_HEADER;
+
+		this.file = new RandomAccessFile( this.location, "rw" );
+
+		if( this.file.length() != this.end )
+		{
+			// a new file, or a record cut short by a crash.
+			this.file.setLength( this.end );
+		}
+
+		if( this.end == FILE_HEADER )
+		{
+			this.file.seek( 0 );
+			this.file.writeInt( MAGIC );
+			this.file.writeInt( VERSION );
+		}
+	}
+
+	/**
+	 * moves a file which could not be opened out of the way, as {@code .corrupt}, and opens an empty store instead.
+	 *
+	 * @return the file the old store was moved to
+	 */
+	@Nonnull
+	File openEmpty() throws IOException
+	{
+		if( this.file != null )
+		{
+			try
+			{
+				this.file.close();
+			}
+			catch( IOException e )
+			{
+				// :P
+			}
+
+			this.file = null;
+		}
+
+		final File corrupt = new File( this.location.getPath() + ".corrupt" );
+		final File damaged = this.location.isFile() ? this.location : this.getBackup();
+
+		if( damaged.isFile() && ( ( corrupt.isFile() && !corrupt.delete() ) || !damaged.renameTo( corrupt ) ) )
+		{
+			throw new IOException( "Unable to move " + damaged.getAbsolutePath() + " to " + corrupt.getAbsolutePath() );
+		}
+
+		this.pending.clear();
+		this.open();
+
+		return corrupt;
+	}
+
+	/**
+	 * @return where the last complete record ends
+	 */
+	private long readIndex() throws IOException
+	{
+		final long length = this.location.length();
+		final DataInputStream in = new DataInputStream( new BufferedInputStream( new FileInputStream( this.location ) ) );
+
+		try
+		{
+			if( length < FILE_HEADER || in.readInt() != MAGIC || in.readInt() != VERSION )
+			{
+				throw new IOException( this.location.getAbsolutePath() + " is not a grid storage file." );
+			}
+
+			long position = FILE_HEADER;
+
+			while( position + RECORD_HEADER <= length )
+			{
+				final long id = in.readLong();
+				final int size = in.readInt();
+				final int checksum = in.readInt();
+				int unread = size;
+				final long payload = position + RECORD_HEADER;
+
+				if( size != REMOVED && ( size < 0 || payload + size > length ) )
+				{
+					break;
+				}
+
+				// the last record is the one a crash can have left half written.
+				if( size > 0 && payload + size == length )
+				{
+					final byte[] data = new byte[size];
+					in.readFully( data );
+
+					if( checksum( data ) != checksum )
+					{
+						AELog.warning( "Dropping the damaged last record of %s.", this.location.getAbsolutePath() );
+						break;
+					}
+
+					unread = 0;
+				}
+
+				final Entry old = size == REMOVED ? this.index.remove( id ) : this.index.put( id, new Entry( payload, size, checksum ) );
+				this.dead += ( old == null ? 0 : RECORD_HEADER + old.size ) + ( size == REMOVED ? RECORD_HEADER : 0 );
+
+				if( unread > 0 )
+				{
+					in.skipBytes( unread );
+				}
+
+				position = payload + Math.max( size, 0 );
+			}
+
+			return position;
+		}
+		catch( EOFException e )
+		{
+			throw new IOException( this.location.getAbsolutePath() + " ended early." );
+		}
+		finally
+		{
+			in.close();
+		}
+	}
+
+	/**
+	 * @return the blob, or null for an unknown id or a blob which does not match its checksum
+	 */
+	@Nullable
+	byte[] get( final long id ) throws IOException
+	{
+		if( this.pending.containsKey( id ) )
+		{
+			return this.pending.get( id );
+		}
+
+		final Entry e = this.index.get( id );
+		if( e == null )
+		{
+			return null;
+		}
+
+		final byte[] data = new byte[e.size];
+		this.file.seek( e.offset );
+		this.file.readFully( data );
+
+		if( checksum( data ) != e.checksum )
+		{
+			AELog.warning( "Grid storage %d in %s is damaged, dropping it.", id, this.location.getAbsolutePath() );
+
+			this.index.remove( id );
+			this.dead += RECORD_HEADER + e.size;
+			this.pending.put( id, null );
+			return null;
+		}
+
+		return data;
+	}
+
+	void put( final long id, @Nonnull final byte[] data )
+	{
+		final Entry e = this.index.get( id );
+		if( e != null && e.size == data.length && e.checksum == checksum( data ) && !this.pending.containsKey( id ) )
+		{
+			return;
+		}
+
+		this.pending.put( id, data );
+	}
+
+	void remove( final long id )
+	{
+		if( this.index.containsKey( id ) )
+		{
+			this.pending.put( id, null );
+		}
+		else
+		{
+			this.pending.remove( id );
+		}
+	}
+
+	private static int checksum( final byte[] data )
+	{
+		final CRC32 crc = new CRC32();
+		crc.update( data );
+		return (int) crc.getValue();
+	}
+
+	/**
+	 * appends everything written since the last flush, and compacts the file if it is mostly superseded records.
+	 */
+	void flush() throws IOException
+	{
+		if( this.pending.isEmpty() )
+		{
+			return;
+		}
+
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		final DataOutputStream out = new DataOutputStream( buffer );
+		final Map<Long, Entry> written = new HashMap<Long, Entry>();
+		long position = this.end;
+
+		for( Map.Entry<Long, byte[]> p : this.pending.entrySet() )
+		{
+			final byte[] data = p.getValue();
+			final int size = data == null ? REMOVED : data.length;
+			final int checksum = data == null ? 0 : checksum( data );
+
+			out.writeLong( p.getKey() );
+			out.writeInt( size );
+			out.writeInt( checksum );
+
+			if( data != null )
+			{
+				out.write( data );
+			}
+
+			written.put( p.getKey(), data == null ? null : new Entry( position + RECORD_HEADER, size, checksum ) );
+			position += RECORD_HEADER + Math.max( size, 0 );
+		}
+
+		this.file.seek( this.end );
+		this.file.write( buffer.toByteArray() );
+		this.file.getChannel().force( false );
+		this.end = position;
+		this.pending.clear();
+
+		for( Map.Entry<Long, Entry> w : written.entrySet() )
+		{
+			final Entry old = w.getValue() == null ? this.index.remove( w.getKey() ) : this.index.put( w.getKey(), w.getValue() );
+			this.dead += ( old == null ? 0 : RECORD_HEADER + old.size ) + ( w.getValue() == null ? RECORD_HEADER : 0 );
+		}
+
+		if( this.dead > MIN_COMPACT_SIZE && this.dead * 2 > this.end )
+		{
+			this.compact();
+		}
+	}
+
+	private void compact() throws IOException
+	{
+		final File tmp = this.getTemporary();
+		final FileOutputStream stream = new FileOutputStream( tmp );
+		final DataOutputStream out = new DataOutputStream( new BufferedOutputStream( stream ) );
+		final Map<Long, Entry> compacted = new HashMap<Long, Entry>();
+		long position = FILE_HEADER;
+
+		try
+		{
+			out.writeInt( MAGIC );
+			out.writeInt( VERSION );
+
+			for( Long id : new ArrayList<Long>( this.index.keySet() ) )
+			{
+				final byte[] data = this.get( id );
+				if( data == null )
+				{
+					continue;
+				}
+
+				final int checksum = checksum( data );
+
+				out.writeLong( id );
+				out.writeInt( data.length );
+				out.writeInt( checksum );
+				out.write( data );
+
+				compacted.put( id, new Entry( position + RECORD_HEADER, data.length, checksum ) );
+				position += RECORD_HEADER + data.length;
+			}
+
+			out.flush();
+			stream.getFD().sync();
+		}
+		finally
+		{
+			out.close();
+		}
+
+		this.file.close();
+
+		final File backup = this.getBackup();
+		if( !this.location.renameTo( backup ) || !tmp.renameTo( this.location ) )
+		{
+			AELog.warning( "Unable to replace %s with its compacted copy.", this.location.getAbsolutePath() );
+			this.open();
+			return;
+		}
+
+		if( !backup.delete() )
+		{
+			AELog.warning( "Unable to delete %s.", backup.getAbsolutePath() );
+		}
+
+		final long before = this.end;
+		this.file = new RandomAccessFile( this.location, "rw" );
+		this.index.clear();
+		this.index.putAll( compacted );
+		this.end = position;
+		this.dead = 0;
+
+		// damaged blobs were left out of the new file, there is nothing left to remove.
+		this.pending.clear();
+
+		AELog.info( "Compacted grid storage from %d to %d bytes.", before, position );
+	}
+
+	void close() throws IOException
+	{
+		this.flush();
+
+		if( this.file != null )
+		{
+			this.file.close();
+			this.file = null;
+		}
+	}
+
+	private static final class Entry
+	{
+		final long offset;
+		final int size;
+		final int checksum;
+
+		Entry( final long offset, final int size, final int checksum )
+		{
+			this.offset = offset;
+			this.size = size;
+			this.checksum = checksum;
+		}
+	}
+}
@@ -29,6 +29,8 @@ import javax.annotation.Nonnull;
  */
 public interface IWorldData
 {
+	void onWorldSave();
+
 	void onServerStopping();
 
 	@Nonnull
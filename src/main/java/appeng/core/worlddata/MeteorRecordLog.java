@@ -0,0 +1,271 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.core.worlddata;
+
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.annotation.Nonnull;
+
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTTagCompound;
+
+import appeng.core.AELog;
+
+
+/**
+ * Append only log of the meteorites of one dimension, indexed in memory by region.
+ *
+ * Each record is the region x and z, the payload length and the payload, an uncompressed nbt compound. New records are
+ * visible right away and only written on {@link #flush()}; a record cut short by a crash is dropped on the next load.
+ */
+final class MeteorRecordLog
+{
+	private static final int HEADER_SIZE = 12;
+	private static final int MAX_RECORD_SIZE = 1 << 20;
+
+	@Nonnull
+	private final File location;
+	private final ConcurrentMap<Long, List<NBTTagCompound>> regions = new ConcurrentHashMap<Long, List<NBTTagCompound>>();
+	private final Queue<byte[]> pending = new ConcurrentLinkedQueue<byte[]>();
+
+	MeteorRecordLog( @Nonnull final File location )
+	{
+		this.location = location;
+		this.load();
+	}
+
+	private static long regionKey( final int regionX, final int regionZ )
+	{
+		return ( (long) regionX << 32 ) | ( regionZ & 0xffffffffL );
+	}
+
+	private void load()
+	{
+		if( !this.location.isFile() )
+		{
+			return;
+		}
+
+		long valid = 0;
+		DataInputStream in = null;
+
+		try
+		{
+			in = new DataInputStream( new BufferedInputStream( new FileInputStream( this.location ) ) );
+
+			while( true )
+			{
+				final int regionX;
+				try
+				{
+					regionX = in.readInt();
+				}
+				catch( EOFException e )
+				{
+					break;
+				}
+
+				final int regionZ = in.readInt();
+				final int length = in.readInt();
+				if( length < 0 || length > MAX_RECORD_SIZE )
+				{
+					throw new IOException( "Invalid meteorite record in " + this.location.getName() );
+				}
+
+				final byte[] payload = new byte[length];
+				in.readFully( payload );
+
+				this.index( regionX, regionZ, CompressedStreamTools.read( new DataInputStream( new ByteArrayInputStream( payload ) ) ) );
+				valid += HEADER_SIZE + length;
+			}
+		}
+		catch( IOException e )
+		{
+			AELog.error( e );
+		}
+		finally
+		{
+			close( in );
+		}
+
+		if( valid < this.location.length() )
+		{
+			this.truncate( valid );
+		}
+	}
+
+	private void truncate( final long length )
+	{
+		RandomAccessFile raf = null;
+
+		try
+		{
+			raf = new RandomAccessFile( this.location, "rw" );
+			raf.setLength( length );
+		}
+		catch( IOException e )
+		{
+			AELog.error( e );
+		}
+		finally
+		{
+			if( raf != null )
+			{
+				try
+				{
+					raf.close();
+				}
+				catch( IOException e )
+				{
+					AELog.error( e );
+				}
+			}
+		}
+	}
+
+	private void index( final int regionX, final int regionZ, final NBTTagCompound data )
+	{
+		final Long key = regionKey( regionX, regionZ );
+		List<NBTTagCompound> list = this.regions.get( key );
+
+		if( list == null )
+		{
+			final List<NBTTagCompound> created = new CopyOnWriteArrayList<NBTTagCompound>();
+			list = this.regions.putIfAbsent( key, created );
+			if( list == null )
+			{
+				list = created;
+			}
+		}
+
+		list.add( data );
+	}
+
+	void add( final int regionX, final int regionZ, @Nonnull final NBTTagCompound data ) throws IOException
+	{
+		final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+		CompressedStreamTools.write( data, new DataOutputStream( payload ) );
+
+		final ByteArrayOutputStream record = new ByteArrayOutputStream( HEADER_SIZE + payload.size() );
+		final DataOutputStream out = new DataOutputStream( record );
+		out.writeInt( regionX );
+		out.writeInt( regionZ );
+		out.writeInt( payload.size() );
+		payload.writeTo( out );
+
+		this.index( regionX, regionZ, (NBTTagCompound) data.copy() );
+		this.pending.add( record.toByteArray() );
+	}
+
+	void collect( final int regionX, final int regionZ, @Nonnull final Collection<NBTTagCompound> out )
+	{
+		final List<NBTTagCompound> list = this.regions.get( regionKey( regionX, regionZ ) );
+
+		if( list != null )
+		{
+			for( NBTTagCompound data : list )
+			{
+				out.add( (NBTTagCompound) data.copy() );
+			}
+		}
+	}
+
+	synchronized void flush()
+	{
+		if( this.pending.isEmpty() )
+		{
+			return;
+		}
+
+		FileOutputStream out = null;
+		long written = this.location.length();
+		boolean failed = false;
+
+		try
+		{
+			out = new FileOutputStream( this.location, true );
+
+			byte[] record;
+			while( ( record = this.pending.peek() ) != null )
+			{
+				out.write( record );
+				written += record.length;
+				this.pending.poll();
+			}
+		}
+		catch( IOException e )
+		{
+			AELog.error( e );
+			failed = true;
+		}
+		finally
+		{
+			if( out != null )
+			{
+				try
+				{
+					out.close();
+				}
+				catch( IOException e )
+				{
+					AELog.error( e );
+				}
+			}
+		}
+
+		// drop a partly written record, it is still pending and written again next time.
+		if( failed && written < this.location.length() )
+		{
+			this.truncate( written );
+		}
+	}
+
+	private static void close( final DataInputStream in )
+	{
+		if( in != null )
+		{
+			try
+			{
+				in.close();
+			}
+			catch( IOException e )
+			{
+				AELog.error( e );
+			}
+		}
+	}
+}
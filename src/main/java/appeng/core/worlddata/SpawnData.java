@@ -21,10 +21,16 @@ package appeng.core.worlddata;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import javax.annotation.Nonnull;
 
@@ -37,174 +43,284 @@ import appeng.core.AELog;
 
 
 /**
+ * Chunk generated flags live in memory mapped bitsets, one file per 512x512 chunks, meteorites in an append only log
+ * per dimension which is indexed by region in memory; a region being 16x16 chunks like the files this replaces.
+ *
+ * Chunks of different regions never wait on each other. The flags are written through the mapping as soon as they are
+ * set, so a new meteorite is written right away as well; it always reaches the disk before its chunk is flagged.
+ *
  * @author thatsIch
  * @version rv3 - 30.05.2015
  * @since rv3 30.05.2015
  */
-final class SpawnData implements IWorldSpawnData
+final class SpawnData implements IWorldSpawnData, IOnWorldStartable, IOnWorldSavable, IOnWorldStoppable
 {
+	private static final int REGION_BITS = 4;
+	private static final int LOCK_STRIPES = 64;
+	private static final Pattern LEGACY_NAME = Pattern.compile( "(-?\\d+)_(-?\\d+)_(-?\\d+)\\.dat" );
+	private static final String MIGRATED_SUFFIX = ".migrated";
+
 	@Nonnull
 	private final File spawnDirectory;
-	@Nonnull
-	private final MeteorDataNameEncoder encoder;
+	private final ConcurrentMap<Area, GeneratedChunkFlags> flags = new ConcurrentHashMap<Area, GeneratedChunkFlags>();
+	private final ConcurrentMap<Integer, MeteorRecordLog> meteorites = new ConcurrentHashMap<Integer, MeteorRecordLog>();
+	private final Object[] locks = new Object[LOCK_STRIPES];
 
 	public SpawnData( @Nonnull final File spawnDirectory )
 	{
 		Preconditions.checkNotNull( spawnDirectory );
 
 		this.spawnDirectory = spawnDirectory;
-		this.encoder = new MeteorDataNameEncoder( 4 );
+
+		for( int x = 0; x < LOCK_STRIPES; x++ )
+		{
+			this.locks[x] = new Object();
+		}
 	}
 
 	@Override
-	public void setGenerated( int dim, int chunkX, int chunkZ )
+	public void onWorldStart()
 	{
-		synchronized( SpawnData.class )
-		{
-			NBTTagCompound data = this.loadSpawnData( dim, chunkX, chunkZ );
+		this.migrateLegacyFiles();
+	}
 
-			// edit.
-			data.setBoolean( chunkX + "," + chunkZ, true );
+	@Override
+	public void onWorldSave()
+	{
+		for( GeneratedChunkFlags area : this.flags.values() )
+		{
+			area.force();
+		}
 
-			this.writeSpawnData( dim, chunkX, chunkZ, data );
+		for( MeteorRecordLog log : this.meteorites.values() )
+		{
+			log.flush();
 		}
 	}
 
 	@Override
-	public boolean hasGenerated( int dim, int chunkX, int chunkZ )
+	public void onWorldStop()
 	{
-		synchronized( SpawnData.class )
+		for( MeteorRecordLog log : this.meteorites.values() )
 		{
-			NBTTagCompound data = this.loadSpawnData( dim, chunkX, chunkZ );
-			return data.getBoolean( chunkX + "," + chunkZ );
+			log.flush();
 		}
+
+		for( GeneratedChunkFlags area : this.flags.values() )
+		{
+			area.close();
+		}
+
+		this.flags.clear();
+		this.meteorites.clear();
 	}
 
 	@Override
-	public boolean addNearByMeteorites( int dim, int chunkX, int chunkZ, NBTTagCompound newData )
+	public void setGenerated( int dim, int chunkX, int chunkZ )
 	{
-		synchronized( SpawnData.class )
+		final GeneratedChunkFlags area = this.getFlags( dim, chunkX, chunkZ );
+
+		synchronized( this.getLock( dim, chunkX >> REGION_BITS, chunkZ >> REGION_BITS ) )
 		{
-			NBTTagCompound data = this.loadSpawnData( dim, chunkX, chunkZ );
+			area.set( chunkX, chunkZ );
+		}
+	}
 
-			// edit.
-			int size = data.getInteger( "num" );
-			data.setTag( String.valueOf( size ), newData );
-			data.setInteger( "num", size + 1 );
+	@Override
+	public boolean hasGenerated( int dim, int chunkX, int chunkZ )
+	{
+		return this.getFlags( dim, chunkX, chunkZ ).get( chunkX, chunkZ );
+	}
 
-			this.writeSpawnData( dim, chunkX, chunkZ, data );
+	@Override
+	public boolean addNearByMeteorites( int dim, int chunkX, int chunkZ, NBTTagCompound newData )
+	{
+		try
+		{
+			final MeteorRecordLog log = this.getMeteorites( dim );
+			log.add( chunkX >> REGION_BITS, chunkZ >> REGION_BITS, newData );
 
+			// the chunk gets flagged next, after a crash it must not be flagged without its meteorite.
+			log.flush();
 			return true;
 		}
+		catch( IOException e )
+		{
+			AELog.error( e );
+			return false;
+		}
 	}
 
 	@Override
 	public Collection<NBTTagCompound> getNearByMeteorites( int dim, int chunkX, int chunkZ )
 	{
-		Collection<NBTTagCompound> ll = new LinkedList<NBTTagCompound>();
+		final Collection<NBTTagCompound> ll = new LinkedList<NBTTagCompound>();
+		final MeteorRecordLog log = this.getMeteorites( dim );
 
-		synchronized( SpawnData.class )
+		for( int x = -1; x <= 1; x++ )
 		{
-			for( int x = -1; x <= 1; x++ )
+			for( int z = -1; z <= 1; z++ )
 			{
-				for( int z = -1; z <= 1; z++ )
-				{
-					int cx = x + ( chunkX >> 4 );
-					int cz = z + ( chunkZ >> 4 );
+				log.collect( x + ( chunkX >> REGION_BITS ), z + ( chunkZ >> REGION_BITS ), ll );
+			}
+		}
 
-					NBTTagCompound data = this.loadSpawnData( dim, cx << 4, cz << 4 );
+		return ll;
+	}
 
-					if( data != null )
-					{
-						// edit.
-						int size = data.getInteger( "num" );
-						for( int s = 0; s < size; s++ )
-						{
-							ll.add( data.getCompoundTag( String.valueOf( s ) ) );
-						}
-					}
+	private Object getLock( final int dim, final int regionX, final int regionZ )
+	{
+		final int hash = ( dim * 31 + regionX ) * 31 + regionZ;
+		return this.locks[( hash ^ ( hash >>> 16 ) ) & ( LOCK_STRIPES - 1 )];
+	}
+
+	@Nonnull
+	private GeneratedChunkFlags getFlags( final int dim, final int chunkX, final int chunkZ )
+	{
+		final Area key = new Area( dim, chunkX >> GeneratedChunkFlags.AREA_BITS, chunkZ >> GeneratedChunkFlags.AREA_BITS );
+		GeneratedChunkFlags area = this.flags.get( key );
+
+		if( area == null )
+		{
+			synchronized( this.flags )
+			{
+				area = this.flags.get( key );
+				if( area == null )
+				{
+					final String fileName = String.format( "flags_%d_%d_%d.bin", key.dim, key.x, key.z );
+					area = GeneratedChunkFlags.open( new File( this.spawnDirectory, fileName ) );
+					this.flags.put( key, area );
 				}
 			}
 		}
 
-		return ll;
+		return area;
 	}
 
-	private NBTTagCompound loadSpawnData( int dim, int chunkX, int chunkZ )
+	@Nonnull
+	private MeteorRecordLog getMeteorites( final int dim )
 	{
-		if( !Thread.holdsLock( SpawnData.class ) )
+		MeteorRecordLog log = this.meteorites.get( dim );
+
+		if( log == null )
 		{
-			throw new IllegalStateException( "Invalid Request" );
+			synchronized( this.meteorites )
+			{
+				log = this.meteorites.get( dim );
+				if( log == null )
+				{
+					log = new MeteorRecordLog( new File( this.spawnDirectory, String.format( "meteorites_%d.log", dim ) ) );
+					this.meteorites.put( dim, log );
+				}
+			}
 		}
 
-		NBTTagCompound data = null;
-		final String fileName = this.encoder.encode( dim, chunkX, chunkZ );
-		final File file = new File( this.spawnDirectory, fileName );
+		return log;
+	}
 
-		if( file.isFile() )
+	/**
+	 * Imports the gzipped per region files written by earlier versions, the imported files are renamed so they are
+	 * not imported twice, but are kept around.
+	 */
+	private void migrateLegacyFiles()
+	{
+		final File[] files = this.spawnDirectory.listFiles();
+		if( files == null )
 		{
-			FileInputStream fileInputStream = null;
+			return;
+		}
+
+		final List<File> migrated = new ArrayList<File>();
 
-			try
+		for( File file : files )
+		{
+			final Matcher matcher = LEGACY_NAME.matcher( file.getName() );
+			if( !file.isFile() || !matcher.matches() )
 			{
-				fileInputStream = new FileInputStream( file );
-				data = CompressedStreamTools.readCompressed( fileInputStream );
+				continue;
 			}
-			catch( Throwable e )
+
+			final NBTTagCompound data = this.readLegacyFile( file );
+			if( data == null )
 			{
-				data = new NBTTagCompound();
-				AELog.error( e );
+				continue;
 			}
-			finally
+
+			final int dim = Integer.parseInt( matcher.group( 1 ) );
+			final int regionX = Integer.parseInt( matcher.group( 2 ) );
+			final int regionZ = Integer.parseInt( matcher.group( 3 ) );
+
+			for( String name : (Set<String>) data.func_150296_c() )
 			{
-				if( fileInputStream != null )
+				final int comma = name.indexOf( ',' );
+				if( comma > 0 && data.getBoolean( name ) )
 				{
 					try
 					{
-						fileInputStream.close();
+						this.setGenerated( dim, Integer.parseInt( name.substring( 0, comma ) ), Integer.parseInt( name.substring( comma + 1 ) ) );
 					}
-					catch( IOException e )
+					catch( NumberFormatException e )
 					{
-						AELog.error( e );
+						// not a chunk flag.
 					}
 				}
 			}
+
+			final int size = data.getInteger( "num" );
+			for( int s = 0; s < size; s++ )
+			{
+				try
+				{
+					this.getMeteorites( dim ).add( regionX, regionZ, data.getCompoundTag( String.valueOf( s ) ) );
+				}
+				catch( IOException e )
+				{
+					AELog.error( e );
+				}
+			}
+
+			migrated.add( file );
 		}
-		else
+
+		if( migrated.isEmpty() )
 		{
-			data = new NBTTagCompound();
+			return;
 		}
 
-		return data;
-	}
+		this.onWorldSave();
 
-	private void writeSpawnData( int dim, int chunkX, int chunkZ, NBTTagCompound data )
-	{
-		if( !Thread.holdsLock( SpawnData.class ) )
+		for( File file : migrated )
 		{
-			throw new IllegalStateException( "Invalid Request" );
+			if( !file.renameTo( new File( file.getParentFile(), file.getName() + MIGRATED_SUFFIX ) ) )
+			{
+				AELog.warning( "Failed to rename migrated spawn data %s, it will be imported again.", file.getAbsolutePath() );
+			}
 		}
 
-		final String fileName = this.encoder.encode( dim, chunkX, chunkZ );
-		final File file = new File( this.spawnDirectory, fileName );
-		FileOutputStream fileOutputStream = null;
+		AELog.info( "Migrated %d spawn data files.", migrated.size() );
+	}
+
+	private NBTTagCompound readLegacyFile( final File file )
+	{
+		FileInputStream fileInputStream = null;
 
 		try
 		{
-			fileOutputStream = new FileOutputStream( file );
-			CompressedStreamTools.writeCompressed( data, fileOutputStream );
+			fileInputStream = new FileInputStream( file );
+			return CompressedStreamTools.readCompressed( fileInputStream );
 		}
 		catch( Throwable e )
 		{
 			AELog.error( e );
+			return null;
 		}
 		finally
 		{
-			if( fileOutputStream != null )
+			if( fileInputStream != null )
 			{
 				try
 				{
-					fileOutputStream.close();
+					fileInputStream.close();
 				}
 				catch( IOException e )
 				{
@@ -213,4 +329,36 @@ final class SpawnData implements IWorldSpawnData
 			}
 		}
 	}
+
+	private static final class Area
+	{
+		final int dim;
+		final int x;
+		final int z;
+
+		Area( final int dim, final int x, final int z )
+		{
+			this.dim = dim;
+			this.x = x;
+			this.z = z;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return ( this.dim * 31 + this.x ) * 31 + this.z;
+		}
+
+		@Override
+		public boolean equals( final Object obj )
+		{
+			if( !( obj instanceof Area ) )
+			{
+				return false;
+			}
+
+			final Area other = (Area) obj;
+			return this.dim == other.dim && this.x == other.x && this.z == other.z;
+		}
+	}
 }
@@ -20,15 +20,18 @@ package appeng.core.worlddata;
 
 
 import java.io.File;
+import java.io.IOException;
 import java.lang.ref.WeakReference;
 import java.util.Map;
 import java.util.WeakHashMap;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import javax.xml.bind.DatatypeConverter;
 
 import com.google.common.base.Preconditions;
 
+import net.minecraftforge.common.config.ConfigCategory;
 import net.minecraftforge.common.config.Configuration;
 import net.minecraftforge.common.config.Property;
 
@@ -38,22 +41,27 @@ import appeng.me.GridStorageSearch;
 
 
 /**
+ * Grid storages are kept in a {@link GridStorageStore} next to the settings file, the settings only keep the counters.
+ *
  * @author thatsIch
  * @version rv3 - 30.05.2015
  * @since rv3 30.05.2015
  */
-final class StorageData implements IWorldGridStorageData, IOnWorldStartable, IOnWorldStoppable
+final class StorageData implements IWorldGridStorageData, IOnWorldStartable, IOnWorldSavable, IOnWorldStoppable
 {
 	private static final String LAST_GRID_STORAGE_CATEGORY = "Counters";
 	private static final String LAST_GRID_STORAGE_KEY = "lastGridStorage";
 	private static final int LAST_GRID_STORAGE_DEFAULT = 0;
 
 	private static final String GRID_STORAGE_CATEGORY = "gridstorage";
+	private static final String GRID_STORAGE_FILE_NAME = "gridstorage.dat";
 
 	private final Map<GridStorageSearch, WeakReference<GridStorageSearch>> loadedStorage = new WeakHashMap<GridStorageSearch, WeakReference<GridStorageSearch>>( 10 );
 	private final Configuration config;
+	private final GridStorageStore store;
 
 	private long lastGridStorage;
+	private boolean configChanged = false;
 
 	public StorageData( @Nonnull final File settingsFile, @Nonnull final String version )
 	{
@@ -62,6 +70,7 @@ final class StorageData implements IWorldGridStorageData, IOnWorldStartable, IOn
 		Preconditions.checkArgument( !version.isEmpty() );
 
 		this.config = new Configuration( settingsFile, version );
+		this.store = new GridStorageStore( new File( settingsFile.getParentFile(), GRID_STORAGE_FILE_NAME ) );
 	}
 
 	/**
@@ -80,9 +89,18 @@ final class StorageData implements IWorldGridStorageData, IOnWorldStartable, IOn
 
 		if( result == null || result.get() == null )
 		{
-			String id = String.valueOf( storageID );
-			String data = this.config.get( "gridstorage", id, "" ).getString();
-			GridStorage thisStorage = new GridStorage( data, storageID, gss );
+			byte[] data = null;
+
+			try
+			{
+				data = this.store.get( storageID );
+			}
+			catch( IOException e )
+			{
+				AELog.error( e );
+			}
+
+			GridStorage thisStorage = new GridStorage( data == null ? new byte[0] : data, storageID, gss );
 			gss.gridStorage = new WeakReference<GridStorage>( thisStorage );
 			this.loadedStorage.put( gss, new WeakReference<GridStorageSearch>( gss ) );
 			return thisStorage;
@@ -112,15 +130,14 @@ final class StorageData implements IWorldGridStorageData, IOnWorldStartable, IOn
 	{
 		long r = this.lastGridStorage;
 		this.lastGridStorage++;
-		this.config.get( "Counters", "lastGridStorage", this.lastGridStorage ).set( Long.toString( this.lastGridStorage ) );
+		this.configChanged = true;
 		return r;
 	}
 
 	@Override
 	public void destroyGridStorage( long id )
 	{
-		String stringID = String.valueOf( id );
-		this.config.getCategory( "gridstorage" ).remove( stringID );
+		this.store.remove( id );
 	}
 
 	@Override
@@ -129,6 +146,7 @@ final class StorageData implements IWorldGridStorageData, IOnWorldStartable, IOn
 		Property p = this.config.get( "orderedValues", name, 0 );
 		int myValue = p.getInt();
 		p.set( myValue + 1 );
+		this.configChanged = true;
 		return myValue;
 	}
 
@@ -147,22 +165,125 @@ final class StorageData implements IWorldGridStorageData, IOnWorldStartable, IOn
 
 			this.lastGridStorage = 0;
 		}
+
+		final long start = System.nanoTime();
+		final boolean migrate = !this.store.exists();
+
+		try
+		{
+			this.store.open();
+
+			if( migrate )
+			{
+				this.migrateConfiguration();
+			}
+		}
+		catch( IOException e )
+		{
+			AELog.error( e );
+
+			try
+			{
+				final File corrupt = this.store.openEmpty();
+				AELog.warning( "Grid storage could not be loaded, it was moved to %s and networks start without it.", corrupt.getAbsolutePath() );
+			}
+			catch( IOException err )
+			{
+				throw new IllegalStateException( "Failed to load grid storage", err );
+			}
+		}
+
+		AELog.info( "Loaded %d grid storages (%d bytes) in %dms.", this.store.size(), this.store.getFileSize(), ( System.nanoTime() - start ) / 1000000 );
 	}
 
-	@Override
-	public void onWorldStop()
+	/**
+	 * moves the grid storages out of the settings file they were kept in before.
+	 */
+	private void migrateConfiguration() throws IOException
+	{
+		if( !this.config.hasCategory( GRID_STORAGE_CATEGORY ) )
+		{
+			return;
+		}
+
+		final ConfigCategory category = this.config.getCategory( GRID_STORAGE_CATEGORY );
+
+		for( Map.Entry<String, Property> e : category.entrySet() )
+		{
+			try
+			{
+				final byte[] data = DatatypeConverter.parseBase64Binary( e.getValue().getString() );
+				if( data.length > 0 )
+				{
+					this.store.put( Long.parseLong( e.getKey() ), data );
+				}
+			}
+			catch( IllegalArgumentException err )
+			{
+				AELog.warning( "Skipped grid storage %s, it could not be read.", e.getKey() );
+			}
+		}
+
+		this.store.flush();
+
+		this.config.removeCategory( category );
+		this.config.save();
+	}
+
+	private void writeLoadedStorage()
 	{
-		// populate new data
 		for( GridStorageSearch gs : this.loadedStorage.keySet() )
 		{
 			GridStorage thisStorage = gs.gridStorage.get();
-			if( thisStorage != null && thisStorage.getGrid() != null && !thisStorage.getGrid().isEmpty() )
+			if( thisStorage != null && thisStorage.getGrid() != null && !thisStorage.getGrid().isEmpty() && thisStorage.needsSaving() )
 			{
-				String value = thisStorage.getValue();
-				this.config.get( GRID_STORAGE_CATEGORY, String.valueOf( thisStorage.getID() ), value ).set( value );
+				this.store.put( thisStorage.getID(), thisStorage.getValue() );
 			}
 		}
+	}
 
+	private void saveConfig()
+	{
+		this.config.get( LAST_GRID_STORAGE_CATEGORY, LAST_GRID_STORAGE_KEY, this.lastGridStorage ).set( Long.toString( this.lastGridStorage ) );
 		this.config.save();
+		this.configChanged = false;
+	}
+
+	@Override
+	public void onWorldSave()
+	{
+		// the counter goes first, ids it has handed out must never be reused.
+		if( this.configChanged )
+		{
+			this.saveConfig();
+		}
+
+		this.writeLoadedStorage();
+
+		try
+		{
+			this.store.flush();
+		}
+		catch( IOException e )
+		{
+			AELog.error( e );
+		}
+	}
+
+	@Override
+	public void onWorldStop()
+	{
+		this.writeLoadedStorage();
+
+		try
+		{
+			this.store.close();
+		}
+		catch( IOException e )
+		{
+			AELog.error( e );
+		}
+
+		this.saveConfig();
 	}
 }
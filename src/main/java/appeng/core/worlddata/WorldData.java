@@ -63,6 +63,7 @@ public final class WorldData implements IWorldData
 	private final IWorldSpawnData spawnData;
 
 	private final List<IOnWorldStartable> startables;
+	private final List<IOnWorldSavable> savables;
 	private final List<IOnWorldStoppable> stoppables;
 
 	private final File ae2directory;
@@ -88,7 +89,7 @@ public final class WorldData implements IWorldData
 		final CompassService compassService = new CompassService( this.compassDirectory, compassThreadFactory );
 		final CompassData compassData = new CompassData( this.compassDirectory, compassService );
 
-		final IWorldSpawnData spawnData = new SpawnData( this.spawnDirectory );
+		final SpawnData spawnData = new SpawnData( this.spawnDirectory );
 
 		this.playerData = playerData;
 		this.dimensionData = dimensionData;
@@ -96,8 +97,9 @@ public final class WorldData implements IWorldData
 		this.compassData = compassData;
 		this.spawnData = spawnData;
 
-		this.startables = Lists.<IOnWorldStartable>newArrayList( playerData, dimensionData, storageData );
-		this.stoppables = Lists.<IOnWorldStoppable>newArrayList( playerData, dimensionData, storageData, compassData );
+		this.startables = Lists.<IOnWorldStartable>newArrayList( playerData, dimensionData, storageData, spawnData );
+		this.savables = Lists.<IOnWorldSavable>newArrayList( storageData, spawnData );
+		this.stoppables = Lists.<IOnWorldStoppable>newArrayList( playerData, dimensionData, storageData, compassData, spawnData );
 	}
 
 	/**
@@ -154,6 +156,15 @@ public final class WorldData implements IWorldData
 		this.startables.clear();
 	}
 
+	@Override
+	public void onWorldSave()
+	{
+		for( IOnWorldSavable savable : this.savables )
+		{
+			savable.onWorldSave();
+		}
+	}
+
 	@Override
 	public void onServerStopping()
 	{
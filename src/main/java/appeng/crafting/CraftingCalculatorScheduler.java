@@ -0,0 +1,320 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.crafting;
+
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import appeng.api.networking.IGrid;
+import appeng.api.networking.crafting.ICraftingJob;
+import appeng.api.networking.security.BaseActionSource;
+import appeng.api.networking.security.PlayerSource;
+import appeng.core.AEConfig;
+
+
+/**
+ * Runs crafting calculations on a bounded number of worker threads.
+ *
+ * Jobs which can not start right away are queued, never rejected. The queue is served round robin, first over the
+ * grids with waiting jobs and then over the players ( or machines ) which requested them on that grid, so a single
+ * player or network can not starve everyone else.
+ */
+public final class CraftingCalculatorScheduler
+{
+
+	public static final CraftingCalculatorScheduler INSTANCE = new CraftingCalculatorScheduler();
+
+	private static final long IDLE_TIMEOUT = TimeUnit.SECONDS.toMillis( 60 );
+
+	// grid -> requester -> jobs
+	private final Map<Object, Map<Object, LinkedList<Task>>> queues = new LinkedHashMap<Object, Map<Object, LinkedList<Task>>>();
+
+	private int queued = 0;
+	private int workers = 0;
+	private int idleWorkers = 0;
+	private int running = 0;
+	private int nextWorkerId = 0;
+
+	private long started = 0;
+	private long totalWait = 0;
+	private long maxWait = 0;
+
+	private CraftingCalculatorScheduler()
+	{
+	}
+
+	private static Object getRequester( IGrid grid, BaseActionSource src )
+	{
+		if( src instanceof PlayerSource && ( (PlayerSource) src ).player != null )
+		{
+			return ( (PlayerSource) src ).player.getCommandSenderName();
+		}
+
+		return grid;
+	}
+
+	public synchronized Future<ICraftingJob> submit( IGrid grid, BaseActionSource src, CraftingJob job )
+	{
+		final Task task = new Task( grid, getRequester( grid, src ), job );
+
+		Map<Object, LinkedList<Task>> gridQueue = this.queues.get( grid );
+		if( gridQueue == null )
+		{
+			this.queues.put( grid, gridQueue = new LinkedHashMap<Object, LinkedList<Task>>() );
+		}
+
+		LinkedList<Task> requesterQueue = gridQueue.get( task.requester );
+		if( requesterQueue == null )
+		{
+			gridQueue.put( task.requester, requesterQueue = new LinkedList<Task>() );
+		}
+
+		requesterQueue.add( task );
+		this.queued++;
+
+		if( this.idleWorkers > 0 )
+		{
+			this.notify();
+		}
+		else if( this.workers < this.getMaxWorkers() )
+		{
+			this.workers++;
+
+			final Thread t = new Thread( new Worker(), "AE Crafting Calculator #" + this.nextWorkerId++ );
+			t.setDaemon( true );
+			t.start();
+		}
+
+		return task;
+	}
+
+	public int getMaxWorkers()
+	{
+		return Math.max( 1, AEConfig.instance.craftingCalculationThreads );
+	}
+
+	public synchronized int getQueueDepth()
+	{
+		return this.queued;
+	}
+
+	public synchronized int getQueuedGrids()
+	{
+		return this.queues.size();
+	}
+
+	public synchronized int getWorkers()
+	{
+		return this.workers;
+	}
+
+	public synchronized int getRunning()
+	{
+		return this.running;
+	}
+
+	public synchronized long getStarted()
+	{
+		return this.started;
+	}
+
+	/**
+	 * @return average time jobs spent in the queue, in milliseconds.
+	 */
+	public synchronized long getAverageWait()
+	{
+		return this.started == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis( this.totalWait / this.started );
+	}
+
+	/**
+	 * @return longest time a job spent in the queue, in milliseconds.
+	 */
+	public synchronized long getMaxWait()
+	{
+		return TimeUnit.NANOSECONDS.toMillis( this.maxWait );
+	}
+
+	/**
+	 * @return the oldest job still waiting, in milliseconds.
+	 */
+	public synchronized long getOldestWaiting()
+	{
+		final long now = System.nanoTime();
+		long oldest = 0;
+
+		for( Map<Object, LinkedList<Task>> gridQueue : this.queues.values() )
+		{
+			for( LinkedList<Task> requesterQueue : gridQueue.values() )
+			{
+				oldest = Math.max( oldest, now - requesterQueue.getFirst().queuedAt );
+			}
+		}
+
+		return TimeUnit.NANOSECONDS.toMillis( oldest );
+	}
+
+	private synchronized Task take()
+	{
+		final long deadline = System.currentTimeMillis() + IDLE_TIMEOUT;
+
+		while( this.queued == 0 )
+		{
+			final long wait = deadline - System.currentTimeMillis();
+			if( wait <= 0 )
+			{
+				this.workers--;
+				return null;
+			}
+
+			this.idleWorkers++;
+			try
+			{
+				this.wait( wait );
+			}
+			catch( InterruptedException e )
+			{
+				this.workers--;
+				return null;
+			}
+			finally
+			{
+				this.idleWorkers--;
+			}
+		}
+
+		// take the first grid and the first requester on it and move both to the back.
+		final Iterator<Map.Entry<Object, Map<Object, LinkedList<Task>>>> grids = this.queues.entrySet().iterator();
+		final Map.Entry<Object, Map<Object, LinkedList<Task>>> gridEntry = grids.next();
+		grids.remove();
+
+		final Map<Object, LinkedList<Task>> gridQueue = gridEntry.getValue();
+		final Iterator<Map.Entry<Object, LinkedList<Task>>> requesters = gridQueue.entrySet().iterator();
+		final Map.Entry<Object, LinkedList<Task>> requesterEntry = requesters.next();
+		requesters.remove();
+
+		final Task task = requesterEntry.getValue().poll();
+
+		if( !requesterEntry.getValue().isEmpty() )
+		{
+			gridQueue.put( requesterEntry.getKey(), requesterEntry.getValue() );
+		}
+
+		if( !gridQueue.isEmpty() )
+		{
+			this.queues.put( gridEntry.getKey(), gridQueue );
+		}
+
+		final long waited = System.nanoTime() - task.queuedAt;
+		this.queued--;
+		this.running++;
+		this.started++;
+		this.totalWait += waited;
+		this.maxWait = Math.max( this.maxWait, waited );
+
+		return task;
+	}
+
+	private synchronized void finished()
+	{
+		this.running--;
+	}
+
+	private synchronized void remove( Task task )
+	{
+		final Map<Object, LinkedList<Task>> gridQueue = this.queues.get( task.grid );
+		if( gridQueue == null )
+		{
+			return;
+		}
+
+		final LinkedList<Task> requesterQueue = gridQueue.get( task.requester );
+		if( requesterQueue != null && requesterQueue.remove( task ) )
+		{
+			this.queued--;
+
+			if( requesterQueue.isEmpty() )
+			{
+				gridQueue.remove( task.requester );
+			}
+
+			if( gridQueue.isEmpty() )
+			{
+				this.queues.remove( task.grid );
+			}
+		}
+	}
+
+	private final class Task extends FutureTask<ICraftingJob>
+	{
+
+		private final Object grid;
+		private final Object requester;
+		private final long queuedAt = System.nanoTime();
+
+		private Task( IGrid grid, Object requester, CraftingJob job )
+		{
+			super( job, job );
+			this.grid = grid;
+			this.requester = requester;
+		}
+
+		@Override
+		public boolean cancel( boolean mayInterruptIfRunning )
+		{
+			final boolean canceled = super.cancel( mayInterruptIfRunning );
+
+			if( canceled )
+			{
+				CraftingCalculatorScheduler.this.remove( this );
+			}
+
+			return canceled;
+		}
+	}
+
+	private final class Worker implements Runnable
+	{
+
+		@Override
+		public void run()
+		{
+			Task task;
+			while( ( task = CraftingCalculatorScheduler.this.take() ) != null )
+			{
+				try
+				{
+					task.run();
+				}
+				finally
+				{
+					CraftingCalculatorScheduler.this.finished();
+
+					// a canceled job may leave the interrupt behind.
+					Thread.interrupted();
+				}
+			}
+		}
+	}
+}
@@ -42,6 +42,7 @@ import appeng.api.storage.data.IAEItemStack;
 import appeng.api.storage.data.IItemList;
 import appeng.core.AELog;
 import appeng.hooks.TickHandler;
+import appeng.me.cache.CraftingGridCache;
 
 
 public class CraftingJob implements Runnable, ICraftingJob
@@ -101,7 +102,24 @@ public class CraftingJob implements Runnable, ICraftingJob
 
 	private CraftingTreeNode getCraftingTree( ICraftingGrid cc, IAEItemStack what )
 	{
-		return new CraftingTreeNode( cc, this, what, null, -1, 0 );
+		if( !( cc instanceof CraftingGridCache ) )
+		{
+			return new CraftingTreeNode( cc, this, what, null, -1, 0 );
+		}
+
+		CraftingGridCache cache = (CraftingGridCache) cc;
+		CraftingTreeNode shape = cache.getPlanShape( what );
+
+		if( shape == null )
+		{
+			int version = cache.getPatternVersion();
+			CraftingTreeNode tree = new CraftingTreeNode( cc, this, what, null, -1, 0 );
+			cache.storePlanShape( what, version, new CraftingTreeNode( tree, null, null ) );
+			return tree;
+		}
+
+		// same patterns, only the stock needs to be checked again.
+		return new CraftingTreeNode( shape, this, null );
 	}
 
 	public void refund( IAEItemStack o )
@@ -84,6 +84,25 @@ public class CraftingTreeNode
 		}
 	}
 
+	/**
+	 * Copies the shape of an already built tree, without any state of a previous calculation.
+	 */
+	CraftingTreeNode( CraftingTreeNode shape, CraftingJob job, CraftingTreeProcess par )
+	{
+		this.what = shape.what.copy();
+		this.parent = par;
+		this.slot = shape.slot;
+		this.world = job == null ? shape.world : job.getWorld();
+		this.job = job;
+		this.sim = false;
+		this.canEmit = shape.canEmit;
+
+		for( CraftingTreeProcess pro : shape.nodes )
+		{
+			this.nodes.add( new CraftingTreeProcess( pro, job, this ) );
+		}
+	}
+
 	boolean notRecursive( ICraftingPatternDetails details )
 	{
 		IAEItemStack[] o = details.getCondensedOutputs();
@@ -171,6 +171,26 @@ public class CraftingTreeProcess
 		}
 	}
 
+	/**
+	 * Copies the shape of an already built process, without any state of a previous calculation.
+	 */
+	CraftingTreeProcess( CraftingTreeProcess shape, CraftingJob job, CraftingTreeNode craftingTreeNode )
+	{
+		this.parent = craftingTreeNode;
+		this.details = shape.details;
+		this.job = job;
+		this.depth = shape.depth;
+		this.world = shape.world;
+		this.containerItems = shape.containerItems;
+		this.limitQty = shape.limitQty;
+		this.fullSimulation = shape.fullSimulation;
+
+		for( Entry<CraftingTreeNode, Long> entry : shape.nodes.entrySet() )
+		{
+			this.nodes.put( new CraftingTreeNode( entry.getKey(), job, this ), entry.getValue() );
+		}
+	}
+
 	public boolean notRecursive( ICraftingPatternDetails details )
 	{
 		return this.parent == null || this.parent.notRecursive( details );
@@ -42,13 +42,22 @@ import appeng.api.networking.ticking.ITickManager;
 import appeng.api.parts.IPart;
 import appeng.api.parts.IPartHost;
 import appeng.core.features.AEFeature;
+import appeng.helpers.IInterfaceHost;
+import appeng.helpers.WakeupStats;
 import appeng.hooks.TickHandler;
 import appeng.items.AEBaseItem;
 import appeng.me.Grid;
 import appeng.me.GridNode;
+import appeng.me.cache.PathGridCache;
 import appeng.me.cache.TickManagerCache;
+import appeng.me.cluster.implementations.CraftingCPUCluster;
+import appeng.me.storage.MEMonitorIInventory;
+import appeng.parts.automation.PartSharedItemBus;
+import appeng.parts.misc.PartStorageBus;
 import appeng.parts.p2p.PartP2PTunnel;
+import appeng.tile.crafting.TileCraftingTile;
 import appeng.tile.networking.TileController;
+import appeng.tile.spatial.TileSpatialIOPort;
 import appeng.util.Platform;
 
 
@@ -135,6 +144,12 @@ public class ToolDebugCard extends AEBaseItem
 						this.outputMsg( player, "Cable Distance: " + length );
 					}
 
+					if( pg instanceof PathGridCache )
+					{
+						PathGridCache pgc = (PathGridCache) pg;
+						this.outputMsg( player, "Last Repath: " + pgc.getLastRepathedItems() + ( pgc.wasLastRepathIncremental() ? " (incremental)" : " (full)" ) );
+					}
+
 					if( center.getMachine() instanceof PartP2PTunnel )
 					{
 						this.outputMsg( player, "Freq: " + ( (PartP2PTunnel) center.getMachine() ).freq );
@@ -188,6 +203,44 @@ public class ToolDebugCard extends AEBaseItem
 						}
 					}
 				}
+
+				IPart part = ( (IPartHost) te ).getPart( ForgeDirection.getOrientation( side ) );
+				if( part instanceof PartStorageBus )
+				{
+					MEMonitorIInventory monitor = ( (PartStorageBus) part ).getMonitor();
+					if( monitor != null )
+					{
+						this.outputMsg( player, "Scanned Slots: " + monitor.getLastScannedSlots() + "; " + this.timeMeasurement( monitor.getAverageScanNanos() ) );
+						this.outputMsg( player, "Scans: " + monitor.getFullScans() + " full, " + monitor.getWindowScans() + " window, " + monitor.getSkippedScans() + " skipped" );
+					}
+				}
+
+				if( part instanceof PartSharedItemBus )
+				{
+					this.outputWakeups( player, ( (PartSharedItemBus) part ).getWakeupStats() );
+				}
+
+				if( part instanceof IInterfaceHost )
+				{
+					this.outputWakeups( player, ( (IInterfaceHost) part ).getInterfaceDuality().getWakeupStats() );
+				}
+			}
+
+			if( te instanceof TileCraftingTile && ( (TileCraftingTile) te ).getCluster() instanceof CraftingCPUCluster )
+			{
+				CraftingCPUCluster cpu = (CraftingCPUCluster) ( (TileCraftingTile) te ).getCluster();
+				this.outputMsg( player, "Crafting Tasks: " + cpu.getTaskCount() + "; " + cpu.getReadyTaskCount() + " ready" );
+				this.outputMsg( player, "Last Tick: " + cpu.getTasksChecked() + " checked, " + cpu.getTasksDispatched() + " dispatched" );
+			}
+
+			if( te instanceof IInterfaceHost )
+			{
+				this.outputWakeups( player, ( (IInterfaceHost) te ).getInterfaceDuality().getWakeupStats() );
+			}
+
+			if( te instanceof TileSpatialIOPort )
+			{
+				this.outputMsg( player, "Last Transition: " + this.timeMeasurement( ( (TileSpatialIOPort) te ).getLastTransitionTime() ) );
 			}
 
 			if( te instanceof IAEPowerStorage )
@@ -214,6 +267,12 @@ public class ToolDebugCard extends AEBaseItem
 		player.addChatMessage( new ChatComponentText( string ) );
 	}
 
+	private void outputWakeups( ICommandSender player, WakeupStats stats )
+	{
+		this.outputMsg( player, "Ticks: " + stats.getTicks() + "; " + stats.getUsefulTicks() + " useful" );
+		this.outputMsg( player, "Slept: " + stats.getSleeps() + "; " + stats.getWakeups() + " wakeups" );
+	}
+
 	public String timeMeasurement( long nanos )
 	{
 		long ms = nanos / 100000;
@@ -44,6 +44,7 @@ import net.minecraftforge.common.util.ForgeDirection;
 
 import appeng.api.AEApi;
 import appeng.api.config.Actionable;
+import appeng.api.config.PowerMultiplier;
 import appeng.api.config.Settings;
 import appeng.api.config.Upgrades;
 import appeng.api.config.YesNo;
@@ -62,6 +63,8 @@ import appeng.api.networking.events.MENetworkCraftingPatternChange;
 import appeng.api.networking.security.BaseActionSource;
 import appeng.api.networking.security.IActionHost;
 import appeng.api.networking.security.MachineSource;
+import appeng.api.networking.storage.IStackWatcher;
+import appeng.api.networking.storage.IStackWatcherHost;
 import appeng.api.networking.ticking.IGridTickable;
 import appeng.api.networking.ticking.TickRateModulation;
 import appeng.api.networking.ticking.TickingRequest;
@@ -72,6 +75,8 @@ import appeng.api.storage.IStorageMonitorable;
 import appeng.api.storage.StorageChannel;
 import appeng.api.storage.data.IAEFluidStack;
 import appeng.api.storage.data.IAEItemStack;
+import appeng.api.storage.data.IAEStack;
+import appeng.api.storage.data.IItemList;
 import appeng.api.util.AECableType;
 import appeng.api.util.DimensionalCoord;
 import appeng.api.util.IConfigManager;
@@ -97,7 +102,7 @@ import appeng.util.inv.WrapperInvSlot;
 import appeng.util.item.AEItemStack;
 
 
-public class DualityInterface implements IGridTickable, IStorageMonitorable, IInventoryDestination, IAEAppEngInventory, IConfigManagerHost, ICraftingProvider, IUpgradeableHost, IPriorityHost
+public class DualityInterface implements IGridTickable, IStorageMonitorable, IInventoryDestination, IAEAppEngInventory, IConfigManagerHost, ICraftingProvider, IUpgradeableHost, IPriorityHost, IStackWatcherHost
 {
 
 	private static final Collection<Block> BAD_BLOCKS = new HashSet<Block>( 100 );
@@ -116,12 +121,15 @@ public class DualityInterface implements IGridTickable, IStorageMonitorable, IIn
 	final MEMonitorPassThrough<IAEItemStack> items = new MEMonitorPassThrough<IAEItemStack>( new NullInventory<IAEItemStack>(), StorageChannel.ITEMS );
 	final MEMonitorPassThrough<IAEFluidStack> fluids = new MEMonitorPassThrough<IAEFluidStack>( new NullInventory<IAEFluidStack>(), StorageChannel.FLUIDS );
 	private final UpgradeInventory upgrades;
+	private final WakeupStats wakeupStats = new WakeupStats();
 	boolean hasConfig = false;
 	int priority;
 	List<ICraftingPatternDetails> craftingList = null;
 	List<ItemStack> waitingToSend = null;
 	IMEInventory<IAEItemStack> destination;
 	private boolean isWorking = false;
+	private IStackWatcher myWatcher;
+	private boolean waitingForStock = false;
 
 	public DualityInterface( AENetworkProxy networkProxy, IInterfaceHost ih )
 	{
@@ -186,6 +194,11 @@ public class DualityInterface implements IGridTickable, IStorageMonitorable, IIn
 					// :P
 				}
 			}
+			else if( now )
+			{
+				// the plan changed, what the interface waited for might not be needed anymore.
+				this.wakeUp();
+			}
 		}
 	}
 
@@ -286,6 +299,11 @@ public class DualityInterface implements IGridTickable, IStorageMonitorable, IIn
 
 		boolean has = this.hasWorkToDo();
 
+		if( had == has && has )
+		{
+			this.wakeUp();
+		}
+
 		if( had != has )
 		{
 			try
@@ -553,7 +571,115 @@ public class DualityInterface implements IGridTickable, IStorageMonitorable, IIn
 		}
 
 		boolean couldDoWork = this.updateStorage();
-		return this.hasWorkToDo() ? ( couldDoWork ? TickRateModulation.URGENT : TickRateModulation.SLOWER ) : TickRateModulation.SLEEP;
+		this.wakeupStats.ticked( couldDoWork );
+
+		if( !this.hasWorkToDo() )
+		{
+			return TickRateModulation.SLEEP;
+		}
+
+		if( couldDoWork )
+		{
+			return TickRateModulation.URGENT;
+		}
+
+		if( this.canWaitForStock() )
+		{
+			// only missing items, the network reports when they show up.
+			this.waitingForStock = true;
+			this.wakeupStats.sleeping();
+			this.configureWatcher();
+			return TickRateModulation.SLEEP;
+		}
+
+		return TickRateModulation.SLOWER;
+	}
+
+	@Override
+	public void updateWatcher( IStackWatcher newWatcher )
+	{
+		this.myWatcher = newWatcher;
+		this.configureWatcher();
+	}
+
+	@Override
+	public void onStackChange( IItemList o, IAEStack fullStack, IAEStack diffStack, BaseActionSource src, StorageChannel chan )
+	{
+		this.wakeUp();
+	}
+
+	public WakeupStats getWakeupStats()
+	{
+		return this.wakeupStats;
+	}
+
+	/**
+	 * @return true if all that is left to do is stocking items the network does not have.
+	 */
+	private boolean canWaitForStock()
+	{
+		// sending items out, crafting and storing into the network are not reported back.
+		if( this.myWatcher == null || this.hasItemsToSend() || this.getInstalledUpgrades( Upgrades.CRAFTING ) > 0 )
+		{
+			return false;
+		}
+
+		for( IAEItemStack work : this.requireWork )
+		{
+			if( work != null && work.getStackSize() <= 0 )
+			{
+				return false;
+			}
+		}
+
+		try
+		{
+			return this.gridProxy.getEnergy().extractAEPower( 1, Actionable.SIMULATE, PowerMultiplier.CONFIG ) > 0.9;
+		}
+		catch( GridAccessException e )
+		{
+			return false;
+		}
+	}
+
+	private void configureWatcher()
+	{
+		if( this.myWatcher != null )
+		{
+			this.myWatcher.clear();
+
+			if( this.waitingForStock )
+			{
+				for( IAEItemStack work : this.requireWork )
+				{
+					if( work != null )
+					{
+						this.myWatcher.add( work );
+					}
+				}
+			}
+		}
+	}
+
+	private void wakeUp()
+	{
+		if( !this.waitingForStock )
+		{
+			return;
+		}
+
+		this.waitingForStock = false;
+		this.wakeupStats.wokenUp();
+		this.configureWatcher();
+
+		try
+		{
+			this.gridProxy.getTick().alertDevice( this.gridProxy.getNode() );
+		}
+		catch( GridAccessException e )
+		{
+			// :P
+		}
 	}
 
 	private void pushItemsOut( EnumSet<ForgeDirection> possibleDirections )
@@ -21,13 +21,13 @@ package appeng.helpers;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import net.minecraft.inventory.InventoryCrafting;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
-import net.minecraft.item.crafting.CraftingManager;
 import net.minecraft.item.crafting.IRecipe;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
@@ -45,9 +45,20 @@ import appeng.util.item.AEItemStack;
 public class PatternHelper implements ICraftingPatternDetails, Comparable<PatternHelper>
 {
 
+	/**
+	 * substitutions are tested on a frame of the testing thread, so calculations can share a pattern.
+	 */
+	private static final ThreadLocal<InventoryCrafting> TEST_FRAME = new ThreadLocal<InventoryCrafting>()
+	{
+		@Override
+		protected InventoryCrafting initialValue()
+		{
+			return new InventoryCrafting( new ContainerNull(), 3, 3 );
+		}
+	};
+
 	final ItemStack patternItem;
 	final InventoryCrafting crafting = new InventoryCrafting( new ContainerNull(), 3, 3 );
-	final InventoryCrafting testFrame = new InventoryCrafting( new ContainerNull(), 3, 3 );
 	final ItemStack correctOutput;
 	final IRecipe standardRecipe;
 	final IAEItemStack[] condensedInputs;
@@ -55,8 +66,7 @@ public class PatternHelper implements ICraftingPatternDetails, Comparable<Patter
 	final IAEItemStack[] inputs;
 	final IAEItemStack[] outputs;
 	final boolean isCrafting;
-	final HashSet<TestLookup> failCache = new HashSet<TestLookup>();
-	final HashSet<TestLookup> passCache = new HashSet<TestLookup>();
+	final ConcurrentMap<TestLookup, Boolean> testCache = new ConcurrentHashMap<TestLookup, Boolean>();
 	private final IAEItemStack pattern;
 	public int priority = 0;
 
@@ -89,7 +99,6 @@ public class PatternHelper implements ICraftingPatternDetails, Comparable<Patter
 			}
 
 			in.add( AEApi.instance().storage().createItemStack( gs ) );
-			this.testFrame.setInventorySlotContents( x, gs );
 		}
 
 		if( this.isCrafting )
@@ -190,7 +199,7 @@ public class PatternHelper implements ICraftingPatternDetails, Comparable<Patter
 			return;
 		}
 
-		( b == TestStatus.ACCEPT ? this.passCache : this.failCache ).add( new TestLookup( slotIndex, i ) );
+		this.testCache.put( new TestLookup( slotIndex, i ), b == TestStatus.ACCEPT );
 	}
 
 	@Override
@@ -200,7 +209,7 @@ public class PatternHelper implements ICraftingPatternDetails, Comparable<Patter
 	}
 
 	@Override
-	public synchronized boolean isValidItemForSlot( int slotIndex, ItemStack i, World w )
+	public boolean isValidItemForSlot( int slotIndex, ItemStack i, World w )
 	{
 		if( !this.isCrafting )
 		{
@@ -220,31 +229,31 @@ public class PatternHelper implements ICraftingPatternDetails, Comparable<Patter
 				break;
 		}
 
+		InventoryCrafting testFrame = TEST_FRAME.get();
+
 		for( int x = 0; x < this.crafting.getSizeInventory(); x++ )
 		{
-			this.testFrame.setInventorySlotContents( x, this.crafting.getStackInSlot( x ) );
+			testFrame.setInventorySlotContents( x, this.crafting.getStackInSlot( x ) );
 		}
 
-		this.testFrame.setInventorySlotContents( slotIndex, i );
+		testFrame.setInventorySlotContents( slotIndex, i );
 
-		if( this.standardRecipe.matches( this.testFrame, w ) )
+		if( this.standardRecipe.matches( testFrame, w ) )
 		{
-			ItemStack testOutput = this.standardRecipe.getCraftingResult( this.testFrame );
+			ItemStack testOutput = this.standardRecipe.getCraftingResult( testFrame );
 
 			if( Platform.isSameItemPrecise( this.correctOutput, testOutput ) )
 			{
-				this.testFrame.setInventorySlotContents( slotIndex, this.crafting.getStackInSlot( slotIndex ) );
 				this.markItemAs( slotIndex, i, TestStatus.ACCEPT );
 				return true;
 			}
 		}
 		else
 		{
-			ItemStack testOutput = CraftingManager.getInstance().findMatchingRecipe( this.testFrame, w );
+			ItemStack testOutput = Platform.findMatchingRecipeOutput( testFrame, w );
 
 			if( Platform.isSameItemPrecise( this.correctOutput, testOutput ) )
 			{
-				this.testFrame.setInventorySlotContents( slotIndex, this.crafting.getStackInSlot( slotIndex ) );
 				this.markItemAs( slotIndex, i, TestStatus.ACCEPT );
 				return true;
 			}
@@ -331,17 +340,13 @@ public class PatternHelper implements ICraftingPatternDetails, Comparable<Patter
 			return TestStatus.TEST;
 		}
 
-		if( this.passCache.contains( new TestLookup( slotIndex, i ) ) )
+		Boolean passed = this.testCache.get( new TestLookup( slotIndex, i ) );
+		if( passed == null )
 		{
-			return TestStatus.ACCEPT;
-		}
-
-		if( this.failCache.contains( new TestLookup( slotIndex, i ) ) )
-		{
-			return TestStatus.DECLINE;
+			return TestStatus.TEST;
 		}
 
-		return TestStatus.TEST;
+		return passed ? TestStatus.ACCEPT : TestStatus.DECLINE;
 	}
 
 	@Override
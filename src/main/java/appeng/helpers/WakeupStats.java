@@ -0,0 +1,72 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.helpers;
+
+
+/**
+ * Counts how often a device which sleeps until something it watches changes is woken up, against how many of its ticks
+ * actually got work done.
+ */
+public final class WakeupStats
+{
+
+	private long ticks;
+	private long usefulTicks;
+	private long sleeps;
+	private long wakeups;
+
+	public void ticked( boolean useful )
+	{
+		this.ticks++;
+		if( useful )
+		{
+			this.usefulTicks++;
+		}
+	}
+
+	public void sleeping()
+	{
+		this.sleeps++;
+	}
+
+	public void wokenUp()
+	{
+		this.wakeups++;
+	}
+
+	public long getTicks()
+	{
+		return this.ticks;
+	}
+
+	public long getUsefulTicks()
+	{
+		return this.usefulTicks;
+	}
+
+	public long getSleeps()
+	{
+		return this.sleeps;
+	}
+
+	public long getWakeups()
+	{
+		return this.wakeups;
+	}
+}
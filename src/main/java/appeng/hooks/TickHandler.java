@@ -22,9 +22,12 @@ package appeng.hooks;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.Queue;
+import java.util.Set;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
 
 import com.google.common.base.Stopwatch;
@@ -48,11 +51,16 @@ import appeng.api.util.AEColor;
 import appeng.core.AEConfig;
 import appeng.core.AELog;
 import appeng.core.CommonHelper;
+import appeng.core.sync.TileUpdateCoalescer;
 import appeng.core.sync.packets.PacketPaintedEntity;
+import appeng.core.worlddata.WorldData;
 import appeng.crafting.CraftingJob;
 import appeng.entity.EntityFloatingItem;
 import appeng.me.Grid;
+import appeng.me.GridNode;
+import appeng.me.GridSplitDetector;
 import appeng.me.NetworkList;
+import appeng.me.storage.CellInventory;
 import appeng.tile.AEBaseTile;
 import appeng.util.IWorldCallable;
 import appeng.util.Platform;
@@ -62,7 +70,8 @@ public class TickHandler
 {
 
 	public static final TickHandler INSTANCE = new TickHandler();
-	final Queue<IWorldCallable<?>> serverQueue = new LinkedList<IWorldCallable<?>>();
+	// can be filled from any thread, world queues only from their own.
+	final Queue<IWorldCallable<?>> serverQueue = new ConcurrentLinkedQueue<IWorldCallable<?>>();
 	final Multimap<World, CraftingJob> craftingJobs = LinkedListMultimap.create();
 	private final WeakHashMap<World, Queue<IWorldCallable<?>>> callQueue = new WeakHashMap<World, Queue<IWorldCallable<?>>>();
 	private final HandlerRep server = new HandlerRep();
@@ -133,6 +142,17 @@ public class TickHandler
 		}
 	}
 
+	/**
+	 * queues a node which lost a connection, its grid is checked for splits before the networks tick.
+	 */
+	public void addSplitCheck( GridNode node )
+	{
+		if( Platform.isServer() ) // for no there is no reason to care about this on the client...
+		{
+			this.getRepo().splitChecks.add( node );
+		}
+	}
+
 	public Iterable<Grid> getGridList()
 	{
 		return this.getRepo().networks;
@@ -141,6 +161,7 @@ public class TickHandler
 	public void shutdown()
 	{
 		this.getRepo().clear();
+		TileUpdateCoalescer.INSTANCE.clear();
 	}
 
 	@SubscribeEvent
@@ -165,6 +186,24 @@ public class TickHandler
 			{
 				n.destroy();
 			}
+
+			TileUpdateCoalescer.INSTANCE.unloadWorld( ev.world );
+		}
+	}
+
+	@SubscribeEvent
+	public void saveWorld( WorldEvent.Save ev )
+	{
+		// an autosave runs before the end of the tick, cells changed during it have to be written before their chunks.
+		if( Platform.isServer() )
+		{
+			CellInventory.flushPendingChanges();
+		}
+
+		// every save includes the overworld, the other dimensions add nothing.
+		if( Platform.isServer() && ev.world.provider.dimensionId == 0 && WorldData.instance() != null )
+		{
+			WorldData.instance().onWorldSave();
 		}
 	}
 
@@ -180,6 +219,16 @@ public class TickHandler
 		}
 	}
 
+	@SubscribeEvent
+	public void onChunkUnload( ChunkEvent.Unload unload )
+	{
+		// the chunk is written right after this, including the cells in its tiles.
+		if( Platform.isServer() )
+		{
+			CellInventory.flushPendingChanges();
+		}
+	}
+
 	@SubscribeEvent
 	public void onTick( TickEvent ev )
 	{
@@ -233,6 +282,14 @@ public class TickHandler
 				}
 			}
 
+			// split networks which lost connections.
+			if( !repo.splitChecks.isEmpty() )
+			{
+				final Set<GridNode> splitChecks = repo.splitChecks;
+				repo.splitChecks = new LinkedHashSet<GridNode>();
+				GridSplitDetector.splitGrids( splitChecks );
+			}
+
 			// tick networks.
 			for( Grid g : this.getRepo().networks )
 			{
@@ -241,6 +298,12 @@ public class TickHandler
 
 			// cross world queue.
 			this.processQueue( this.serverQueue, null );
+
+			// write cells changed during this tick.
+			CellInventory.flushPendingChanges();
+
+			// send the tile updates of this tick.
+			TileUpdateCoalescer.INSTANCE.tick();
 		}
 
 		// world synced queue(s)
@@ -313,10 +376,13 @@ public class TickHandler
 
 		public Collection<Grid> networks = new NetworkList();
 
+		public Set<GridNode> splitChecks = new LinkedHashSet<GridNode>();
+
 		public void clear()
 		{
 			this.tiles = new LinkedList<AEBaseTile>();
 			this.networks = new NetworkList();
+			this.splitChecks = new LinkedHashSet<GridNode>();
 		}
 	}
 
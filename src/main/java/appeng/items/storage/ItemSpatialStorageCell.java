@@ -172,7 +172,19 @@ public class ItemSpatialStorageCell extends AEBaseItem implements ISpatialStorag
 					destination = this.createNewWorld( is );
 				}
 
-				StorageHelper.getInstance().swapRegions( w, destination, min.x + 1, min.y + 1, min.z + 1, 1, floorBuffer + 1, 1, targetX - 1, targetY - 1, targetZ - 1 );
+				NBTTagCompound c = Platform.openNbtData( is );
+				if( !c.hasKey( "originY" ) )
+				{
+					// cells filled before the origin was stored keep their contents at 1, 65, 1.
+					boolean empty = scale.x == 0 && scale.y == 0 && scale.z == 0;
+
+					// an empty cell lines up with the region, so whole chunk sections can be swapped.
+					c.setInteger( "originX", empty ? 16 + ( ( min.x + 1 ) & 15 ) : 1 );
+					c.setInteger( "originY", empty ? floorBuffer + ( ( min.y + 1 ) & 15 ) : floorBuffer + 1 );
+					c.setInteger( "originZ", empty ? 16 + ( ( min.z + 1 ) & 15 ) : 1 );
+				}
+
+				StorageHelper.getInstance().swapRegions( w, destination, min.x + 1, min.y + 1, min.z + 1, c.getInteger( "originX" ), c.getInteger( "originY" ), c.getInteger( "originZ" ), targetX - 1, targetY - 1, targetZ - 1 );
 				this.setStoredSize( is, targetX, targetY, targetZ );
 
 				return new TransitionResult( true, 0 );
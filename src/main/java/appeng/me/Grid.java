@@ -134,6 +134,12 @@ public class Grid implements IGrid
 		}
 	}
 
+	boolean contains( GridNode gridNode )
+	{
+		final Set<IGridNode> nodes = this.machines.get( gridNode.getMachineClass() );
+		return nodes != null && nodes.contains( gridNode );
+	}
+
 	public void add( GridNode gridNode )
 	{
 		Class<? extends IGridHost> mClass = gridNode.getMachineClass();
@@ -247,6 +253,14 @@ public class Grid implements IGrid
 		return s;
 	}
 
+	/**
+	 * @return the live set of nodes of the given machine class, or null if the grid never contained one.
+	 */
+	MachineSet getMachineSet( Class<? extends IGridHost> c )
+	{
+		return this.machines.get( c );
+	}
+
 	@Override
 	public IReadOnlyCollection<IGridNode> getNodes()
 	{
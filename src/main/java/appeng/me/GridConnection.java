@@ -35,6 +35,8 @@ import appeng.api.util.IReadOnlyCollection;
 import appeng.core.AEConfig;
 import appeng.core.AELog;
 import appeng.core.features.AEFeature;
+import appeng.hooks.TickHandler;
+import appeng.me.cache.PathGridCache;
 import appeng.me.pathfinding.IPathItem;
 import appeng.util.Platform;
 import appeng.util.ReadOnlyCollection;
@@ -45,7 +47,6 @@ public class GridConnection implements IGridConnection, IPathItem
 
 	private static final MENetworkChannelsChanged EVENT = new MENetworkChannelsChanged();
 	public int channelData = 0;
-	Object visitorIterationNumber = null;
 	private GridNode sideA;
 	private ForgeDirection fromAtoB;
 	private GridNode sideB;
@@ -114,9 +115,8 @@ public class GridConnection implements IGridConnection, IPathItem
 			}
 		}
 
-		// a connection was destroyed RE-PATH!!
-		IPathingGrid p = this.sideA.getInternalGrid().getCache( IPathingGrid.class );
-		p.repath();
+		// a connection was created RE-PATH!!
+		this.repath();
 
 		this.sideA.addConnection( this );
 		this.sideB.addConnection( this );
@@ -164,14 +164,28 @@ public class GridConnection implements IGridConnection, IPathItem
 	public void destroy()
 	{
 		// a connection was destroyed RE-PATH!!
-		IPathingGrid p = this.sideA.getInternalGrid().getCache( IPathingGrid.class );
-		p.repath();
+		this.repath();
 
 		this.sideA.removeConnection( this );
 		this.sideB.removeConnection( this );
 
-		this.sideA.validateGrid();
-		this.sideB.validateGrid();
+		// both sides are checked for a split together with any other removal of this tick.
+		TickHandler.INSTANCE.addSplitCheck( this.sideA );
+		TickHandler.INSTANCE.addSplitCheck( this.sideB );
+	}
+
+	private void repath()
+	{
+		IPathingGrid p = this.sideA.getInternalGrid().getCache( IPathingGrid.class );
+
+		if( p instanceof PathGridCache )
+		{
+			( (PathGridCache) p ).repath( this );
+		}
+		else
+		{
+			p.repath();
+		}
 	}
 
 	@Override
@@ -19,12 +19,12 @@
 package appeng.me;
 
 
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.Deque;
+import java.util.ArrayList;
 import java.util.EnumSet;
-import java.util.LinkedList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.tileentity.TileEntity;
@@ -52,15 +52,36 @@ import appeng.core.worlddata.WorldData;
 import appeng.hooks.TickHandler;
 import appeng.me.pathfinding.IPathItem;
 import appeng.util.IWorldCallable;
-import appeng.util.ReadOnlyCollection;
 
 
 public class GridNode implements IGridNode, IPathItem
 {
 	private static final MENetworkChannelsChanged EVENT = new MENetworkChannelsChanged();
 	private static final int[] CHANNEL_COUNT = new int[] { 0, 8, 32 };
-
-	private final List<IGridConnection> connections = new LinkedList<IGridConnection>();
+	private static final int SIDES = 6;
+	private static final AtomicInteger VISIT_EPOCH = new AtomicInteger();
+	private static final ThreadLocal<VisitBuffer> VISIT_BUFFER = new ThreadLocal<VisitBuffer>()
+	{
+		@Override
+		protected VisitBuffer initialValue()
+		{
+			return new VisitBuffer();
+		}
+	};
+
+	/**
+	 * connections with a direction, indexed by the side they leave this node on.
+	 */
+	private final IGridConnection[] sides = new IGridConnection[SIDES];
+	/**
+	 * connections without a side, like quantum and p2p links; preferred ones first.
+	 */
+	private final List<IGridConnection> overflow = new ArrayList<IGridConnection>( 0 );
+	private final ConnectionView connections = new ConnectionView();
+	private int preferredSides = 0;
+	private int preferredOverflow = 0;
+	private int connectionCount = 0;
+	private IGridConnection controllerRoute = null;
 	private final IGridBlock gridProxy;
 	// old power draw, used to diff
 	public double previousDraw = 0.0;
@@ -68,7 +89,8 @@ public class GridNode implements IGridNode, IPathItem
 	public int playerID = -1;
 	private GridStorage myStorage = null;
 	private Grid myGrid;
-	private Object visitorIterationNumber = null;
+	private int visitEpoch = 0;
+	private int expandEpoch = 0;
 	// connection criteria
 	private int compressedData = 0;
 	private int usedChannels = 0;
@@ -101,31 +123,81 @@ public class GridNode implements IGridNode, IPathItem
 
 	public void addConnection( IGridConnection gridConnection )
 	{
-		this.connections.add( gridConnection );
-		if( gridConnection.hasDirection() )
+		final boolean preferred = gridConnection.getOtherSide( this ).hasFlag( GridFlags.PREFERRED );
+		final int side = this.sideOf( gridConnection );
+
+		if( side >= 0 && this.sides[side] == null )
 		{
-			this.gridProxy.onGridNotification( GridNotification.ConnectionsChanged );
+			this.sides[side] = gridConnection;
+			if( preferred )
+			{
+				this.preferredSides |= 1 << side;
+			}
+		}
+		else if( preferred )
+		{
+			this.overflow.add( this.preferredOverflow++, gridConnection );
+		}
+		else
+		{
+			this.overflow.add( gridConnection );
 		}
 
-		final IGridNode gn = this;
+		this.connectionCount++;
 
-		Collections.sort( this.connections, new ConnectionComparator( gn ) );
+		if( gridConnection.hasDirection() )
+		{
+			this.gridProxy.onGridNotification( GridNotification.ConnectionsChanged );
+		}
 	}
 
 	public void removeConnection( IGridConnection gridConnection )
 	{
-		this.connections.remove( gridConnection );
+		final int side = this.sideOf( gridConnection );
+
+		if( side >= 0 && this.sides[side] == gridConnection )
+		{
+			this.sides[side] = null;
+			this.preferredSides &= ~( 1 << side );
+			this.connectionCount--;
+		}
+		else
+		{
+			final int idx = this.overflow.indexOf( gridConnection );
+			if( idx >= 0 )
+			{
+				this.overflow.remove( idx );
+				if( idx < this.preferredOverflow )
+				{
+					this.preferredOverflow--;
+				}
+				this.connectionCount--;
+			}
+		}
+
+		if( this.controllerRoute == gridConnection )
+		{
+			this.controllerRoute = null;
+		}
+
 		if( gridConnection.hasDirection() )
 		{
 			this.gridProxy.onGridNotification( GridNotification.ConnectionsChanged );
 		}
 	}
 
+	private int sideOf( IGridConnection gridConnection )
+	{
+		final ForgeDirection dir = gridConnection.getDirection( this );
+		return dir == ForgeDirection.UNKNOWN ? -1 : dir.ordinal();
+	}
+
 	public boolean hasConnection( IGridNode otherSide )
 	{
-		for( IGridConnection gc : this.connections )
+		for( int pos = 0; pos < this.connectionPositions(); pos++ )
 		{
-			if( gc.a() == otherSide || gc.b() == otherSide )
+			final IGridConnection gc = this.connectionAt( pos );
+			if( gc != null && ( gc.a() == otherSide || gc.b() == otherSide ) )
 			{
 				return true;
 			}
@@ -133,15 +205,60 @@ public class GridNode implements IGridNode, IPathItem
 		return false;
 	}
 
-	public void validateGrid()
+	/**
+	 * Connections are kept in their side slots, so this walks fixed positions instead of a list: the controller route
+	 * first, then the preferred connections, then the rest. Positions which are empty or belong to another pass return
+	 * null.
+	 */
+	private IGridConnection connectionAt( int pos )
+	{
+		if( pos == 0 )
+		{
+			return this.controllerRoute;
+		}
+
+		final int slots = SIDES + this.overflow.size();
+		final boolean preferred = pos <= slots;
+		final int slot = ( preferred ? pos : pos - slots ) - 1;
+		final IGridConnection gc;
+
+		if( slot < SIDES )
+		{
+			gc = this.sides[slot];
+			if( gc == null || ( ( this.preferredSides & ( 1 << slot ) ) != 0 ) != preferred )
+			{
+				return null;
+			}
+		}
+		else
+		{
+			final int idx = slot - SIDES;
+			if( ( idx < this.preferredOverflow ) != preferred )
+			{
+				return null;
+			}
+			gc = this.overflow.get( idx );
+		}
+
+		return gc == this.controllerRoute ? null : gc;
+	}
+
+	private int connectionPositions()
 	{
-		GridSplitDetector gsd = new GridSplitDetector( this.getInternalGrid().getPivot() );
-		this.beginVisit( gsd );
-		if( !gsd.pivotFound )
+		return 1 + 2 * ( SIDES + this.overflow.size() );
+	}
+
+	private IGridConnection firstConnection()
+	{
+		for( int pos = 0; pos < this.connectionPositions(); pos++ )
 		{
-			IGridVisitor gp = new GridPropagator( new Grid( this ) );
-			this.beginVisit( gp );
+			final IGridConnection gc = this.connectionAt( pos );
+			if( gc != null )
+			{
+				return gc;
+			}
 		}
+		return null;
 	}
 
 	public Grid getInternalGrid()
@@ -157,46 +274,54 @@ public class GridNode implements IGridNode, IPathItem
 	@Override
 	public void beginVisit( IGridVisitor g )
 	{
-		Object tracker = new Object();
+		int epoch = VISIT_EPOCH.incrementAndGet();
+		if( epoch == 0 )
+		{
+			// 0 is the mark of nodes which were never visited.
+			epoch = VISIT_EPOCH.incrementAndGet();
+		}
 
-		LinkedList<GridNode> nextRun = new LinkedList<GridNode>();
-		nextRun.add( this );
+		VisitBuffer buffer = VISIT_BUFFER.get();
+		if( buffer.inUse )
+		{
+			// the visitor started another visit.
+			buffer = new VisitBuffer();
+		}
 
-		this.visitorIterationNumber = tracker;
+		final IGridConnectionVisitor gcv = g instanceof IGridConnectionVisitor ? (IGridConnectionVisitor) g : null;
 
-		if( g instanceof IGridConnectionVisitor )
+		buffer.inUse = true;
+		try
 		{
-			LinkedList<IGridConnection> nextConn = new LinkedList<IGridConnection>();
-			IGridConnectionVisitor gcv = (IGridConnectionVisitor) g;
+			this.visitEpoch = epoch;
+			buffer.addNode( this );
 
-			while( !nextRun.isEmpty() )
+			while( buffer.head < buffer.tail )
 			{
-				while( !nextConn.isEmpty() )
+				if( gcv != null )
 				{
-					gcv.visitConnection( nextConn.poll() );
+					for( int x = 0; x < buffer.connectionCount; x++ )
+					{
+						final IGridConnection gc = buffer.connections[x];
+						buffer.connections[x] = null;
+						gcv.visitConnection( gc );
+					}
+					buffer.connectionCount = 0;
 				}
 
-				Iterable<GridNode> thisRun = nextRun;
-				nextRun = new LinkedList<GridNode>();
-
-				for( GridNode n : thisRun )
+				// one distance from the start per round, connections found in a round are visited before the next.
+				final int roundEnd = buffer.tail;
+				while( buffer.head < roundEnd )
 				{
-					n.visitorConnection( tracker, g, nextRun, nextConn );
+					final GridNode n = buffer.nodes[buffer.head];
+					buffer.nodes[buffer.head++] = null;
+					n.visitorExpand( epoch, g, buffer, gcv != null );
 				}
 			}
 		}
-		else
+		finally
 		{
-			while( !nextRun.isEmpty() )
-			{
-				Iterable<GridNode> thisRun = nextRun;
-				nextRun = new LinkedList<GridNode>();
-
-				for( GridNode n : thisRun )
-				{
-					n.visitorNode( tracker, g, nextRun );
-				}
-			}
+			buffer.release();
 		}
 	}
 
@@ -259,15 +384,15 @@ public class GridNode implements IGridNode, IPathItem
 	@Override
 	public void destroy()
 	{
-		while( !this.connections.isEmpty() )
+		while( this.connectionCount > 0 )
 		{
 			// not part of this network for real anymore.
-			if( this.connections.size() == 1 )
+			if( this.connectionCount == 1 )
 			{
 				this.setGridStorage( null );
 			}
 
-			IGridConnection c = this.connections.listIterator().next();
+			IGridConnection c = this.firstConnection();
 			GridNode otherSide = (GridNode) c.getOtherSide( this );
 			otherSide.getInternalGrid().setPivot( otherSide );
 			c.destroy();
@@ -288,8 +413,16 @@ public class GridNode implements IGridNode, IPathItem
 	@Override
 	public EnumSet<ForgeDirection> getConnectedSides()
 	{
+		// callers keep the set, so it has to be a copy.
 		EnumSet<ForgeDirection> set = EnumSet.noneOf( ForgeDirection.class );
-		for( IGridConnection gc : this.connections )
+		for( int side = 0; side < SIDES; side++ )
+		{
+			if( this.sides[side] != null )
+			{
+				set.add( ForgeDirection.getOrientation( side ) );
+			}
+		}
+		for( IGridConnection gc : this.overflow )
 		{
 			set.add( gc.getDirection( this ) );
 		}
@@ -299,7 +432,7 @@ public class GridNode implements IGridNode, IPathItem
 	@Override
 	public IReadOnlyCollection<IGridConnection> getConnections()
 	{
-		return new ReadOnlyCollection<IGridConnection>( this.connections );
+		return this.connections;
 	}
 
 	@Override
@@ -530,49 +663,36 @@ public class GridNode implements IGridNode, IPathItem
 		return AEColor.values()[( this.compressedData >> 3 ) & 0x1F];
 	}
 
-	private void visitorConnection( Object tracker, IGridVisitor g, Deque<GridNode> nextRun, Deque<IGridConnection> nextConnections )
+	private void visitorExpand( int epoch, IGridVisitor g, VisitBuffer buffer, boolean withConnections )
 	{
 		if( g.visitNode( this ) )
 		{
-			for( IGridConnection gc : this.getConnections() )
-			{
-				GridNode gn = (GridNode) gc.getOtherSide( this );
-				GridConnection gcc = (GridConnection) gc;
+			this.expandEpoch = epoch;
 
-				if( gcc.visitorIterationNumber != tracker )
-				{
-					gcc.visitorIterationNumber = tracker;
-					nextConnections.add( gc );
-				}
-
-				if( tracker == gn.visitorIterationNumber )
+			for( int pos = 0; pos < this.connectionPositions(); pos++ )
+			{
+				final IGridConnection gc = this.connectionAt( pos );
+				if( gc == null )
 				{
 					continue;
 				}
 
-				gn.visitorIterationNumber = tracker;
-
-				nextRun.add( gn );
-			}
-		}
-	}
+				final GridNode gn = (GridNode) gc.getOtherSide( this );
 
-	private void visitorNode( Object tracker, IGridVisitor g, Deque<GridNode> nextRun )
-	{
-		if( g.visitNode( this ) )
-		{
-			for( IGridConnection gc : this.getConnections() )
-			{
-				GridNode gn = (GridNode) gc.getOtherSide( this );
+				// a connection is collected by whichever side expands first.
+				if( withConnections && gn.expandEpoch != epoch )
+				{
+					buffer.addConnection( gc );
+				}
 
-				if( tracker == gn.visitorIterationNumber )
+				if( gn.visitEpoch == epoch )
 				{
 					continue;
 				}
 
-				gn.visitorIterationNumber = tracker;
+				gn.visitEpoch = epoch;
 
-				nextRun.add( gn );
+				buffer.addNode( gn );
 			}
 		}
 	}
@@ -592,12 +712,12 @@ public class GridNode implements IGridNode, IPathItem
 	@Override
 	public IPathItem getControllerRoute()
 	{
-		if( this.connections.isEmpty() || this.getFlags().contains( GridFlags.CANNOT_CARRY ) )
+		if( this.connectionCount == 0 || this.getFlags().contains( GridFlags.CANNOT_CARRY ) )
 		{
 			return null;
 		}
 
-		return (IPathItem) this.connections.get( 0 );
+		return (IPathItem) this.firstConnection();
 	}
 
 	@Override
@@ -608,11 +728,9 @@ public class GridNode implements IGridNode, IPathItem
 			this.usedChannels = 0;
 		}
 
-		int idx = this.connections.indexOf( fast );
-		if( idx > 0 )
+		if( this.connections.contains( fast ) )
 		{
-			this.connections.remove( fast );
-			this.connections.add( 0, (IGridConnection) fast );
+			this.controllerRoute = (IGridConnection) fast;
 		}
 	}
 
@@ -687,22 +805,141 @@ public class GridNode implements IGridNode, IPathItem
 		}
 	}
 
-	private static class ConnectionComparator implements Comparator<IGridConnection>
+	/**
+	 * Live, read only view of the connections, in the order described at {@link #connectionAt(int)}.
+	 */
+	private final class ConnectionView implements IReadOnlyCollection<IGridConnection>
 	{
-		private final IGridNode gn;
 
-		public ConnectionComparator( IGridNode gn )
+		@Override
+		public int size()
+		{
+			return GridNode.this.connectionCount;
+		}
+
+		@Override
+		public boolean isEmpty()
+		{
+			return GridNode.this.connectionCount == 0;
+		}
+
+		@Override
+		public boolean contains( Object node )
 		{
-			this.gn = gn;
+			if( !( node instanceof IGridConnection ) )
+			{
+				return false;
+			}
+
+			final int side = GridNode.this.sideOf( (IGridConnection) node );
+			return ( side >= 0 && GridNode.this.sides[side] == node ) || GridNode.this.overflow.contains( node );
 		}
 
 		@Override
-		public int compare( IGridConnection o1, IGridConnection o2 )
+		public Iterator<IGridConnection> iterator()
 		{
-			boolean preferredA = o1.getOtherSide( this.gn ).hasFlag( GridFlags.PREFERRED );
-			boolean preferredB = o2.getOtherSide( this.gn ).hasFlag( GridFlags.PREFERRED );
+			return new ConnectionIterator();
+		}
+	}
+
+	private final class ConnectionIterator implements Iterator<IGridConnection>
+	{
+
+		private int pos = 0;
+		private IGridConnection next;
+
+		private ConnectionIterator()
+		{
+			this.advance();
+		}
+
+		private void advance()
+		{
+			this.next = null;
+			while( this.next == null && this.pos < GridNode.this.connectionPositions() )
+			{
+				this.next = GridNode.this.connectionAt( this.pos++ );
+			}
+		}
+
+		@Override
+		public boolean hasNext()
+		{
+			return this.next != null;
+		}
+
+		@Override
+		public IGridConnection next()
+		{
+			if( this.next == null )
+			{
+				throw new NoSuchElementException();
+			}
+
+			final IGridConnection gc = this.next;
+			this.advance();
+			return gc;
+		}
+
+		@Override
+		public void remove()
+		{
+			throw new UnsupportedOperationException( "Connections are changed through the grid." );
+		}
+	}
+
+	/**
+	 * Frontier of {@link #beginVisit(IGridVisitor)}, kept per thread so visits do not allocate once it has grown to the
+	 * size of the largest grid.
+	 */
+	private static final class VisitBuffer
+	{
+
+		private GridNode[] nodes = new GridNode[64];
+		private IGridConnection[] connections = new IGridConnection[64];
+		private int head;
+		private int tail;
+		private int connectionCount;
+		private boolean inUse;
+
+		private void addNode( GridNode n )
+		{
+			if( this.tail == this.nodes.length )
+			{
+				final GridNode[] grown = new GridNode[this.nodes.length * 2];
+				System.arraycopy( this.nodes, this.head, grown, this.head, this.tail - this.head );
+				this.nodes = grown;
+			}
+
+			this.nodes[this.tail++] = n;
+		}
+
+		private void addConnection( IGridConnection gc )
+		{
+			if( this.connectionCount == this.connections.length )
+			{
+				final IGridConnection[] grown = new IGridConnection[this.connections.length * 2];
+				System.arraycopy( this.connections, 0, grown, 0, this.connectionCount );
+				this.connections = grown;
+			}
+
+			this.connections[this.connectionCount++] = gc;
+		}
+
+		private void release()
+		{
+			// drop anything a failed visit left behind.
+			for( int x = this.head; x < this.tail; x++ )
+			{
+				this.nodes[x] = null;
+			}
+			for( int x = 0; x < this.connectionCount; x++ )
+			{
+				this.connections[x] = null;
+			}
 
-			return preferredA == preferredB ? 0 : ( preferredA ? -1 : 1 );
+			this.head = this.tail = this.connectionCount = 0;
+			this.inUse = false;
 		}
 	}
 }
@@ -19,29 +19,215 @@
 package appeng.me;
 
 
-import appeng.api.networking.IGridNode;
-import appeng.api.networking.IGridVisitor;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
+import appeng.api.networking.IGridConnection;
 
-class GridSplitDetector implements IGridVisitor
+
+/**
+ * Splits grids which lost connections.
+ *
+ * The endpoints of every removed connection are collected during a tick and checked together. Starting at those
+ * endpoints, one search per endpoint runs in lock step; searches that reach each other are merged, and a search that
+ * runs out of nodes has found a component of its own. Once a single search is left the rest of the grid is known to be
+ * connected, so the work done is proportional to the components which split off, not to the size of the grid.
+ */
+public final class GridSplitDetector
 {
 
-	final IGridNode pivot;
-	boolean pivotFound;
+	private final Map<GridNode, Search> owners = new IdentityHashMap<GridNode, Search>();
+
+	private GridSplitDetector()
+	{
+	}
+
+	/**
+	 * @param endpoints nodes which lost a connection since the last call.
+	 */
+	public static void splitGrids( Collection<GridNode> endpoints )
+	{
+		final Map<Grid, List<GridNode>> byGrid = new HashMap<Grid, List<GridNode>>();
+
+		for( GridNode n : endpoints )
+		{
+			final Grid g = n.getMyGrid();
+
+			// destroyed nodes are no longer part of their grid.
+			if( g == null || !g.contains( n ) )
+			{
+				continue;
+			}
+
+			List<GridNode> seeds = byGrid.get( g );
+			if( seeds == null )
+			{
+				byGrid.put( g, seeds = new ArrayList<GridNode>() );
+			}
+
+			seeds.add( n );
+		}
+
+		for( Map.Entry<Grid, List<GridNode>> e : byGrid.entrySet() )
+		{
+			// a single endpoint cannot be cut off from anything.
+			if( e.getValue().size() > 1 )
+			{
+				new GridSplitDetector().split( e.getKey(), e.getValue() );
+			}
+		}
+	}
+
+	private void split( Grid grid, List<GridNode> seeds )
+	{
+		final List<Search> active = new ArrayList<Search>( seeds.size() );
+
+		for( GridNode seed : seeds )
+		{
+			if( !this.owners.containsKey( seed ) )
+			{
+				final Search s = new Search( seed );
+				this.owners.put( seed, s );
+				active.add( s );
+			}
+		}
+
+		while( active.size() > 1 )
+		{
+			for( int x = 0; x < active.size() && active.size() > 1; x++ )
+			{
+				final Search s = active.get( x );
+
+				if( s.merged != null )
+				{
+					active.remove( x-- );
+				}
+				else if( !this.step( s ) )
+				{
+					// nothing left to visit, this search found a separate component.
+					active.remove( x-- );
+					this.moveToNewGrid( grid, s, active );
+				}
+			}
+		}
+	}
+
+	/**
+	 * visits the next node of a search.
+	 *
+	 * @return false if the search has visited its whole component.
+	 */
+	private boolean step( Search s )
+	{
+		final GridNode n = s.frontier.poll();
+		if( n == null )
+		{
+			return false;
+		}
+
+		Search current = s;
+
+		for( IGridConnection gc : n.getConnections() )
+		{
+			final GridNode other = (GridNode) gc.getOtherSide( n );
+			final Search owner = this.owners.get( other );
+
+			if( owner == null )
+			{
+				this.owners.put( other, current );
+				current.frontier.add( other );
+				current.nodes.add( other );
+			}
+			else
+			{
+				final Search found = owner.find();
+				if( found != current )
+				{
+					current = this.merge( current, found );
+				}
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * @return the search both continue as
+	 */
+	private Search merge( Search a, Search b )
+	{
+		final Search into = a.nodes.size() >= b.nodes.size() ? a : b;
+		final Search from = into == a ? b : a;
+
+		from.merged = into;
+		into.frontier.addAll( from.frontier );
+		into.nodes.addAll( from.nodes );
+		from.frontier.clear();
+		from.nodes.clear();
 
-	public GridSplitDetector( IGridNode pivot )
+		return into;
+	}
+
+	private void moveToNewGrid( Grid grid, Search s, List<Search> remaining )
 	{
-		this.pivot = pivot;
+		// the grid stays with the remaining nodes.
+		final Search pivotOwner = this.owners.get( grid.getPivot() );
+		if( pivotOwner != null && pivotOwner.find() == s )
+		{
+			for( Search r : remaining )
+			{
+				if( r.merged == null )
+				{
+					grid.setPivot( r.nodes.get( 0 ) );
+					break;
+				}
+			}
+		}
+
+		final Grid newGrid = new Grid( s.nodes.get( 0 ) );
+
+		for( GridNode n : s.nodes )
+		{
+			n.setGrid( newGrid );
+		}
 	}
 
-	@Override
-	public boolean visitNode( IGridNode n )
+	private static final class Search
 	{
-		if( n == this.pivot )
+
+		private final ArrayDeque<GridNode> frontier = new ArrayDeque<GridNode>();
+		private final List<GridNode> nodes = new ArrayList<GridNode>();
+		private Search merged;
+
+		private Search( GridNode start )
 		{
-			this.pivotFound = true;
+			this.frontier.add( start );
+			this.nodes.add( start );
 		}
 
-		return !this.pivotFound;
+		private Search find()
+		{
+			Search s = this;
+			while( s.merged != null )
+			{
+				s = s.merged;
+			}
+
+			// compress the path for the next lookup.
+			Search c = this;
+			while( c.merged != null && c.merged != s )
+			{
+				final Search next = c.merged;
+				c.merged = s;
+				c = next;
+			}
+
+			return s;
+		}
 	}
 }
@@ -43,6 +43,7 @@ public class GridStorage implements IGridStorage
 	private final WeakHashMap<GridStorage, Boolean> divided = new WeakHashMap<GridStorage, Boolean>();
 	public boolean isDirty = false;
 	private WeakReference<IGrid> internalGrid = null;
+	private NBTTagCompound savedData = null; // the data as it was last saved, null if it never was.
 
 	// lost...
 
@@ -62,11 +63,11 @@ public class GridStorage implements IGridStorage
 	/**
 	 * for use with world settings
 	 *
-	 * @param input array of bytes string
+	 * @param input compressed nbt, as returned by {@link #getValue()}
 	 * @param id ID of grid storage
 	 * @param gss grid storage search
 	 */
-	public GridStorage( String input, long id, GridStorageSearch gss )
+	public GridStorage( byte[] input, long id, GridStorageSearch gss )
 	{
 		this.myID = id;
 		this.mySearchEntry = gss;
@@ -74,8 +75,7 @@ public class GridStorage implements IGridStorage
 
 		try
 		{
-			byte[] byteData = javax.xml.bind.DatatypeConverter.parseBase64Binary( input );
-			myTag = CompressedStreamTools.readCompressed( new ByteArrayInputStream( byteData ) );
+			myTag = CompressedStreamTools.readCompressed( new ByteArrayInputStream( input ) );
 		}
 		catch( Throwable t )
 		{
@@ -83,6 +83,7 @@ public class GridStorage implements IGridStorage
 		}
 
 		this.data = myTag;
+		this.savedData = input.length > 0 ? (NBTTagCompound) myTag.copy() : null;
 	}
 
 	/**
@@ -95,7 +96,7 @@ public class GridStorage implements IGridStorage
 		this.data = new NBTTagCompound();
 	}
 
-	public String getValue()
+	public byte[] getValue()
 	{
 		this.isDirty = false;
 
@@ -105,18 +106,39 @@ public class GridStorage implements IGridStorage
 			currentGrid.saveState();
 		}
 
+		this.savedData = (NBTTagCompound) this.data.copy();
+
 		try
 		{
 			ByteArrayOutputStream out = new ByteArrayOutputStream();
 			CompressedStreamTools.writeCompressed( this.data, out );
-			return javax.xml.bind.DatatypeConverter.printBase64Binary( out.toByteArray() );
+			return out.toByteArray();
 		}
 		catch( IOException e )
 		{
 			AELog.error( e );
 		}
 
-		return "";
+		return new byte[0];
+	}
+
+	/**
+	 * @return true if {@link #getValue()} would return something else than what was saved last.
+	 */
+	public boolean needsSaving()
+	{
+		if( this.isDirty || this.savedData == null )
+		{
+			return true;
+		}
+
+		Grid currentGrid = (Grid) this.getGrid();
+		if( currentGrid != null )
+		{
+			currentGrid.saveState();
+		}
+
+		return !this.data.equals( this.savedData );
 	}
 
 	public IGrid getGrid()
@@ -19,6 +19,7 @@
 package appeng.me;
 
 
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -32,6 +33,7 @@ import appeng.api.networking.IGridNode;
 import appeng.api.networking.events.MENetworkEvent;
 import appeng.api.networking.events.MENetworkEventSubscribe;
 import appeng.core.AELog;
+import appeng.transformer.asm.InvokerGenerator;
 
 
 public class NetworkEventBus
@@ -39,8 +41,31 @@ public class NetworkEventBus
 	private static final Collection<Class> READ_CLASSES = new HashSet<Class>();
 	private static final Map<Class<? extends MENetworkEvent>, Map<Class, MENetworkEventInfo>> EVENTS = new HashMap<Class<? extends MENetworkEvent>, Map<Class, MENetworkEventInfo>>();
 
+	/**
+	 * subscribers of this grid, resolved per event type, cleared whenever the grid learns about a new class.
+	 */
+	private final Map<Class<? extends MENetworkEvent>, List<GridSubscriber>> gridSubscribers = new HashMap<Class<? extends MENetworkEvent>, List<GridSubscriber>>();
+
+	/**
+	 * Creates an invoker calling the subscriber method directly, uses reflection for methods which can not be called
+	 * from generated code.
+	 */
+	public static IEventInvoker createInvoker( Method m )
+	{
+		IEventInvoker invoker = InvokerGenerator.generate( IEventInvoker.class, m );
+
+		if( invoker == null )
+		{
+			invoker = new ReflectiveEventInvoker( m );
+		}
+
+		return invoker;
+	}
+
 	public void readClass( Class listAs, Class c )
 	{
+		this.gridSubscribers.clear();
+
 		if( READ_CLASSES.contains( c ) )
 		{
 			return;
@@ -96,70 +121,134 @@ public class NetworkEventBus
 
 	public MENetworkEvent postEvent( Grid g, MENetworkEvent e )
 	{
-		Map<Class, MENetworkEventInfo> subscribers = EVENTS.get( e.getClass() );
 		int x = 0;
 
-		try
+		subscribers:
+		for( GridSubscriber subscriber : this.getGridSubscribers( g, e.getClass() ) )
 		{
-			if( subscribers != null )
+			if( subscriber.cache != null )
 			{
-				for( Entry<Class, MENetworkEventInfo> subscriber : subscribers.entrySet() )
+				x++;
+				if( subscriber.target.invoke( subscriber.cache.myCache, e ) )
 				{
-					MENetworkEventInfo target = subscriber.getValue();
-					GridCacheWrapper cache = g.getCaches().get( subscriber.getKey() );
-					if( cache != null )
-					{
-						x++;
-						target.invoke( cache.myCache, e );
-					}
+					break;
+				}
+			}
 
-					for( IGridNode obj : g.getMachines( subscriber.getKey() ) )
+			if( subscriber.machines != null )
+			{
+				for( IGridNode obj : subscriber.machines )
+				{
+					x++;
+					if( subscriber.target.invoke( obj.getMachine(), e ) )
 					{
-						x++;
-						target.invoke( obj.getMachine(), e );
+						break subscribers;
 					}
 				}
 			}
 		}
-		catch( NetworkEventDone done )
-		{
-			// Early out.
-		}
 
 		e.setVisitedObjects( x );
 		return e;
 	}
 
-	public MENetworkEvent postEventTo( Grid grid, GridNode node, MENetworkEvent e )
+	private List<GridSubscriber> getGridSubscribers( Grid g, Class<? extends MENetworkEvent> eventClass )
 	{
-		Map<Class, MENetworkEventInfo> subscribers = EVENTS.get( e.getClass() );
-		int x = 0;
+		List<GridSubscriber> list = this.gridSubscribers.get( eventClass );
 
-		try
+		if( list == null )
 		{
+			list = new ArrayList<GridSubscriber>();
+
+			Map<Class, MENetworkEventInfo> subscribers = EVENTS.get( eventClass );
 			if( subscribers != null )
 			{
-				MENetworkEventInfo target = subscribers.get( node.getMachineClass() );
-				if( target != null )
+				for( Entry<Class, MENetworkEventInfo> subscriber : subscribers.entrySet() )
 				{
-					x++;
-					target.invoke( node.getMachine(), e );
+					GridCacheWrapper cache = g.getCaches().get( subscriber.getKey() );
+					MachineSet machines = g.getMachineSet( subscriber.getKey() );
+
+					if( cache != null || machines != null )
+					{
+						list.add( new GridSubscriber( subscriber.getValue(), cache, machines ) );
+					}
 				}
 			}
+
+			this.gridSubscribers.put( eventClass, list );
 		}
-		catch( NetworkEventDone done )
+
+		return list;
+	}
+
+	public MENetworkEvent postEventTo( Grid grid, GridNode node, MENetworkEvent e )
+	{
+		Map<Class, MENetworkEventInfo> subscribers = EVENTS.get( e.getClass() );
+		int x = 0;
+
+		if( subscribers != null )
 		{
-			// Early out.
+			MENetworkEventInfo target = subscribers.get( node.getMachineClass() );
+			if( target != null )
+			{
+				x++;
+				target.invoke( node.getMachine(), e );
+			}
 		}
 
 		e.setVisitedObjects( x );
 		return e;
 	}
 
-	static class NetworkEventDone extends Throwable
+	/**
+	 * Calls a single {@link MENetworkEventSubscribe} method, implementations are generated by {@link InvokerGenerator}.
+	 */
+	public interface IEventInvoker
+	{
+		void invoke( Object obj, MENetworkEvent e );
+	}
+
+	public static final class ReflectiveEventInvoker implements IEventInvoker
+	{
+
+		private final Method method;
+
+		public ReflectiveEventInvoker( Method method )
+		{
+			this.method = method;
+		}
+
+		@Override
+		public void invoke( Object obj, MENetworkEvent e )
+		{
+			try
+			{
+				this.method.invoke( obj, e );
+			}
+			catch( IllegalAccessException ex )
+			{
+				throw new IllegalStateException( ex );
+			}
+			catch( InvocationTargetException ex )
+			{
+				throw new IllegalStateException( ex.getCause() );
+			}
+		}
+	}
+
+	private static class GridSubscriber
 	{
 
-		private static final long serialVersionUID = -3079021487019171205L;
+		final MENetworkEventInfo target;
+		final GridCacheWrapper cache;
+		final MachineSet machines;
+
+		GridSubscriber( MENetworkEventInfo target, GridCacheWrapper cache, MachineSet machines )
+		{
+			this.target = target;
+			this.cache = cache;
+			this.machines = machines;
+		}
 	}
 
 	class EventMethod
@@ -168,19 +257,24 @@ public class NetworkEventBus
 		public final Class objClass;
 		public final Method objMethod;
 		public final Class objEvent;
+		private final IEventInvoker invoker;
 
 		public EventMethod( Class Event, Class ObjClass, Method ObjMethod )
 		{
 			this.objClass = ObjClass;
 			this.objMethod = ObjMethod;
 			this.objEvent = Event;
+			this.invoker = createInvoker( ObjMethod );
 		}
 
-		public void invoke( Object obj, MENetworkEvent e ) throws NetworkEventDone
+		/**
+		 * @return true if the event was canceled and should not be passed on
+		 */
+		public boolean invoke( Object obj, MENetworkEvent e )
 		{
 			try
 			{
-				this.objMethod.invoke( obj, e );
+				this.invoker.invoke( obj, e );
 			}
 			catch( Throwable e1 )
 			{
@@ -191,10 +285,7 @@ public class NetworkEventBus
 				throw new IllegalStateException( e1 );
 			}
 
-			if( e.isCanceled() )
-			{
-				throw new NetworkEventDone();
-			}
+			return e.isCanceled();
 		}
 	}
 
@@ -208,12 +299,20 @@ public class NetworkEventBus
 			this.methods.add( new EventMethod( Event, ObjClass, ObjMethod ) );
 		}
 
-		public void invoke( Object obj, MENetworkEvent e ) throws NetworkEventDone
+		/**
+		 * @return true if the event was canceled and should not be passed on
+		 */
+		public boolean invoke( Object obj, MENetworkEvent e )
 		{
 			for( EventMethod em : this.methods )
 			{
-				em.invoke( obj, e );
+				if( em.invoke( obj, e ) )
+				{
+					return true;
+				}
 			}
+
+			return false;
 		}
 	}
 }
@@ -26,15 +26,13 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.ThreadFactory;
 
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableCollection;
@@ -75,9 +73,11 @@ import appeng.api.storage.StorageChannel;
 import appeng.api.storage.data.IAEItemStack;
 import appeng.api.storage.data.IAEStack;
 import appeng.api.storage.data.IItemList;
+import appeng.crafting.CraftingCalculatorScheduler;
 import appeng.crafting.CraftingJob;
 import appeng.crafting.CraftingLink;
 import appeng.crafting.CraftingLinkNexus;
+import appeng.crafting.CraftingTreeNode;
 import appeng.crafting.CraftingWatcher;
 import appeng.me.cluster.implementations.CraftingCPUCluster;
 import appeng.me.helpers.GenericInterestManager;
@@ -89,7 +89,6 @@ import appeng.util.ItemSorters;
 public class CraftingGridCache implements ICraftingGrid, ICraftingProviderHelper, ICellProvider, IMEInventoryHandler<IAEStack>
 {
 
-	public static final ExecutorService CRAFTING_POOL;
 	static final Comparator<ICraftingPatternDetails> COMPARATOR = new Comparator<ICraftingPatternDetails>()
 	{
 		@Override
@@ -99,20 +98,7 @@ public class CraftingGridCache implements ICraftingGrid, ICraftingProviderHelper
 		}
 	};
 
-	static
-	{
-		ThreadFactory factory = new ThreadFactory()
-		{
-
-			@Override
-			public Thread newThread( Runnable ar )
-			{
-				return new Thread( ar, "AE Crafting Calculator" );
-			}
-		};
-
-		CRAFTING_POOL = Executors.newCachedThreadPool( factory );
-	}
+	private static final int PLAN_CACHE_SIZE = 64;
 
 	private final Set<CraftingCPUCluster> craftingCPUClusters = new HashSet<CraftingCPUCluster>();
 	private final Set<ICraftingProvider> craftingProviders = new HashSet<ICraftingProvider>();
@@ -124,9 +110,19 @@ public class CraftingGridCache implements ICraftingGrid, ICraftingProviderHelper
 	private final Map<String, CraftingLinkNexus> craftingLinks = new HashMap<String, CraftingLinkNexus>();
 	private final Multimap<IAEStack, CraftingWatcher> interests = HashMultimap.create();
 	public final GenericInterestManager<CraftingWatcher> interestManager = new GenericInterestManager<CraftingWatcher>( this.interests );
+	// shapes of recently calculated crafting trees, only valid for the pattern version they were built with.
+	private final Map<IAEItemStack, CraftingTreeNode> planShapes = new LinkedHashMap<IAEItemStack, CraftingTreeNode>( 16, 0.75f, true )
+	{
+		@Override
+		protected boolean removeEldestEntry( Entry<IAEItemStack, CraftingTreeNode> eldest )
+		{
+			return this.size() > PLAN_CACHE_SIZE;
+		}
+	};
 	private IStorageGrid storageGrid;
 	private IEnergyGrid energyGrid;
 	private boolean updateList = false;
+	private int patternVersion = 0;
 
 	public CraftingGridCache( IGrid grid )
 	{
@@ -257,6 +253,12 @@ public class CraftingGridCache implements ICraftingGrid, ICraftingProviderHelper
 	{
 		Map<IAEItemStack, ImmutableList<ICraftingPatternDetails>> oldItems = this.craftableItems;
 
+		synchronized( this.planShapes )
+		{
+			this.patternVersion++;
+			this.planShapes.clear();
+		}
+
 		// erase list.
 		this.craftingMethods.clear();
 		this.craftableItems.clear();
@@ -496,6 +498,41 @@ public class CraftingGridCache implements ICraftingGrid, ICraftingProviderHelper
 		return res;
 	}
 
+	public int getPatternVersion()
+	{
+		synchronized( this.planShapes )
+		{
+			return this.patternVersion;
+		}
+	}
+
+	/**
+	 * @return the shape of the crafting tree last calculated for this item, or null if the patterns changed since.
+	 */
+	public CraftingTreeNode getPlanShape( IAEItemStack what )
+	{
+		synchronized( this.planShapes )
+		{
+			return this.planShapes.get( what );
+		}
+	}
+
+	/**
+	 * stores the shape of a crafting tree, unless the patterns changed since it was built.
+	 */
+	public void storePlanShape( IAEItemStack what, int version, CraftingTreeNode shape )
+	{
+		synchronized( this.planShapes )
+		{
+			if( version == this.patternVersion )
+			{
+				IAEItemStack key = what.copy();
+				key.reset();
+				this.planShapes.put( key, shape );
+			}
+		}
+	}
+
 	@Override
 	public Future<ICraftingJob> beginCraftingJob( World world, IGrid grid, BaseActionSource actionSrc, IAEItemStack slotItem, ICraftingCallback cb )
 	{
@@ -506,7 +543,7 @@ public class CraftingGridCache implements ICraftingGrid, ICraftingProviderHelper
 
 		CraftingJob job = new CraftingJob( world, grid, actionSrc, slotItem, cb );
 
-		return CRAFTING_POOL.submit( job, (ICraftingJob) job );
+		return CraftingCalculatorScheduler.INSTANCE.submit( grid, actionSrc, job );
 	}
 
 	@Override
@@ -19,10 +19,11 @@
 package appeng.me.cache;
 
 
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -58,6 +59,19 @@ import appeng.me.energy.EnergyWatcher;
 public class EnergyGridCache implements IEnergyGrid
 {
 
+	/**
+	 * the most power kept in the pool, the same bound the old buffer had; anything in the pool is not in a cell, so it
+	 * is what a grid can lose when it splits or goes away.
+	 */
+	private static final double POOL_CAPACITY = 1000.0;
+	private static final EnergyGridCache[] NO_LINKS = new EnergyGridCache[0];
+
+	/**
+	 * changes whenever an {@link IEnergyGridProvider} joins or leaves any grid, which is the only thing that changes which
+	 * grids share power.
+	 */
+	private static int providerTopology = 0;
+
 	public final TreeSet<EnergyThreshold> interests = new TreeSet<EnergyThreshold>();
 	final double AvgLength = 40.0;
 	final Set<IAEPowerStorage> providers = new LinkedHashSet<IAEPowerStorage>();
@@ -65,7 +79,11 @@ public class EnergyGridCache implements IEnergyGrid
 	final Multiset<IEnergyGridProvider> energyGridProviders = HashMultiset.create();
 	final IGrid myGrid;
 	private final HashMap<IGridNode, IEnergyWatcher> watchers = new HashMap<IGridNode, IEnergyWatcher>();
-	private final Set<IEnergyGrid> localSeen = new HashSet<IEnergyGrid>();
+	/**
+	 * grids reachable through energy grid providers, valid while {@link #linkedTopology} matches.
+	 */
+	private EnergyGridCache[] linkedGrids = NO_LINKS;
+	private int linkedTopology = -1;
 	/**
 	 * estimated power available.
 	 */
@@ -87,7 +105,7 @@ public class EnergyGridCache implements IEnergyGrid
 	boolean hasPower = true;
 	long ticksSinceHasPowerChange = 900;
 	/**
-	 * excess power in the system.
+	 * pooled power, drawn from the cells in bulk and handed back once it grows past {@link #POOL_CAPACITY}.
 	 */
 	double extra = 0;
 	IAEPowerStorage lastProvider;
@@ -172,6 +190,12 @@ public class EnergyGridCache implements IEnergyGrid
 		this.tickDrainPerTick = 0;
 		this.tickInjectionPerTick = 0;
 
+		// hand back what the pool does not need anymore.
+		if( this.extra > POOL_CAPACITY )
+		{
+			this.extra = POOL_CAPACITY + this.injectCells( this.extra - POOL_CAPACITY );
+		}
+
 		// power information.
 		boolean currentlyHasPower = false;
 
@@ -214,8 +238,7 @@ public class EnergyGridCache implements IEnergyGrid
 	@Override
 	public double extractAEPower( double amt, Actionable mode, PowerMultiplier pm )
 	{
-		this.localSeen.clear();
-		return pm.divide( this.extractAEPower( pm.multiply( amt ), mode, this.localSeen ) );
+		return pm.divide( this.extractShared( pm.multiply( amt ), mode, null ) );
 	}
 
 	@Override
@@ -257,51 +280,60 @@ public class EnergyGridCache implements IEnergyGrid
 			return 0;
 		}
 
-		double extractedPower = this.extra;
+		return this.extractShared( amt, mode, seen );
+	}
 
-		if( mode == Actionable.SIMULATE )
-		{
-			extractedPower += this.simulateExtract( extractedPower, amt );
+	/**
+	 * @param seen grids the caller already asked, or null if this grid started the request.
+	 */
+	private double extractShared( double amt, Actionable mode, Set<IEnergyGrid> seen )
+	{
+		double extractedPower = this.extractLocal( amt, mode );
 
-			if( extractedPower < amt )
+		for( EnergyGridCache linked : this.getLinkedGrids() )
+		{
+			// every linked grid is marked, so the caller does not ask them again.
+			if( ( seen == null || seen.add( linked ) ) && extractedPower < amt )
 			{
-				Iterator<IEnergyGridProvider> i = this.energyGridProviders.iterator();
-				while( extractedPower < amt && i.hasNext() )
+				final double got = linked.extractLocal( amt - extractedPower, mode );
+				if( mode == Actionable.MODULATE )
 				{
-					extractedPower += i.next().extractAEPower( amt - extractedPower, mode, seen );
+					linked.tickDrainPerTick += got;
 				}
+				extractedPower += got;
 			}
-
-			return extractedPower;
 		}
-		else
+
+		if( mode == Actionable.MODULATE )
 		{
-			this.extra = 0;
-			extractedPower = this.doExtract( extractedPower, amt );
+			this.tickDrainPerTick += extractedPower;
 		}
 
-		// got more then we wanted?
-		if( extractedPower > amt )
+		return extractedPower;
+	}
+
+	private double extractLocal( double amt, Actionable mode )
+	{
+		if( mode == Actionable.SIMULATE )
 		{
-			this.extra = extractedPower - amt;
-			this.globalAvailablePower -= amt;
+			if( this.extra >= amt )
+			{
+				return amt;
+			}
 
-			this.tickDrainPerTick += amt;
-			return amt;
+			return this.simulateExtract( this.extra, amt );
 		}
 
-		if( extractedPower < amt )
+		if( this.extra < amt )
 		{
-			Iterator<IEnergyGridProvider> i = this.energyGridProviders.iterator();
-			while( extractedPower < amt && i.hasNext() )
-			{
-				extractedPower += i.next().extractAEPower( amt - extractedPower, mode, seen );
-			}
+			// refill the pool in one go, instead of touching the cells for every extraction.
+			final double pulled = this.doExtract( 0, amt - this.extra + POOL_CAPACITY / 2 );
+			this.globalAvailablePower -= pulled;
+			this.extra += pulled;
 		}
 
-		// go less or the correct amount?
-		this.globalAvailablePower -= extractedPower;
-		this.tickDrainPerTick += extractedPower;
+		final double extractedPower = Math.min( amt, this.extra );
+		this.extra -= extractedPower;
 		return extractedPower;
 	}
 
@@ -313,69 +345,116 @@ public class EnergyGridCache implements IEnergyGrid
 			return 0;
 		}
 
-		double ignore = this.extra;
-		amt += this.extra;
+		return this.injectShared( amt, mode, seen );
+	}
 
-		if( mode == Actionable.SIMULATE )
+	private double injectShared( double amt, Actionable mode, Set<IEnergyGrid> seen )
+	{
+		double left = this.injectLocal( amt, mode );
+
+		for( EnergyGridCache linked : this.getLinkedGrids() )
 		{
-			Iterator<IAEPowerStorage> it = this.requesters.iterator();
-			while( amt > 0 && it.hasNext() )
+			if( ( seen == null || seen.add( linked ) ) && left > 0 )
 			{
-				IAEPowerStorage node = it.next();
-				amt = node.injectAEPower( amt, Actionable.SIMULATE );
+				left = linked.injectLocal( left, mode );
 			}
+		}
+
+		return left;
+	}
 
-			Iterator<IEnergyGridProvider> i = this.energyGridProviders.iterator();
-			while( amt > 0 && i.hasNext() )
+	/**
+	 * @return the power which did not fit
+	 */
+	private double injectLocal( double amt, Actionable mode )
+	{
+		final double room = Math.max( 0.0, POOL_CAPACITY - this.extra );
+
+		if( mode == Actionable.SIMULATE )
+		{
+			double left = amt - room;
+
+			Iterator<IAEPowerStorage> it = this.requesters.iterator();
+			while( left > 0 && it.hasNext() )
 			{
-				amt = i.next().injectAEPower( amt, mode, seen );
+				left = it.next().injectAEPower( left, Actionable.SIMULATE );
 			}
+
+			return Math.max( 0.0, left );
 		}
-		else
+
+		if( amt <= room )
 		{
-			this.tickInjectionPerTick += amt - ignore;
-			// totalInjectionPastTicks[0] += i;
+			this.extra += amt;
+			this.tickInjectionPerTick += amt;
+			return 0;
+		}
 
-			while( amt > 0 && !this.requesters.isEmpty() )
-			{
-				IAEPowerStorage node = this.getFirstRequester();
+		// the pool is full, the rest goes into the cells right away.
+		this.extra += room;
+		final double left = this.injectCells( amt - room );
+		this.tickInjectionPerTick += amt - left;
+		return left;
+	}
 
-				amt = node.injectAEPower( amt, Actionable.MODULATE );
-				if( amt > 0 )
-				{
-					this.requesters.remove( node );
-					this.lastRequester = null;
-				}
-			}
+	private double injectCells( double amt )
+	{
+		while( amt > 0 && !this.requesters.isEmpty() )
+		{
+			IAEPowerStorage node = this.getFirstRequester();
 
-			Iterator<IEnergyGridProvider> i = this.energyGridProviders.iterator();
-			while( amt > 0 && i.hasNext() )
+			final double left = node.injectAEPower( amt, Actionable.MODULATE );
+			if( node.getPowerFlow() != AccessRestriction.WRITE )
 			{
-				IEnergyGridProvider what = i.next();
-				Set<IEnergyGrid> listCopy = new HashSet<IEnergyGrid>();
-				listCopy.addAll( seen );
-
-				double cannotHold = what.injectAEPower( amt, Actionable.SIMULATE, listCopy );
-				what.injectAEPower( amt - cannotHold, mode, seen );
-
-				amt = cannotHold;
+				this.globalAvailablePower += amt - left;
 			}
 
-			this.extra = amt;
+			amt = left;
+			if( amt > 0 )
+			{
+				this.requesters.remove( node );
+				this.lastRequester = null;
+			}
 		}
 
-		return Math.max( 0.0, amt - this.buffer() );
+		return amt;
 	}
 
 	@Override
 	public double getEnergyDemand( double maxRequired, Set<IEnergyGrid> seen )
 	{
+		if( seen instanceof LinkDiscovery )
+		{
+			this.discoverLinks( seen );
+			return 0;
+		}
+
 		if( !seen.add( this ) )
 		{
 			return 0;
 		}
 
-		double required = this.buffer() - this.extra;
+		return this.demandShared( maxRequired, seen );
+	}
+
+	private double demandShared( double maxRequired, Set<IEnergyGrid> seen )
+	{
+		double required = this.demandLocal( maxRequired );
+
+		for( EnergyGridCache linked : this.getLinkedGrids() )
+		{
+			if( ( seen == null || seen.add( linked ) ) && required < maxRequired )
+			{
+				required += linked.demandLocal( maxRequired - required );
+			}
+		}
+
+		return required;
+	}
+
+	private double demandLocal( double maxRequired )
+	{
+		double required = Math.max( 0.0, POOL_CAPACITY - this.extra );
 
 		Iterator<IAEPowerStorage> it = this.requesters.iterator();
 		while( required < maxRequired && it.hasNext() )
@@ -387,14 +466,42 @@ public class EnergyGridCache implements IEnergyGrid
 			}
 		}
 
-		Iterator<IEnergyGridProvider> ix = this.energyGridProviders.iterator();
-		while( required < maxRequired && ix.hasNext() )
+		return required;
+	}
+
+	private EnergyGridCache[] getLinkedGrids()
+	{
+		if( this.linkedTopology != providerTopology )
 		{
-			IEnergyGridProvider node = ix.next();
-			required += node.getEnergyDemand( maxRequired - required, seen );
+			final LinkDiscovery found = new LinkDiscovery();
+			this.discoverLinks( found );
+			found.remove( this );
+
+			final List<EnergyGridCache> links = new ArrayList<EnergyGridCache>( found.size() );
+			for( IEnergyGrid eg : found )
+			{
+				if( eg instanceof EnergyGridCache )
+				{
+					links.add( (EnergyGridCache) eg );
+				}
+			}
+
+			this.linkedGrids = links.isEmpty() ? NO_LINKS : links.toArray( new EnergyGridCache[links.size()] );
+			this.linkedTopology = providerTopology;
 		}
 
-		return required;
+		return this.linkedGrids;
+	}
+
+	private void discoverLinks( Set<IEnergyGrid> found )
+	{
+		if( found.add( this ) )
+		{
+			for( IEnergyGridProvider provider : this.energyGridProviders.elementSet() )
+			{
+				provider.getEnergyDemand( 0, found );
+			}
+		}
 	}
 
 	private double simulateExtract( double extractedPower, double amt )
@@ -466,8 +573,7 @@ public class EnergyGridCache implements IEnergyGrid
 	@Override
 	public double injectPower( double amt, Actionable mode )
 	{
-		this.localSeen.clear();
-		return this.injectAEPower( amt, mode, this.localSeen );
+		return this.injectShared( amt, mode, null );
 	}
 
 	private IAEPowerStorage getFirstRequester()
@@ -481,11 +587,6 @@ public class EnergyGridCache implements IEnergyGrid
 		return this.lastRequester;
 	}
 
-	private double buffer()
-	{
-		return this.providers.isEmpty() ? 1000.0 : 0.0;
-	}
-
 	@Override
 	public double getStoredPower()
 	{
@@ -494,7 +595,7 @@ public class EnergyGridCache implements IEnergyGrid
 			this.refreshPower();
 		}
 
-		return Math.max( 0.0, this.globalAvailablePower );
+		return Math.max( 0.0, this.globalAvailablePower ) + this.extra;
 	}
 
 	@Override
@@ -506,8 +607,7 @@ public class EnergyGridCache implements IEnergyGrid
 	@Override
 	public double getEnergyDemand( double maxRequired )
 	{
-		this.localSeen.clear();
-		return this.getEnergyDemand( maxRequired, this.localSeen );
+		return this.demandShared( maxRequired, null );
 	}
 
 	@Override
@@ -516,6 +616,7 @@ public class EnergyGridCache implements IEnergyGrid
 		if( machine instanceof IEnergyGridProvider )
 		{
 			this.energyGridProviders.remove( machine );
+			providerTopology++;
 		}
 
 		// idle draw.
@@ -566,6 +667,7 @@ public class EnergyGridCache implements IEnergyGrid
 		if( machine instanceof IEnergyGridProvider )
 		{
 			this.energyGridProviders.add( (IEnergyGridProvider) machine );
+			providerTopology++;
 		}
 
 		// idle draw...
@@ -615,6 +717,8 @@ public class EnergyGridCache implements IEnergyGrid
 	@Override
 	public void onSplit( IGridStorage storageB )
 	{
+		// whatever the cells can take is not lost to the split.
+		this.extra = this.injectCells( this.extra );
 		this.extra /= 2;
 		storageB.dataObject().setDouble( "extraEnergy", this.extra );
 	}
@@ -630,4 +734,13 @@ public class EnergyGridCache implements IEnergyGrid
 	{
 		storage.dataObject().setDouble( "extraEnergy", this.extra );
 	}
+
+	/**
+	 * Marks a {@link #getEnergyDemand(double, Set)} call which only collects the grids linked through providers.
+	 */
+	private static final class LinkDiscovery extends LinkedHashSet<IEnergyGrid>
+	{
+
+		private static final long serialVersionUID = -3316571402287619422L;
+	}
 }
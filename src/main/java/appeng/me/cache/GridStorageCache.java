@@ -53,6 +53,7 @@ import appeng.api.storage.data.IItemList;
 import appeng.me.helpers.GenericInterestManager;
 import appeng.me.storage.ItemWatcher;
 import appeng.me.storage.NetworkInventoryHandler;
+import appeng.me.storage.StockCounterIndex;
 
 
 public class GridStorageCache implements IStorageGrid
@@ -65,6 +66,7 @@ public class GridStorageCache implements IStorageGrid
 	public final GenericInterestManager<ItemWatcher> interestManager = new GenericInterestManager<ItemWatcher>( this.interests );
 	private final NetworkMonitor<IAEItemStack> itemMonitor = new NetworkMonitor<IAEItemStack>( this, StorageChannel.ITEMS );
 	private final NetworkMonitor<IAEFluidStack> fluidMonitor = new NetworkMonitor<IAEFluidStack>( this, StorageChannel.FLUIDS );
+	public final StockCounterIndex stockCounters = new StockCounterIndex( this.itemMonitor );
 	private final HashMap<IGridNode, IStackWatcher> watchers = new HashMap<IGridNode, IStackWatcher>();
 	private NetworkInventoryHandler<IAEItemStack> myItemNetwork;
 	private NetworkInventoryHandler<IAEFluidStack> myFluidNetwork;
@@ -79,6 +81,7 @@ public class GridStorageCache implements IStorageGrid
 	{
 		this.itemMonitor.onTick();
 		this.fluidMonitor.onTick();
+		this.stockCounters.onTick();
 	}
 
 	@Override
@@ -95,11 +98,11 @@ public class GridStorageCache implements IStorageGrid
 
 		if( machine instanceof IStackWatcherHost )
 		{
-			IStackWatcher myWatcher = this.watchers.get( machine );
+			// watchers are kept by node, not by machine.
+			IStackWatcher myWatcher = this.watchers.remove( node );
 			if( myWatcher != null )
 			{
 				myWatcher.clear();
-				this.watchers.remove( machine );
 			}
 		}
 	}
@@ -312,10 +315,20 @@ public class GridStorageCache implements IStorageGrid
 	{
 		if( chan == StorageChannel.ITEMS )
 		{
+			if( this.myItemNetwork != null )
+			{
+				this.myItemNetwork.onStoredItemsChanged( (Iterable<IAEItemStack>) input );
+			}
+
 			this.itemMonitor.postChange( true, (Iterable<IAEItemStack>) input, src );
 		}
 		else if( chan == StorageChannel.FLUIDS )
 		{
+			if( this.myFluidNetwork != null )
+			{
+				this.myFluidNetwork.onStoredItemsChanged( (Iterable<IAEFluidStack>) input );
+			}
+
 			this.fluidMonitor.postChange( true, (Iterable<IAEFluidStack>) input, src );
 		}
 	}
@@ -31,6 +31,7 @@ import appeng.api.storage.IMEInventoryHandler;
 import appeng.api.storage.IMEMonitorHandlerReceiver;
 import appeng.api.storage.MEMonitorHandler;
 import appeng.api.storage.StorageChannel;
+import appeng.api.storage.data.IAEItemStack;
 import appeng.api.storage.data.IAEStack;
 import appeng.api.storage.data.IItemList;
 import appeng.me.storage.ItemWatcher;
@@ -54,6 +55,7 @@ public class NetworkMonitor<T extends IAEStack<T>> extends MEMonitorHandler<T>
 	public void forceUpdate()
 	{
 		this.hasChanged = true;
+		this.invalidateCounters();
 
 		Iterator<Entry<IMEMonitorHandlerReceiver<T>, Object>> i = this.getListeners();
 		while( i.hasNext() )
@@ -72,6 +74,14 @@ public class NetworkMonitor<T extends IAEStack<T>> extends MEMonitorHandler<T>
 		}
 	}
 
+	private void invalidateCounters()
+	{
+		if( this.myChannel == StorageChannel.ITEMS )
+		{
+			this.myGridCache.stockCounters.invalidate();
+		}
+	}
+
 	public void onTick()
 	{
 		if( this.sendEvent )
@@ -105,6 +115,8 @@ public class NetworkMonitor<T extends IAEStack<T>> extends MEMonitorHandler<T>
 	{
 		if( DEPTH.contains( this ) )
 		{
+			// these changes never reach anyone, so the counters lose track of them.
+			this.invalidateCounters();
 			return;
 		}
 
@@ -124,6 +136,11 @@ public class NetworkMonitor<T extends IAEStack<T>> extends MEMonitorHandler<T>
 				( difference = changedItem.copy() ).setStackSize( -changedItem.getStackSize() );
 			}
 
+			if( this.myChannel == StorageChannel.ITEMS )
+			{
+				this.myGridCache.stockCounters.postChange( (IAEItemStack) difference );
+			}
+
 			if( this.myGridCache.interestManager.containsKey( changedItem ) )
 			{
 				Collection<ItemWatcher> list = this.myGridCache.interestManager.get( changedItem );
@@ -19,13 +19,20 @@
 package appeng.me.cache;
 
 
+import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.SetMultimap;
+
 import net.minecraftforge.common.util.ForgeDirection;
 
 import appeng.api.networking.GridFlags;
@@ -52,6 +59,7 @@ import appeng.me.pathfinding.AdHocChannelUpdater;
 import appeng.me.pathfinding.ControllerChannelUpdater;
 import appeng.me.pathfinding.ControllerValidator;
 import appeng.me.pathfinding.IPathItem;
+import appeng.me.pathfinding.PathRepair;
 import appeng.me.pathfinding.PathSegment;
 import appeng.tile.networking.TileController;
 import appeng.util.Platform;
@@ -77,6 +85,21 @@ public class PathGridCache implements IPathingGrid
 	int lastChannels = 0;
 	private HashSet<IPathItem> semiOpen = new HashSet<IPathItem>();
 
+	// route tree of the last pathing, lets small changes be re-pathed without touching the rest of the network.
+	private final Set<IPathItem> routed = new HashSet<IPathItem>();
+	private final Map<IPathItem, IPathItem> routeParents = new HashMap<IPathItem, IPathItem>();
+	private final Map<IPathItem, Integer> routeDepths = new HashMap<IPathItem, Integer>();
+	private final SetMultimap<IPathItem, IPathItem> routeChildren = HashMultimap.create();
+	private final Map<IPathItem, IPathItem[]> channelRoutes = new HashMap<IPathItem, IPathItem[]>();
+	private final Set<IPathItem> starved = new HashSet<IPathItem>(); // routed devices which got no channel.
+	private final Set<IPathItem> changedItems = new LinkedHashSet<IPathItem>();
+	private final Set<IPathItem> touchedItems = new HashSet<IPathItem>();
+	private boolean fullRepath = true;
+	private boolean routesValid = false;
+	private int repathedItems = 0;
+	private int lastRepathedItems = 0;
+	private boolean lastRepathIncremental = false;
+
 	public PathGridCache( IGrid g )
 	{
 		this.myGrid = g;
@@ -90,6 +113,11 @@ public class PathGridCache implements IPathingGrid
 			this.recalcController();
 		}
 
+		if( this.updateNetwork && this.updateIncrementally() )
+		{
+			this.updateNetwork = false;
+		}
+
 		if( this.updateNetwork )
 		{
 			if( !this.booting )
@@ -101,6 +129,9 @@ public class PathGridCache implements IPathingGrid
 			this.updateNetwork = false;
 			this.instance++;
 			this.channelsInUse = 0;
+			this.channelsByBlocks = 0;
+			this.active.clear();
+			this.clearRoutes();
 
 			if( !AEConfig.instance.isFeatureEnabled( AEFeature.Channels ) )
 			{
@@ -140,7 +171,7 @@ public class PathGridCache implements IPathingGrid
 			{
 				int nodes = this.myGrid.getNodes().size();
 				this.ticksUntilReady = 20 + Math.max( 0, nodes / 100 - 20 );
-				HashSet<IPathItem> closedList = new HashSet<IPathItem>();
+				Set<IPathItem> closedList = this.routed;
 				this.semiOpen = new HashSet<IPathItem>();
 
 				// myGrid.getPivot().beginVisit( new AdHocChannelUpdater( 0 )
@@ -157,6 +188,7 @@ public class PathGridCache implements IPathingGrid
 							closedList.add( gc );
 							open.add( gc );
 							gc.setControllerRoute( (GridNode) node, true );
+							this.onRoute( gc, (GridNode) node );
 							this.active.add( new PathSegment( this, open, this.semiOpen, closedList ) );
 						}
 					}
@@ -194,6 +226,9 @@ public class PathGridCache implements IPathingGrid
 				// check for achievements
 				this.achievementPost();
 
+				this.routesValid = this.controllerState == ControllerState.CONTROLLER_ONLINE && AEConfig.instance.isFeatureEnabled( AEFeature.Channels );
+				this.finishRepath( false );
+
 				this.booting = false;
 				this.channelPowerUsage = this.channelsByBlocks / 128.0;
 				this.myGrid.postEvent( new MENetworkBootingStatusChange() );
@@ -222,7 +257,7 @@ public class PathGridCache implements IPathingGrid
 			this.blockDense.remove( gridNode );
 		}
 
-		this.repath();
+		this.repath( (IPathItem) gridNode );
 	}
 
 	@Override
@@ -246,7 +281,7 @@ public class PathGridCache implements IPathingGrid
 			this.blockDense.add( gridNode );
 		}
 
-		this.repath();
+		this.repath( (IPathItem) gridNode );
 	}
 
 	@Override
@@ -397,7 +432,7 @@ public class PathGridCache implements IPathingGrid
 			this.requireChannels.remove( gridNode );
 		}
 
-		this.repath();
+		this.repath( (IPathItem) gridNode );
 	}
 
 	@Override
@@ -420,5 +455,321 @@ public class PathGridCache implements IPathingGrid
 
 		this.channelsByBlocks = 0;
 		this.updateNetwork = true;
+		this.fullRepath = true;
+	}
+
+	/**
+	 * Requests a re-path after a single node or connection was added, removed or changed. Unless something else forces a
+	 * full re-path, only the routes depending on the changed items are recalculated.
+	 */
+	public void repath( IPathItem changed )
+	{
+		this.changedItems.add( changed );
+		this.updateNetwork = true;
+	}
+
+	/**
+	 * @return number of nodes and connections which received a new route during the last completed re-path.
+	 */
+	public int getLastRepathedItems()
+	{
+		return this.lastRepathedItems;
+	}
+
+	public boolean wasLastRepathIncremental()
+	{
+		return this.lastRepathIncremental;
+	}
+
+	public void onRoute( IPathItem item, IPathItem parent )
+	{
+		final IPathItem oldParent = this.routeParents.put( item, parent );
+		if( oldParent != null )
+		{
+			this.routeChildren.remove( oldParent, item );
+		}
+
+		this.routeChildren.put( parent, item );
+
+		// controllers have no depth of their own.
+		final Integer parentDepth = this.routeDepths.get( parent );
+		this.routeDepths.put( item, parentDepth == null ? 1 : parentDepth + 1 );
+
+		this.touchedItems.add( item );
+		this.repathedItems++;
+	}
+
+	public void onChannel( IPathItem start )
+	{
+		final List<IPathItem> route = new ArrayList<IPathItem>();
+		for( IPathItem pi = start; pi != null; pi = pi.getControllerRoute() )
+		{
+			route.add( pi );
+		}
+
+		this.channelRoutes.put( start, route.toArray( new IPathItem[route.size()] ) );
+		this.touchedItems.addAll( route );
+		this.starved.remove( start );
+	}
+
+	public void onSemiChannel( IPathItem item )
+	{
+		this.touchedItems.add( item );
+		this.starved.remove( item );
+	}
+
+	/**
+	 * a device was routed, but its route had no channel left for it.
+	 */
+	public void onNoChannel( IPathItem item )
+	{
+		this.starved.add( item );
+	}
+
+	public boolean isStarved( IPathItem item )
+	{
+		return this.starved.contains( item );
+	}
+
+	private void clearRoutes()
+	{
+		this.routesValid = false;
+		this.fullRepath = false;
+		this.changedItems.clear();
+		this.touchedItems.clear();
+		this.routed.clear();
+		this.routeParents.clear();
+		this.routeDepths.clear();
+		this.routeChildren.clear();
+		this.channelRoutes.clear();
+		this.starved.clear();
+		this.repathedItems = 0;
+	}
+
+	private void finishRepath( boolean incremental )
+	{
+		this.lastRepathedItems = this.repathedItems;
+		this.lastRepathIncremental = incremental;
+		this.repathedItems = 0;
+		this.touchedItems.clear();
+	}
+
+	/**
+	 * Re-paths only the changed items and everything routed through them, all other routes and channels stay as they
+	 * are, so the network does not boot.
+	 *
+	 * @return false if the change can not be handled incrementally and a full re-path is required.
+	 */
+	private boolean updateIncrementally()
+	{
+		if( this.fullRepath || !this.routesValid || this.recalculateControllerNextTick || !this.active.isEmpty() || this.booting )
+		{
+			return false;
+		}
+
+		if( this.controllerState != ControllerState.CONTROLLER_ONLINE || !AEConfig.instance.isFeatureEnabled( AEFeature.Channels ) || !AEConfig.instance.isFeatureEnabled( AEFeature.IncrementalPathing ) )
+		{
+			return false;
+		}
+
+		// collect everything routed through a changed item, without modifying anything yet.
+		final Set<IPathItem> orphaned = new HashSet<IPathItem>();
+		final LinkedList<IPathItem> pending = new LinkedList<IPathItem>();
+
+		for( IPathItem changed : this.changedItems )
+		{
+			if( changed.getFlags().contains( GridFlags.COMPRESSED_CHANNEL ) || ( changed instanceof IGridNode && ( (IGridNode) changed ).getMachine() instanceof TileController ) )
+			{
+				return false;
+			}
+
+			if( this.routeParents.containsKey( changed ) )
+			{
+				pending.add( changed );
+			}
+		}
+
+		while( !pending.isEmpty() )
+		{
+			final IPathItem pi = pending.poll();
+			if( orphaned.add( pi ) )
+			{
+				// multiblocks share the channel of one member, dense channels depend on the whole route.
+				if( this.channelRoutes.containsKey( pi ) && ( pi.getFlags().contains( GridFlags.MULTIBLOCK ) || pi.getFlags().contains( GridFlags.COMPRESSED_CHANNEL ) ) )
+				{
+					return false;
+				}
+
+				pending.addAll( this.routeChildren.get( pi ) );
+			}
+		}
+
+		// devices without a channel are only tried again by a full re-path, which might give them a freed channel.
+		if( this.releasesChannelForStarved( orphaned ) )
+		{
+			this.fullRepath = true;
+			return false;
+		}
+
+		// release the channels of orphaned items and drop them from the route tree.
+		for( IPathItem pi : orphaned )
+		{
+			final IPathItem[] route = this.channelRoutes.remove( pi );
+			if( route != null )
+			{
+				this.channelsInUse--;
+				this.channelsByBlocks -= route.length;
+
+				for( IPathItem step : route )
+				{
+					if( !orphaned.contains( step ) && this.isInThisGrid( step ) )
+					{
+						step.incrementChannelCount( -1 );
+						this.touchedItems.add( step );
+					}
+				}
+			}
+
+			final IPathItem parent = this.routeParents.remove( pi );
+			if( parent != null )
+			{
+				this.routeChildren.remove( parent, pi );
+			}
+
+			this.routeChildren.removeAll( pi );
+			this.routeDepths.remove( pi );
+			this.routed.remove( pi );
+			this.starved.remove( pi );
+
+			if( this.isInThisGrid( pi ) )
+			{
+				pi.setControllerRoute( null, true );
+				this.touchedItems.add( pi );
+			}
+		}
+
+		// new connections change the order of their nodes connections, restore the routes first.
+		for( IPathItem changed : this.changedItems )
+		{
+			if( changed instanceof IGridConnection )
+			{
+				final IGridConnection gc = (IGridConnection) changed;
+				this.restoreRoute( (IPathItem) gc.a() );
+				this.restoreRoute( (IPathItem) gc.b() );
+			}
+		}
+
+		// continue pathing from all routed items next to the orphaned or new ones.
+		final Set<IPathItem> seeds = new LinkedHashSet<IPathItem>();
+		final HashSet<IPathItem> semiOpen = new HashSet<IPathItem>();
+		final Set<IPathItem> affected = new HashSet<IPathItem>( orphaned );
+		affected.addAll( this.changedItems );
+
+		for( IPathItem pi : affected )
+		{
+			if( this.routed.contains( pi ) || !this.isInThisGrid( pi ) )
+			{
+				continue;
+			}
+
+			for( IPathItem option : pi.getPossibleOptions() )
+			{
+				if( this.routed.contains( option ) )
+				{
+					seeds.add( option );
+				}
+			}
+
+			if( pi.getFlags().contains( GridFlags.MULTIBLOCK ) && pi.getFlags().contains( GridFlags.REQUIRE_CHANNEL ) && this.hasMultiblockChannel( (IGridNode) pi ) )
+			{
+				semiOpen.add( pi );
+			}
+		}
+
+		this.changedItems.clear();
+
+		// seeds sit at different depths of the tree, they are expanded in depth order to get the same routes as a full
+		// re-path.
+		if( !seeds.isEmpty() && !PathRepair.extend( this, seeds, this.routeDepths, semiOpen, this.routed ) )
+		{
+			// a new item shortens routes which were kept, start over.
+			this.fullRepath = true;
+			return false;
+		}
+
+		for( IPathItem pi : this.touchedItems )
+		{
+			if( this.isInThisGrid( pi ) )
+			{
+				pi.finalizeChannels();
+			}
+		}
+
+		this.channelPowerUsage = this.channelsByBlocks / 128.0;
+		this.achievementPost();
+		this.finishRepath( true );
+
+		return true;
+	}
+
+	/**
+	 * @return true if one of the orphaned items has a channel, while a device which is not orphaned has none.
+	 */
+	private boolean releasesChannelForStarved( Set<IPathItem> orphaned )
+	{
+		if( this.starved.isEmpty() || orphaned.containsAll( this.starved ) )
+		{
+			return false;
+		}
+
+		for( IPathItem pi : orphaned )
+		{
+			if( this.channelRoutes.containsKey( pi ) )
+			{
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private void restoreRoute( IPathItem node )
+	{
+		final IPathItem parent = this.routeParents.get( node );
+		if( parent != null && this.isInThisGrid( node ) )
+		{
+			node.setControllerRoute( parent, false );
+		}
+	}
+
+	private boolean hasMultiblockChannel( IGridNode node )
+	{
+		final Iterator<IGridNode> i = ( (IGridMultiblock) node.getGridBlock() ).getMultiblockNodes();
+		while( i.hasNext() )
+		{
+			final IGridNode other = i.next();
+			if( other != node && this.channelRoutes.containsKey( other ) )
+			{
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private boolean isInThisGrid( IPathItem pi )
+	{
+		if( pi instanceof IGridNode )
+		{
+			return ( (IGridNode) pi ).getGrid() == this.myGrid;
+		}
+
+		if( pi instanceof IGridConnection )
+		{
+			final IGridConnection gc = (IGridConnection) pi;
+			return gc.a().getGrid() == this.myGrid && gc.b().getGrid() == this.myGrid;
+		}
+
+		return false;
 	}
 }
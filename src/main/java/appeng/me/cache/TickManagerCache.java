@@ -20,7 +20,6 @@ package appeng.me.cache;
 
 
 import java.util.HashMap;
-import java.util.PriorityQueue;
 
 import net.minecraft.crash.CrashReport;
 import net.minecraft.crash.CrashReportCategory;
@@ -35,6 +34,7 @@ import appeng.api.networking.ticking.ITickManager;
 import appeng.api.networking.ticking.TickRateModulation;
 import appeng.api.networking.ticking.TickingRequest;
 import appeng.me.cache.helpers.TickTracker;
+import appeng.me.cache.helpers.TimingWheel;
 
 
 public class TickManagerCache implements ITickManager
@@ -44,7 +44,7 @@ public class TickManagerCache implements ITickManager
 	final HashMap<IGridNode, TickTracker> alertable = new HashMap<IGridNode, TickTracker>();
 	final HashMap<IGridNode, TickTracker> sleeping = new HashMap<IGridNode, TickTracker>();
 	final HashMap<IGridNode, TickTracker> awake = new HashMap<IGridNode, TickTracker>();
-	final PriorityQueue<TickTracker> upcomingTicks = new PriorityQueue<TickTracker>();
+	final TimingWheel<TickTracker> upcomingTicks = new TimingWheel<TickTracker>();
 	private long currentTick = 0;
 
 	public TickManagerCache( IGrid g )
@@ -81,47 +81,40 @@ public class TickManagerCache implements ITickManager
 		try
 		{
 			this.currentTick++;
-			while( !this.upcomingTicks.isEmpty() )
+			this.upcomingTicks.advance();
+
+			// everything due this tick, devices can still be slept, alerted or removed while the batch is processed.
+			while( ( tt = this.upcomingTicks.poll() ) != null )
 			{
-				tt = this.upcomingTicks.peek();
 				int diff = (int) ( this.currentTick - tt.lastTick );
-				if( diff >= tt.current_rate )
+				TickRateModulation mod = tt.gt.tickingRequest( tt.node, diff );
+
+				switch( mod )
 				{
-					// remove tt..
-					this.upcomingTicks.poll();
-					TickRateModulation mod = tt.gt.tickingRequest( tt.node, diff );
-
-					switch( mod )
-					{
-						case FASTER:
-							tt.setRate( tt.current_rate - 2 );
-							break;
-						case IDLE:
-							tt.setRate( tt.request.maxTickRate );
-							break;
-						case SAME:
-							break;
-						case SLEEP:
-							this.sleepDevice( tt.node );
-							break;
-						case SLOWER:
-							tt.setRate( tt.current_rate + 1 );
-							break;
-						case URGENT:
-							tt.setRate( 0 );
-							break;
-						default:
-							break;
-					}
-
-					if( this.awake.containsKey( tt.node ) )
-					{
-						this.addToQueue( tt );
-					}
+					case FASTER:
+						tt.setRate( tt.current_rate - 2 );
+						break;
+					case IDLE:
+						tt.setRate( tt.request.maxTickRate );
+						break;
+					case SAME:
+						break;
+					case SLEEP:
+						this.sleepDevice( tt.node );
+						break;
+					case SLOWER:
+						tt.setRate( tt.current_rate + 1 );
+						break;
+					case URGENT:
+						tt.setRate( 0 );
+						break;
+					default:
+						break;
 				}
-				else
+
+				if( this.awake.containsKey( tt.node ) && !this.upcomingTicks.isScheduled( tt ) )
 				{
-					return; // done!
+					this.addToQueue( tt );
 				}
 			}
 		}
@@ -137,7 +130,7 @@ public class TickManagerCache implements ITickManager
 	private void addToQueue( TickTracker tt )
 	{
 		tt.lastTick = this.currentTick;
-		this.upcomingTicks.add( tt );
+		this.upcomingTicks.schedule( tt, tt.lastTick + tt.current_rate );
 	}
 
 	@Override
@@ -147,7 +140,12 @@ public class TickManagerCache implements ITickManager
 		{
 			this.alertable.remove( gridNode );
 			this.sleeping.remove( gridNode );
-			this.awake.remove( gridNode );
+			TickTracker tt = this.awake.remove( gridNode );
+
+			if( tt != null )
+			{
+				this.upcomingTicks.cancel( tt );
+			}
 		}
 	}
 
@@ -216,9 +214,8 @@ public class TickManagerCache implements ITickManager
 		tt.lastTick -= tt.request.maxTickRate;
 		tt.current_rate = tt.request.minTickRate;
 
-		// prevent dupes and tick build up.
-		this.upcomingTicks.remove( tt );
-		this.upcomingTicks.add( tt );
+		// rescheduling replaces the old entry, so there are no dupes or tick build up.
+		this.upcomingTicks.schedule( tt, tt.lastTick + tt.current_rate );
 
 		return true;
 	}
@@ -231,6 +228,7 @@ public class TickManagerCache implements ITickManager
 			TickTracker gt = this.awake.get( node );
 			this.awake.remove( node );
 			this.sleeping.put( node, gt );
+			this.upcomingTicks.cancel( gt );
 
 			return true;
 		}
@@ -19,8 +19,6 @@
 package appeng.me.cache.helpers;
 
 
-import javax.annotation.Nonnull;
-
 import net.minecraft.crash.CrashReportCategory;
 
 import appeng.api.networking.IGridNode;
@@ -31,7 +29,7 @@ import appeng.me.cache.TickManagerCache;
 import appeng.parts.AEBasePart;
 
 
-public class TickTracker implements Comparable<TickTracker>
+public class TickTracker extends TimingWheel.Entry
 {
 
 	public final TickingRequest request;
@@ -74,14 +72,6 @@ public class TickTracker implements Comparable<TickTracker>
 		}
 	}
 
-	@Override
-	public int compareTo( @Nonnull TickTracker t )
-	{
-		int nextTick = (int) ( ( this.lastTick - this.host.getCurrentTick() ) + this.current_rate );
-		int ts_nextTick = (int) ( ( t.lastTick - this.host.getCurrentTick() ) + t.current_rate );
-		return nextTick - ts_nextTick;
-	}
-
 	public void addEntityCrashInfo( CrashReportCategory crashreportcategory )
 	{
 		if( this.gt instanceof AEBasePart )
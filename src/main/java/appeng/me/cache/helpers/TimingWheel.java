@@ -0,0 +1,233 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me.cache.helpers;
+
+
+/**
+ * Hierarchical timing wheel, schedules entries for an absolute tick.
+ *
+ * Scheduling, rescheduling and cancelling are O(1), entries are kept in intrusive lists so an entry can only be
+ * scheduled once at a time. All entries due on the same tick are handed out together by {@link #advance()} and
+ * {@link #poll()}.
+ */
+public final class TimingWheel<T extends TimingWheel.Entry>
+{
+
+	private static final int SLOT_BITS = 6;
+	private static final int SLOTS = 1 << SLOT_BITS;
+	private static final int SLOT_MASK = SLOTS - 1;
+	private static final int LEVELS = 4;
+
+	private final Entry[][] wheels = new Entry[LEVELS][SLOTS];
+	private final Entry overflow = Entry.list();
+	private final Entry due = Entry.list();
+
+	private long now;
+	private int size = 0;
+
+	public TimingWheel()
+	{
+		this( 0 );
+	}
+
+	public TimingWheel( long now )
+	{
+		this.now = now;
+
+		for( int level = 0; level < LEVELS; level++ )
+		{
+			for( int slot = 0; slot < SLOTS; slot++ )
+			{
+				this.wheels[level][slot] = Entry.list();
+			}
+		}
+	}
+
+	public long getNow()
+	{
+		return this.now;
+	}
+
+	public int size()
+	{
+		return this.size;
+	}
+
+	public boolean isScheduled( T entry )
+	{
+		return entry.next != null;
+	}
+
+	/**
+	 * schedules the entry for the given tick, replacing any earlier schedule. Ticks which already passed are due on the
+	 * next {@link #advance()}.
+	 */
+	public void schedule( T entry, long deadline )
+	{
+		this.cancel( entry );
+
+		entry.deadline = Math.max( deadline, this.now + 1 );
+		this.insert( entry );
+		this.size++;
+	}
+
+	/**
+	 * @return true if the entry was scheduled.
+	 */
+	public boolean cancel( T entry )
+	{
+		if( entry.next == null )
+		{
+			return false;
+		}
+
+		entry.unlink();
+		this.size--;
+		return true;
+	}
+
+	/**
+	 * moves the wheel to the next tick, everything due on it can then be taken with {@link #poll()}.
+	 */
+	public void advance()
+	{
+		this.now++;
+
+		// move entries down from the higher wheels which start a new round.
+		for( int level = LEVELS - 1; level > 0; level-- )
+		{
+			if( ( this.now & ( ( 1L << ( SLOT_BITS * level ) ) - 1 ) ) == 0 )
+			{
+				if( level == LEVELS - 1 && ( this.now & ( ( 1L << ( SLOT_BITS * LEVELS ) ) - 1 ) ) == 0 )
+				{
+					this.cascade( this.overflow );
+				}
+
+				this.cascade( this.wheels[level][(int) ( this.now >>> ( SLOT_BITS * level ) ) & SLOT_MASK] );
+			}
+		}
+
+		this.due.appendAll( this.wheels[0][(int) this.now & SLOT_MASK] );
+	}
+
+	/**
+	 * @return the next entry due on the current tick, or null.
+	 */
+	@SuppressWarnings( "unchecked" )
+	public T poll()
+	{
+		final Entry first = this.due.next;
+		if( first == this.due )
+		{
+			return null;
+		}
+
+		first.unlink();
+		this.size--;
+		return (T) first;
+	}
+
+	private void cascade( Entry list )
+	{
+		Entry e = list.next;
+		while( e != list )
+		{
+			final Entry next = e.next;
+			e.unlink();
+			this.insert( e );
+			e = next;
+		}
+	}
+
+	private void insert( Entry entry )
+	{
+		final long diff = entry.deadline ^ this.now;
+
+		for( int level = 0; level < LEVELS; level++ )
+		{
+			if( ( diff >>> ( SLOT_BITS * ( level + 1 ) ) ) == 0 )
+			{
+				this.wheels[level][(int) ( entry.deadline >>> ( SLOT_BITS * level ) ) & SLOT_MASK].append( entry );
+				return;
+			}
+		}
+
+		this.overflow.append( entry );
+	}
+
+	/**
+	 * Intrusive list node, extend it for anything which is put onto a {@link TimingWheel}.
+	 */
+	public static class Entry
+	{
+
+		Entry prev;
+		Entry next;
+		long deadline;
+
+		public Entry()
+		{
+		}
+
+		private static Entry list()
+		{
+			final Entry head = new Entry();
+			head.next = head.prev = head;
+			return head;
+		}
+
+		public long getDeadline()
+		{
+			return this.deadline;
+		}
+
+		private void append( Entry entry )
+		{
+			entry.prev = this.prev;
+			entry.next = this;
+			this.prev.next = entry;
+			this.prev = entry;
+		}
+
+		private void appendAll( Entry list )
+		{
+			if( list.next == list )
+			{
+				return;
+			}
+
+			final Entry first = list.next;
+			final Entry last = list.prev;
+
+			first.prev = this.prev;
+			this.prev.next = first;
+			last.next = this;
+			this.prev = last;
+
+			list.next = list.prev = list;
+		}
+
+		void unlink()
+		{
+			this.prev.next = this.next;
+			this.next.prev = this.prev;
+			this.next = this.prev = null;
+		}
+	}
+}
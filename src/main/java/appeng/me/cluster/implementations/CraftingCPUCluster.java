@@ -21,15 +21,19 @@ package appeng.me.cluster.implementations;
 
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
 import net.minecraft.inventory.InventoryCrafting;
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
@@ -87,6 +91,10 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU
 	private final WorldCoord max;
 	private final int[] usedOps = new int[3];
 	private final Map<ICraftingPatternDetails, TaskProgress> tasks = new HashMap<ICraftingPatternDetails, TaskProgress>();
+	// tasks checked by executeCrafting, tasks missing inputs wait in blockedByItem until one of their inputs arrives.
+	private final Set<ICraftingPatternDetails> readyTasks = new LinkedHashSet<ICraftingPatternDetails>();
+	private final Map<Item, Set<ICraftingPatternDetails>> blockedByItem = new HashMap<Item, Set<ICraftingPatternDetails>>();
+	private final Set<ICraftingPatternDetails> blockedByAnyItem = new HashSet<ICraftingPatternDetails>();
 	// INSTANCE sate
 	private final LinkedList<TileCraftingTile> tiles = new LinkedList<TileCraftingTile>();
 	private final LinkedList<TileCraftingTile> storage = new LinkedList<TileCraftingTile>();
@@ -108,6 +116,8 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU
 	private boolean isComplete = true;
 	private int remainingOperations;
 	private boolean somethingChanged;
+	private int tasksChecked;
+	private int tasksDispatched;
 
 	private long lastTime;
 	private long elapsedTime;
@@ -322,6 +332,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU
 					}
 
 					// 2000
+					this.onInputArrived( what );
 					return this.inventory.injectItems( what, type, src );
 				}
 
@@ -355,6 +366,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU
 				}
 
 				this.inventory.injectItems( insert, type, src );
+				this.onInputArrived( insert );
 				this.markDirty();
 
 				return what;
@@ -542,7 +554,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU
 
 		this.isComplete = true;
 		this.myLastLink = null;
-		this.tasks.clear();
+		this.clearTasks();
 
 		final ImmutableSet<IAEItemStack> items = ImmutableSet.copyOf( this.waitingFor );
 
@@ -595,6 +607,9 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU
 		this.remainingOperations = this.accelerator + 1 - ( this.usedOps[0] + this.usedOps[1] + this.usedOps[2] );
 		final int started = this.remainingOperations;
 
+		this.tasksChecked = 0;
+		this.tasksDispatched = 0;
+
 		if( this.remainingOperations > 0 )
 		{
 			do
@@ -616,27 +631,38 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU
 
 	private void executeCrafting( IEnergyGrid eg, CraftingGridCache cc )
 	{
-		final Iterator<Entry<ICraftingPatternDetails, TaskProgress>> i = this.tasks.entrySet().iterator();
+		if( this.readyTasks.isEmpty() )
+		{
+			return;
+		}
 
-		while( i.hasNext() )
+		final ICraftingPatternDetails[] ready = this.readyTasks.toArray( new ICraftingPatternDetails[this.readyTasks.size()] );
+
+		for( ICraftingPatternDetails details : ready )
 		{
-			final Entry<ICraftingPatternDetails, TaskProgress> e = i.next();
+			final TaskProgress progress = this.tasks.get( details );
 
-			if( e.getValue().value <= 0 )
+			if( progress == null || progress.value <= 0 )
 			{
-				i.remove();
+				this.tasks.remove( details );
+				this.readyTasks.remove( details );
 				continue;
 			}
 
-			final ICraftingPatternDetails details = e.getKey();
+			this.tasksChecked++;
 
-			if( this.canCraft( details, details.getCondensedInputs() ) )
+			if( !this.canCraft( details, details.getCondensedInputs() ) )
+			{
+				this.blockTask( details );
+			}
+			else
 			{
 				InventoryCrafting ic = null;
 
-				for( ICraftingMedium m : cc.getMediums( e.getKey() ) )
+				// there is no event for a medium becoming idle, so tasks waiting on a busy medium stay ready.
+				for( ICraftingMedium m : cc.getMediums( details ) )
 				{
-					if( e.getValue().value <= 0 )
+					if( progress.value <= 0 )
 					{
 						continue;
 					}
@@ -725,7 +751,9 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU
 									final ItemStack is = ic.getStackInSlot( x );
 									if( is != null )
 									{
-										this.inventory.injectItems( AEItemStack.create( is ), Actionable.MODULATE, this.machineSrc );
+										final IAEItemStack returned = AEItemStack.create( is );
+										this.inventory.injectItems( returned, Actionable.MODULATE, this.machineSrc );
+										this.onInputArrived( returned );
 									}
 								}
 								ic = null;
@@ -737,6 +765,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU
 						{
 							this.somethingChanged = true;
 							this.remainingOperations--;
+							this.tasksDispatched++;
 
 							for( IAEItemStack out : details.getCondensedOutputs() )
 							{
@@ -765,8 +794,8 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU
 							ic = null; // hand off complete!
 							this.markDirty();
 
-							e.getValue().value--;
-							if( e.getValue().value <= 0 )
+							progress.value--;
+							if( progress.value <= 0 )
 							{
 								continue;
 							}
@@ -787,7 +816,9 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU
 						final ItemStack is = ic.getStackInSlot( x );
 						if( is != null )
 						{
-							this.inventory.injectItems( AEItemStack.create( is ), Actionable.MODULATE, this.machineSrc );
+							final IAEItemStack returned = AEItemStack.create( is );
+							this.inventory.injectItems( returned, Actionable.MODULATE, this.machineSrc );
+							this.onInputArrived( returned );
 						}
 					}
 				}
@@ -795,6 +826,52 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU
 		}
 	}
 
+	private void blockTask( ICraftingPatternDetails details )
+	{
+		this.readyTasks.remove( details );
+
+		for( IAEItemStack input : details.getCondensedInputs() )
+		{
+			// ore dictionary inputs can be satisfied by other items.
+			if( details.isCraftable() && input instanceof AEItemStack && ( (AEItemStack) input ).isOre() )
+			{
+				this.blockedByAnyItem.add( details );
+				continue;
+			}
+
+			Set<ICraftingPatternDetails> waiting = this.blockedByItem.get( input.getItem() );
+			if( waiting == null )
+			{
+				this.blockedByItem.put( input.getItem(), waiting = new HashSet<ICraftingPatternDetails>() );
+			}
+
+			waiting.add( details );
+		}
+	}
+
+	private void onInputArrived( IAEItemStack input )
+	{
+		final Set<ICraftingPatternDetails> waiting = this.blockedByItem.remove( input.getItem() );
+		if( waiting != null )
+		{
+			this.readyTasks.addAll( waiting );
+		}
+
+		if( !this.blockedByAnyItem.isEmpty() )
+		{
+			this.readyTasks.addAll( this.blockedByAnyItem );
+			this.blockedByAnyItem.clear();
+		}
+	}
+
+	private void clearTasks()
+	{
+		this.tasks.clear();
+		this.readyTasks.clear();
+		this.blockedByItem.clear();
+		this.blockedByAnyItem.clear();
+	}
+
 	private void storeItems()
 	{
 		final IGrid g = this.getGrid();
@@ -891,13 +968,13 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU
 			}
 			else
 			{
-				this.tasks.clear();
+				this.clearTasks();
 				this.inventory.getItemList().resetStatus();
 			}
 		}
 		catch( CraftBranchFailure e )
 		{
-			this.tasks.clear();
+			this.clearTasks();
 			this.inventory.getItemList().resetStatus();
 			// AELog.error( e );
 		}
@@ -1061,6 +1138,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU
 		}
 
 		i.value += crafts;
+		this.readyTasks.add( details );
 	}
 
 	public IAEItemStack getItemStack( IAEItemStack what, CraftingItemList storage2 )
@@ -1209,6 +1287,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU
 					final TaskProgress tp = new TaskProgress();
 					tp.value = item.getLong( "craftingProgress" );
 					this.tasks.put( details, tp );
+					this.readyTasks.add( details );
 				}
 			}
 		}
@@ -1315,6 +1394,32 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU
 		this.remainingItemCount = this.getRemainingItemCount() - is.getStackSize();
 	}
 
+	/**
+	 * @return tasks whose inputs were checked during the last tick.
+	 */
+	public int getTasksChecked()
+	{
+		return this.tasksChecked;
+	}
+
+	/**
+	 * @return patterns pushed to a medium during the last tick.
+	 */
+	public int getTasksDispatched()
+	{
+		return this.tasksDispatched;
+	}
+
+	public int getTaskCount()
+	{
+		return this.tasks.size();
+	}
+
+	public int getReadyTaskCount()
+	{
+		return this.readyTasks.size();
+	}
+
 	public long getElapsedTime()
 	{
 		return this.elapsedTime;
@@ -0,0 +1,126 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+
+package appeng.me.pathfinding;
+
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import appeng.me.cache.PathGridCache;
+
+
+/**
+ * Continues pathing from items which are already part of the route tree, after parts of the tree were dropped or new
+ * items joined the network.
+ *
+ * Seeds are only expanded once pathing reached their depth in the tree, so every item is routed at the depth a full
+ * pathing from the controllers would route it at.
+ */
+public final class PathRepair
+{
+
+	private PathRepair()
+	{
+	}
+
+	/**
+	 * @param seeds routed items next to the items which need a route
+	 * @param depths depth of every routed item in the route tree, new items are added, controllers count as 0
+	 * @param semiOpen multiblock members which already received the channel of their multiblock
+	 * @param closed every routed item
+	 *
+	 * @return false if a newly routed item offers a shorter route to an item which kept its old route, only a full
+	 * re-path gives the correct routes then.
+	 */
+	public static boolean extend( PathGridCache pgc, Collection<IPathItem> seeds, Map<IPathItem, Integer> depths, Set<IPathItem> semiOpen, Set<IPathItem> closed )
+	{
+		final TreeMap<Integer, List<IPathItem>> byDepth = new TreeMap<Integer, List<IPathItem>>();
+		for( IPathItem seed : seeds )
+		{
+			final int depth = getDepth( depths, seed );
+			List<IPathItem> level = byDepth.get( depth );
+			if( level == null )
+			{
+				byDepth.put( depth, level = new ArrayList<IPathItem>() );
+			}
+			level.add( seed );
+		}
+
+		final Set<IPathItem> added = new HashSet<IPathItem>();
+		final PathSegment segment = new PathSegment( pgc, new LinkedList<IPathItem>(), semiOpen, closed );
+		int depth = byDepth.isEmpty() ? 0 : byDepth.firstKey();
+
+		while( true )
+		{
+			final List<IPathItem> level = byDepth.remove( depth );
+			if( level != null )
+			{
+				segment.open.addAll( level );
+			}
+
+			if( segment.open.isEmpty() )
+			{
+				if( byDepth.isEmpty() )
+				{
+					break;
+				}
+
+				// nothing left to expand until the next seed is reached.
+				depth = byDepth.firstKey();
+				continue;
+			}
+
+			segment.step();
+			depth++;
+
+			for( IPathItem pi : segment.open )
+			{
+				depths.put( pi, depth );
+				added.add( pi );
+			}
+		}
+
+		for( IPathItem pi : added )
+		{
+			final int d = depths.get( pi );
+			for( IPathItem option : pi.getPossibleOptions() )
+			{
+				if( !added.contains( option ) && closed.contains( option ) && getDepth( depths, option ) > d + 1 )
+				{
+					return false;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	private static int getDepth( Map<IPathItem, Integer> depths, IPathItem pi )
+	{
+		final Integer depth = depths.get( pi );
+		return depth == null ? 0 : depth;
+	}
+}
@@ -63,6 +63,7 @@ public class PathSegment
 				if( !this.closed.contains( pi ) )
 				{
 					pi.setControllerRoute( i, true );
+					this.pgc.onRoute( pi, i );
 
 					if( flags.contains( GridFlags.REQUIRE_CHANNEL ) )
 					{
@@ -80,7 +81,11 @@ public class PathSegment
 								worked = this.useChannel( pi );
 							}
 
-							if( worked && flags.contains( GridFlags.MULTIBLOCK ) )
+							if( !worked )
+							{
+								this.pgc.onNoChannel( pi );
+							}
+							else if( flags.contains( GridFlags.MULTIBLOCK ) )
 							{
 								Iterator<IGridNode> oni = ( (IGridMultiblock) ( (IGridNode) pi ).getGridBlock() ).getMultiblockNodes();
 								while( oni.hasNext() )
@@ -97,6 +102,7 @@ public class PathSegment
 						{
 							pi.incrementChannelCount( 1 ); // give a channel.
 							this.semiOpen.remove( pi );
+							this.pgc.onSemiChannel( pi );
 						}
 					}
 
@@ -131,6 +137,7 @@ public class PathSegment
 		}
 
 		this.pgc.channelsInUse++;
+		this.pgc.onChannel( start );
 		return true;
 	}
 
@@ -156,6 +163,7 @@ public class PathSegment
 		}
 
 		this.pgc.channelsInUse++;
+		this.pgc.onChannel( start );
 		return true;
 	}
 }
@@ -20,6 +20,10 @@ package appeng.me.storage;
 
 
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
 
 import net.minecraft.inventory.IInventory;
 import net.minecraft.item.Item;
@@ -57,6 +61,12 @@ public class CellInventory implements ICellInventory
 	static final String ITEM_PRE_FORMATTED_NAME = "PN";
 	static final String ITEM_PRE_FORMATTED_FUZZY = "FP";
 	private static final HashSet<Integer> BLACK_LIST = new HashSet<Integer>();
+
+	/**
+	 * cells with unsaved changes, keyed by the identity of their nbt data.
+	 */
+	private static final Map<NBTTagCompound, CellInventory> PENDING_SAVES = new IdentityHashMap<NBTTagCompound, CellInventory>();
+
 	protected static String[] itemSlots;
 	protected static String[] itemSlotCount;
 	protected final NBTTagCompound tagCompound;
@@ -68,6 +78,15 @@ public class CellInventory implements ICellInventory
 	protected ItemStack i;
 	protected IStorageCell CellType;
 
+	// nbt slot of each stored type, kept compact; removing a type moves the last slot into the gap.
+	private final Map<IAEItemStack, Integer> slotIndex = new IdentityHashMap<IAEItemStack, Integer>();
+	private IAEItemStack[] slotItems;
+	private int usedSlots = 0;
+	private long dirtySlots = 0;
+
+	private long slotWrites = 0;
+	private long flushes = 0;
+
 	protected CellInventory( NBTTagCompound data, ISaveProvider container )
 	{
 		this.tagCompound = data;
@@ -124,11 +143,66 @@ public class CellInventory implements ICellInventory
 
 		this.container = container;
 		this.tagCompound = Platform.openNbtData( o );
+
+		// another inventory for the same cell might still have unsaved changes.
+		flushPendingChanges( this.tagCompound );
+
 		this.storedItems = this.tagCompound.getShort( ITEM_TYPE_TAG );
 		this.storedItemCount = this.tagCompound.getInteger( ITEM_COUNT_TAG );
 		this.cellItems = null;
 	}
 
+	/**
+	 * Writes the changes of every cell modified since the last call, called once a tick and before cells are saved with
+	 * the world.
+	 */
+	public static void flushPendingChanges()
+	{
+		final CellInventory[] pending;
+
+		synchronized( PENDING_SAVES )
+		{
+			if( PENDING_SAVES.isEmpty() )
+			{
+				return;
+			}
+
+			pending = PENDING_SAVES.values().toArray( new CellInventory[PENDING_SAVES.size()] );
+			PENDING_SAVES.clear();
+		}
+
+		for( CellInventory ci : pending )
+		{
+			ci.saveChanges();
+		}
+	}
+
+	/**
+	 * Writes the pending changes of a single cell, before its stack is copied or leaves the inventory it is used in.
+	 */
+	public static void flushPendingChanges( @Nullable ItemStack cell )
+	{
+		if( cell != null && cell.hasTagCompound() )
+		{
+			flushPendingChanges( cell.getTagCompound() );
+		}
+	}
+
+	private static void flushPendingChanges( NBTTagCompound data )
+	{
+		final CellInventory pending;
+
+		synchronized( PENDING_SAVES )
+		{
+			pending = PENDING_SAVES.remove( data );
+		}
+
+		if( pending != null )
+		{
+			pending.saveChanges();
+		}
+	}
+
 	public static IMEInventoryHandler getCell( ItemStack o, ISaveProvider container2 )
 	{
 		try
@@ -228,7 +302,7 @@ public class CellInventory implements ICellInventory
 		}
 
 		IAEItemStack l = this.getCellItems().findPrecise( input );
-		if( l != null )
+		if( l != null && this.slotIndex.containsKey( l ) )
 		{
 			long remainingItemSlots = this.getRemainingItemCount();
 			if( remainingItemSlots < 0 )
@@ -242,9 +316,7 @@ public class CellInventory implements ICellInventory
 				r.setStackSize( r.getStackSize() - remainingItemSlots );
 				if( mode == Actionable.MODULATE )
 				{
-					l.setStackSize( l.getStackSize() + remainingItemSlots );
-					this.updateItemCount( remainingItemSlots );
-					this.saveChanges();
+					this.changeStoredCount( l, remainingItemSlots );
 				}
 				return r;
 			}
@@ -252,9 +324,7 @@ public class CellInventory implements ICellInventory
 			{
 				if( mode == Actionable.MODULATE )
 				{
-					l.setStackSize( l.getStackSize() + input.getStackSize() );
-					this.updateItemCount( input.getStackSize() );
-					this.saveChanges();
+					this.changeStoredCount( l, input.getStackSize() );
 				}
 				return null;
 			}
@@ -271,22 +341,14 @@ public class CellInventory implements ICellInventory
 					toReturn.stackSize = sharedItemStack.stackSize - remainingItemCount;
 					if( mode == Actionable.MODULATE )
 					{
-						ItemStack toWrite = Platform.cloneItemStack( sharedItemStack );
-						toWrite.stackSize = remainingItemCount;
-
-						this.cellItems.add( AEItemStack.create( toWrite ) );
-						this.updateItemCount( toWrite.stackSize );
-
-						this.saveChanges();
+						this.changeStoredCount( this.createRecord( input ), remainingItemCount );
 					}
 					return AEItemStack.create( toReturn );
 				}
 
 				if( mode == Actionable.MODULATE )
 				{
-					this.updateItemCount( input.getStackSize() );
-					this.cellItems.add( input );
-					this.saveChanges();
+					this.changeStoredCount( this.createRecord( input ), input.getStackSize() );
 				}
 
 				return null;
@@ -309,7 +371,7 @@ public class CellInventory implements ICellInventory
 		IAEItemStack Results = null;
 
 		IAEItemStack l = this.getCellItems().findPrecise( request );
-		if( l != null )
+		if( l != null && this.slotIndex.containsKey( l ) )
 		{
 			Results = l.copy();
 
@@ -318,9 +380,7 @@ public class CellInventory implements ICellInventory
 				Results.setStackSize( l.getStackSize() );
 				if( mode == Actionable.MODULATE )
 				{
-					this.updateItemCount( -l.getStackSize() );
-					l.setStackSize( 0 );
-					this.saveChanges();
+					this.changeStoredCount( l, -l.getStackSize() );
 				}
 			}
 			else
@@ -328,9 +388,7 @@ public class CellInventory implements ICellInventory
 				Results.setStackSize( size );
 				if( mode == Actionable.MODULATE )
 				{
-					l.setStackSize( l.getStackSize() - size );
-					this.updateItemCount( -size );
-					this.saveChanges();
+					this.changeStoredCount( l, -size );
 				}
 			}
 		}
@@ -349,54 +407,115 @@ public class CellInventory implements ICellInventory
 		return this.cellItems;
 	}
 
-	private void updateItemCount( long delta )
+	private IAEItemStack createRecord( IAEItemStack input )
 	{
+		IAEItemStack record = input.copy();
+		record.setStackSize( 0 );
+		this.cellItems.add( record );
+
+		return this.cellItems.findPrecise( input );
+	}
+
+	/**
+	 * Updates the size of a stored type and its slot, the nbt is only written by the next {@link #saveChanges()}.
+	 */
+	private void changeStoredCount( IAEItemStack record, long delta )
+	{
+		record.setStackSize( record.getStackSize() + delta );
 		this.storedItemCount += delta;
-		this.tagCompound.setInteger( ITEM_COUNT_TAG, this.storedItemCount );
+
+		Integer slot = this.slotIndex.get( record );
+
+		if( slot == null )
+		{
+			if( record.getStackSize() <= 0 )
+			{
+				return;
+			}
+
+			slot = this.usedSlots++;
+			this.slotItems[slot] = record;
+			this.slotIndex.put( record, slot );
+		}
+		else if( record.getStackSize() <= 0 )
+		{
+			int last = --this.usedSlots;
+			IAEItemStack moved = this.slotItems[last];
+
+			this.slotItems[last] = null;
+			this.slotIndex.remove( record );
+
+			if( last != slot )
+			{
+				this.slotItems[slot] = moved;
+				this.slotIndex.put( moved, slot );
+			}
+
+			this.dirtySlots |= 1L << last;
+		}
+
+		this.dirtySlots |= 1L << slot;
+		this.storedItems = (short) this.usedSlots;
+
+		this.queueSave();
 	}
 
+	private void queueSave()
+	{
+		final CellInventory previous;
+
+		synchronized( PENDING_SAVES )
+		{
+			previous = PENDING_SAVES.put( this.tagCompound, this );
+		}
+
+		if( previous != null && previous != this )
+		{
+			previous.saveChanges();
+		}
+	}
+
+	/**
+	 * Writes the dirty slots and the totals to the cell.
+	 */
 	void saveChanges()
 	{
-		// cellItems.clean();
-		int itemCount = 0;
+		long dirty = this.dirtySlots;
+		this.dirtySlots = 0;
 
-		// add new pretty stuff...
-		int x = 0;
-		for( IAEItemStack v : this.cellItems )
+		while( dirty != 0 )
 		{
-			itemCount += v.getStackSize();
+			int x = Long.numberOfTrailingZeros( dirty );
+			dirty &= dirty - 1;
 
-			NBTBase c = this.tagCompound.getTag( itemSlots[x] );
-			if( c instanceof NBTTagCompound )
+			if( x < this.usedSlots )
 			{
-				v.writeToNBT( (NBTTagCompound) c );
+				IAEItemStack v = this.slotItems[x];
+
+				NBTBase c = this.tagCompound.getTag( itemSlots[x] );
+				if( c instanceof NBTTagCompound )
+				{
+					v.writeToNBT( (NBTTagCompound) c );
+				}
+				else
+				{
+					NBTTagCompound g = new NBTTagCompound();
+					v.writeToNBT( g );
+					this.tagCompound.setTag( itemSlots[x], g );
+				}
+
+				this.tagCompound.setInteger( itemSlotCount[x], (int) v.getStackSize() );
+				this.slotWrites++;
 			}
 			else
 			{
-				NBTTagCompound g = new NBTTagCompound();
-				v.writeToNBT( g );
-				this.tagCompound.setTag( itemSlots[x], g );
+				// clean any old crusty stuff...
+				this.tagCompound.removeTag( itemSlots[x] );
+				this.tagCompound.removeTag( itemSlotCount[x] );
 			}
-
-			/*
-			 * NBTBase tagSlotCount = tagCompound.getTag( itemSlotCount[x] ); if ( tagSlotCount instanceof
-			 * NBTTagInt ) ((NBTTagInt) tagSlotCount).data = (int) v.getStackSize(); else
-			 */
-			this.tagCompound.setInteger( itemSlotCount[x], (int) v.getStackSize() );
-
-			x++;
 		}
 
-		// NBTBase tagType = tagCompound.getTag( ITEM_TYPE_TAG );
-		// NBTBase tagCount = tagCompound.getTag( ITEM_COUNT_TAG );
-		short oldStoredItems = this.storedItems;
-
-		/*
-		 * if ( tagType instanceof NBTTagShort ) ((NBTTagShort) tagType).data = storedItems = (short) cellItems.size();
-		 * else
-		 */
-		this.storedItems = (short) this.cellItems.size();
-		if( this.cellItems.isEmpty() )
+		if( this.storedItems == 0 )
 		{
 			this.tagCompound.removeTag( ITEM_TYPE_TAG );
 		}
@@ -405,25 +524,16 @@ public class CellInventory implements ICellInventory
 			this.tagCompound.setShort( ITEM_TYPE_TAG, this.storedItems );
 		}
 
-		/*
-		 * if ( tagCount instanceof NBTTagInt ) ((NBTTagInt) tagCount).data = storedItemCount = itemCount; else
-		 */
-		this.storedItemCount = itemCount;
-		if( itemCount == 0 )
+		if( this.storedItemCount == 0 )
 		{
 			this.tagCompound.removeTag( ITEM_COUNT_TAG );
 		}
 		else
 		{
-			this.tagCompound.setInteger( ITEM_COUNT_TAG, itemCount );
+			this.tagCompound.setInteger( ITEM_COUNT_TAG, this.storedItemCount );
 		}
 
-		// clean any old crusty stuff...
-		for( ; x < oldStoredItems && x < this.maxItemTypes; x++ )
-		{
-			this.tagCompound.removeTag( itemSlots[x] );
-			this.tagCompound.removeTag( itemSlotCount[x] );
-		}
+		this.flushes++;
 
 		if( this.container != null )
 		{
@@ -440,7 +550,13 @@ public class CellInventory implements ICellInventory
 
 		this.cellItems.resetStatus(); // clears totals and stuff.
 
-		int types = (int) this.getStoredItemTypes();
+		this.slotItems = new IAEItemStack[itemSlots.length];
+		this.slotIndex.clear();
+		this.usedSlots = 0;
+
+		int types = Math.min( (int) this.getStoredItemTypes(), itemSlots.length );
+		int itemCount = 0;
+		boolean compact = false;
 
 		for( int x = 0; x < types; x++ )
 		{
@@ -451,12 +567,46 @@ public class CellInventory implements ICellInventory
 
 				if( t.stackSize > 0 )
 				{
-					this.cellItems.add( AEItemStack.create( t ) );
+					IAEItemStack stack = AEItemStack.create( t );
+					this.cellItems.add( stack );
+					itemCount += t.stackSize;
+
+					IAEItemStack record = this.cellItems.findPrecise( stack );
+					if( !this.slotIndex.containsKey( record ) )
+					{
+						this.slotItems[this.usedSlots] = record;
+						this.slotIndex.put( record, this.usedSlots++ );
+					}
 				}
 			}
+
+			compact |= this.usedSlots != x + 1;
+		}
+
+		// empty or duplicated slots, rewrite the whole cell with the next change.
+		if( compact || itemCount != this.storedItemCount )
+		{
+			this.dirtySlots = ( 1L << types ) - 1;
 		}
 
-		// cellItems.clean();
+		this.storedItems = (short) this.usedSlots;
+		this.storedItemCount = itemCount;
+	}
+
+	/**
+	 * @return nbt slots written since this inventory was created.
+	 */
+	public long getSlotWrites()
+	{
+		return this.slotWrites;
+	}
+
+	/**
+	 * @return number of times this inventory wrote its changes to the cell.
+	 */
+	public long getFlushes()
+	{
+		return this.flushes;
 	}
 
 	@Override
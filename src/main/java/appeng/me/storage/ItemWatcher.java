@@ -23,9 +23,12 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 
+import appeng.api.config.FuzzyMode;
 import appeng.api.networking.storage.IStackWatcher;
 import appeng.api.networking.storage.IStackWatcherHost;
+import appeng.api.storage.data.IAEItemStack;
 import appeng.api.storage.data.IAEStack;
+import appeng.helpers.IStockLevelHost;
 import appeng.me.cache.GridStorageCache;
 
 
@@ -38,6 +41,8 @@ public class ItemWatcher implements IStackWatcher
 	final GridStorageCache gsc;
 	final IStackWatcherHost myObject;
 	final HashSet<IAEStack> myInterests = new HashSet<IAEStack>();
+	StockCounter level;
+	long threshold;
 
 	public ItemWatcher( GridStorageCache cache, IStackWatcherHost host )
 	{
@@ -50,6 +55,47 @@ public class ItemWatcher implements IStackWatcher
 		return this.myObject;
 	}
 
+	/**
+	 * Watches a running total instead of single stacks, the host has to implement {@link IStockLevelHost} and is told
+	 * once per tick when the total crosses the threshold; replaces the previously watched level.
+	 *
+	 * @param filter the item to count, null counts everything on the network
+	 * @param mode the fuzzy range to count, null only counts the exact item
+	 * @param threshold the level the host cares about
+	 *
+	 * @return the counter, to read the current level from
+	 */
+	public StockCounter watchLevel( IAEItemStack filter, FuzzyMode mode, long threshold )
+	{
+		if( !( this.myObject instanceof IStockLevelHost ) )
+		{
+			throw new IllegalStateException( this.myObject.getClass().getName() + " cannot watch stock levels." );
+		}
+
+		this.clearLevel();
+		this.threshold = threshold;
+		return this.level = this.gsc.stockCounters.acquire( this, filter, mode );
+	}
+
+	public StockCounter getLevel()
+	{
+		return this.level;
+	}
+
+	boolean crossedLevel( long before, long after )
+	{
+		return ( before >= this.threshold ) != ( after >= this.threshold );
+	}
+
+	private void clearLevel()
+	{
+		if( this.level != null )
+		{
+			this.gsc.stockCounters.release( this, this.level );
+			this.level = null;
+		}
+	}
+
 	@Override
 	public int size()
 	{
@@ -154,6 +200,8 @@ public class ItemWatcher implements IStackWatcher
 	@Override
 	public void clear()
 	{
+		this.clearLevel();
+
 		Iterator<IAEStack> i = this.myInterests.iterator();
 		while( i.hasNext() )
 		{
@@ -22,6 +22,7 @@ package appeng.me.storage;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.NavigableMap;
 import java.util.concurrent.ConcurrentSkipListMap;
@@ -41,6 +42,7 @@ import appeng.api.storage.data.IAEItemStack;
 import appeng.api.storage.data.IItemList;
 import appeng.util.InventoryAdaptor;
 import appeng.util.Platform;
+import appeng.util.inv.AdaptorIInventory;
 import appeng.util.inv.ItemSlot;
 
 
@@ -50,10 +52,26 @@ public class MEMonitorIInventory implements IMEMonitor<IAEItemStack>
 	final InventoryAdaptor adaptor;
 	final IItemList<IAEItemStack> list = AEApi.instance().storage().createItemList();
 	final HashMap<IMEMonitorHandlerReceiver<IAEItemStack>, Object> listeners = new HashMap<IMEMonitorHandlerReceiver<IAEItemStack>, Object>();
+	private static final int SCAN_WINDOW = 64;
+	private static final int WINDOW_FRACTION = 8;
+	private static final int VERIFY_INTERVAL = 100;
+
 	private final NavigableMap<Integer, CachedItemStack> memory;
 	public BaseActionSource mySource;
 	public StorageFilter mode = StorageFilter.EXTRACTABLE_ONLY;
 
+	private boolean fullScanPending = true;
+	private int windowStart = 0;
+	private long lastChangeCount = -1;
+	private int scansSinceFullScan = 0;
+
+	private int lastScannedSlots = 0;
+	private long scanNanos = 0;
+	private long scans = 0;
+	private long fullScans = 0;
+	private long windowScans = 0;
+	private long skippedScans = 0;
+
 	public MEMonitorIInventory( InventoryAdaptor adaptor )
 	{
 		this.adaptor = adaptor;
@@ -88,6 +106,7 @@ public class MEMonitorIInventory implements IMEMonitor<IAEItemStack>
 
 		if( type == Actionable.MODULATE )
 		{
+			this.fullScanPending = true;
 			this.onTick();
 		}
 
@@ -127,6 +146,7 @@ public class MEMonitorIInventory implements IMEMonitor<IAEItemStack>
 
 		if( type == Actionable.MODULATE )
 		{
+			this.fullScanPending = true;
 			this.onTick();
 		}
 
@@ -141,64 +161,77 @@ public class MEMonitorIInventory implements IMEMonitor<IAEItemStack>
 
 	public TickRateModulation onTick()
 	{
-		boolean changed = false;
+		final long start = System.nanoTime();
+		final TickRateModulation result = this.scan();
 
-		LinkedList<IAEItemStack> changes = new LinkedList<IAEItemStack>();
+		this.scanNanos += System.nanoTime() - start;
+		this.scans++;
 
-		int high = 0;
-		this.list.resetStatus();
-		for( ItemSlot is : this.adaptor )
-		{
-			CachedItemStack old = this.memory.get( is.slot );
-			high = Math.max( high, is.slot );
+		return result;
+	}
 
-			ItemStack newIS = !is.isExtractable && this.mode == StorageFilter.EXTRACTABLE_ONLY ? null : is.getItemStack();
-			ItemStack oldIS = old == null ? null : old.itemStack;
+	private TickRateModulation scan()
+	{
+		final long changeCount = this.adaptor.getChangeCount();
+
+		if( changeCount >= 0 )
+		{
+			this.scansSinceFullScan++;
 
-			if( this.isDifferent( newIS, oldIS ) )
+			// nothing changed, only check every so often in case something touched a stack directly.
+			if( !this.fullScanPending && changeCount == this.lastChangeCount && this.scansSinceFullScan < VERIFY_INTERVAL )
 			{
-				CachedItemStack cis = new CachedItemStack( is.getItemStack() );
-				this.memory.put( is.slot, cis );
+				this.lastScannedSlots = 0;
+				this.skippedScans++;
+				return TickRateModulation.SLOWER;
+			}
 
-				if( old != null && old.aeStack != null )
-				{
-					old.aeStack.setStackSize( -old.aeStack.getStackSize() );
-					changes.add( old.aeStack );
-				}
+			this.lastChangeCount = changeCount;
+		}
+		else if( !this.fullScanPending && this.adaptor instanceof AdaptorIInventory )
+		{
+			final AdaptorIInventory inv = (AdaptorIInventory) this.adaptor;
+			final int size = inv.getSizeInventory();
 
-				if( cis.aeStack != null )
+			if( size > SCAN_WINDOW )
+			{
+				// large inventories are checked a window at a time, the full scan only follows a detected change.
+				if( this.scanWindow( inv, size ) )
 				{
-					changes.add( cis.aeStack );
-					this.list.add( cis.aeStack );
+					this.fullScanPending = true;
+					return TickRateModulation.URGENT;
 				}
 
-				changed = true;
+				return TickRateModulation.SLOWER;
 			}
-			else
-			{
-				int newSize = ( newIS == null ? 0 : newIS.stackSize );
-				int diff = newSize - ( oldIS == null ? 0 : oldIS.stackSize );
+		}
 
-				IAEItemStack stack = ( old == null || old.aeStack == null ? AEApi.instance().storage().createItemStack( newIS ) : old.aeStack.copy() );
-				if( stack != null )
-				{
-					stack.setStackSize( newSize );
-					this.list.add( stack );
-				}
+		return this.scanAll();
+	}
 
-				if( diff != 0 && stack != null )
-				{
-					CachedItemStack cis = new CachedItemStack( is.getItemStack() );
-					this.memory.put( is.slot, cis );
+	private TickRateModulation scanAll()
+	{
+		boolean changed = false;
 
-					IAEItemStack a = stack.copy();
-					a.setStackSize( diff );
-					changes.add( a );
-					changed = true;
-				}
-			}
+		LinkedList<IAEItemStack> changes = new LinkedList<IAEItemStack>();
+
+		this.fullScanPending = false;
+		this.scansSinceFullScan = 0;
+		this.fullScans++;
+
+		int high = 0;
+		int scanned = 0;
+		this.list.resetStatus();
+		for( ItemSlot is : this.adaptor )
+		{
+			high = Math.max( high, is.slot );
+			scanned++;
+
+			changed |= this.scanSlot( is, changes, true );
 		}
 
+		this.lastScannedSlots = scanned;
+
 		// detect dropped items; should fix non IISided Inventory Changes.
 		NavigableMap<Integer, CachedItemStack> end = this.memory.tailMap( high, false );
 		if( !end.isEmpty() )
@@ -224,6 +257,143 @@ public class MEMonitorIInventory implements IMEMonitor<IAEItemStack>
 		return changed ? TickRateModulation.URGENT : TickRateModulation.SLOWER;
 	}
 
+	/**
+	 * scans the next part of the inventory, keeps {@link #list} up to date from the differences alone.
+	 *
+	 * @return true if anything in the window changed
+	 */
+	private boolean scanWindow( AdaptorIInventory inv, int size )
+	{
+		final int window = Math.max( SCAN_WINDOW, size / WINDOW_FRACTION );
+
+		if( this.windowStart >= size )
+		{
+			this.windowStart = 0;
+		}
+
+		final int windowEnd = Math.min( size, this.windowStart + window );
+		final LinkedList<IAEItemStack> changes = new LinkedList<IAEItemStack>();
+		boolean changed = false;
+
+		final Iterator<ItemSlot> i = inv.iterator( this.windowStart, windowEnd );
+		while( i.hasNext() )
+		{
+			changed |= this.scanSlot( i.next(), changes, false );
+		}
+
+		this.lastScannedSlots = windowEnd - this.windowStart;
+		this.windowScans++;
+		this.windowStart = windowEnd >= size ? 0 : windowEnd;
+
+		if( !changes.isEmpty() )
+		{
+			this.postDifference( changes );
+		}
+
+		return changed;
+	}
+
+	/**
+	 * compares a slot against the last known content, and records the difference.
+	 *
+	 * @param rebuild true if {@link #list} is being rebuilt from scratch, otherwise only the differences are applied to
+	 * it.
+	 *
+	 * @return true if the slot changed
+	 */
+	private boolean scanSlot( ItemSlot is, List<IAEItemStack> changes, boolean rebuild )
+	{
+		CachedItemStack old = this.memory.get( is.slot );
+
+		ItemStack newIS = !is.isExtractable && this.mode == StorageFilter.EXTRACTABLE_ONLY ? null : is.getItemStack();
+		ItemStack oldIS = old == null ? null : old.itemStack;
+
+		if( this.isDifferent( newIS, oldIS ) )
+		{
+			CachedItemStack cis = new CachedItemStack( is.getItemStack() );
+			this.memory.put( is.slot, cis );
+
+			if( old != null && old.aeStack != null )
+			{
+				old.aeStack.setStackSize( -old.aeStack.getStackSize() );
+				changes.add( old.aeStack );
+
+				if( !rebuild )
+				{
+					this.list.add( old.aeStack );
+				}
+			}
+
+			if( cis.aeStack != null )
+			{
+				changes.add( cis.aeStack );
+				this.list.add( cis.aeStack );
+			}
+
+			return true;
+		}
+
+		int newSize = ( newIS == null ? 0 : newIS.stackSize );
+		int diff = newSize - ( oldIS == null ? 0 : oldIS.stackSize );
+
+		IAEItemStack stack = ( old == null || old.aeStack == null ? AEApi.instance().storage().createItemStack( newIS ) : old.aeStack.copy() );
+		if( stack != null && rebuild )
+		{
+			stack.setStackSize( newSize );
+			this.list.add( stack );
+		}
+
+		if( diff != 0 && stack != null )
+		{
+			CachedItemStack cis = new CachedItemStack( is.getItemStack() );
+			this.memory.put( is.slot, cis );
+
+			IAEItemStack a = stack.copy();
+			a.setStackSize( diff );
+			changes.add( a );
+
+			if( !rebuild )
+			{
+				this.list.add( a );
+			}
+
+			return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * @return slots looked at by the last scan, 0 if it was skipped.
+	 */
+	public int getLastScannedSlots()
+	{
+		return this.lastScannedSlots;
+	}
+
+	/**
+	 * @return average time spent per scan, in nanoseconds.
+	 */
+	public long getAverageScanNanos()
+	{
+		return this.scans == 0 ? 0 : this.scanNanos / this.scans;
+	}
+
+	public long getFullScans()
+	{
+		return this.fullScans;
+	}
+
+	public long getWindowScans()
+	{
+		return this.windowScans;
+	}
+
+	public long getSkippedScans()
+	{
+		return this.skippedScans;
+	}
+
 	private boolean isDifferent( ItemStack a, ItemStack b )
 	{
 		if( a == b && b == null )
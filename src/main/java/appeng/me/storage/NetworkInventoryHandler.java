@@ -20,12 +20,16 @@ package appeng.me.storage;
 
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.NavigableMap;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import appeng.api.config.AccessRestriction;
 import appeng.api.config.Actionable;
@@ -63,6 +67,12 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInvent
 	final SecurityCache security;
 	// final TreeMultimap<Integer, IMEInventoryHandler<T>> priorityInventory;
 	private final NavigableMap<Integer, List<IMEInventoryHandler<T>>> priorityInventory;
+	/**
+	 * stacks are only indexed while some handler holds them, this only guards against networks holding huge numbers of
+	 * item types.
+	 */
+	private static final int MAX_INDEXED_STACKS = 8192;
+	private final ConcurrentMap<T, StackHolders<T>> contentIndex = new ConcurrentHashMap<T, StackHolders<T>>();
 	int myPass = 0;
 
 	public NetworkInventoryHandler( StorageChannel chan, SecurityCache security )
@@ -84,6 +94,7 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInvent
 		}
 
 		list.add( h );
+		this.contentIndex.clear();
 	}
 
 	@Override
@@ -100,6 +111,18 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInvent
 			return input;
 		}
 
+		// only modulating injections run on the server thread, simulations may read the index but never change it.
+		final boolean learn = type == Actionable.MODULATE;
+		StackHolders<T> holders = this.contentIndex.get( input );
+		final boolean indexed = holders != null;
+
+		if( holders == null && learn )
+		{
+			holders = new StackHolders<T>();
+		}
+
+		final T key = learn ? input.copy() : null;
+
 		for( List<IMEInventoryHandler<T>> invList : this.priorityInventory.values() )
 		{
 			Iterator<IMEInventoryHandler<T>> ii = invList.iterator();
@@ -107,9 +130,9 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInvent
 			{
 				IMEInventoryHandler<T> inv = ii.next();
 
-				if( inv.validForPass( 1 ) && inv.canAccept( input ) && ( inv.isPrioritized( input ) || inv.extractItems( input, Actionable.SIMULATE, src ) != null ) )
+				if( inv.validForPass( 1 ) && inv.canAccept( input ) && ( inv.isPrioritized( input ) || this.holdsStack( holders, inv, input, src, learn ) ) )
 				{
-					input = inv.injectItems( input, type, src );
+					input = this.injectInto( holders, inv, input, type, src );
 				}
 			}
 
@@ -119,16 +142,95 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInvent
 				IMEInventoryHandler<T> inv = ii.next();
 				if( inv.validForPass( 2 ) && inv.canAccept( input ) )// ignore crafting on the second pass.
 				{
-					input = inv.injectItems( input, type, src );
+					input = this.injectInto( holders, inv, input, type, src );
 				}
 			}
 		}
 
+		if( learn )
+		{
+			this.updateIndex( key, holders, indexed );
+		}
+
 		this.surface( this, type );
 
 		return input;
 	}
 
+	/**
+	 * A handler which was asked before is only asked again if it held the stack back then, handlers which were not asked
+	 * yet are asked like before, so the index never causes more simulated extracts than walking the handlers without it.
+	 */
+	private boolean holdsStack( StackHolders<T> holders, IMEInventoryHandler<T> inv, T input, BaseActionSource src, boolean learn )
+	{
+		if( holders != null && holders.known.contains( inv ) && !holders.holders.contains( inv ) )
+		{
+			return false;
+		}
+
+		final boolean holds = inv.extractItems( input, Actionable.SIMULATE, src ) != null;
+
+		if( learn )
+		{
+			holders.known.add( inv );
+
+			if( holds )
+			{
+				holders.holders.add( inv );
+			}
+			else
+			{
+				holders.holders.remove( inv );
+			}
+		}
+
+		return holds;
+	}
+
+	private T injectInto( StackHolders<T> holders, IMEInventoryHandler<T> inv, T input, Actionable type, BaseActionSource src )
+	{
+		final T leftOver = inv.injectItems( input, type, src );
+
+		if( type == Actionable.MODULATE && ( leftOver == null || leftOver.getStackSize() < input.getStackSize() ) )
+		{
+			holders.known.add( inv );
+			holders.holders.add( inv );
+		}
+
+		return leftOver;
+	}
+
+	private void updateIndex( T key, StackHolders<T> holders, boolean indexed )
+	{
+		if( holders.holders.isEmpty() )
+		{
+			if( indexed )
+			{
+				this.contentIndex.remove( key );
+			}
+		}
+		else if( !indexed && this.contentIndex.size() < MAX_INDEXED_STACKS )
+		{
+			key.setStackSize( 0 );
+			this.contentIndex.putIfAbsent( key, holders );
+		}
+	}
+
+	/**
+	 * Called for stacks which changed outside of this handler, stacks that grew may have a new holder we do not know
+	 * of, so they are forgotten until their next injection.
+	 */
+	public void onStoredItemsChanged( Iterable<T> changes )
+	{
+		for( T changed : changes )
+		{
+			if( changed != null && changed.getStackSize() > 0 )
+			{
+				this.contentIndex.remove( changed );
+			}
+		}
+	}
+
 	private boolean diveList( NetworkInventoryHandler<T> networkInventoryHandler, Actionable type )
 	{
 		LinkedList cDepth = this.getDepth( type );
@@ -238,6 +340,12 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInvent
 
 		this.surface( this, mode );
 
+		if( mode == Actionable.MODULATE && output.getStackSize() < req )
+		{
+			// every handler was asked, none of them holds the stack anymore.
+			this.contentIndex.remove( request );
+		}
+
 		if( output.getStackSize() <= 0 )
 		{
 			return null;
@@ -333,4 +441,15 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMEInvent
 	{
 		return true;
 	}
+
+	/**
+	 * What is known about the handlers holding a single stack, only handlers in {@link #holders} may hold it, out of the
+	 * handlers in {@link #known}.
+	 */
+	private static final class StackHolders<T extends IAEStack<T>>
+	{
+
+		private final Set<IMEInventoryHandler<T>> known = Collections.newSetFromMap( new ConcurrentHashMap<IMEInventoryHandler<T>, Boolean>() );
+		private final Set<IMEInventoryHandler<T>> holders = Collections.newSetFromMap( new ConcurrentHashMap<IMEInventoryHandler<T>, Boolean>() );
+	}
 }
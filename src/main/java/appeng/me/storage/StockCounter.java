@@ -0,0 +1,140 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me.storage;
+
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import net.minecraft.item.Item;
+
+import appeng.api.config.FuzzyMode;
+import appeng.api.storage.data.IAEItemStack;
+import appeng.api.storage.data.IItemList;
+import appeng.util.item.AEItemStack;
+
+
+/**
+ * A running total of a part of the network storage, either everything, a single item or a fuzzy range.
+ *
+ * Counters are shared by every watcher asking for the same thing and kept up to date from the changes the network
+ * monitor posts, see {@link StockCounterIndex}.
+ */
+public final class StockCounter
+{
+
+	final IAEItemStack filter;
+	final FuzzyMode mode;
+	final Set<ItemWatcher> watchers = new LinkedHashSet<ItemWatcher>();
+	private final AEItemStack[] ranges;
+	long value;
+	long notifiedValue;
+	boolean dirty;
+
+	StockCounter( IAEItemStack filter, FuzzyMode mode )
+	{
+		this.filter = filter == null ? null : filter.copy();
+		this.mode = mode;
+		this.ranges = mode == null ? null : ( (AEItemStack) filter ).getFuzzyBounds( mode );
+	}
+
+	public long getValue()
+	{
+		return this.value < 0 ? 0 : this.value;
+	}
+
+	public boolean isTotal()
+	{
+		return this.filter == null;
+	}
+
+	public boolean isFuzzy()
+	{
+		return this.ranges != null;
+	}
+
+	/**
+	 * the items a fuzzy counter has to be looked up by.
+	 */
+	Collection<Item> getItems()
+	{
+		Set<Item> out = new LinkedHashSet<Item>();
+
+		if( this.ranges == null )
+		{
+			out.add( this.filter.getItem() );
+		}
+		else
+		{
+			for( int x = 0; x < this.ranges.length; x += 2 )
+			{
+				out.add( this.ranges[x].getItem() );
+			}
+		}
+
+		return out;
+	}
+
+	boolean sameAs( IAEItemStack otherFilter, FuzzyMode otherMode )
+	{
+		return this.mode == otherMode && this.filter.equals( otherFilter );
+	}
+
+	boolean matches( AEItemStack is )
+	{
+		for( int x = 0; x < this.ranges.length; x += 2 )
+		{
+			if( this.ranges[x].compareTo( is ) <= 0 && is.compareTo( this.ranges[x + 1] ) <= 0 )
+			{
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	void recount( IItemList<IAEItemStack> storage )
+	{
+		this.value = 0;
+
+		if( this.filter == null )
+		{
+			for( IAEItemStack is : storage )
+			{
+				this.value += is.getStackSize();
+			}
+		}
+		else if( this.ranges == null )
+		{
+			IAEItemStack is = storage.findPrecise( this.filter );
+			if( is != null )
+			{
+				this.value = is.getStackSize();
+			}
+		}
+		else
+		{
+			for( IAEItemStack is : storage.findFuzzy( this.filter, this.mode ) )
+			{
+				this.value += is.getStackSize();
+			}
+		}
+	}
+}
@@ -0,0 +1,326 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me.storage;
+
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.minecraft.item.Item;
+
+import appeng.api.config.FuzzyMode;
+import appeng.api.storage.IMEMonitor;
+import appeng.api.storage.data.IAEItemStack;
+import appeng.api.storage.data.IItemList;
+import appeng.helpers.IStockLevelHost;
+import appeng.util.item.AEItemStack;
+
+
+/**
+ * Keeps every {@link StockCounter} of a network, and updates them from the item changes the network monitor posts.
+ *
+ * Changes only touch the counters which cover the changed item, watchers are told once per tick and only if their
+ * threshold was crossed. Whenever the changes can no longer be trusted, the counters are all recounted in a single walk
+ * over the storage list on the next tick.
+ */
+public final class StockCounterIndex
+{
+
+	private final IMEMonitor<IAEItemStack> monitor;
+	private final Map<IAEItemStack, StockCounter> precise = new HashMap<IAEItemStack, StockCounter>();
+	private final Map<Item, List<StockCounter>> fuzzy = new HashMap<Item, List<StockCounter>>();
+	private final List<StockCounter> dirty = new ArrayList<StockCounter>();
+	private StockCounter total;
+	private int counters = 0;
+	private boolean stale = false;
+
+	public StockCounterIndex( IMEMonitor<IAEItemStack> monitor )
+	{
+		this.monitor = monitor;
+	}
+
+	StockCounter acquire( ItemWatcher watcher, IAEItemStack filter, FuzzyMode mode )
+	{
+		StockCounter counter = this.find( filter, mode );
+
+		if( counter == null )
+		{
+			counter = new StockCounter( filter, mode );
+			counter.recount( this.monitor.getStorageList() );
+			counter.notifiedValue = counter.value;
+			this.store( counter );
+		}
+
+		counter.watchers.add( watcher );
+		return counter;
+	}
+
+	void release( ItemWatcher watcher, StockCounter counter )
+	{
+		if( counter.watchers.remove( watcher ) && counter.watchers.isEmpty() )
+		{
+			this.discard( counter );
+		}
+	}
+
+	private StockCounter find( IAEItemStack filter, FuzzyMode mode )
+	{
+		if( filter == null )
+		{
+			return this.total;
+		}
+
+		if( mode == null )
+		{
+			return this.precise.get( filter );
+		}
+
+		List<StockCounter> bucket = this.fuzzy.get( filter.getItem() );
+		if( bucket != null )
+		{
+			for( StockCounter counter : bucket )
+			{
+				if( counter.sameAs( filter, mode ) )
+				{
+					return counter;
+				}
+			}
+		}
+
+		return null;
+	}
+
+	private void store( StockCounter counter )
+	{
+		this.counters++;
+
+		if( counter.isTotal() )
+		{
+			this.total = counter;
+		}
+		else if( !counter.isFuzzy() )
+		{
+			this.precise.put( counter.filter, counter );
+		}
+		else
+		{
+			for( Item item : counter.getItems() )
+			{
+				List<StockCounter> bucket = this.fuzzy.get( item );
+				if( bucket == null )
+				{
+					this.fuzzy.put( item, bucket = new ArrayList<StockCounter>( 2 ) );
+				}
+				bucket.add( counter );
+			}
+		}
+	}
+
+	private void discard( StockCounter counter )
+	{
+		this.counters--;
+		this.dirty.remove( counter );
+
+		if( counter.isTotal() )
+		{
+			this.total = null;
+		}
+		else if( !counter.isFuzzy() )
+		{
+			this.precise.remove( counter.filter );
+		}
+		else
+		{
+			for( Item item : counter.getItems() )
+			{
+				List<StockCounter> bucket = this.fuzzy.get( item );
+				if( bucket != null && bucket.remove( counter ) && bucket.isEmpty() )
+				{
+					this.fuzzy.remove( item );
+				}
+			}
+		}
+	}
+
+	/**
+	 * the changes posted to the monitor no longer add up, recount on the next tick.
+	 */
+	public void invalidate()
+	{
+		this.stale = true;
+	}
+
+	public void postChange( IAEItemStack diff )
+	{
+		if( this.stale || this.counters == 0 || diff == null )
+		{
+			return;
+		}
+
+		long delta = diff.getStackSize();
+		if( delta == 0 )
+		{
+			return;
+		}
+
+		if( this.total != null )
+		{
+			this.add( this.total, delta );
+		}
+
+		StockCounter counter = this.precise.get( diff );
+		if( counter != null )
+		{
+			this.add( counter, delta );
+		}
+
+		List<StockCounter> bucket = this.fuzzy.get( diff.getItem() );
+		if( bucket != null && diff instanceof AEItemStack )
+		{
+			for( StockCounter c : bucket )
+			{
+				if( c.matches( (AEItemStack) diff ) )
+				{
+					this.add( c, delta );
+				}
+			}
+		}
+	}
+
+	private void add( StockCounter counter, long delta )
+	{
+		counter.value += delta;
+
+		if( !counter.dirty )
+		{
+			counter.dirty = true;
+			this.dirty.add( counter );
+		}
+	}
+
+	public void onTick()
+	{
+		if( this.stale )
+		{
+			this.stale = false;
+
+			if( this.counters > 0 )
+			{
+				this.recountAll( this.monitor.getStorageList() );
+			}
+		}
+
+		if( this.dirty.isEmpty() )
+		{
+			return;
+		}
+
+		Set<ItemWatcher> crossed = new LinkedHashSet<ItemWatcher>();
+
+		for( StockCounter counter : this.dirty )
+		{
+			counter.dirty = false;
+
+			for( ItemWatcher iw : counter.watchers )
+			{
+				if( iw.crossedLevel( counter.notifiedValue, counter.getValue() ) )
+				{
+					crossed.add( iw );
+				}
+			}
+
+			counter.notifiedValue = counter.getValue();
+		}
+
+		this.dirty.clear();
+
+		// hosts may change their watchers from here, so all counters are settled first.
+		for( ItemWatcher iw : crossed )
+		{
+			StockCounter counter = iw.getLevel();
+			if( counter != null )
+			{
+				( (IStockLevelHost) iw.getHost() ).onStockLevelCrossed( counter );
+			}
+		}
+	}
+
+	private void recountAll( IItemList<IAEItemStack> storage )
+	{
+		Set<StockCounter> all = new LinkedHashSet<StockCounter>();
+
+		if( this.total != null )
+		{
+			all.add( this.total );
+		}
+
+		all.addAll( this.precise.values() );
+
+		for( List<StockCounter> bucket : this.fuzzy.values() )
+		{
+			all.addAll( bucket );
+		}
+
+		for( StockCounter counter : all )
+		{
+			counter.value = 0;
+		}
+
+		for( IAEItemStack is : storage )
+		{
+			long size = is.getStackSize();
+
+			if( this.total != null )
+			{
+				this.total.value += size;
+			}
+
+			StockCounter counter = this.precise.get( is );
+			if( counter != null )
+			{
+				counter.value += size;
+			}
+
+			List<StockCounter> bucket = this.fuzzy.get( is.getItem() );
+			if( bucket != null && is instanceof AEItemStack )
+			{
+				for( StockCounter c : bucket )
+				{
+					if( c.matches( (AEItemStack) is ) )
+					{
+						c.value += size;
+					}
+				}
+			}
+		}
+
+		for( StockCounter counter : all )
+		{
+			if( counter.value != counter.notifiedValue && !counter.dirty )
+			{
+				counter.dirty = true;
+				this.dirty.add( counter );
+			}
+		}
+	}
+}
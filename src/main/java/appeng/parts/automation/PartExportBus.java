@@ -46,13 +46,18 @@ import appeng.api.networking.crafting.ICraftingRequester;
 import appeng.api.networking.energy.IEnergyGrid;
 import appeng.api.networking.security.BaseActionSource;
 import appeng.api.networking.security.MachineSource;
+import appeng.api.networking.storage.IStackWatcher;
+import appeng.api.networking.storage.IStackWatcherHost;
 import appeng.api.networking.ticking.TickRateModulation;
 import appeng.api.networking.ticking.TickingRequest;
 import appeng.api.parts.IPartCollisionHelper;
 import appeng.api.parts.IPartRenderHelper;
 import appeng.api.storage.IMEInventory;
 import appeng.api.storage.IMEMonitor;
+import appeng.api.storage.StorageChannel;
 import appeng.api.storage.data.IAEItemStack;
+import appeng.api.storage.data.IAEStack;
+import appeng.api.storage.data.IItemList;
 import appeng.client.texture.CableBusTextures;
 import appeng.core.AELog;
 import appeng.core.settings.TickRates;
@@ -65,10 +70,11 @@ import appeng.util.Platform;
 import appeng.util.item.AEItemStack;
 
 
-public class PartExportBus extends PartSharedItemBus implements ICraftingRequester
+public class PartExportBus extends PartSharedItemBus implements ICraftingRequester, IStackWatcherHost
 {
 	private final MultiCraftingTracker craftingTracker = new MultiCraftingTracker( this, 9 );
 	private final BaseActionSource mySrc;
+	private IStackWatcher myWatcher;
 	private long itemToSend = 1;
 	private boolean didSomething = false;
 	private int nextSlot = 0;
@@ -254,7 +260,7 @@ public class PartExportBus extends PartSharedItemBus implements ICraftingRequest
 	@Override
 	public TickingRequest getTickingRequest( IGridNode node )
 	{
-		return new TickingRequest( TickRates.ExportBus.min, TickRates.ExportBus.max, this.isSleeping(), false );
+		return new TickingRequest( TickRates.ExportBus.min, TickRates.ExportBus.max, this.isSleeping(), true );
 	}
 
 	@Override
@@ -263,12 +269,6 @@ public class PartExportBus extends PartSharedItemBus implements ICraftingRequest
 		return (RedstoneMode) this.getConfigManager().getSetting( Settings.REDSTONE_CONTROLLED );
 	}
 
-	@Override
-	public TickRateModulation tickingRequest( IGridNode node, int ticksSinceLastCall )
-	{
-		return this.doBusWork();
-	}
-
 	@Override
 	public ImmutableSet<ICraftingLink> getRequestedJobs()
 	{
@@ -317,6 +317,50 @@ public class PartExportBus extends PartSharedItemBus implements ICraftingRequest
 		return this.getHandler() == null || super.isSleeping();
 	}
 
+	@Override
+	public void updateWatcher( IStackWatcher newWatcher )
+	{
+		this.myWatcher = newWatcher;
+		this.configureWatcher();
+	}
+
+	@Override
+	public void onStackChange( IItemList o, IAEStack fullStack, IAEStack diffStack, BaseActionSource src, StorageChannel chan )
+	{
+		this.wakeUp();
+	}
+
+	@Override
+	protected void configChanged()
+	{
+		this.configureWatcher();
+		super.configChanged();
+	}
+
+	@Override
+	protected boolean canWaitForChanges()
+	{
+		// fuzzy matches and crafting can not be watched.
+		return this.myWatcher != null && this.getInstalledUpgrades( Upgrades.FUZZY ) == 0 && !this.isCraftingEnabled() && super.canWaitForChanges();
+	}
+
+	private void configureWatcher()
+	{
+		if( this.myWatcher != null )
+		{
+			this.myWatcher.clear();
+
+			for( int x = 0; x < this.availableSlots(); x++ )
+			{
+				final IAEItemStack ais = this.config.getAEStackInSlot( x );
+				if( ais != null )
+				{
+					this.myWatcher.add( ais );
+				}
+			}
+		}
+	}
+
 	private boolean craftOnly()
 	{
 		return this.getConfigManager().getSetting( Settings.CRAFT_ONLY ) == YesNo.YES;
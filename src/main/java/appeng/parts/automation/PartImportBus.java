@@ -63,6 +63,7 @@ public class PartImportBus extends PartSharedItemBus implements IInventoryDestin
 	private IAEItemStack lastItemChecked = null;
 	private int itemToSend; // used in tickingRequest
 	private boolean worked; // used in tickingRequest
+	private boolean blocked; // used in tickingRequest
 
 	@Reflected
 	public PartImportBus( ItemStack is )
@@ -163,13 +164,7 @@ public class PartImportBus extends PartSharedItemBus implements IInventoryDestin
 	@Override
 	public TickingRequest getTickingRequest( IGridNode node )
 	{
-		return new TickingRequest( TickRates.ImportBus.min, TickRates.ImportBus.max, this.getHandler() == null, false );
-	}
-
-	@Override
-	public TickRateModulation tickingRequest( IGridNode node, int ticksSinceLastCall )
-	{
-		return this.doBusWork();
+		return new TickingRequest( TickRates.ImportBus.min, TickRates.ImportBus.max, this.getHandler() == null, true );
 	}
 
 	@Override
@@ -181,6 +176,7 @@ public class PartImportBus extends PartSharedItemBus implements IInventoryDestin
 		}
 
 		this.worked = false;
+		this.blocked = false;
 
 		final InventoryAdaptor myAdaptor = this.getHandler();
 		final FuzzyMode fzMode = (FuzzyMode) this.getConfigManager().getSetting( Settings.FUZZY_MODE );
@@ -269,6 +265,7 @@ public class PartImportBus extends PartSharedItemBus implements IInventoryDestin
 			if( failed != null )
 			{
 				myAdaptor.addItems( failed.getItemStack() );
+				this.blocked = true;
 				return true;
 			}
 			else
@@ -296,6 +293,13 @@ public class PartImportBus extends PartSharedItemBus implements IInventoryDestin
 		return this.getHandler() == null || super.isSleeping();
 	}
 
+	@Override
+	protected boolean canWaitForChanges()
+	{
+		// the network running out of space does not wake the bus once it has room again.
+		return !this.blocked && super.canWaitForChanges();
+	}
+
 	@Override
 	public RedstoneMode getRSMode()
 	{
@@ -19,7 +19,6 @@
 package appeng.parts.automation;
 
 
-import java.util.Collection;
 import java.util.Random;
 
 import net.minecraft.client.renderer.RenderBlocks;
@@ -58,13 +57,10 @@ import appeng.api.networking.events.MENetworkCraftingPatternChange;
 import appeng.api.networking.events.MENetworkEventSubscribe;
 import appeng.api.networking.events.MENetworkPowerStatusChange;
 import appeng.api.networking.security.BaseActionSource;
-import appeng.api.networking.storage.IBaseMonitor;
 import appeng.api.networking.storage.IStackWatcher;
 import appeng.api.networking.storage.IStackWatcherHost;
 import appeng.api.parts.IPartCollisionHelper;
 import appeng.api.parts.IPartRenderHelper;
-import appeng.api.storage.IMEMonitor;
-import appeng.api.storage.IMEMonitorHandlerReceiver;
 import appeng.api.storage.StorageChannel;
 import appeng.api.storage.data.IAEItemStack;
 import appeng.api.storage.data.IAEStack;
@@ -73,14 +69,17 @@ import appeng.api.util.AECableType;
 import appeng.api.util.IConfigManager;
 import appeng.client.texture.CableBusTextures;
 import appeng.core.sync.GuiBridge;
+import appeng.helpers.IStockLevelHost;
 import appeng.helpers.Reflected;
 import appeng.me.GridAccessException;
+import appeng.me.storage.ItemWatcher;
+import appeng.me.storage.StockCounter;
 import appeng.tile.inventory.AppEngInternalAEInventory;
 import appeng.tile.inventory.InvOperation;
 import appeng.util.Platform;
 
 
-public class PartLevelEmitter extends PartUpgradeable implements IEnergyWatcherHost, IStackWatcherHost, ICraftingWatcherHost, IMEMonitorHandlerReceiver<IAEItemStack>, ICraftingProvider
+public class PartLevelEmitter extends PartUpgradeable implements IEnergyWatcherHost, IStackWatcherHost, IStockLevelHost, ICraftingWatcherHost, ICraftingProvider
 {
 
 	private static final int FLAG_ON = 4;
@@ -119,8 +118,9 @@ public class PartLevelEmitter extends PartUpgradeable implements IEnergyWatcherH
 	public void setReportingValue( long v )
 	{
 		this.reportingValue = v;
-		if( this.getConfigManager().getSetting( Settings.LEVEL_TYPE ) == LevelType.ENERGY_LEVEL )
+		if( this.getConfigManager().getSetting( Settings.LEVEL_TYPE ) == LevelType.ENERGY_LEVEL || this.myWatcher instanceof ItemWatcher )
 		{
+			// the threshold is part of what is watched.
 			this.configureWatchers();
 		}
 		else
@@ -260,9 +260,6 @@ public class PartLevelEmitter extends PartUpgradeable implements IEnergyWatcherH
 				// update to power...
 				this.lastReportedValue = (long) this.proxy.getEnergy().getStoredPower();
 				this.updateState();
-
-				// no more item stuff..
-				this.proxy.getStorage().getItemInventory().removeListener( this );
 			}
 			catch( GridAccessException e )
 			{
@@ -272,66 +269,14 @@ public class PartLevelEmitter extends PartUpgradeable implements IEnergyWatcherH
 			return;
 		}
 
-		try
+		if( this.myWatcher instanceof ItemWatcher )
 		{
-			if( this.getInstalledUpgrades( Upgrades.FUZZY ) > 0 || myStack == null )
-			{
-				this.proxy.getStorage().getItemInventory().addListener( this, this.proxy.getGrid() );
-			}
-			else
-			{
-				this.proxy.getStorage().getItemInventory().removeListener( this );
-
-				if( this.myWatcher != null )
-				{
-					this.myWatcher.add( myStack );
-				}
-			}
-
-			this.updateReportingValue( this.proxy.getStorage().getItemInventory() );
-		}
-		catch( GridAccessException e )
-		{
-			// >.>
-		}
-	}
-
-	private void updateReportingValue( IMEMonitor<IAEItemStack> monitor )
-	{
-		IAEItemStack myStack = this.config.getAEStackInSlot( 0 );
-
-		if( myStack == null )
-		{
-			this.lastReportedValue = 0;
-			for( IAEItemStack st : monitor.getStorageList() )
-			{
-				this.lastReportedValue += st.getStackSize();
-			}
-		}
-		else if( this.getInstalledUpgrades( Upgrades.FUZZY ) > 0 )
-		{
-			this.lastReportedValue = 0;
-			FuzzyMode fzMode = (FuzzyMode) this.getConfigManager().getSetting( Settings.FUZZY_MODE );
-			Collection<IAEItemStack> fuzzyList = monitor.getStorageList().findFuzzy( myStack, fzMode );
-			for( IAEItemStack st : fuzzyList )
-			{
-				this.lastReportedValue += st.getStackSize();
-			}
-		}
-		else
-		{
-			IAEItemStack r = monitor.getStorageList().findPrecise( myStack );
-			if( r == null )
-			{
-				this.lastReportedValue = 0;
-			}
-			else
-			{
-				this.lastReportedValue = r.getStackSize();
-			}
+			// the network keeps the count, we only hear about it when the threshold is crossed, isLevelEmitterOn() flips at
+			// exactly reportingValue.
+			FuzzyMode fzMode = this.getInstalledUpgrades( Upgrades.FUZZY ) > 0 && myStack != null ? (FuzzyMode) this.getConfigManager().getSetting( Settings.FUZZY_MODE ) : null;
+			StockCounter counter = ( (ItemWatcher) this.myWatcher ).watchLevel( myStack, fzMode, this.reportingValue );
+			this.onStockLevelCrossed( counter );
 		}
-
-		this.updateState();
 	}
 
 	@Override
@@ -344,11 +289,14 @@ public class PartLevelEmitter extends PartUpgradeable implements IEnergyWatcherH
 	@Override
 	public void onStackChange( IItemList o, IAEStack fullStack, IAEStack diffStack, BaseActionSource src, StorageChannel chan )
 	{
-		if( chan == StorageChannel.ITEMS && fullStack.equals( this.config.getAEStackInSlot( 0 ) ) && this.getInstalledUpgrades( Upgrades.FUZZY ) == 0 )
-		{
-			this.lastReportedValue = fullStack.getStackSize();
-			this.updateState();
-		}
+		// item levels are watched through a stock counter.
+	}
+
+	@Override
+	public void onStockLevelCrossed( StockCounter counter )
+	{
+		this.lastReportedValue = counter.getValue();
+		this.updateState();
 	}
 
 	@Override
@@ -365,38 +313,6 @@ public class PartLevelEmitter extends PartUpgradeable implements IEnergyWatcherH
 		this.updateState();
 	}
 
-	@Override
-	public boolean isValid( Object effectiveGrid )
-	{
-		try
-		{
-			return this.proxy.getGrid() == effectiveGrid;
-		}
-		catch( GridAccessException e )
-		{
-			return false;
-		}
-	}
-
-	@Override
-	public void postChange( IBaseMonitor<IAEItemStack> monitor, Iterable<IAEItemStack> change, BaseActionSource actionSource )
-	{
-		this.updateReportingValue( (IMEMonitor<IAEItemStack>) monitor );
-	}
-
-	@Override
-	public void onListUpdate()
-	{
-		try
-		{
-			this.updateReportingValue( this.proxy.getStorage().getItemInventory() );
-		}
-		catch( GridAccessException e )
-		{
-			// ;P
-		}
-	}
-
 	@Override
 	public AECableType getCableConnectionType( ForgeDirection dir )
 	{
@@ -24,12 +24,18 @@ import net.minecraft.item.ItemStack;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.world.World;
 
+import appeng.api.config.Actionable;
+import appeng.api.config.PowerMultiplier;
 import appeng.api.config.RedstoneMode;
 import appeng.api.config.Upgrades;
+import appeng.api.networking.IGridNode;
 import appeng.api.networking.ticking.IGridTickable;
 import appeng.api.networking.ticking.TickRateModulation;
+import appeng.api.util.IConfigManager;
+import appeng.helpers.WakeupStats;
 import appeng.me.GridAccessException;
 import appeng.tile.inventory.AppEngInternalAEInventory;
+import appeng.tile.inventory.InvOperation;
 import appeng.util.InventoryAdaptor;
 import appeng.util.Platform;
 
@@ -38,9 +44,11 @@ public abstract class PartSharedItemBus extends PartUpgradeable implements IGrid
 {
 
 	protected final AppEngInternalAEInventory config = new AppEngInternalAEInventory( this, 9 );
+	private final WakeupStats wakeupStats = new WakeupStats();
 	private int adaptorHash = 0;
 	private InventoryAdaptor adaptor;
 	private boolean lastRedstone = false;
+	private boolean waitingForChanges = false;
 
 	public PartSharedItemBus( ItemStack is )
 	{
@@ -50,9 +58,35 @@ public abstract class PartSharedItemBus extends PartUpgradeable implements IGrid
 	@Override
 	public void upgradesChanged()
 	{
+		this.configChanged();
 		this.updateState();
 	}
 
+	@Override
+	public void updateSetting( IConfigManager manager, Enum settingName, Enum newValue )
+	{
+		this.configChanged();
+	}
+
+	@Override
+	public void onChangeInventory( IInventory inv, int slot, InvOperation mc, ItemStack removedStack, ItemStack newStack )
+	{
+		super.onChangeInventory( inv, slot, mc, removedStack, newStack );
+
+		if( inv == this.config )
+		{
+			this.configChanged();
+		}
+	}
+
+	/**
+	 * called when the config, settings or upgrades change.
+	 */
+	protected void configChanged()
+	{
+		this.wakeUp();
+	}
+
 	@Override
 	public void readFromNBT( net.minecraft.nbt.NBTTagCompound extra )
 	{
@@ -81,6 +115,8 @@ public abstract class PartSharedItemBus extends PartUpgradeable implements IGrid
 	@Override
 	public void onNeighborChanged()
 	{
+		// also reached through markDirty of the neighbor, so this covers its inventory changing.
+		this.wakeUp();
 		this.updateState();
 		if( this.lastRedstone != this.host.hasRedstone( this.side ) )
 		{
@@ -169,6 +205,75 @@ public abstract class PartSharedItemBus extends PartUpgradeable implements IGrid
 		}
 	}
 
+	@Override
+	public TickRateModulation tickingRequest( IGridNode node, int ticksSinceLastCall )
+	{
+		final TickRateModulation mod = this.doBusWork();
+		this.wakeupStats.ticked( mod == TickRateModulation.FASTER );
+
+		if( mod == TickRateModulation.SLOWER && this.canWaitForChanges() )
+		{
+			// nothing to do, and whatever could change that wakes the bus up again. it still polls at its slowest rate,
+			// plenty of modded inventories change without calling markDirty.
+			if( !this.waitingForChanges )
+			{
+				this.waitingForChanges = true;
+				this.wakeupStats.sleeping();
+			}
+
+			return TickRateModulation.IDLE;
+		}
+
+		return mod;
+	}
+
+	/**
+	 * @return true if the bus finds out about everything which could give it work again.
+	 */
+	protected boolean canWaitForChanges()
+	{
+		try
+		{
+			// running short on power is not reported, that keeps polling.
+			return this.proxy.getEnergy().extractAEPower( 1, Actionable.SIMULATE, PowerMultiplier.CONFIG ) > 0.9;
+		}
+		catch( GridAccessException e )
+		{
+			return false;
+		}
+	}
+
+	/**
+	 * resumes ticking a bus at its fastest rate, after it went idle in {@link #tickingRequest(IGridNode, int)}.
+	 */
+	protected void wakeUp()
+	{
+		if( !this.waitingForChanges )
+		{
+			return;
+		}
+
+		this.waitingForChanges = false;
+		this.wakeupStats.wokenUp();
+
+		if( !this.isSleeping() )
+		{
+			try
+			{
+				this.proxy.getTick().alertDevice( this.proxy.getNode() );
+			}
+			catch( GridAccessException e )
+			{
+				// :P
+			}
+		}
+	}
+
+	public WakeupStats getWakeupStats()
+	{
+		return this.wakeupStats;
+	}
+
 	private TileEntity getTileEntity( TileEntity self, int x, int y, int z )
 	{
 		final World w = self.getWorldObj();
@@ -391,6 +391,11 @@ public class PartStorageBus extends PartUpgradeable implements IGridTickable, IC
 		Platform.postListChanges( before, after, this, this.mySrc );
 	}
 
+	public MEMonitorIInventory getMonitor()
+	{
+		return this.monitor;
+	}
+
 	public MEInventoryHandler getInternalHandler()
 	{
 		if( this.cached )
@@ -30,6 +30,7 @@ import cpw.mods.fml.common.eventhandler.SubscribeEvent;
 
 import appeng.core.AELog;
 import appeng.recipes.game.IRecipeBakeable;
+import appeng.util.RecipeIndex;
 
 
 public class OreDictionaryHandler
@@ -93,6 +94,8 @@ public class OreDictionaryHandler
 				}
 			}
 		}
+
+		RecipeIndex.invalidate();
 	}
 
 	/**
@@ -19,13 +19,16 @@
 package appeng.server;
 
 
+import appeng.server.subcommands.Benchmark;
 import appeng.server.subcommands.ChunkLogger;
+import appeng.server.subcommands.CraftingQueue;
 import appeng.server.subcommands.Supporters;
+import appeng.server.subcommands.TileUpdates;
 
 
 public enum Commands
 {
-	Chunklogger( 4, new ChunkLogger() ), supporters( 0, new Supporters() );
+	Chunklogger( 4, new ChunkLogger() ), supporters( 0, new Supporters() ), Benchmark( 4, new Benchmark() ), CraftingQueue( 4, new CraftingQueue() ), TileUpdates( 4, new TileUpdates() );
 
 	public final int level;
 	public final ISubCommand command;
@@ -0,0 +1,46 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.server.benchmark;
+
+
+public enum Benchmarks
+{
+	// cells queue their saves with the ones of the world, which are flushed on the server thread.
+	CellInventory( new CellInventoryBenchmark(), true ), GridVisits( new GridVisitBenchmark() ), ItemList( new ItemListBenchmark() ), NetworkEvents( new NetworkEventBenchmark() ), RecipeIndex( new RecipeIndexBenchmark() ), TickManager( new TickManagerBenchmark() ), TileEvents( new TileEventBenchmark() );
+
+	public final IBenchmark benchmark;
+	public final boolean serverThread;
+
+	Benchmarks( IBenchmark benchmark )
+	{
+		this( benchmark, false );
+	}
+
+	Benchmarks( IBenchmark benchmark, boolean serverThread )
+	{
+		this.benchmark = benchmark;
+		this.serverThread = serverThread;
+	}
+
+	@Override
+	public String toString()
+	{
+		return this.name();
+	}
+}
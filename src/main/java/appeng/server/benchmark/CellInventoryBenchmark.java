@@ -0,0 +1,147 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+
+package appeng.server.benchmark;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+
+import appeng.api.AEApi;
+import appeng.api.config.Actionable;
+import appeng.api.implementations.items.IStorageCell;
+import appeng.api.storage.IMEInventoryHandler;
+import appeng.api.storage.data.IAEItemStack;
+import appeng.me.storage.CellInventory;
+import appeng.me.storage.CellInventoryHandler;
+import appeng.util.item.AEItemStack;
+
+
+/**
+ * Pushes inserts and extracts through a 64k cell holding 63 types, the way a fast import bus and a busy export bus
+ * would, and counts the nbt slots written to keep the cell saved.
+ */
+final class CellInventoryBenchmark implements IBenchmark
+{
+
+	private static final int TYPES = 63;
+	private static final int OPERATIONS_PER_TICK = 50;
+
+	@Override
+	public int getDefaultSize()
+	{
+		return 1000000;
+	}
+
+	@Override
+	public List<String> run( int size )
+	{
+		final List<String> out = new ArrayList<String>();
+
+		for( ItemStack cell : AEApi.instance().definitions().items().cell64k().maybeStack( 1 ).asSet() )
+		{
+			final IMEInventoryHandler handler = CellInventory.getCell( cell, null );
+			if( !( handler instanceof CellInventoryHandler ) )
+			{
+				break;
+			}
+
+			final CellInventory inv = (CellInventory) ( (CellInventoryHandler) handler ).getCellInv();
+			final List<IAEItemStack> stacks = this.createStacks();
+			final Random rand = new Random( 0 );
+
+			long previousSaveWrites = 0;
+			int operations = 0;
+
+			final long start = System.nanoTime();
+
+			for( int x = 0; x < size; x++ )
+			{
+				final IAEItemStack stack = stacks.get( rand.nextInt( stacks.size() ) ).copy();
+				stack.setStackSize( 1 + rand.nextInt( 64 ) );
+
+				final boolean changed;
+				if( rand.nextBoolean() )
+				{
+					changed = inv.injectItems( stack, Actionable.MODULATE, null ) != stack;
+				}
+				else
+				{
+					changed = inv.extractItems( stack, Actionable.MODULATE, null ) != null;
+				}
+
+				if( changed )
+				{
+					// every change used to rewrite each stored type.
+					previousSaveWrites += inv.getStoredItemTypes();
+					operations++;
+				}
+
+				if( x % OPERATIONS_PER_TICK == 0 )
+				{
+					CellInventory.flushPendingChanges();
+				}
+			}
+
+			CellInventory.flushPendingChanges();
+
+			final long nanos = System.nanoTime() - start;
+
+			out.add( "Operations: " + size + " (" + operations + " changed the cell), " + nanos / 1000000 + "ms" );
+			out.add( "Stored Types: " + inv.getStoredItemTypes() + ", Items: " + inv.getStoredItemCount() );
+			out.add( "NBT Slot Writes: " + inv.getSlotWrites() + " in " + inv.getFlushes() + " saves" );
+			out.add( "Writes Saving Every Change: " + previousSaveWrites );
+		}
+
+		if( out.isEmpty() )
+		{
+			out.add( "64k storage cells are disabled." );
+		}
+
+		return out;
+	}
+
+	private List<IAEItemStack> createStacks()
+	{
+		final List<IAEItemStack> stacks = new ArrayList<IAEItemStack>( TYPES );
+
+		for( Object obj : Item.itemRegistry )
+		{
+			if( stacks.size() >= TYPES )
+			{
+				break;
+			}
+
+			if( obj instanceof Item && !( obj instanceof IStorageCell ) )
+			{
+				final IAEItemStack stack = AEItemStack.create( new ItemStack( (Item) obj ) );
+				if( stack != null && !CellInventory.isBlackListed( stack ) )
+				{
+					stacks.add( stack );
+				}
+			}
+		}
+
+		return stacks;
+	}
+}
@@ -0,0 +1,311 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.server.benchmark;
+
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.common.util.ForgeDirection;
+
+import appeng.api.networking.GridFlags;
+import appeng.api.networking.GridNotification;
+import appeng.api.networking.IGrid;
+import appeng.api.networking.IGridBlock;
+import appeng.api.networking.IGridConnection;
+import appeng.api.networking.IGridConnectionVisitor;
+import appeng.api.networking.IGridHost;
+import appeng.api.networking.IGridNode;
+import appeng.api.networking.IGridVisitor;
+import appeng.api.util.AEColor;
+import appeng.api.util.DimensionalCoord;
+import appeng.me.GridNode;
+
+
+/**
+ * Visits every node of a synthetic grid, a cube of cables with a few quantum style links, the way pathing and split
+ * detection walk a network.
+ */
+final class GridVisitBenchmark implements IBenchmark
+{
+
+	private static final int WARMUP_VISITS = 50;
+	private static final int VISITS = 200;
+
+	@Override
+	public int getDefaultSize()
+	{
+		return 50000;
+	}
+
+	@Override
+	public List<String> run( int size )
+	{
+		final int edge = Math.max( 1, (int) Math.ceil( Math.cbrt( size ) ) );
+		final GridNode[] nodes = new GridNode[size];
+		final Block cable = new Block( EnumSet.of( GridFlags.PREFERRED ) );
+		final Block device = new Block( EnumSet.noneOf( GridFlags.class ) );
+		final Random rand = new Random( 0 );
+
+		for( int x = 0; x < size; x++ )
+		{
+			nodes[x] = new GridNode( rand.nextInt( 10 ) == 0 ? device : cable );
+		}
+
+		int links = 0;
+		for( int x = 0; x < size; x++ )
+		{
+			final int px = x % edge;
+			final int py = ( x / edge ) % edge;
+
+			if( px + 1 < edge && x + 1 < size )
+			{
+				links += connect( nodes[x], nodes[x + 1], ForgeDirection.EAST );
+			}
+			if( py + 1 < edge && x + edge < size )
+			{
+				links += connect( nodes[x], nodes[x + edge], ForgeDirection.UP );
+			}
+			if( x + edge * edge < size )
+			{
+				links += connect( nodes[x], nodes[x + edge * edge], ForgeDirection.SOUTH );
+			}
+			if( x % 1000 == 0 )
+			{
+				links += connect( nodes[x], nodes[rand.nextInt( size )], ForgeDirection.UNKNOWN );
+			}
+		}
+
+		final Counter counter = new Counter();
+		final List<String> out = new ArrayList<String>();
+		out.add( "Nodes: " + size + ", connections: " + links + ", visits: " + VISITS );
+		out.add( "nodes " + this.measure( nodes[0], new NodeVisitor( counter ), counter ) );
+		out.add( "nodes and connections " + this.measure( nodes[0], new ConnectionVisitor( counter ), counter ) );
+		return out;
+	}
+
+	private String measure( GridNode start, NodeVisitor visitor, Counter counter )
+	{
+		for( int x = 0; x < WARMUP_VISITS; x++ )
+		{
+			start.beginVisit( visitor );
+		}
+
+		counter.nodes = counter.connections = 0;
+
+		final long begin = System.nanoTime();
+		for( int x = 0; x < VISITS; x++ )
+		{
+			start.beginVisit( visitor );
+		}
+		final long time = System.nanoTime() - begin;
+
+		final double perSecond = VISITS / ( time / 1000000000.0 );
+		return String.format( "%.2fms, %.1f full visits/s, %d nodes and %d connections per visit", time / 1000000.0, perSecond, counter.nodes / VISITS, counter.connections / VISITS );
+	}
+
+	private static int connect( GridNode a, GridNode b, ForgeDirection fromAtoB )
+	{
+		if( a == b || a.hasConnection( b ) )
+		{
+			return 0;
+		}
+
+		final Link link = new Link( a, b, fromAtoB );
+		a.addConnection( link );
+		b.addConnection( link );
+		return 1;
+	}
+
+	private static final class Counter
+	{
+
+		private long nodes;
+		private long connections;
+	}
+
+	private static class NodeVisitor implements IGridVisitor
+	{
+
+		protected final Counter counter;
+
+		private NodeVisitor( Counter counter )
+		{
+			this.counter = counter;
+		}
+
+		@Override
+		public boolean visitNode( IGridNode n )
+		{
+			this.counter.nodes++;
+			return true;
+		}
+	}
+
+	private static final class ConnectionVisitor extends NodeVisitor implements IGridConnectionVisitor
+	{
+
+		private ConnectionVisitor( Counter counter )
+		{
+			super( counter );
+		}
+
+		@Override
+		public void visitConnection( IGridConnection n )
+		{
+			this.counter.connections++;
+		}
+	}
+
+	/**
+	 * Connection without pathing or grid bookkeeping, only what a visit needs.
+	 */
+	private static final class Link implements IGridConnection
+	{
+
+		private final IGridNode a;
+		private final IGridNode b;
+		private final ForgeDirection fromAtoB;
+
+		private Link( IGridNode a, IGridNode b, ForgeDirection fromAtoB )
+		{
+			this.a = a;
+			this.b = b;
+			this.fromAtoB = fromAtoB;
+		}
+
+		@Override
+		public IGridNode getOtherSide( IGridNode gridNode )
+		{
+			return gridNode == this.a ? this.b : this.a;
+		}
+
+		@Override
+		public ForgeDirection getDirection( IGridNode gridNode )
+		{
+			return gridNode == this.a ? this.fromAtoB : this.fromAtoB.getOpposite();
+		}
+
+		@Override
+		public void destroy()
+		{
+		}
+
+		@Override
+		public IGridNode a()
+		{
+			return this.a;
+		}
+
+		@Override
+		public IGridNode b()
+		{
+			return this.b;
+		}
+
+		@Override
+		public boolean hasDirection()
+		{
+			return this.fromAtoB != ForgeDirection.UNKNOWN;
+		}
+
+		@Override
+		public int getUsedChannels()
+		{
+			return 0;
+		}
+	}
+
+	private static final class Block implements IGridBlock
+	{
+
+		private final EnumSet<GridFlags> flags;
+
+		private Block( EnumSet<GridFlags> flags )
+		{
+			this.flags = flags;
+		}
+
+		@Override
+		public double getIdlePowerUsage()
+		{
+			return 0;
+		}
+
+		@Override
+		public EnumSet<GridFlags> getFlags()
+		{
+			return this.flags;
+		}
+
+		@Override
+		public boolean isWorldAccessible()
+		{
+			return false;
+		}
+
+		@Override
+		public DimensionalCoord getLocation()
+		{
+			return null;
+		}
+
+		@Override
+		public AEColor getGridColor()
+		{
+			return AEColor.Transparent;
+		}
+
+		@Override
+		public void onGridNotification( GridNotification notification )
+		{
+		}
+
+		@Override
+		public void setNetworkStatus( IGrid grid, int channelsInUse )
+		{
+		}
+
+		@Override
+		public EnumSet<ForgeDirection> getConnectableSides()
+		{
+			return EnumSet.allOf( ForgeDirection.class );
+		}
+
+		@Override
+		public IGridHost getMachine()
+		{
+			return null;
+		}
+
+		@Override
+		public void gridChanged()
+		{
+		}
+
+		@Override
+		public ItemStack getMachineRepresentation()
+		{
+			return null;
+		}
+	}
+}
@@ -0,0 +1,43 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.server.benchmark;
+
+
+import java.util.List;
+
+
+/**
+ * A synthetic workload which can be run on a live server through /ae2 Benchmark, so the numbers reflect the actual
+ * registries and JVM of that server.
+ */
+public interface IBenchmark
+{
+
+	/**
+	 * @return workload size used if the command does not specify one
+	 */
+	int getDefaultSize();
+
+	/**
+	 * @param size workload size, its meaning depends on the benchmark
+	 *
+	 * @return result lines reported back to the command sender
+	 */
+	List<String> run( int size );
+}
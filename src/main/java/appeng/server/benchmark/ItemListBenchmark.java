@@ -0,0 +1,156 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.server.benchmark;
+
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+
+import appeng.api.config.FuzzyMode;
+import appeng.api.storage.data.IAEItemStack;
+import appeng.api.storage.data.IItemList;
+import appeng.util.item.AEItemStack;
+import appeng.util.item.IndexedItemList;
+import appeng.util.item.ItemList;
+
+
+/**
+ * Compares {@link ItemList} and {@link IndexedItemList} on the operations a terminal refresh and a crafting calculation
+ * spend their time in.
+ */
+final class ItemListBenchmark implements IBenchmark
+{
+
+	private static final int ROUNDS = 5;
+
+	@Override
+	public int getDefaultSize()
+	{
+		return 40000;
+	}
+
+	@Override
+	public List<String> run( int size )
+	{
+		final List<IAEItemStack> stacks = this.createStacks( size );
+		final List<String> out = new ArrayList<String>();
+
+		out.add( "Types: " + stacks.size() );
+		out.add( "ItemList        " + this.measure( stacks, false ) );
+		out.add( "IndexedItemList " + this.measure( stacks, true ) );
+
+		return out;
+	}
+
+	private List<IAEItemStack> createStacks( int size )
+	{
+		final List<IAEItemStack> stacks = new ArrayList<IAEItemStack>( size );
+		final List<Item> items = new ArrayList<Item>();
+
+		for( Object obj : Item.itemRegistry )
+		{
+			if( obj instanceof Item )
+			{
+				items.add( (Item) obj );
+			}
+		}
+
+		for( int damage = 0; stacks.size() < size && !items.isEmpty(); damage++ )
+		{
+			for( Item item : items )
+			{
+				if( stacks.size() >= size )
+				{
+					break;
+				}
+
+				final IAEItemStack stack = AEItemStack.create( new ItemStack( item, 1, damage ) );
+				stack.setStackSize( 1 + damage );
+				stacks.add( stack );
+			}
+		}
+
+		return stacks;
+	}
+
+	private String measure( List<IAEItemStack> stacks, boolean indexed )
+	{
+		long populate = 0;
+		long precise = 0;
+		long fuzzy = 0;
+		long iterate = 0;
+		long found = 0;
+
+		// first round is warmup and not counted.
+		for( int round = 0; round <= ROUNDS; round++ )
+		{
+			final IItemList<IAEItemStack> list = indexed ? new IndexedItemList<IAEItemStack>( IAEItemStack.class ) : new ItemList<IAEItemStack>( IAEItemStack.class );
+
+			long start = System.nanoTime();
+			for( IAEItemStack stack : stacks )
+			{
+				list.addStorage( stack );
+			}
+			for( IAEItemStack stack : stacks )
+			{
+				list.addStorage( stack );
+			}
+			final long afterPopulate = System.nanoTime();
+
+			for( IAEItemStack stack : stacks )
+			{
+				if( list.findPrecise( stack ) != null )
+				{
+					found++;
+				}
+			}
+			final long afterPrecise = System.nanoTime();
+
+			for( int i = 0; i < stacks.size(); i += 16 )
+			{
+				found += list.findFuzzy( stacks.get( i ), FuzzyMode.IGNORE_ALL ).size();
+			}
+			final long afterFuzzy = System.nanoTime();
+
+			for( IAEItemStack stack : list )
+			{
+				found += stack.getStackSize() > 0 ? 1 : 0;
+			}
+			final long afterIterate = System.nanoTime();
+
+			if( round > 0 )
+			{
+				populate += afterPopulate - start;
+				precise += afterPrecise - afterPopulate;
+				fuzzy += afterFuzzy - afterPrecise;
+				iterate += afterIterate - afterFuzzy;
+			}
+		}
+
+		return String.format( "populate %.2fms, precise %.2fms, fuzzy %.2fms, iterate %.2fms (%d hits)", this.ms( populate ), this.ms( precise ), this.ms( fuzzy ), this.ms( iterate ), found );
+	}
+
+	private double ms( long totalNanos )
+	{
+		return totalNanos / ( ROUNDS * 1000000.0 );
+	}
+}
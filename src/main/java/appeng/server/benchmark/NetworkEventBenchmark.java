@@ -0,0 +1,115 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.server.benchmark;
+
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import appeng.api.networking.events.MENetworkEvent;
+import appeng.api.networking.events.MENetworkEventSubscribe;
+import appeng.api.networking.events.MENetworkPowerStatusChange;
+import appeng.me.NetworkEventBus;
+import appeng.me.NetworkEventBus.IEventInvoker;
+
+
+/**
+ * Delivers {@link MENetworkPowerStatusChange} to a grid sized set of subscribers, once through reflection and once
+ * through the generated invokers {@link NetworkEventBus} uses.
+ */
+final class NetworkEventBenchmark implements IBenchmark
+{
+
+	private static final int EVENTS = 200;
+
+	@Override
+	public int getDefaultSize()
+	{
+		return 10000;
+	}
+
+	@Override
+	public List<String> run( int size )
+	{
+		final List<String> out = new ArrayList<String>();
+		final Subscriber[] subscribers = new Subscriber[size];
+
+		for( int x = 0; x < size; x++ )
+		{
+			subscribers[x] = new Subscriber();
+		}
+
+		try
+		{
+			final Method m = Subscriber.class.getMethod( "powerChange", MENetworkPowerStatusChange.class );
+			final IEventInvoker reflective = new NetworkEventBus.ReflectiveEventInvoker( m );
+			final IEventInvoker generated = NetworkEventBus.createInvoker( m );
+
+			out.add( "Subscribers: " + size + ", events: " + EVENTS );
+			out.add( "Method.invoke " + this.measure( reflective, subscribers ) );
+			out.add( generated.getClass().getSimpleName() + ' ' + this.measure( generated, subscribers ) );
+		}
+		catch( NoSuchMethodException e )
+		{
+			throw new IllegalStateException( e );
+		}
+
+		return out;
+	}
+
+	private String measure( IEventInvoker invoker, Subscriber[] subscribers )
+	{
+		final MENetworkEvent event = new MENetworkPowerStatusChange();
+
+		// warmup
+		for( int x = 0; x < EVENTS; x++ )
+		{
+			for( Subscriber s : subscribers )
+			{
+				invoker.invoke( s, event );
+			}
+		}
+
+		final long start = System.nanoTime();
+		for( int x = 0; x < EVENTS; x++ )
+		{
+			for( Subscriber s : subscribers )
+			{
+				invoker.invoke( s, event );
+			}
+		}
+		final long time = System.nanoTime() - start;
+
+		final double perSecond = EVENTS / ( time / 1000000000.0 );
+		return String.format( "%.2fms, %.0f events/s over all subscribers", time / 1000000.0, perSecond );
+	}
+
+	public static final class Subscriber
+	{
+
+		public int received;
+
+		@MENetworkEventSubscribe
+		public void powerChange( MENetworkPowerStatusChange e )
+		{
+			this.received++;
+		}
+	}
+}
@@ -0,0 +1,178 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.server.benchmark;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import net.minecraft.inventory.InventoryCrafting;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.IRecipe;
+import net.minecraft.item.crafting.ShapedRecipes;
+import net.minecraft.item.crafting.ShapelessRecipes;
+
+import appeng.container.ContainerNull;
+import appeng.util.RecipeIndex;
+
+
+/**
+ * Compares asking every recipe of a synthetic recipe list against {@link RecipeIndex}, on grids which mostly match a
+ * recipe and sometimes match none.
+ */
+final class RecipeIndexBenchmark implements IBenchmark
+{
+
+	private static final int LOOKUPS = 2000;
+
+	@Override
+	public int getDefaultSize()
+	{
+		return 50000;
+	}
+
+	@Override
+	public List<String> run( int size )
+	{
+		final List<Item> items = new ArrayList<Item>();
+		for( Object obj : Item.itemRegistry )
+		{
+			if( obj instanceof Item )
+			{
+				items.add( (Item) obj );
+			}
+		}
+
+		final Random rand = new Random( 0 );
+		final List<IRecipe> recipes = new ArrayList<IRecipe>( size );
+
+		for( int x = 0; x < size; x++ )
+		{
+			recipes.add( rand.nextInt( 3 ) == 0 ? this.createShapeless( items, rand ) : this.createShaped( items, rand ) );
+		}
+
+		final List<InventoryCrafting> grids = new ArrayList<InventoryCrafting>( LOOKUPS );
+		for( int x = 0; x < LOOKUPS; x++ )
+		{
+			final InventoryCrafting ic = new InventoryCrafting( new ContainerNull(), 3, 3 );
+			final IRecipe r = recipes.get( rand.nextInt( recipes.size() ) );
+
+			if( r instanceof ShapedRecipes )
+			{
+				final ShapedRecipes sr = (ShapedRecipes) r;
+				for( int y = 0; y < sr.recipeItems.length; y++ )
+				{
+					ic.setInventorySlotContents( ( y / sr.recipeWidth ) * 3 + y % sr.recipeWidth, sr.recipeItems[y].copy() );
+				}
+			}
+			else
+			{
+				final List<ItemStack> input = ( (ShapelessRecipes) r ).recipeItems;
+				for( int y = 0; y < input.size(); y++ )
+				{
+					ic.setInventorySlotContents( y, input.get( y ).copy() );
+				}
+			}
+
+			// every tenth grid matches nothing.
+			if( x % 10 == 0 )
+			{
+				ic.setInventorySlotContents( 8, new ItemStack( items.get( rand.nextInt( items.size() ) ), 1, 99 ) );
+			}
+
+			grids.add( ic );
+		}
+
+		final long buildStart = System.nanoTime();
+		final RecipeIndex index = new RecipeIndex( recipes );
+		final long build = System.nanoTime() - buildStart;
+
+		int mismatches = 0;
+		int found = 0;
+		long scan = 0;
+		long indexed = 0;
+
+		for( InventoryCrafting ic : grids )
+		{
+			final long start = System.nanoTime();
+			final IRecipe expected = this.scan( recipes, ic );
+			final long afterScan = System.nanoTime();
+			final IRecipe actual = index.findMatchingRecipe( ic, null );
+			final long afterIndex = System.nanoTime();
+
+			scan += afterScan - start;
+			indexed += afterIndex - afterScan;
+			found += expected == null ? 0 : 1;
+			mismatches += expected == actual ? 0 : 1;
+		}
+
+		final List<String> out = new ArrayList<String>();
+		out.add( "Recipes: " + recipes.size() + ", lookups: " + grids.size() + ", matched: " + found );
+		out.add( String.format( "Scan  %.2fms", scan / 1000000.0 ) );
+		out.add( String.format( "Index %.2fms (build %.2fms), %d mismatches", indexed / 1000000.0, build / 1000000.0, mismatches ) );
+		return out;
+	}
+
+	private IRecipe scan( List<IRecipe> recipes, InventoryCrafting ic )
+	{
+		for( IRecipe r : recipes )
+		{
+			if( r.matches( ic, null ) )
+			{
+				return r;
+			}
+		}
+
+		return null;
+	}
+
+	private IRecipe createShaped( List<Item> items, Random rand )
+	{
+		final int width = 1 + rand.nextInt( 3 );
+		final int height = 1 + rand.nextInt( 3 );
+		final ItemStack[] input = new ItemStack[width * height];
+
+		for( int x = 0; x < input.length; x++ )
+		{
+			input[x] = this.createStack( items, rand );
+		}
+
+		return new ShapedRecipes( width, height, input, this.createStack( items, rand ) );
+	}
+
+	private IRecipe createShapeless( List<Item> items, Random rand )
+	{
+		final List<ItemStack> input = new ArrayList<ItemStack>();
+		final int count = 2 + rand.nextInt( 4 );
+
+		for( int x = 0; x < count; x++ )
+		{
+			input.add( this.createStack( items, rand ) );
+		}
+
+		return new ShapelessRecipes( this.createStack( items, rand ), input );
+	}
+
+	private ItemStack createStack( List<Item> items, Random rand )
+	{
+		return new ItemStack( items.get( rand.nextInt( items.size() ) ), 1, rand.nextInt( 4 ) );
+	}
+}
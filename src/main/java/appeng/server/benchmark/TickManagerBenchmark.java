@@ -0,0 +1,187 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.server.benchmark;
+
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import net.minecraftforge.common.util.ForgeDirection;
+
+import appeng.api.networking.IGridHost;
+import appeng.api.networking.IGridNode;
+import appeng.api.networking.ticking.IGridTickable;
+import appeng.api.networking.ticking.TickRateModulation;
+import appeng.api.networking.ticking.TickingRequest;
+import appeng.api.util.AECableType;
+import appeng.me.cache.TickManagerCache;
+
+
+/**
+ * Ticks a single grid full of tickables which speed up, slow down, sleep and get alerted, the way busy import and
+ * export buses do.
+ */
+final class TickManagerBenchmark implements IBenchmark
+{
+
+	private static final int WARMUP_TICKS = 2000;
+	private static final int TICKS = 10000;
+
+	@Override
+	public int getDefaultSize()
+	{
+		return 10000;
+	}
+
+	@Override
+	public List<String> run( int size )
+	{
+		final TickManagerCache cache = new TickManagerCache( null );
+		final List<IGridNode> nodes = new ArrayList<IGridNode>( size );
+		final Random rand = new Random( 0 );
+		final Tickable machine = new Tickable( rand );
+
+		for( int i = 0; i < size; i++ )
+		{
+			final IGridNode node = createNode();
+			nodes.add( node );
+			cache.addNode( node, machine );
+		}
+
+		long nanos = 0;
+		long worst = 0;
+		long alerts = 0;
+
+		for( int tick = 0; tick < WARMUP_TICKS + TICKS; tick++ )
+		{
+			if( tick == WARMUP_TICKS )
+			{
+				machine.calls = 0;
+			}
+
+			final long start = System.nanoTime();
+
+			// machines get alerted by storage changes, in bursts.
+			for( int i = 0; i < size / 100; i++ )
+			{
+				if( cache.alertDevice( nodes.get( rand.nextInt( size ) ) ) )
+				{
+					alerts++;
+				}
+			}
+
+			cache.onUpdateTick();
+
+			final long elapsed = System.nanoTime() - start;
+			if( tick >= WARMUP_TICKS )
+			{
+				nanos += elapsed;
+				worst = Math.max( worst, elapsed );
+			}
+		}
+
+		final List<String> out = new ArrayList<String>();
+		out.add( "Tickables: " + size + ", ticks: " + TICKS + ", alerts: " + alerts );
+		out.add( String.format( "per tick %.3fms, worst %.3fms, %d device ticks", nanos / ( TICKS * 1000000.0 ), worst / 1000000.0, machine.calls ) );
+		return out;
+	}
+
+	private static IGridNode createNode()
+	{
+		return (IGridNode) Proxy.newProxyInstance( IGridNode.class.getClassLoader(), new Class[] { IGridNode.class }, new InvocationHandler()
+		{
+			@Override
+			public Object invoke( Object proxy, Method method, Object[] args )
+			{
+				if( method.getName().equals( "hashCode" ) )
+				{
+					return System.identityHashCode( proxy );
+				}
+
+				if( method.getName().equals( "equals" ) )
+				{
+					return proxy == args[0];
+				}
+
+				return null;
+			}
+		} );
+	}
+
+	private static final class Tickable implements IGridHost, IGridTickable
+	{
+
+		private final Random rand;
+		private long calls = 0;
+
+		private Tickable( Random rand )
+		{
+			this.rand = rand;
+		}
+
+		@Override
+		public TickingRequest getTickingRequest( IGridNode node )
+		{
+			return new TickingRequest( 5, 60, false, true );
+		}
+
+		@Override
+		public TickRateModulation tickingRequest( IGridNode node, int TicksSinceLastCall )
+		{
+			this.calls++;
+
+			final int roll = this.rand.nextInt( 100 );
+			if( roll < 5 )
+			{
+				return TickRateModulation.SLEEP;
+			}
+			if( roll < 40 )
+			{
+				return TickRateModulation.FASTER;
+			}
+			if( roll < 80 )
+			{
+				return TickRateModulation.SLOWER;
+			}
+
+			return TickRateModulation.SAME;
+		}
+
+		@Override
+		public IGridNode getGridNode( ForgeDirection dir )
+		{
+			return null;
+		}
+
+		@Override
+		public AECableType getCableConnectionType( ForgeDirection dir )
+		{
+			return AECableType.NONE;
+		}
+
+		@Override
+		public void securityBreak()
+		{
+		}
+	}
+}
@@ -0,0 +1,150 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+
+package appeng.server.benchmark;
+
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import appeng.tile.AEBaseTile;
+import appeng.tile.TileEvent;
+import appeng.tile.events.AETileEventHandler;
+import appeng.tile.events.TileEventType;
+
+
+/**
+ * Ticks a set of tiles, once the way {@link AEBaseTile} used to, looking up reflective handlers per tick, and once
+ * through {@link AEBaseTile#updateEntity()} with its resolved table of generated invokers.
+ */
+final class TileEventBenchmark implements IBenchmark
+{
+
+	private static final int TICKS = 20;
+
+	@Override
+	public int getDefaultSize()
+	{
+		return 100000;
+	}
+
+	@Override
+	public List<String> run( int size )
+	{
+		final List<String> out = new ArrayList<String>();
+		final BenchmarkTile[] tiles = new BenchmarkTile[size];
+
+		for( int x = 0; x < size; x++ )
+		{
+			tiles[x] = new BenchmarkTile();
+		}
+
+		try
+		{
+			final Method m = BenchmarkTile.class.getMethod( "onTick" );
+			final Map<TileEventType, List<AETileEventHandler>> reflective = new EnumMap<TileEventType, List<AETileEventHandler>>( TileEventType.class );
+			final List<AETileEventHandler> tick = new ArrayList<AETileEventHandler>();
+			tick.add( new AETileEventHandler( m, TileEventType.TICK, false ) );
+			reflective.put( TileEventType.TICK, tick );
+
+			final Map<Class<?>, Map<TileEventType, List<AETileEventHandler>>> handlers = new HashMap<Class<?>, Map<TileEventType, List<AETileEventHandler>>>();
+			handlers.put( BenchmarkTile.class, reflective );
+
+			final AETileEventHandler compiled = AEBaseTile.getHandlerTable( BenchmarkTile.class )[TileEventType.TICK.ordinal()][0];
+
+			out.add( "Tiles: " + size + ", ticks: " + TICKS );
+			out.add( "Method.invoke " + this.measureReflective( handlers, tiles ) );
+			out.add( ( compiled.isCompiled() ? "generated" : "reflective fallback" ) + ' ' + this.measureCompiled( tiles ) );
+		}
+		catch( NoSuchMethodException e )
+		{
+			throw new IllegalStateException( e );
+		}
+
+		return out;
+	}
+
+	private String measureReflective( Map<Class<?>, Map<TileEventType, List<AETileEventHandler>>> handlers, BenchmarkTile[] tiles )
+	{
+		// warmup
+		this.tickReflective( handlers, tiles );
+
+		final long start = System.nanoTime();
+		for( int x = 0; x < TICKS; x++ )
+		{
+			this.tickReflective( handlers, tiles );
+		}
+
+		return this.format( System.nanoTime() - start, tiles.length );
+	}
+
+	private void tickReflective( Map<Class<?>, Map<TileEventType, List<AETileEventHandler>>> handlers, BenchmarkTile[] tiles )
+	{
+		for( BenchmarkTile tile : tiles )
+		{
+			for( AETileEventHandler h : handlers.get( tile.getClass() ).get( TileEventType.TICK ) )
+			{
+				h.tick( tile );
+			}
+		}
+	}
+
+	private String measureCompiled( BenchmarkTile[] tiles )
+	{
+		// warmup
+		for( BenchmarkTile tile : tiles )
+		{
+			tile.updateEntity();
+		}
+
+		final long start = System.nanoTime();
+		for( int x = 0; x < TICKS; x++ )
+		{
+			for( BenchmarkTile tile : tiles )
+			{
+				tile.updateEntity();
+			}
+		}
+
+		return this.format( System.nanoTime() - start, tiles.length );
+	}
+
+	private String format( long time, int tiles )
+	{
+		final double perTick = time / 1000000.0 / TICKS;
+		final double perTile = (double) time / TICKS / tiles;
+		return String.format( "%.2fms per tick, %.1fns per tile", perTick, perTile );
+	}
+
+	public static final class BenchmarkTile extends AEBaseTile
+	{
+
+		public int ticks;
+
+		@TileEvent( TileEventType.TICK )
+		public void onTick()
+		{
+			this.ticks++;
+		}
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.server.subcommands;
+
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.google.common.base.Joiner;
+
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.ChatComponentText;
+import net.minecraft.world.World;
+
+import appeng.core.AELog;
+import appeng.hooks.TickHandler;
+import appeng.server.ISubCommand;
+import appeng.server.benchmark.Benchmarks;
+import appeng.util.IWorldCallable;
+
+
+public class Benchmark implements ISubCommand
+{
+
+	// one at a time, two benchmarks would only measure each other.
+	private static final AtomicBoolean RUNNING = new AtomicBoolean();
+
+	@Override
+	public String getHelp( MinecraftServer srv )
+	{
+		return "commands.ae2.Benchmark";
+	}
+
+	@Override
+	public void call( MinecraftServer srv, String[] data, final ICommandSender sender )
+	{
+		if( data.length < 2 )
+		{
+			throw new WrongUsageException( Joiner.on( ", " ).join( Benchmarks.values() ) );
+		}
+
+		final Benchmarks which;
+		final int size;
+
+		try
+		{
+			which = Benchmarks.valueOf( data[1] );
+			size = data.length > 2 ? Integer.parseInt( data[2] ) : which.benchmark.getDefaultSize();
+		}
+		catch( IllegalArgumentException e )
+		{
+			// also covers NumberFormatException.
+			throw new WrongUsageException( this.getHelp( srv ) );
+		}
+
+		if( size <= 0 )
+		{
+			throw new WrongUsageException( this.getHelp( srv ) );
+		}
+
+		if( !RUNNING.compareAndSet( false, true ) )
+		{
+			sender.addChatMessage( new ChatComponentText( "A benchmark is already running." ) );
+			return;
+		}
+
+		if( which.serverThread )
+		{
+			try
+			{
+				report( sender, which, which.benchmark.run( size ) );
+			}
+			finally
+			{
+				RUNNING.set( false );
+			}
+
+			return;
+		}
+
+		sender.addChatMessage( new ChatComponentText( "Running " + which + " with size " + size + "..." ) );
+
+		// benchmarks take a while, the server keeps ticking and the results are reported from its thread once done.
+		final Thread thread = new Thread( new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				List<String> result;
+
+				try
+				{
+					result = which.benchmark.run( size );
+				}
+				catch( Throwable t )
+				{
+					AELog.error( t );
+					result = Collections.singletonList( "Failed: " + t );
+				}
+				finally
+				{
+					RUNNING.set( false );
+				}
+
+				final List<String> lines = result;
+				TickHandler.INSTANCE.addCallable( null, new IWorldCallable<Object>()
+				{
+					@Override
+					public Object call( World world )
+					{
+						report( sender, which, lines );
+						return null;
+					}
+				} );
+			}
+		}, "AE Benchmark " + which );
+
+		thread.setDaemon( true );
+		thread.start();
+	}
+
+	private static void report( ICommandSender sender, Benchmarks which, List<String> lines )
+	{
+		for( String line : lines )
+		{
+			AELog.info( "[Benchmark " + which + "] " + line );
+			sender.addChatMessage( new ChatComponentText( line ) );
+		}
+	}
+}
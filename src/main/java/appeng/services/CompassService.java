@@ -20,13 +20,17 @@ package appeng.services;
 
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.Nonnull;
 
@@ -46,33 +50,75 @@ import appeng.services.compass.ICompassCallback;
 import appeng.util.Platform;
 
 
+/**
+ * Answers compass requests and tracks sky stone on a few worker threads.
+ *
+ * Every dimension is handled by the same worker, so the readers of a dimension are never used concurrently, while
+ * different dimensions do not wait on each other.
+ */
 public final class CompassService
 {
 	private static final int CHUNK_SIZE = 16;
+	private static final int BLOCK_BITS = 5;
 
-	private final Map<World, CompassReader> worldSet = new HashMap<World, CompassReader>( 10 );
-	private final ExecutorService executor;
+	private final Map<World, CompassReader> worldSet = new ConcurrentHashMap<World, CompassReader>( 10 );
+	private final ExecutorService[] shards;
+	private final AtomicInteger[] shardJobs;
+
+	// direction requests which did not start yet, a request for the same chunk just waits for the same answer.
+	private final Map<RequestKey, CMDirectionRequest> pendingRequests = new HashMap<RequestKey, CMDirectionRequest>();
 
 	/**
 	 * AE2 Folder for each world
 	 */
 	private final File worldCompassFolder;
 
-	private int jobSize;
-
 	public CompassService( @Nonnull final File worldCompassFolder, @Nonnull final ThreadFactory factory )
 	{
 		Preconditions.checkNotNull( worldCompassFolder );
 
 		this.worldCompassFolder = worldCompassFolder;
-		this.executor = Executors.newSingleThreadExecutor( factory );
-		this.jobSize = 0;
+
+		final int shardCount = Math.max( 1, Math.min( 4, Runtime.getRuntime().availableProcessors() / 2 ) );
+		this.shards = new ExecutorService[shardCount];
+		this.shardJobs = new AtomicInteger[shardCount];
+
+		for( int i = 0; i < shardCount; i++ )
+		{
+			this.shards[i] = Executors.newSingleThreadExecutor( factory );
+			this.shardJobs[i] = new AtomicInteger();
+		}
+	}
+
+	private int getShard( int dimensionId )
+	{
+		return ( dimensionId % this.shards.length + this.shards.length ) % this.shards.length;
+	}
+
+	private Future<?> submit( int shard, Runnable job )
+	{
+		this.shardJobs[shard].incrementAndGet();
+		return this.shards[shard].submit( job );
 	}
 
 	public Future<?> getCompassDirection( DimensionalCoord coord, int maxRange, ICompassCallback cc )
 	{
-		this.jobSize++;
-		return this.executor.submit( new CMDirectionRequest( coord, maxRange, cc ) );
+		final RequestKey key = new RequestKey( coord.getWorld().provider.dimensionId, coord.x >> 4, coord.z >> 4, maxRange );
+
+		synchronized( this.pendingRequests )
+		{
+			CMDirectionRequest request = this.pendingRequests.get( key );
+
+			if( request == null )
+			{
+				request = new CMDirectionRequest( coord, maxRange, key );
+				this.pendingRequests.put( key, request );
+				request.future = this.submit( this.getShard( key.dimension ), request );
+			}
+
+			request.callbacks.add( cc );
+			return request.future;
+		}
 	}
 
 	/**
@@ -81,19 +127,39 @@ public final class CompassService
 	 * @param event the event containing the unloaded world.
 	 */
 	@SubscribeEvent
-	public void unloadWorld( WorldEvent.Unload event )
+	public void unloadWorld( final WorldEvent.Unload event )
 	{
 		if( Platform.isServer() && this.worldSet.containsKey( event.world ) )
 		{
-			final CompassReader compassReader = this.worldSet.remove( event.world );
+			// the reader might be in use, let its own worker close it.
+			this.submit( this.getShard( event.world.provider.dimensionId ), new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					final int shard = CompassService.this.getShard( event.world.provider.dimensionId );
+					CompassService.this.shardJobs[shard].decrementAndGet();
 
-			compassReader.close();
+					final CompassReader compassReader = CompassService.this.worldSet.remove( event.world );
+					if( compassReader != null )
+					{
+						compassReader.close();
+					}
+				}
+			} );
 		}
 	}
 
 	public int jobSize()
 	{
-		return this.jobSize;
+		int jobs = 0;
+
+		for( AtomicInteger shardJob : this.shardJobs )
+		{
+			jobs += shardJob.get();
+		}
+
+		return jobs;
 	}
 
 	public void cleanUp()
@@ -104,6 +170,23 @@ public final class CompassService
 		}
 	}
 
+	/**
+	 * closes the files of all dimensions handled by a worker, once it has nothing else to do.
+	 */
+	private void cleanUp( int shard )
+	{
+		if( this.shardJobs[shard].get() < 2 )
+		{
+			for( final Map.Entry<World, CompassReader> entry : this.worldSet.entrySet() )
+			{
+				if( this.getShard( entry.getKey().provider.dimensionId ) == shard )
+				{
+					entry.getValue().close();
+				}
+			}
+		}
+	}
+
 	public void updateArea( World w, int chunkX, int chunkZ )
 	{
 		final int x = chunkX << 4;
@@ -122,8 +205,6 @@ public final class CompassService
 
 	public Future<?> updateArea( World w, int x, int y, int z )
 	{
-		this.jobSize++;
-
 		final int cx = x >> 4;
 		final int cdy = y >> 5;
 		final int cz = z >> 4;
@@ -131,6 +212,8 @@ public final class CompassService
 		final int low_y = cdy << 5;
 		final int hi_y = low_y + 32;
 
+		final int shard = this.getShard( w.provider.dimensionId );
+
 		// lower level...
 		final Chunk c = w.getChunkFromBlockCoords( x, z );
 
@@ -145,24 +228,34 @@ public final class CompassService
 						final Block blk = c.getBlock( i, k, j );
 						if( blk == skyStoneBlock && c.getBlockMetadata( i, k, j ) == 0 )
 						{
-							return this.executor.submit( new CMUpdatePost( w, cx, cz, cdy, true ) );
+							return this.submit( shard, new CMUpdatePost( w, cx, cz, cdy, true ) );
 						}
 					}
 				}
 			}
 		}
 
-		return this.executor.submit( new CMUpdatePost( w, cx, cz, cdy, false ) );
+		return this.submit( shard, new CMUpdatePost( w, cx, cz, cdy, false ) );
 	}
 
 	public void kill()
 	{
-		this.executor.shutdown();
+		for( ExecutorService shard : this.shards )
+		{
+			shard.shutdown();
+		}
 
 		try
 		{
-			this.executor.awaitTermination( 6, TimeUnit.MINUTES );
-			this.jobSize = 0;
+			for( ExecutorService shard : this.shards )
+			{
+				shard.awaitTermination( 6, TimeUnit.MINUTES );
+			}
+
+			for( AtomicInteger shardJob : this.shardJobs )
+			{
+				shardJob.set( 0 );
+			}
 
 			for( final CompassReader cr : this.worldSet.values() )
 			{
@@ -206,6 +299,41 @@ public final class CompassService
 		return Math.atan2( -up, side ) - Math.PI / 2.0;
 	}
 
+	private static final class RequestKey
+	{
+
+		private final int dimension;
+		private final int chunkX;
+		private final int chunkZ;
+		private final int maxRange;
+
+		private RequestKey( int dimension, int chunkX, int chunkZ, int maxRange )
+		{
+			this.dimension = dimension;
+			this.chunkX = chunkX;
+			this.chunkZ = chunkZ;
+			this.maxRange = maxRange;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return ( ( this.dimension * 31 + this.chunkX ) * 31 + this.chunkZ ) * 31 + this.maxRange;
+		}
+
+		@Override
+		public boolean equals( Object obj )
+		{
+			if( !( obj instanceof RequestKey ) )
+			{
+				return false;
+			}
+
+			final RequestKey other = (RequestKey) obj;
+			return this.dimension == other.dimension && this.chunkX == other.chunkX && this.chunkZ == other.chunkZ && this.maxRange == other.maxRange;
+		}
+	}
+
 	private class CMUpdatePost implements Runnable
 	{
 
@@ -228,15 +356,13 @@ public final class CompassService
 		@Override
 		public void run()
 		{
-			CompassService.this.jobSize--;
+			final int shard = CompassService.this.getShard( this.world.provider.dimensionId );
+			CompassService.this.shardJobs[shard].decrementAndGet();
 
 			final CompassReader cr = CompassService.this.getReader( this.world );
 			cr.setHasBeacon( this.chunkX, this.chunkZ, this.doubleChunkY, this.value );
 
-			if( CompassService.this.jobSize() < 2 )
-			{
-				CompassService.this.cleanUp();
-			}
+			CompassService.this.cleanUp( shard );
 		}
 	}
 
@@ -245,19 +371,33 @@ public final class CompassService
 
 		public final int maxRange;
 		public final DimensionalCoord coord;
-		public final ICompassCallback callback;
+		private final RequestKey key;
+		private final List<ICompassCallback> callbacks = new ArrayList<ICompassCallback>( 1 );
+		private Future<?> future;
+
+		private int closest;
+		private int chosenX;
+		private int chosenZ;
 
-		public CMDirectionRequest( DimensionalCoord coord, int getMaxRange, ICompassCallback cc )
+		public CMDirectionRequest( DimensionalCoord coord, int getMaxRange, RequestKey key )
 		{
 			this.coord = coord;
 			this.maxRange = getMaxRange;
-			this.callback = cc;
+			this.key = key;
 		}
 
 		@Override
 		public void run()
 		{
-			CompassService.this.jobSize--;
+			final int shard = CompassService.this.getShard( this.key.dimension );
+			CompassService.this.shardJobs[shard].decrementAndGet();
+
+			final List<ICompassCallback> waiting;
+			synchronized( CompassService.this.pendingRequests )
+			{
+				CompassService.this.pendingRequests.remove( this.key );
+				waiting = new ArrayList<ICompassCallback>( this.callbacks );
+			}
 
 			final int cx = this.coord.x >> 4;
 			final int cz = this.coord.z >> 4;
@@ -267,17 +407,16 @@ public final class CompassService
 			// Am I standing on it?
 			if( cr.hasBeacon( cx, cz ) )
 			{
-				this.callback.calculatedDirection( true, true, -999, 0 );
-
-				if( CompassService.this.jobSize() < 2 )
+				for( ICompassCallback callback : waiting )
 				{
-					CompassService.this.cleanUp();
+					callback.calculatedDirection( true, true, -999, 0 );
 				}
 
+				CompassService.this.cleanUp( shard );
 				return;
 			}
 
-			// spiral outward...
+			// spiral outward, the first ring with any beacon wins; blocks without any beacon are skipped.
 			for( int offset = 1; offset < this.maxRange; offset++ )
 			{
 				final int minX = cx - offset;
@@ -285,79 +424,65 @@ public final class CompassService
 				final int maxX = cx + offset;
 				final int maxZ = cz + offset;
 
-				int closest = Integer.MAX_VALUE;
-				int chosen_x = cx;
-				int chosen_z = cz;
+				this.closest = Integer.MAX_VALUE;
+
+				this.scanEdge( cr, cx, cz, minX, minZ, 0, 1, 2 * offset + 1 );
+				this.scanEdge( cr, cx, cz, maxX, minZ, 0, 1, 2 * offset + 1 );
+				this.scanEdge( cr, cx, cz, minX + 1, minZ, 1, 0, 2 * offset - 1 );
+				this.scanEdge( cr, cx, cz, minX + 1, maxZ, 1, 0, 2 * offset - 1 );
 
-				for( int z = minZ; z <= maxZ; z++ )
+				if( this.closest < Integer.MAX_VALUE )
 				{
-					if( cr.hasBeacon( minX, z ) )
+					for( ICompassCallback callback : waiting )
 					{
-						final int closeness = CompassService.this.dist( cx, cz, minX, z );
-						if( closeness < closest )
-						{
-							closest = closeness;
-							chosen_x = minX;
-							chosen_z = z;
-						}
+						callback.calculatedDirection( true, false, CompassService.this.rad( cx, cz, this.chosenX, this.chosenZ ), this.closest );
 					}
 
-					if( cr.hasBeacon( maxX, z ) )
-					{
-						final int closeness = CompassService.this.dist( cx, cz, maxX, z );
-						if( closeness < closest )
-						{
-							closest = closeness;
-							chosen_x = maxX;
-							chosen_z = z;
-						}
-					}
+					CompassService.this.cleanUp( shard );
+					return;
 				}
+			}
 
-				for( int x = minX + 1; x < maxX; x++ )
-				{
-					if( cr.hasBeacon( x, minZ ) )
-					{
-						final int closeness = CompassService.this.dist( cx, cz, x, minZ );
-						if( closeness < closest )
-						{
-							closest = closeness;
-							chosen_x = x;
-							chosen_z = minZ;
-						}
-					}
+			// didn't find shit...
+			for( ICompassCallback callback : waiting )
+			{
+				callback.calculatedDirection( false, true, -999, 999 );
+			}
 
-					if( cr.hasBeacon( x, maxZ ) )
-					{
-						final int closeness = CompassService.this.dist( cx, cz, x, maxZ );
-						if( closeness < closest )
-						{
-							closest = closeness;
-							chosen_x = x;
-							chosen_z = maxZ;
-						}
-					}
-				}
+			CompassService.this.cleanUp( shard );
+		}
+
+		/**
+		 * checks length chunks starting at x, z along dx, dz, jumping over the rest of any 32x32 block without a beacon.
+		 */
+		private void scanEdge( CompassReader cr, int cx, int cz, int x, int z, int dx, int dz, int length )
+		{
+			int i = 0;
 
-				if( closest < Integer.MAX_VALUE )
+			while( i < length )
+			{
+				final int px = x + dx * i;
+				final int pz = z + dz * i;
+
+				if( !cr.hasBeaconInBlock( px, pz ) )
 				{
-					this.callback.calculatedDirection( true, false, CompassService.this.rad( cx, cz, chosen_x, chosen_z ), CompassService.this.dist( cx, cz, chosen_x, chosen_z ) );
+					final int pos = dx != 0 ? px : pz;
+					i += ( ( ( pos >> BLOCK_BITS ) + 1 ) << BLOCK_BITS ) - pos;
+					continue;
+				}
 
-					if( CompassService.this.jobSize() < 2 )
+				if( cr.hasBeacon( px, pz ) )
+				{
+					final int closeness = CompassService.this.dist( cx, cz, px, pz );
+					if( closeness < this.closest )
 					{
-						CompassService.this.cleanUp();
+						this.closest = closeness;
+						this.chosenX = px;
+						this.chosenZ = pz;
 					}
-
-					return;
 				}
-			}
 
-			// didn't find shit...
-			this.callback.calculatedDirection( false, true, -999, 999 );
-
-			if( CompassService.this.jobSize() < 2 )
-			{
-				CompassService.this.cleanUp();
+				i++;
 			}
 		}
 	}
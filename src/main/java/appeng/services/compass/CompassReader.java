@@ -67,6 +67,16 @@ public final class CompassReader
 		return r.hasBeacon( cx, cz );
 	}
 
+	/**
+	 * @return false if no chunk in the 32x32 chunk block around the chunk has a beacon.
+	 */
+	public boolean hasBeaconInBlock( int cx, int cz )
+	{
+		final CompassRegion r = this.getRegion( cx, cz );
+
+		return r.hasBeaconInBlock( cx, cz );
+	}
+
 	private CompassRegion getRegion( int cx, int cz )
 	{
 		long pos = cx >> 10;
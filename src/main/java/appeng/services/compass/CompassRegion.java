@@ -33,6 +33,16 @@ import appeng.core.worlddata.MeteorDataNameEncoder;
 
 public final class CompassRegion
 {
+	private static final int REGION_SIZE = 0x400 * 0x400;
+
+	// summary of which 32x32 chunk blocks contain any beacon, stored behind the chunk data.
+	private static final int BLOCK_BITS = 5;
+	private static final int BLOCKS = 0x400 >> BLOCK_BITS;
+	private static final int SUMMARY_MARKER_OFFSET = REGION_SIZE;
+	private static final int SUMMARY_OFFSET = SUMMARY_MARKER_OFFSET + 4;
+	private static final int SUMMARY_MARKER = 0x41455349;
+	private static final int FILE_SIZE = SUMMARY_OFFSET + BLOCKS * BLOCKS / 8;
+
 	private final int lowX;
 	private final int lowZ;
 	private final int world;
@@ -96,6 +106,20 @@ public final class CompassRegion
 		return false;
 	}
 
+	/**
+	 * @return false if there is no beacon in any chunk of the 32x32 chunk block containing the chunk.
+	 */
+	public boolean hasBeaconInBlock( int cx, int cz )
+	{
+		if( this.hasFile )
+		{
+			final int block = ( ( cx & 0x3FF ) >> BLOCK_BITS ) + ( ( cz & 0x3FF ) >> BLOCK_BITS ) * BLOCKS;
+			return ( this.buffer.get( SUMMARY_OFFSET + ( block >> 3 ) ) & ( 1 << ( block & 7 ) ) ) != 0;
+		}
+
+		return false;
+	}
+
 	public void setHasBeacon( int cx, int cz, int cdy, boolean hasBeacon )
 	{
 		cx &= 0x3FF;
@@ -120,6 +144,11 @@ public final class CompassRegion
 			if( originalVal != val )
 			{
 				this.write( cx, cz, val );
+
+				if( originalVal == 0 || val == 0 )
+				{
+					this.updateSummary( cx >> BLOCK_BITS, cz >> BLOCK_BITS );
+				}
 			}
 		}
 	}
@@ -155,8 +184,22 @@ public final class CompassRegion
 			{
 				this.raf = new RandomAccessFile( file, "rw" );
 				final FileChannel fc = this.raf.getChannel();
-				this.buffer = fc.map( FileChannel.MapMode.READ_WRITE, 0, 0x400 * 0x400 );// fc.size() );
+				this.buffer = fc.map( FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE );// fc.size() );
 				this.hasFile = true;
+
+				// files written before the summary existed get it built once.
+				if( this.buffer.getInt( SUMMARY_MARKER_OFFSET ) != SUMMARY_MARKER )
+				{
+					for( int bz = 0; bz < BLOCKS; bz++ )
+					{
+						for( int bx = 0; bx < BLOCKS; bx++ )
+						{
+							this.updateSummary( bx, bz );
+						}
+					}
+
+					this.buffer.putInt( SUMMARY_MARKER_OFFSET, SUMMARY_MARKER );
+				}
 			}
 			catch( final Throwable t )
 			{
@@ -165,6 +208,30 @@ public final class CompassRegion
 		}
 	}
 
+	private void updateSummary( int bx, int bz )
+	{
+		boolean any = false;
+
+		for( int z = bz << BLOCK_BITS; !any && z < ( bz + 1 ) << BLOCK_BITS; z++ )
+		{
+			for( int x = bx << BLOCK_BITS; x < ( bx + 1 ) << BLOCK_BITS; x++ )
+			{
+				if( this.read( x, z ) != 0 )
+				{
+					any = true;
+					break;
+				}
+			}
+		}
+
+		final int block = bx + bz * BLOCKS;
+		final int offset = SUMMARY_OFFSET + ( block >> 3 );
+		final int bit = 1 << ( block & 7 );
+		final int old = this.buffer.get( offset );
+
+		this.buffer.put( offset, (byte) ( any ? old | bit : old & ~bit ) );
+	}
+
 	private File getFile()
 	{
 		final String fileName = this.encoder.encode( this.world, this.lowX, this.lowZ );
@@ -30,6 +30,7 @@ import net.minecraft.world.ChunkPosition;
 import net.minecraft.world.NextTickListEntry;
 import net.minecraft.world.World;
 import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.NibbleArray;
 import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
 import net.minecraftforge.common.util.ForgeDirection;
 
@@ -62,6 +63,8 @@ public class CachedPlane
 	final LinkedList<WorldCoord> updates = new LinkedList<WorldCoord>();
 	private final IBlockDefinition matrixFrame = AEApi.instance().definitions().blocks().matrixFrame();
 	int verticalBits;
+	private int sectionsSwapped;
+	private int blocksCopied;
 
 	public CachedPlane( World w, int minX, int minY, int minZ, int maxX, int maxY, int maxZ )
 	{
@@ -199,6 +202,8 @@ public class CachedPlane
 
 			long startTime = System.nanoTime();
 
+			final boolean[][][] swapped = this.swapSections( dst );
+
 			for( int x = 0; x < this.x_size; x++ )
 			{
 				for( int z = 0; z < this.z_size; z++ )
@@ -211,6 +216,11 @@ public class CachedPlane
 						int src_y = y + this.y_offset;
 						int dst_y = y + dst.y_offset;
 
+						if( swapped != null && swapped[( ( x + this.x_offset ) >> 4 ) - ( this.x_offset >> 4 )][( src_y >> 4 ) - ( this.y_offset >> 4 )][( ( z + this.z_offset ) >> 4 ) - ( this.z_offset >> 4 )] )
+						{
+							continue;
+						}
+
 						if( a.doNotSkip( src_y ) && b.doNotSkip( dst_y ) )
 						{
 							Object[] aD = a.getDetails( src_y );
@@ -218,6 +228,7 @@ public class CachedPlane
 
 							a.setBlockIDWithMetadata( src_y, bD );
 							b.setBlockIDWithMetadata( dst_y, aD );
+							this.blocksCopied++;
 						}
 						else
 						{
@@ -230,7 +241,7 @@ public class CachedPlane
 
 			long endTime = System.nanoTime();
 			long duration = endTime - startTime;
-			AELog.info( "Block Copy Time: " + duration );
+			AELog.info( "Block Copy Time: " + duration + " (" + this.sectionsSwapped + " sections swapped, " + this.blocksCopied + " blocks copied)" );
 
 			for( TileEntity te : this.tiles )
 			{
@@ -262,6 +273,145 @@ public class CachedPlane
 		}
 	}
 
+	/**
+	 * Swaps the block arrays of every 16^3 section which lies completely inside both regions and only holds blocks
+	 * which can be moved. Sections made up of matrix frames are swapped for air, the same as copying each frame would.
+	 * Lighting is rebuilt by {@link #updateChunks()} like for copied blocks.
+	 *
+	 * @return swapped sections indexed by source chunk offsets, or null if the regions are not aligned to each other.
+	 */
+	private boolean[][][] swapSections( CachedPlane dst )
+	{
+		final int dx = dst.x_offset - this.x_offset;
+		final int dy = dst.y_offset - this.y_offset;
+		final int dz = dst.z_offset - this.z_offset;
+
+		if( ( dx & 15 ) != 0 || ( dy & 15 ) != 0 || ( dz & 15 ) != 0 )
+		{
+			return null;
+		}
+
+		final int minCY = this.y_offset >> 4;
+		final int cy_size = ( ( this.y_offset + this.y_size - 1 ) >> 4 ) - minCY + 1;
+		final boolean[][][] swapped = new boolean[this.cx_size][cy_size][this.cz_size];
+
+		for( int cx = 0; cx < this.cx_size; cx++ )
+		{
+			for( int cz = 0; cz < this.cz_size; cz++ )
+			{
+				final Chunk a = this.myChunks[cx][cz];
+				final Chunk b = dst.myChunks[cx][cz];
+
+				for( int cy = 0; cy < cy_size; cy++ )
+				{
+					final int x = ( a.xPosition << 4 ) - this.x_offset;
+					final int y = ( ( minCY + cy ) << 4 ) - this.y_offset;
+					final int z = ( a.zPosition << 4 ) - this.z_offset;
+
+					final SectionContent from = this.getSectionContent( x, y, z );
+					final SectionContent to = from == SectionContent.FIXED ? SectionContent.FIXED : dst.getSectionContent( x, y, z );
+
+					if( from == SectionContent.FIXED || to == SectionContent.FIXED || ( from == SectionContent.FRAMES && to == SectionContent.FRAMES ) )
+					{
+						continue;
+					}
+
+					final ExtendedBlockStorage fromStorage = a.getBlockStorageArray()[( y + this.y_offset ) >> 4];
+					final ExtendedBlockStorage toStorage = b.getBlockStorageArray()[( y + dst.y_offset ) >> 4];
+
+					final byte[] lsb = fromStorage.getBlockLSBArray();
+					final NibbleArray msb = fromStorage.getBlockMSBArray();
+					final NibbleArray meta = fromStorage.getMetadataArray();
+					final NibbleArray light = fromStorage.getBlocklightArray();
+
+					if( to == SectionContent.FRAMES )
+					{
+						this.clearSection( fromStorage );
+					}
+					else
+					{
+						fromStorage.setBlockLSBArray( toStorage.getBlockLSBArray() );
+						fromStorage.setBlockMSBArray( toStorage.getBlockMSBArray() );
+						fromStorage.setBlockMetadataArray( toStorage.getMetadataArray() );
+						fromStorage.setBlocklightArray( toStorage.getBlocklightArray() );
+					}
+
+					if( from == SectionContent.FRAMES )
+					{
+						this.clearSection( toStorage );
+					}
+					else
+					{
+						toStorage.setBlockLSBArray( lsb );
+						toStorage.setBlockMSBArray( msb );
+						toStorage.setBlockMetadataArray( meta );
+						toStorage.setBlocklightArray( light );
+					}
+
+					// recounts blocks and random ticks.
+					fromStorage.removeInvalidBlocks();
+					toStorage.removeInvalidBlocks();
+
+					swapped[cx][cy][cz] = true;
+					this.sectionsSwapped++;
+				}
+			}
+		}
+
+		return swapped;
+	}
+
+	private void clearSection( ExtendedBlockStorage storage )
+	{
+		storage.setBlockLSBArray( new byte[4096] );
+		storage.setBlockMSBArray( null );
+		storage.setBlockMetadataArray( new NibbleArray( 4096, 4 ) );
+		storage.setBlocklightArray( new NibbleArray( 4096, 4 ) );
+	}
+
+	/**
+	 * @param x section origin relative to the plane
+	 */
+	private SectionContent getSectionContent( int x, int y, int z )
+	{
+		if( x < 0 || y < 0 || z < 0 || x + 16 > this.x_size || y + 16 > this.y_size || z + 16 > this.z_size )
+		{
+			return SectionContent.FIXED;
+		}
+
+		// matrix frames turn into air when copied.
+		final Block matrixFrameBlock = this.matrixFrame.maybeBlock().orNull();
+		int frames = 0;
+
+		for( int bx = x; bx < x + 16; bx++ )
+		{
+			for( int bz = z; bz < z + 16; bz++ )
+			{
+				final Column c = this.myColumns[bx][bz];
+
+				for( int by = y + this.y_offset; by < y + this.y_offset + 16; by++ )
+				{
+					if( !c.doNotSkip( by ) )
+					{
+						return SectionContent.FIXED;
+					}
+
+					if( matrixFrameBlock != null && c.getDetails( by )[0] == matrixFrameBlock )
+					{
+						frames++;
+					}
+				}
+			}
+		}
+
+		if( frames == 0 )
+		{
+			return SectionContent.MOVABLE;
+		}
+
+		return frames == 4096 ? SectionContent.FRAMES : SectionContent.FIXED;
+	}
+
 	private void markForUpdate( int x, int y, int z )
 	{
 		this.updates.add( new WorldCoord( x, y, z ) );
@@ -356,6 +506,11 @@ public class CachedPlane
 		}
 	}
 
+	private enum SectionContent
+	{
+		MOVABLE, FRAMES, FIXED
+	}
+
 	class Column
 	{
 
@@ -33,11 +33,17 @@ import appeng.block.AEBaseBlock;
 import appeng.tile.events.TileEventType;
 import appeng.tile.inventory.IAEAppEngInventory;
 import appeng.tile.inventory.InvOperation;
+import appeng.util.inv.IInventoryChangeCounter;
 
 
-public abstract class AEBaseInvTile extends AEBaseTile implements ISidedInventory, IAEAppEngInventory
+public abstract class AEBaseInvTile extends AEBaseTile implements ISidedInventory, IAEAppEngInventory, IInventoryChangeCounter
 {
 
+	/**
+	 * markDirty() calls from outside, which usually follow a direct change to a stack.
+	 */
+	private long dirtyMarks = 0;
+
 	@TileEvent( TileEventType.WORLD_NBT_READ )
 	public void readFromNBT_AEBaseInvTile( net.minecraft.nbt.NBTTagCompound data )
 	{
@@ -154,7 +160,7 @@ public abstract class AEBaseInvTile extends AEBaseTile implements ISidedInventor
 	@Override
 	public final int[] getAccessibleSlotsFromSide( int side )
 	{
-		Block blk = this.worldObj.getBlock( this.xCoord, this.yCoord, this.zCoord );
+		Block blk = this.worldObj == null ? null : this.worldObj.getBlock( this.xCoord, this.yCoord, this.zCoord );
 		if( blk instanceof AEBaseBlock )
 		{
 			ForgeDirection mySide = ForgeDirection.getOrientation( side );
@@ -163,6 +169,26 @@ public abstract class AEBaseInvTile extends AEBaseTile implements ISidedInventor
 		return this.getAccessibleSlotsBySide( ForgeDirection.getOrientation( side ) );
 	}
 
+	@Override
+	public void markDirty()
+	{
+		super.markDirty();
+		this.dirtyMarks++;
+	}
+
+	@Override
+	public long getChangeCount()
+	{
+		IInventory inv = this.getInternalInventory();
+		if( inv instanceof IInventoryChangeCounter )
+		{
+			long changes = ( (IInventoryChangeCounter) inv ).getChangeCount();
+			return changes < 0 ? -1 : changes + this.dirtyMarks;
+		}
+
+		return -1;
+	}
+
 	@Override
 	public boolean canInsertItem( int slotIndex, ItemStack insertingItem, int side )
 	{
@@ -22,9 +22,7 @@ package appeng.tile;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.EnumMap;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
@@ -50,8 +48,11 @@ import appeng.api.util.ICommonTile;
 import appeng.api.util.IConfigManager;
 import appeng.api.util.IConfigurableObject;
 import appeng.api.util.IOrientable;
+import appeng.core.AEConfig;
 import appeng.core.AELog;
+import appeng.core.features.AEFeature;
 import appeng.core.features.IStackSrc;
+import appeng.core.sync.TileUpdateCoalescer;
 import appeng.helpers.ICustomNameObject;
 import appeng.helpers.IPriorityHost;
 import appeng.tile.events.AETileEventHandler;
@@ -65,13 +66,18 @@ public class AEBaseTile extends TileEntity implements IOrientable, ICommonTile,
 {
 
 	public static final ThreadLocal<WeakReference<AEBaseTile>> DROP_NO_ITEMS = new ThreadLocal<WeakReference<AEBaseTile>>();
-	private static final Map<Class<? extends AEBaseTile>, Map<TileEventType, List<AETileEventHandler>>> HANDLERS = new HashMap<Class<? extends AEBaseTile>, Map<TileEventType, List<AETileEventHandler>>>();
+	private static final Map<Class<? extends AEBaseTile>, AETileEventHandler[][]> HANDLERS = new HashMap<Class<? extends AEBaseTile>, AETileEventHandler[][]>();
+	private static final AETileEventHandler[] NO_HANDLERS = new AETileEventHandler[0];
 	private static final Map<Class<? extends TileEntity>, IStackSrc> ITEM_STACKS = new HashMap<Class<? extends TileEntity>, IStackSrc>();
 	private int renderFragment = 0;
 	@Nullable
 	public String customName;
 	private ForgeDirection forward = ForgeDirection.UNKNOWN;
 	private ForgeDirection up = ForgeDirection.UNKNOWN;
+	/**
+	 * handlers of this class, indexed by {@link TileEventType#ordinal()}, shared by all tiles of the same class.
+	 */
+	private AETileEventHandler[][] handlers;
 
 	public static void registerTileItem( Class<? extends TileEntity> c, IStackSrc wat )
 	{
@@ -144,7 +150,7 @@ public class AEBaseTile extends TileEntity implements IOrientable, ICommonTile,
 		{
 		}
 
-		for( AETileEventHandler h : this.getHandlerListFor( TileEventType.WORLD_NBT_READ ) )
+		for( AETileEventHandler h : this.getHandlersFor( TileEventType.WORLD_NBT_READ ) )
 		{
 			h.readFromNBT( this, data );
 		}
@@ -167,7 +173,7 @@ public class AEBaseTile extends TileEntity implements IOrientable, ICommonTile,
 			data.setString( "customName", this.customName );
 		}
 
-		for( AETileEventHandler h : this.getHandlerListFor( TileEventType.WORLD_NBT_WRITE ) )
+		for( AETileEventHandler h : this.getHandlersFor( TileEventType.WORLD_NBT_WRITE ) )
 		{
 			h.writeToNBT( this, data );
 		}
@@ -176,7 +182,7 @@ public class AEBaseTile extends TileEntity implements IOrientable, ICommonTile,
 	@Override
 	public final void updateEntity()
 	{
-		for( AETileEventHandler h : this.getHandlerListFor( TileEventType.TICK ) )
+		for( AETileEventHandler h : this.getHandlersFor( TileEventType.TICK ) )
 		{
 			h.tick( this );
 		}
@@ -215,9 +221,7 @@ public class AEBaseTile extends TileEntity implements IOrientable, ICommonTile,
 
 	private boolean hasHandlerFor( TileEventType type )
 	{
-		List<AETileEventHandler> list = this.getHandlerListFor( type );
-
-		return !list.isEmpty();
+		return this.getHandlersFor( type ).length > 0;
 	}
 
 	@Override
@@ -263,7 +267,7 @@ public class AEBaseTile extends TileEntity implements IOrientable, ICommonTile,
 			}
 
 			this.renderFragment = 100;
-			for( AETileEventHandler h : this.getHandlerListFor( TileEventType.NETWORK_READ ) )
+			for( AETileEventHandler h : this.getHandlersFor( TileEventType.NETWORK_READ ) )
 			{
 				if( h.readFromStream( this, data ) )
 				{
@@ -293,11 +297,19 @@ public class AEBaseTile extends TileEntity implements IOrientable, ICommonTile,
 		}
 		else
 		{
-			// TODO: Optimize Network Load
 			if( this.worldObj != null )
 			{
 				AELog.blockUpdate( this.xCoord, this.yCoord, this.zCoord, this );
-				this.worldObj.markBlockForUpdate( this.xCoord, this.yCoord, this.zCoord );
+
+				// servers send the updates of a tick in bundles, see TileUpdateCoalescer.
+				if( !this.worldObj.isRemote && AEConfig.instance.isFeatureEnabled( AEFeature.CoalescedTileUpdates ) )
+				{
+					TileUpdateCoalescer.INSTANCE.markForUpdate( this );
+				}
+				else
+				{
+					this.worldObj.markBlockForUpdate( this.xCoord, this.yCoord, this.zCoord );
+				}
 			}
 		}
 	}
@@ -312,7 +324,7 @@ public class AEBaseTile extends TileEntity implements IOrientable, ICommonTile,
 				data.writeByte( orientation );
 			}
 
-			for( AETileEventHandler h : this.getHandlerListFor( TileEventType.NETWORK_WRITE ) )
+			for( AETileEventHandler h : this.getHandlersFor( TileEventType.NETWORK_WRITE ) )
 			{
 				h.writeToStream( this, data );
 			}
@@ -335,72 +347,59 @@ public class AEBaseTile extends TileEntity implements IOrientable, ICommonTile,
 	}
 
 	@Nonnull
-	private List<AETileEventHandler> getHandlerListFor( TileEventType type )
+	private AETileEventHandler[] getHandlersFor( TileEventType type )
 	{
-		final Map<TileEventType, List<AETileEventHandler>> eventToHandlers = this.getEventToHandlers();
-		final List<AETileEventHandler> handlers = this.getHandlers( eventToHandlers, type );
+		AETileEventHandler[][] table = this.handlers;
+
+		if( table == null )
+		{
+			this.handlers = table = getHandlerTable( this.getClass() );
+		}
 
-		return handlers;
+		return table[type.ordinal()];
 	}
 
+	/**
+	 * Resolves the {@link TileEvent} methods of a class once, the handlers call them through generated invokers.
+	 */
 	@Nonnull
-	private Map<TileEventType, List<AETileEventHandler>> getEventToHandlers()
+	public static AETileEventHandler[][] getHandlerTable( Class<? extends AEBaseTile> clazz )
 	{
-		final Class<? extends AEBaseTile> clazz = this.getClass();
-		final Map<TileEventType, List<AETileEventHandler>> storedHandlers = HANDLERS.get( clazz );
-
-		if( storedHandlers == null )
+		synchronized( HANDLERS )
 		{
-			final Map<TileEventType, List<AETileEventHandler>> newStoredHandlers = new EnumMap<TileEventType, List<AETileEventHandler>>( TileEventType.class );
-
-			HANDLERS.put( clazz, newStoredHandlers );
+			AETileEventHandler[][] table = HANDLERS.get( clazz );
 
-			for( Method method : clazz.getMethods() )
+			if( table == null )
 			{
-				TileEvent event = method.getAnnotation( TileEvent.class );
-				if( event != null )
+				final TileEventType[] types = TileEventType.values();
+				final List<List<AETileEventHandler>> lists = new ArrayList<List<AETileEventHandler>>( types.length );
+
+				for( TileEventType type : types )
 				{
-					this.addHandler( newStoredHandlers, event.value(), method );
+					lists.add( new ArrayList<AETileEventHandler>() );
 				}
-			}
-
-			return newStoredHandlers;
-		}
-		else
-		{
-			return storedHandlers;
-		}
-	}
-
-	@Nonnull
-	private List<AETileEventHandler> getHandlers( Map<TileEventType, List<AETileEventHandler>> eventToHandlers, TileEventType event )
-	{
-		final List<AETileEventHandler> oldHandlers = eventToHandlers.get( event );
 
-		if( oldHandlers == null )
-		{
-			final List<AETileEventHandler> newHandlers = new LinkedList<AETileEventHandler>();
-			eventToHandlers.put( event, newHandlers );
+				for( Method method : clazz.getMethods() )
+				{
+					TileEvent event = method.getAnnotation( TileEvent.class );
+					if( event != null )
+					{
+						lists.get( event.value().ordinal() ).add( new AETileEventHandler( method, event.value() ) );
+					}
+				}
 
-			return newHandlers;
-		}
-		else
-		{
-			return oldHandlers;
-		}
-	}
+				table = new AETileEventHandler[types.length][];
+				for( int x = 0; x < types.length; x++ )
+				{
+					final List<AETileEventHandler> list = lists.get( x );
+					table[x] = list.isEmpty() ? NO_HANDLERS : list.toArray( new AETileEventHandler[list.size()] );
+				}
 
-	private void addHandler( Map<TileEventType, List<AETileEventHandler>> handlerSet, TileEventType value, Method m )
-	{
-		List<AETileEventHandler> list = handlerSet.get( value );
+				HANDLERS.put( clazz, table );
+			}
 
-		if( list == null )
-		{
-			list = new ArrayList<AETileEventHandler>();
-			handlerSet.put( value, list );
+			return table;
 		}
-
-		list.add( new AETileEventHandler( m ) );
 	}
 
 	@Override
@@ -15,7 +15,6 @@
  * You should have received a copy of the GNU Lesser General Public License
  * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
  */
-
 package appeng.tile.events;
 
 
@@ -30,100 +29,119 @@ import cpw.mods.fml.relauncher.Side;
 import cpw.mods.fml.relauncher.SideOnly;
 
 import appeng.tile.AEBaseTile;
+import appeng.transformer.asm.InvokerGenerator;
 
 
+/**
+ * Calls a single {@link TileEvent} method, directly through a class generated by {@link InvokerGenerator} where
+ * possible, through reflection otherwise.
+ */
 public final class AETileEventHandler
 {
 
 	private final Method method;
+	private final TileEventType type;
+	private final ITickInvoker tickInvoker;
+	private final INBTInvoker nbtInvoker;
+	private final IStreamWriteInvoker streamWriteInvoker;
+	private final IStreamReadInvoker streamReadInvoker;
+
+	public AETileEventHandler( Method method, TileEventType type )
+	{
+		this( method, type, true );
+	}
 
-	public AETileEventHandler( Method method )
+	/**
+	 * @param compile false to always use reflection, only useful to compare both.
+	 */
+	public AETileEventHandler( Method method, TileEventType type, boolean compile )
 	{
 		this.method = method;
+		this.type = type;
+
+		final ReflectiveInvoker reflective = new ReflectiveInvoker( method );
+		ITickInvoker tick = null;
+		INBTInvoker nbt = null;
+		IStreamWriteInvoker streamWrite = null;
+		IStreamReadInvoker streamRead = null;
+
+		switch( type )
+		{
+			case TICK:
+				tick = compile ? InvokerGenerator.generate( ITickInvoker.class, method ) : null;
+				break;
+			case WORLD_NBT_READ:
+			case WORLD_NBT_WRITE:
+				nbt = compile ? InvokerGenerator.generate( INBTInvoker.class, method ) : null;
+				break;
+			case NETWORK_WRITE:
+				streamWrite = compile ? InvokerGenerator.generate( IStreamWriteInvoker.class, method ) : null;
+				break;
+			case NETWORK_READ:
+				streamRead = compile ? InvokerGenerator.generate( IStreamReadInvoker.class, method ) : null;
+				break;
+			default:
+		}
+
+		this.tickInvoker = tick == null ? reflective : tick;
+		this.nbtInvoker = nbt == null ? reflective : nbt;
+		this.streamWriteInvoker = streamWrite == null ? reflective : streamWrite;
+		this.streamReadInvoker = streamRead == null ? reflective : streamRead;
+	}
+
+	public Method getMethod()
+	{
+		return this.method;
+	}
+
+	public TileEventType getType()
+	{
+		return this.type;
+	}
+
+	/**
+	 * @return true if this handler calls its method without reflection.
+	 */
+	public boolean isCompiled()
+	{
+		switch( this.type )
+		{
+			case TICK:
+				return !( this.tickInvoker instanceof ReflectiveInvoker );
+			case WORLD_NBT_READ:
+			case WORLD_NBT_WRITE:
+				return !( this.nbtInvoker instanceof ReflectiveInvoker );
+			case NETWORK_WRITE:
+				return !( this.streamWriteInvoker instanceof ReflectiveInvoker );
+			case NETWORK_READ:
+				return !( this.streamReadInvoker instanceof ReflectiveInvoker );
+			default:
+				return false;
+		}
 	}
 
 	// TICK
 	public void tick( AEBaseTile tile )
 	{
-		try
-		{
-			this.method.invoke( tile );
-		}
-		catch( IllegalAccessException e )
-		{
-			throw new IllegalStateException( e );
-		}
-		catch( IllegalArgumentException e )
-		{
-			throw new IllegalStateException( e );
-		}
-		catch( InvocationTargetException e )
-		{
-			throw new IllegalStateException( e );
-		}
+		this.tickInvoker.tick( tile );
 	}
 
 	// WORLD_NBT
 	public void writeToNBT( AEBaseTile tile, NBTTagCompound data )
 	{
-		try
-		{
-			this.method.invoke( tile, data );
-		}
-		catch( IllegalAccessException e )
-		{
-			throw new IllegalStateException( e );
-		}
-		catch( IllegalArgumentException e )
-		{
-			throw new IllegalStateException( e );
-		}
-		catch( InvocationTargetException e )
-		{
-			throw new IllegalStateException( e );
-		}
+		this.nbtInvoker.invoke( tile, data );
 	}
 
 	// WORLD NBT
 	public void readFromNBT( AEBaseTile tile, NBTTagCompound data )
 	{
-		try
-		{
-			this.method.invoke( tile, data );
-		}
-		catch( IllegalAccessException e )
-		{
-			throw new IllegalStateException( e );
-		}
-		catch( IllegalArgumentException e )
-		{
-			throw new IllegalStateException( e );
-		}
-		catch( InvocationTargetException e )
-		{
-			throw new IllegalStateException( e );
-		}
+		this.nbtInvoker.invoke( tile, data );
 	}
 
 	// NETWORK
 	public void writeToStream( AEBaseTile tile, ByteBuf data )
 	{
-		try
-		{
-			this.method.invoke( tile, data );
-		}
-		catch( IllegalAccessException e )
-		{
-			throw new IllegalStateException( e );
-		}
-		catch( IllegalArgumentException e )
-		{
-			throw new IllegalStateException( e );
-		}
-		catch( InvocationTargetException e )
-		{
-			throw new IllegalStateException( e );
-		}
+		this.streamWriteInvoker.write( tile, data );
 	}
 
 	// NETWORK
@@ -138,21 +156,81 @@ public final class AETileEventHandler
 	@SideOnly( Side.CLIENT )
 	public boolean readFromStream( AEBaseTile tile, ByteBuf data )
 	{
-		try
+		return this.streamReadInvoker.read( tile, data );
+	}
+
+	public interface ITickInvoker
+	{
+		void tick( Object tile );
+	}
+
+	public interface INBTInvoker
+	{
+		void invoke( Object tile, NBTTagCompound data );
+	}
+
+	public interface IStreamWriteInvoker
+	{
+		void write( Object tile, ByteBuf data );
+	}
+
+	public interface IStreamReadInvoker
+	{
+		boolean read( Object tile, ByteBuf data );
+	}
+
+	private static final class ReflectiveInvoker implements ITickInvoker, INBTInvoker, IStreamWriteInvoker, IStreamReadInvoker
+	{
+
+		private final Method method;
+
+		private ReflectiveInvoker( Method method )
 		{
-			return (Boolean) this.method.invoke( tile, data );
+			this.method = method;
 		}
-		catch( IllegalAccessException e )
+
+		@Override
+		public void tick( Object tile )
 		{
-			throw new IllegalStateException( e );
+			this.call( tile );
 		}
-		catch( IllegalArgumentException e )
+
+		@Override
+		public void invoke( Object tile, NBTTagCompound data )
+		{
+			this.call( tile, data );
+		}
+
+		@Override
+		public void write( Object tile, ByteBuf data )
 		{
-			throw new IllegalStateException( e );
+			this.call( tile, data );
 		}
-		catch( InvocationTargetException e )
+
+		@Override
+		public boolean read( Object tile, ByteBuf data )
+		{
+			return (Boolean) this.call( tile, data );
+		}
+
+		private Object call( Object tile, Object... args )
 		{
-			throw new IllegalStateException( e );
+			try
+			{
+				return this.method.invoke( tile, args );
+			}
+			catch( IllegalAccessException e )
+			{
+				throw new IllegalStateException( e );
+			}
+			catch( IllegalArgumentException e )
+			{
+				throw new IllegalStateException( e );
+			}
+			catch( InvocationTargetException e )
+			{
+				throw new IllegalStateException( e );
+			}
 		}
 	}
 }
@@ -30,10 +30,11 @@ import appeng.api.storage.IMEInventory;
 import appeng.core.AELog;
 import appeng.me.storage.MEIInventoryWrapper;
 import appeng.util.Platform;
+import appeng.util.inv.IInventoryChangeCounter;
 import appeng.util.iterators.InvIterator;
 
 
-public class AppEngInternalInventory implements IInventory, Iterable<ItemStack>
+public class AppEngInternalInventory implements IInventory, Iterable<ItemStack>, IInventoryChangeCounter
 {
 
 	protected final int size;
@@ -41,6 +42,7 @@ public class AppEngInternalInventory implements IInventory, Iterable<ItemStack>
 	public boolean enableClientEvents = false;
 	protected IAEAppEngInventory te;
 	protected int maxStack;
+	private long changeCount = 0;
 
 	public AppEngInternalInventory( IAEAppEngInventory inventory, int size )
 	{
@@ -86,6 +88,7 @@ public class AppEngInternalInventory implements IInventory, Iterable<ItemStack>
 		{
 			ItemStack split = this.getStackInSlot( slot );
 			ItemStack ns = null;
+			this.changeCount++;
 
 			if( qty >= split.stackSize )
 			{
@@ -125,6 +128,7 @@ public class AppEngInternalInventory implements IInventory, Iterable<ItemStack>
 	{
 		ItemStack oldStack = this.inv[slot];
 		this.inv[slot] = newItemStack;
+		this.changeCount++;
 
 		if( this.te != null && this.eventsEnabled() )
 		{
@@ -157,6 +161,12 @@ public class AppEngInternalInventory implements IInventory, Iterable<ItemStack>
 		}
 	}
 
+	@Override
+	public long getChangeCount()
+	{
+		return this.changeCount;
+	}
+
 	@Override
 	public String getInventoryName()
 	{
@@ -178,6 +188,8 @@ public class AppEngInternalInventory implements IInventory, Iterable<ItemStack>
 	@Override
 	public void markDirty()
 	{
+		this.changeCount++;
+
 		if( this.te != null && this.eventsEnabled() )
 		{
 			this.te.onChangeInventory( this, -1, InvOperation.markDirty, null, null );
@@ -214,6 +226,8 @@ public class AppEngInternalInventory implements IInventory, Iterable<ItemStack>
 	// for guis...
 	public void markDirty( int slotIndex )
 	{
+		this.changeCount++;
+
 		if( this.te != null && this.eventsEnabled() )
 		{
 			this.te.onChangeInventory( this, slotIndex, InvOperation.markDirty, null, null );
@@ -259,6 +273,8 @@ public class AppEngInternalInventory implements IInventory, Iterable<ItemStack>
 
 	public void readFromNBT( NBTTagCompound target )
 	{
+		this.changeCount++;
+
 		for( int x = 0; x < this.size; x++ )
 		{
 			try
@@ -38,6 +38,7 @@ import appeng.api.networking.events.MENetworkSpatialEvent;
 import appeng.api.networking.spatial.ISpatialCache;
 import appeng.api.util.AECableType;
 import appeng.api.util.DimensionalCoord;
+import appeng.core.AELog;
 import appeng.hooks.TickHandler;
 import appeng.me.cache.SpatialPylonCache;
 import appeng.tile.TileEvent;
@@ -55,6 +56,7 @@ public class TileSpatialIOPort extends AENetworkInvTile implements IWorldCallabl
 	final int[] sides = { 0, 1 };
 	final AppEngInternalInventory inv = new AppEngInternalInventory( this, 2 );
 	YesNo lastRedstoneState = YesNo.UNDECIDED;
+	private long lastTransitionTime = 0;
 
 	public TileSpatialIOPort()
 	{
@@ -142,9 +144,13 @@ public class TileSpatialIOPort extends AENetworkInvTile implements IWorldCallabl
 					MENetworkEvent res = gi.postEvent( new MENetworkSpatialEvent( this, req ) );
 					if( !res.isCanceled() )
 					{
+						final long start = System.nanoTime();
 						TransitionResult tr = sc.doSpatialTransition( cell, this.worldObj, spc.getMin(), spc.getMax(), true );
 						if( tr.success )
 						{
+							this.lastTransitionTime = System.nanoTime() - start;
+							AELog.info( "Spatial IO Port at " + this.xCoord + ", " + this.yCoord + ", " + this.zCoord + " transition time: " + this.lastTransitionTime / 1000000 + "ms" );
+
 							energy.extractAEPower( req, Actionable.MODULATE, PowerMultiplier.CONFIG );
 							this.setInventorySlotContents( 0, null );
 							this.setInventorySlotContents( 1, cell );
@@ -157,6 +163,14 @@ public class TileSpatialIOPort extends AENetworkInvTile implements IWorldCallabl
 		return null;
 	}
 
+	/**
+	 * @return duration of the last successful transition in nanoseconds, 0 if there was none.
+	 */
+	public long getLastTransitionTime()
+	{
+		return this.lastTransitionTime;
+	}
+
 	@Override
 	public AECableType getCableConnectionType( ForgeDirection dir )
 	{
@@ -30,6 +30,7 @@ import net.minecraft.inventory.IInventory;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.world.World;
 import net.minecraftforge.common.util.ForgeDirection;
 import net.minecraftforge.fluids.Fluid;
 import net.minecraftforge.fluids.FluidStack;
@@ -80,6 +81,7 @@ import appeng.api.util.AEColor;
 import appeng.api.util.IConfigManager;
 import appeng.helpers.IPriorityHost;
 import appeng.me.GridAccessException;
+import appeng.me.storage.CellInventory;
 import appeng.me.storage.MEInventoryHandler;
 import appeng.tile.TileEvent;
 import appeng.tile.events.TileEventType;
@@ -526,6 +528,8 @@ public class TileChest extends AENetworkPowerTile implements IMEChest, IFluidHan
 	{
 		if( slot == 1 )
 		{
+			CellInventory.flushPendingChanges( removed );
+
 			this.itemCell = null;
 			this.fluidCell = null;
 			this.isCached = false; // recalculate the storage cell.
@@ -551,6 +555,14 @@ public class TileChest extends AENetworkPowerTile implements IMEChest, IFluidHan
 		}
 	}
 
+	@Override
+	public void getDrops( World w, int x, int y, int z, List<ItemStack> drops )
+	{
+		CellInventory.flushPendingChanges( this.inv.getStackInSlot( 1 ) );
+
+		super.getDrops( w, x, y, z, drops );
+	}
+
 	@Override
 	public boolean canInsertItem( int slotIndex, ItemStack insertingItem, int side )
 	{
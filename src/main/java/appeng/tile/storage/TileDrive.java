@@ -28,6 +28,7 @@ import io.netty.buffer.ByteBuf;
 import net.minecraft.inventory.IInventory;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.world.World;
 import net.minecraftforge.common.util.ForgeDirection;
 
 import appeng.api.AEApi;
@@ -49,6 +50,7 @@ import appeng.api.util.AECableType;
 import appeng.api.util.DimensionalCoord;
 import appeng.helpers.IPriorityHost;
 import appeng.me.GridAccessException;
+import appeng.me.storage.CellInventory;
 import appeng.me.storage.DriveWatcher;
 import appeng.me.storage.MEInventoryHandler;
 import appeng.tile.TileEvent;
@@ -274,6 +276,8 @@ public class TileDrive extends AENetworkInvTile implements IChestOrDrive, IPrior
 	@Override
 	public void onChangeInventory( IInventory inv, int slot, InvOperation mc, ItemStack removed, ItemStack added )
 	{
+		CellInventory.flushPendingChanges( removed );
+
 		if( this.isCached )
 		{
 			this.isCached = false; // recalculate the storage cell.
@@ -294,6 +298,17 @@ public class TileDrive extends AENetworkInvTile implements IChestOrDrive, IPrior
 		this.markForUpdate();
 	}
 
+	@Override
+	public void getDrops( World w, int x, int y, int z, List<ItemStack> drops )
+	{
+		for( int slot = 0; slot < this.inv.getSizeInventory(); slot++ )
+		{
+			CellInventory.flushPendingChanges( this.inv.getStackInSlot( slot ) );
+		}
+
+		super.getDrops( w, x, y, z, drops );
+	}
+
 	@Override
 	public int[] getAccessibleSlotsBySide( ForgeDirection side )
 	{
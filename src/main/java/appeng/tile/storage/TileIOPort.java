@@ -58,6 +58,7 @@ import appeng.api.util.IConfigManager;
 import appeng.core.settings.TickRates;
 import appeng.helpers.Reflected;
 import appeng.me.GridAccessException;
+import appeng.me.storage.CellInventory;
 import appeng.parts.automation.BlockUpgradeInventory;
 import appeng.parts.automation.UpgradeInventory;
 import appeng.tile.TileEvent;
@@ -261,6 +262,7 @@ public class TileIOPort extends AENetworkInvTile implements IUpgradeableHost, IC
 	{
 		if( this.cells == inv )
 		{
+			CellInventory.flushPendingChanges( removed );
 			this.updateTask();
 		}
 	}
@@ -564,6 +566,11 @@ public class TileIOPort extends AENetworkInvTile implements IUpgradeableHost, IC
 	@Override
 	public void getDrops( World w, int x, int y, int z, List<ItemStack> drops )
 	{
+		for( int slot = 0; slot < this.cells.getSizeInventory(); slot++ )
+		{
+			CellInventory.flushPendingChanges( this.cells.getStackInSlot( slot ) );
+		}
+
 		super.getDrops( w, x, y, z, drops );
 
 		for( int upgradeIndex = 0; upgradeIndex < this.upgrades.getSizeInventory(); upgradeIndex++ )
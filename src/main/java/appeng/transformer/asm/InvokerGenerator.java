@@ -0,0 +1,253 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.transformer.asm;
+
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import appeng.core.AELog;
+
+
+/**
+ * Generates small classes which call a single method directly, to replace {@link Method#invoke(Object, Object...)} on
+ * hot paths.
+ *
+ * The invoker type has to be a public interface with exactly one method, whose first parameter receives the target
+ * object and whose remaining parameters are passed on to the target method, reference types are cast as needed. A
+ * void invoker discards the result of the target method, otherwise the return types have to match.
+ */
+public final class InvokerGenerator
+{
+
+	private static final String GENERATED_PACKAGE = "appeng/transformer/asm/generated/";
+	private static final Map<ClassLoader, InvokerClassLoader> LOADERS = new HashMap<ClassLoader, InvokerClassLoader>();
+	private static int generatedClasses = 0;
+
+	private InvokerGenerator()
+	{
+	}
+
+	/**
+	 * @param invokerType public single method interface the generated class implements
+	 * @param target public instance method to call
+	 *
+	 * @return a new invoker or null, if the target can not be called directly from a generated class, the caller should
+	 * fall back to reflection then.
+	 */
+	@Nullable
+	public static synchronized <T> T generate( Class<T> invokerType, Method target )
+	{
+		final Method invokerMethod = getInvokerMethod( invokerType );
+		final Class<?> owner = target.getDeclaringClass();
+
+		if( invokerMethod == null || !isCallable( target ) )
+		{
+			return null;
+		}
+
+		final Class<?>[] invokerParams = invokerMethod.getParameterTypes();
+		final Class<?>[] targetParams = target.getParameterTypes();
+
+		if( invokerParams.length != targetParams.length + 1 || invokerParams[0].isPrimitive() )
+		{
+			return null;
+		}
+
+		try
+		{
+			final ClassLoader parent = owner.getClassLoader();
+			if( parent == null || Class.forName( invokerType.getName(), false, parent ) != invokerType )
+			{
+				return null;
+			}
+
+			final String className = GENERATED_PACKAGE + owner.getSimpleName() + '_' + target.getName() + '_' + generatedClasses++;
+			final byte[] bytes = createClass( className, invokerType, invokerMethod, target );
+
+			if( bytes == null )
+			{
+				return null;
+			}
+
+			InvokerClassLoader loader = LOADERS.get( parent );
+			if( loader == null )
+			{
+				LOADERS.put( parent, loader = new InvokerClassLoader( parent ) );
+			}
+
+			final Class<?> generated = loader.define( className.replace( '/', '.' ), bytes );
+			return invokerType.cast( generated.newInstance() );
+		}
+		catch( ClassNotFoundException e )
+		{
+			// the owner can not see the invoker type, nothing went wrong.
+			return null;
+		}
+		catch( LinkageError e )
+		{
+			return failed( target, e );
+		}
+		catch( InstantiationException e )
+		{
+			return failed( target, e );
+		}
+		catch( IllegalAccessException e )
+		{
+			return failed( target, e );
+		}
+		catch( RuntimeException e )
+		{
+			return failed( target, e );
+		}
+	}
+
+	@Nullable
+	private static <T> T failed( Method target, Throwable t )
+	{
+		AELog.warning( "Could not generate an invoker for %s, falling back to reflection: %s", target, t );
+		return null;
+	}
+
+	@Nullable
+	private static Method getInvokerMethod( Class<?> invokerType )
+	{
+		if( !invokerType.isInterface() || !Modifier.isPublic( invokerType.getModifiers() ) )
+		{
+			return null;
+		}
+
+		final Method[] methods = invokerType.getMethods();
+		return methods.length == 1 ? methods[0] : null;
+	}
+
+	private static boolean isCallable( Method target )
+	{
+		final int modifiers = target.getModifiers();
+		return Modifier.isPublic( modifiers ) && !Modifier.isStatic( modifiers ) && Modifier.isPublic( target.getDeclaringClass().getModifiers() );
+	}
+
+	@Nullable
+	private static byte[] createClass( String className, Class<?> invokerType, Method invokerMethod, Method target )
+	{
+		final Class<?> owner = target.getDeclaringClass();
+		final String ownerName = Type.getInternalName( owner );
+		final Class<?>[] invokerParams = invokerMethod.getParameterTypes();
+		final Class<?>[] targetParams = target.getParameterTypes();
+
+		final ClassWriter cw = new ClassWriter( ClassWriter.COMPUTE_MAXS );
+		cw.visit( Opcodes.V1_6, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, className, null, "java/lang/Object", new String[] { Type.getInternalName( invokerType ) } );
+
+		final MethodVisitor init = cw.visitMethod( Opcodes.ACC_PUBLIC, "<init>", "()V", null, null );
+		init.visitCode();
+		init.visitVarInsn( Opcodes.ALOAD, 0 );
+		init.visitMethodInsn( Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false );
+		init.visitInsn( Opcodes.RETURN );
+		init.visitMaxs( 0, 0 );
+		init.visitEnd();
+
+		final MethodVisitor mv = cw.visitMethod( Opcodes.ACC_PUBLIC, invokerMethod.getName(), Type.getMethodDescriptor( invokerMethod ), null, null );
+		mv.visitCode();
+		mv.visitVarInsn( Opcodes.ALOAD, 1 );
+		mv.visitTypeInsn( Opcodes.CHECKCAST, ownerName );
+
+		int slot = 2;
+		for( int x = 0; x < targetParams.length; x++ )
+		{
+			final Class<?> from = invokerParams[x + 1];
+			final Class<?> to = targetParams[x];
+			final Type fromType = Type.getType( from );
+
+			if( from == to )
+			{
+				mv.visitVarInsn( fromType.getOpcode( Opcodes.ILOAD ), slot );
+			}
+			else if( !from.isPrimitive() && !to.isPrimitive() )
+			{
+				mv.visitVarInsn( Opcodes.ALOAD, slot );
+				mv.visitTypeInsn( Opcodes.CHECKCAST, Type.getInternalName( to ) );
+			}
+			else
+			{
+				return null;
+			}
+
+			slot += fromType.getSize();
+		}
+
+		if( owner.isInterface() )
+		{
+			mv.visitMethodInsn( Opcodes.INVOKEINTERFACE, ownerName, target.getName(), Type.getMethodDescriptor( target ), true );
+		}
+		else
+		{
+			mv.visitMethodInsn( Opcodes.INVOKEVIRTUAL, ownerName, target.getName(), Type.getMethodDescriptor( target ), false );
+		}
+
+		final Class<?> invokerReturn = invokerMethod.getReturnType();
+		final Class<?> targetReturn = target.getReturnType();
+
+		if( invokerReturn == void.class )
+		{
+			if( targetReturn != void.class )
+			{
+				mv.visitInsn( Type.getType( targetReturn ).getSize() == 2 ? Opcodes.POP2 : Opcodes.POP );
+			}
+
+			mv.visitInsn( Opcodes.RETURN );
+		}
+		else if( invokerReturn == targetReturn || ( !invokerReturn.isPrimitive() && invokerReturn.isAssignableFrom( targetReturn ) ) )
+		{
+			mv.visitInsn( Type.getType( invokerReturn ).getOpcode( Opcodes.IRETURN ) );
+		}
+		else
+		{
+			return null;
+		}
+
+		mv.visitMaxs( 0, 0 );
+		mv.visitEnd();
+
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	private static final class InvokerClassLoader extends ClassLoader
+	{
+
+		private InvokerClassLoader( ClassLoader parent )
+		{
+			super( parent );
+		}
+
+		private Class<?> define( String name, byte[] bytes )
+		{
+			return this.defineClass( name, bytes, 0, bytes.length );
+		}
+	}
+}
@@ -109,4 +109,12 @@ public abstract class InventoryAdaptor implements Iterable<ItemSlot>
 	public abstract ItemStack simulateAdd( ItemStack toBeSimulated );
 
 	public abstract boolean containsItems();
+
+	/**
+	 * @return a number which changes whenever the inventory changes, or -1 if the inventory does not track that.
+	 */
+	public long getChangeCount()
+	{
+		return -1;
+	}
 }
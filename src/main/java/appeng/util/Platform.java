@@ -652,18 +652,7 @@ public class Platform
 	 */
 	public static IRecipe findMatchingRecipe( InventoryCrafting inventoryCrafting, World par2World )
 	{
-		CraftingManager cm = CraftingManager.getInstance();
-		List<IRecipe> rl = cm.getRecipeList();
-
-		for( IRecipe r : rl )
-		{
-			if( r.matches( inventoryCrafting, par2World ) )
-			{
-				return r;
-			}
-		}
-
-		return null;
+		return RecipeIndex.getInstance().findMatchingRecipe( inventoryCrafting, par2World );
 	}
 
 	public static ItemStack[] getBlockDrops( World w, int x, int y, int z )
@@ -878,7 +867,28 @@ public class Platform
 
 	public static ItemStack findMatchingRecipeOutput( InventoryCrafting ic, World worldObj )
 	{
-		return CraftingManager.getInstance().findMatchingRecipe( ic, worldObj );
+		ItemStack first = null;
+		ItemStack second = null;
+		int count = 0;
+		for( int x = 0; x < ic.getSizeInventory(); x++ )
+		{
+			ItemStack is = ic.getStackInSlot( x );
+			if( is != null )
+			{
+				count++;
+				second = first == null ? null : is;
+				first = first == null ? is : first;
+			}
+		}
+
+		// tool repair isn't a recipe, vanilla checks it before any recipe.
+		if( count == 2 && first.getItem() == second.getItem() && first.stackSize == 1 && second.stackSize == 1 && first.getItem().isRepairable() )
+		{
+			return CraftingManager.getInstance().findMatchingRecipe( ic, worldObj );
+		}
+
+		IRecipe r = findMatchingRecipe( ic, worldObj );
+		return r == null ? null : r.getCraftingResult( ic );
 	}
 
 	@SideOnly( Side.CLIENT )
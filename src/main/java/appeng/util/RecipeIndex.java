@@ -0,0 +1,482 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.util;
+
+
+import java.lang.reflect.Field;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.minecraft.inventory.InventoryCrafting;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.CraftingManager;
+import net.minecraft.item.crafting.IRecipe;
+import net.minecraft.item.crafting.ShapedRecipes;
+import net.minecraft.item.crafting.ShapelessRecipes;
+import net.minecraft.world.World;
+import net.minecraftforge.oredict.ShapedOreRecipe;
+import net.minecraftforge.oredict.ShapelessOreRecipe;
+
+import appeng.api.exceptions.MissingIngredientError;
+import appeng.api.exceptions.RegistrationError;
+import appeng.api.recipes.IIngredient;
+import appeng.core.AELog;
+import appeng.recipes.game.ShapedRecipe;
+import appeng.recipes.game.ShapelessRecipe;
+
+
+/**
+ * Finds the first matching recipe of a recipe list without asking every recipe.
+ *
+ * Recipes are filed under the items of their most selective ingredient, a lookup only tests the recipes filed under
+ * the items in the grid, plus the recipes whose ingredients are unknown, in their original order. Shaped recipes are
+ * skipped when the grid does not fit their size, shapeless ones when the number of items differs.
+ *
+ * The shared index over {@link CraftingManager} is rebuilt when recipes are added to or removed from its list, even
+ * when the size stays the same, or after {@link #invalidate()}, which the ore dictionary rebake calls. Replacing a
+ * recipe in place is not seen by the list and needs {@link #invalidate()} as well.
+ */
+public final class RecipeIndex
+{
+
+	private static final int UNKNOWN = -1;
+	private static final Comparator<Entry> ORDER = new Comparator<Entry>()
+	{
+		@Override
+		public int compare( Entry a, Entry b )
+		{
+			return a.order < b.order ? -1 : ( a.order > b.order ? 1 : 0 );
+		}
+	};
+
+	private static final Field MOD_COUNT = findModCount();
+	private static volatile RecipeIndex shared;
+
+	private final List<IRecipe> recipes;
+	private final int size;
+	private final int version;
+	private final Map<Item, Entry[]> byItem = new HashMap<Item, Entry[]>();
+	private final Entry[] unindexed;
+
+	public RecipeIndex( List<IRecipe> recipes )
+	{
+		this.recipes = recipes;
+		this.size = recipes.size();
+		this.version = getVersion( recipes );
+
+		Map<Item, List<Entry>> filed = new HashMap<Item, List<Entry>>();
+		List<Entry> rest = new ArrayList<Entry>();
+
+		for( int x = 0; x < this.size; x++ )
+		{
+			IRecipe r = recipes.get( x );
+			Entry e = createEntry( r, x );
+
+			if( e == null )
+			{
+				continue;
+			}
+
+			Set<Item> key = e.width == UNKNOWN && e.slots == UNKNOWN ? null : selectKey( r );
+
+			if( key == null )
+			{
+				rest.add( e );
+				continue;
+			}
+
+			for( Item item : key )
+			{
+				List<Entry> list = filed.get( item );
+				if( list == null )
+				{
+					filed.put( item, list = new ArrayList<Entry>() );
+				}
+				list.add( e );
+			}
+		}
+
+		for( Map.Entry<Item, List<Entry>> e : filed.entrySet() )
+		{
+			this.byItem.put( e.getKey(), e.getValue().toArray( new Entry[e.getValue().size()] ) );
+		}
+
+		this.unindexed = rest.toArray( new Entry[rest.size()] );
+	}
+
+	/**
+	 * @return the index over the {@link CraftingManager} recipes.
+	 */
+	public static RecipeIndex getInstance()
+	{
+		List<IRecipe> list = CraftingManager.getInstance().getRecipeList();
+		RecipeIndex index = shared;
+
+		if( index == null || index.recipes != list || index.size != list.size() || index.version != getVersion( list ) )
+		{
+			shared = index = new RecipeIndex( list );
+		}
+
+		return index;
+	}
+
+	/**
+	 * ingredients may have changed, rebuild the shared index on its next use.
+	 */
+	public static void invalidate()
+	{
+		shared = null;
+	}
+
+	private static Field findModCount()
+	{
+		try
+		{
+			Field f = AbstractList.class.getDeclaredField( "modCount" );
+			f.setAccessible( true );
+			return f;
+		}
+		catch( NoSuchFieldException e )
+		{
+			AELog.warning( "Recipe index falls back to hashing the recipe list: %s", e );
+		}
+		catch( RuntimeException e )
+		{
+			// a security manager or a runtime which does not open java.util.
+			AELog.warning( "Recipe index falls back to hashing the recipe list: %s", e );
+		}
+
+		return null;
+	}
+
+	/**
+	 * @return the modification count of the list, or a hash over its recipes for lists which do not keep one.
+	 */
+	private static int getVersion( List<IRecipe> list )
+	{
+		if( MOD_COUNT != null && list instanceof AbstractList )
+		{
+			try
+			{
+				return MOD_COUNT.getInt( list );
+			}
+			catch( IllegalAccessException e )
+			{
+				AELog.error( e );
+			}
+		}
+
+		int hash = 1;
+		for( IRecipe r : list )
+		{
+			hash = 31 * hash + System.identityHashCode( r );
+		}
+
+		return hash;
+	}
+
+	/**
+	 * @return null for recipes which can never match, an entry which is only indexed when its shape is known.
+	 */
+	private static Entry createEntry( IRecipe r, int order )
+	{
+		if( r instanceof ShapedRecipes )
+		{
+			return new Entry( r, order, ( (ShapedRecipes) r ).recipeWidth, ( (ShapedRecipes) r ).recipeHeight, UNKNOWN );
+		}
+
+		if( r instanceof ShapedRecipe )
+		{
+			if( !( (ShapedRecipe) r ).isEnabled() )
+			{
+				return null;
+			}
+
+			return new Entry( r, order, ( (ShapedRecipe) r ).getWidth(), ( (ShapedRecipe) r ).getHeight(), UNKNOWN );
+		}
+
+		if( r instanceof ShapedOreRecipe )
+		{
+			// the size is private, the ingredients still narrow it down.
+			return new Entry( r, order, 3, 3, UNKNOWN );
+		}
+
+		if( r instanceof ShapelessRecipes )
+		{
+			return new Entry( r, order, UNKNOWN, UNKNOWN, ( (ShapelessRecipes) r ).recipeItems.size() );
+		}
+
+		if( r instanceof ShapelessRecipe )
+		{
+			if( !( (ShapelessRecipe) r ).isEnabled() )
+			{
+				return null;
+			}
+
+			return new Entry( r, order, UNKNOWN, UNKNOWN, ( (ShapelessRecipe) r ).getInput().size() );
+		}
+
+		if( r instanceof ShapelessOreRecipe )
+		{
+			return new Entry( r, order, UNKNOWN, UNKNOWN, ( (ShapelessOreRecipe) r ).getInput().size() );
+		}
+
+		return new Entry( r, order, UNKNOWN, UNKNOWN, UNKNOWN );
+	}
+
+	private static Collection<?> getIngredients( IRecipe r )
+	{
+		if( r instanceof ShapedRecipes )
+		{
+			return Arrays.asList( ( (ShapedRecipes) r ).recipeItems );
+		}
+
+		if( r instanceof ShapedRecipe )
+		{
+			return Arrays.asList( ( (ShapedRecipe) r ).getInput() );
+		}
+
+		if( r instanceof ShapedOreRecipe )
+		{
+			return Arrays.asList( ( (ShapedOreRecipe) r ).getInput() );
+		}
+
+		if( r instanceof ShapelessRecipes )
+		{
+			return ( (ShapelessRecipes) r ).recipeItems;
+		}
+
+		if( r instanceof ShapelessRecipe )
+		{
+			return ( (ShapelessRecipe) r ).getInput();
+		}
+
+		return ( (ShapelessOreRecipe) r ).getInput();
+	}
+
+	/**
+	 * @return the items of the ingredient with the fewest options, null if any ingredient can't be resolved.
+	 */
+	private static Set<Item> selectKey( IRecipe r )
+	{
+		Set<Item> best = null;
+
+		for( Object ingredient : getIngredients( r ) )
+		{
+			if( ingredient == null )
+			{
+				continue;
+			}
+
+			Set<Item> items = getItems( ingredient );
+
+			if( items == null || items.isEmpty() )
+			{
+				return null;
+			}
+
+			if( best == null || items.size() < best.size() )
+			{
+				best = items;
+			}
+		}
+
+		return best;
+	}
+
+	private static Set<Item> getItems( Object ingredient )
+	{
+		Set<Item> out = new HashSet<Item>();
+
+		if( ingredient instanceof ItemStack )
+		{
+			return addItem( out, (ItemStack) ingredient ) ? out : null;
+		}
+
+		if( ingredient instanceof IIngredient )
+		{
+			try
+			{
+				for( ItemStack is : ( (IIngredient) ingredient ).getItemStackSet() )
+				{
+					if( !addItem( out, is ) )
+					{
+						return null;
+					}
+				}
+
+				return out;
+			}
+			catch( RegistrationError e )
+			{
+				return null;
+			}
+			catch( MissingIngredientError e )
+			{
+				return null;
+			}
+		}
+
+		if( ingredient instanceof Collection )
+		{
+			for( Object o : (Collection<?>) ingredient )
+			{
+				if( !( o instanceof ItemStack ) || !addItem( out, (ItemStack) o ) )
+				{
+					return null;
+				}
+			}
+
+			return out;
+		}
+
+		return null;
+	}
+
+	private static boolean addItem( Set<Item> out, ItemStack is )
+	{
+		if( is == null || is.getItem() == null )
+		{
+			return false;
+		}
+
+		out.add( is.getItem() );
+		return true;
+	}
+
+	/**
+	 * Same result as asking every recipe of the list in order.
+	 */
+	public IRecipe findMatchingRecipe( InventoryCrafting ic, World w )
+	{
+		List<Item> items = new ArrayList<Item>( 9 );
+		int slots = 0;
+		int minX = Integer.MAX_VALUE;
+		int minY = Integer.MAX_VALUE;
+		int maxX = -1;
+		int maxY = -1;
+
+		for( int y = 0; y < 3; y++ )
+		{
+			for( int x = 0; x < 3; x++ )
+			{
+				ItemStack is = ic.getStackInRowAndColumn( x, y );
+				if( is != null )
+				{
+					minX = Math.min( minX, x );
+					minY = Math.min( minY, y );
+					maxX = Math.max( maxX, x );
+					maxY = Math.max( maxY, y );
+				}
+			}
+		}
+
+		for( int x = 0; x < ic.getSizeInventory(); x++ )
+		{
+			ItemStack is = ic.getStackInSlot( x );
+			if( is != null )
+			{
+				slots++;
+
+				if( is.getItem() != null && !items.contains( is.getItem() ) )
+				{
+					items.add( is.getItem() );
+				}
+			}
+		}
+
+		int width = maxX < 0 ? 0 : maxX - minX + 1;
+		int height = maxY < 0 ? 0 : maxY - minY + 1;
+
+		List<Entry> candidates = new ArrayList<Entry>();
+		candidates.addAll( Arrays.asList( this.unindexed ) );
+
+		for( Item item : items )
+		{
+			Entry[] filed = this.byItem.get( item );
+			if( filed != null )
+			{
+				candidates.addAll( Arrays.asList( filed ) );
+			}
+		}
+
+		if( items.size() > 1 || this.unindexed.length > 0 )
+		{
+			Collections.sort( candidates, ORDER );
+		}
+
+		Entry last = null;
+		for( Entry e : candidates )
+		{
+			// the same recipe is filed under every item of its key.
+			if( e == last )
+			{
+				continue;
+			}
+
+			last = e;
+
+			if( e.width != UNKNOWN && ( width > e.width || height > e.height ) )
+			{
+				continue;
+			}
+
+			if( e.slots != UNKNOWN && slots != e.slots )
+			{
+				continue;
+			}
+
+			if( e.recipe.matches( ic, w ) )
+			{
+				return e.recipe;
+			}
+		}
+
+		return null;
+	}
+
+	private static final class Entry
+	{
+
+		final IRecipe recipe;
+		final int order;
+		final int width;
+		final int height;
+		final int slots;
+
+		Entry( IRecipe recipe, int order, int width, int height, int slots )
+		{
+			this.recipe = recipe;
+			this.order = order;
+			this.width = width;
+			this.height = height;
+			this.slots = slots;
+		}
+	}
+}
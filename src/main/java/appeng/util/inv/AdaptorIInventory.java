@@ -326,22 +326,53 @@ public class AdaptorIInventory extends InventoryAdaptor
 		return true;
 	}
 
+	@Override
+	public long getChangeCount()
+	{
+		if( this.i instanceof IInventoryChangeCounter )
+		{
+			return ( (IInventoryChangeCounter) this.i ).getChangeCount();
+		}
+
+		return -1;
+	}
+
+	public int getSizeInventory()
+	{
+		return this.i.getSizeInventory();
+	}
+
 	@Override
 	public Iterator<ItemSlot> iterator()
 	{
-		return new InvIterator();
+		return new InvIterator( 0, Integer.MAX_VALUE );
+	}
+
+	/**
+	 * iterates the slots from start up to, but not including, end.
+	 */
+	public Iterator<ItemSlot> iterator( int start, int end )
+	{
+		return new InvIterator( start, end );
 	}
 
 	class InvIterator implements Iterator<ItemSlot>
 	{
 
 		final ItemSlot is = new ItemSlot();
-		int x = 0;
+		final int end;
+		int x;
+
+		InvIterator( int start, int end )
+		{
+			this.x = start;
+			this.end = end;
+		}
 
 		@Override
 		public boolean hasNext()
 		{
-			return this.x < AdaptorIInventory.this.i.getSizeInventory();
+			return this.x < this.end && this.x < AdaptorIInventory.this.i.getSizeInventory();
 		}
 
 		@Override
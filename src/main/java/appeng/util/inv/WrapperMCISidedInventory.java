@@ -24,7 +24,7 @@ import net.minecraft.item.ItemStack;
 import net.minecraftforge.common.util.ForgeDirection;
 
 
-public class WrapperMCISidedInventory extends WrapperInventoryRange implements IInventoryWrapper
+public class WrapperMCISidedInventory extends WrapperInventoryRange implements IInventoryWrapper, IInventoryChangeCounter
 {
 
 	final ISidedInventory side;
@@ -74,4 +74,15 @@ public class WrapperMCISidedInventory extends WrapperInventoryRange implements I
 
 		return this.side.canExtractItem( this.slots[i], is, this.dir.ordinal() );
 	}
+
+	@Override
+	public long getChangeCount()
+	{
+		if( this.side instanceof IInventoryChangeCounter )
+		{
+			return ( (IInventoryChangeCounter) this.side ).getChangeCount();
+		}
+
+		return -1;
+	}
 }
@@ -35,6 +35,7 @@ import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.CompressedStreamTools;
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraftforge.oredict.OreDictionary;
 
 import cpw.mods.fml.common.registry.GameRegistry;
 import cpw.mods.fml.common.registry.GameRegistry.UniqueIdentifier;
@@ -693,6 +694,31 @@ public final class AEItemStack extends AEStack<IAEItemStack> implements IAEItemS
 		return this.def.isOre != null;
 	}
 
+	/**
+	 * The bounds a fuzzy search for this stack covers in a sorted list, as low / high pairs; one pair per ore dictionary
+	 * equivalent for ore stacks.
+	 */
+	public AEItemStack[] getFuzzyBounds( FuzzyMode fuzzy )
+	{
+		if( this.isOre() )
+		{
+			List<IAEItemStack> equivalents = this.def.isOre.getAEEquivalents();
+			AEItemStack[] out = new AEItemStack[equivalents.size() * 2];
+
+			for( int x = 0; x < equivalents.size(); x++ )
+			{
+				AEItemStack is = (AEItemStack) equivalents.get( x );
+				boolean ignoreMeta = is.getItemDamage() == OreDictionary.WILDCARD_VALUE;
+				out[x * 2] = (AEItemStack) is.getLow( fuzzy, ignoreMeta );
+				out[x * 2 + 1] = (AEItemStack) is.getHigh( fuzzy, ignoreMeta );
+			}
+
+			return out;
+		}
+
+		return new AEItemStack[] { (AEItemStack) this.getLow( fuzzy, false ), (AEItemStack) this.getHigh( fuzzy, false ) };
+	}
+
 	@Override
 	void writeIdentity( ByteBuf i ) throws IOException
 	{
@@ -0,0 +1,468 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.util.item;
+
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import net.minecraftforge.oredict.OreDictionary;
+
+import appeng.api.config.FuzzyMode;
+import appeng.api.storage.data.IAEFluidStack;
+import appeng.api.storage.data.IAEItemStack;
+import appeng.api.storage.data.IAEStack;
+import appeng.api.storage.data.IItemList;
+
+
+/**
+ * Hash indexed variant of {@link ItemList}.
+ *
+ * Stacks are keyed by their identity (item id, damage and shared nbt instance), which is exactly what
+ * {@link AEItemStack#hashCode()} and {@link AEItemStack#equals(Object)} already use, so precise lookups and merges are
+ * a single hash probe. The sorted index needed for {@link #findFuzzy(IAEStack, FuzzyMode)} is only built the first
+ * time a fuzzy lookup happens and is kept up to date from then on.
+ *
+ * There is no list wide lock, merging into an existing record only locks that record.
+ *
+ * Unlike {@link ItemList}, iteration follows the hash order of the records, not the order they were added in.
+ */
+public final class IndexedItemList<StackType extends IAEStack> implements IItemList<StackType>
+{
+
+	private final ConcurrentMap<StackType, StackType> records = new ConcurrentHashMap<StackType, StackType>();
+	private final Class<? extends IAEStack> clz;
+	private volatile NavigableMap<StackType, StackType> sorted;
+
+	public IndexedItemList( Class<? extends IAEStack> cla )
+	{
+		this.clz = cla;
+	}
+
+	@Override
+	public void add( StackType option )
+	{
+		if( this.checkStackType( option ) )
+		{
+			return;
+		}
+
+		while( true )
+		{
+			StackType st = this.records.get( option );
+
+			if( st == null )
+			{
+				st = this.insert( (StackType) option.copy() );
+
+				if( st == null )
+				{
+					return;
+				}
+			}
+
+			synchronized( st )
+			{
+				if( this.isCurrent( st ) )
+				{
+					st.add( option );
+					return;
+				}
+			}
+		}
+	}
+
+	private boolean checkStackType( StackType st )
+	{
+		if( st == null )
+		{
+			return true;
+		}
+
+		if( !this.clz.isInstance( st ) )
+		{
+			throw new IllegalArgumentException( "WRONG TYPE - got " + st.getClass().getName() + " expected " + this.clz.getName() );
+		}
+
+		return false;
+	}
+
+	/**
+	 * Has to be called holding the lock of the record, which keeps it from being cleaned out until the merge is done.
+	 *
+	 * @return false if the record was cleaned out as empty since it was looked up, the merge has to look it up again.
+	 */
+	private boolean isCurrent( StackType st )
+	{
+		return this.records.get( st ) == st;
+	}
+
+	/**
+	 * Removes a record and its entry in the sorted index.
+	 *
+	 * @param onlyIfEmpty only removes it if it still is not meaningful once its lock is held
+	 */
+	private void remove( StackType st, boolean onlyIfEmpty )
+	{
+		synchronized( st )
+		{
+			if( !this.isCurrent( st ) || ( onlyIfEmpty && st.isMeaningful() ) )
+			{
+				return;
+			}
+
+			// the index first, a record with the same key can only be inserted again once the map lost this one.
+			NavigableMap<StackType, StackType> index = this.sorted;
+			if( index != null )
+			{
+				index.remove( st );
+			}
+
+			this.records.remove( st );
+		}
+	}
+
+	/**
+	 * Stores a freshly copied record.
+	 *
+	 * @return null if the record was stored, otherwise the record another thread stored first which needs to be merged
+	 * into instead.
+	 */
+	private StackType insert( StackType opt )
+	{
+		StackType existing = this.records.putIfAbsent( opt, opt );
+		if( existing != null )
+		{
+			return existing;
+		}
+
+		NavigableMap<StackType, StackType> index = this.sorted;
+		if( index != null )
+		{
+			index.put( opt, opt );
+		}
+
+		return null;
+	}
+
+	@Override
+	public StackType findPrecise( StackType i )
+	{
+		if( this.checkStackType( i ) )
+		{
+			return null;
+		}
+
+		return this.records.get( i );
+	}
+
+	@Override
+	public Collection<StackType> findFuzzy( StackType filter, FuzzyMode fuzzy )
+	{
+		if( this.checkStackType( filter ) )
+		{
+			return new ArrayList<StackType>();
+		}
+
+		if( filter instanceof IAEFluidStack )
+		{
+			List<StackType> result = new ArrayList<StackType>( 1 );
+
+			StackType is = this.records.get( filter );
+			if( is != null )
+			{
+				result.add( is );
+			}
+
+			return result;
+		}
+
+		AEItemStack ais = (AEItemStack) filter;
+		if( ais.isOre() )
+		{
+			OreReference or = ais.def.isOre;
+			if( or.getAEEquivalents().size() == 1 )
+			{
+				IAEItemStack is = or.getAEEquivalents().get( 0 );
+				return this.findFuzzyDamage( (AEItemStack) is, fuzzy, is.getItemDamage() == OreDictionary.WILDCARD_VALUE );
+			}
+			else
+			{
+				Collection<StackType> output = new LinkedList<StackType>();
+
+				for( IAEItemStack is : or.getAEEquivalents() )
+				{
+					output.addAll( this.findFuzzyDamage( (AEItemStack) is, fuzzy, is.getItemDamage() == OreDictionary.WILDCARD_VALUE ) );
+				}
+
+				return output;
+			}
+		}
+
+		return this.findFuzzyDamage( ais, fuzzy, false );
+	}
+
+	private Collection<StackType> findFuzzyDamage( AEItemStack filter, FuzzyMode fuzzy, boolean ignoreMeta )
+	{
+		if( this.records.isEmpty() )
+		{
+			return Collections.emptyList();
+		}
+
+		StackType low = (StackType) filter.getLow( fuzzy, ignoreMeta );
+		StackType high = (StackType) filter.getHigh( fuzzy, ignoreMeta );
+		return this.getSortedIndex().subMap( low, true, high, true ).descendingMap().values();
+	}
+
+	private NavigableMap<StackType, StackType> getSortedIndex()
+	{
+		NavigableMap<StackType, StackType> index = this.sorted;
+
+		if( index == null )
+		{
+			synchronized( this.records )
+			{
+				index = this.sorted;
+				if( index == null )
+				{
+					// publish first, so concurrent inserts land in the index while it is being filled.
+					this.sorted = index = new ConcurrentSkipListMap<StackType, StackType>();
+					index.putAll( this.records );
+				}
+			}
+		}
+
+		return index;
+	}
+
+	@Override
+	public boolean isEmpty()
+	{
+		return this.records.isEmpty() || !this.iterator().hasNext();
+	}
+
+	@Override
+	public void addStorage( StackType option )
+	{
+		if( this.checkStackType( option ) )
+		{
+			return;
+		}
+
+		while( true )
+		{
+			StackType st = this.records.get( option );
+
+			if( st == null )
+			{
+				st = this.insert( (StackType) option.copy() );
+
+				if( st == null )
+				{
+					return;
+				}
+			}
+
+			synchronized( st )
+			{
+				if( this.isCurrent( st ) )
+				{
+					st.incStackSize( option.getStackSize() );
+					return;
+				}
+			}
+		}
+	}
+
+	@Override
+	public void addCrafting( StackType option )
+	{
+		if( this.checkStackType( option ) )
+		{
+			return;
+		}
+
+		while( true )
+		{
+			StackType st = this.records.get( option );
+
+			if( st == null )
+			{
+				StackType opt = (StackType) option.copy();
+				opt.setStackSize( 0 );
+				opt.setCraftable( true );
+
+				st = this.insert( opt );
+
+				if( st == null )
+				{
+					return;
+				}
+			}
+
+			synchronized( st )
+			{
+				if( this.isCurrent( st ) )
+				{
+					st.setCraftable( true );
+					return;
+				}
+			}
+		}
+	}
+
+	@Override
+	public void addRequestable( StackType option )
+	{
+		if( this.checkStackType( option ) )
+		{
+			return;
+		}
+
+		while( true )
+		{
+			StackType st = this.records.get( option );
+
+			if( st == null )
+			{
+				StackType opt = (StackType) option.copy();
+				opt.setStackSize( 0 );
+				opt.setCraftable( false );
+
+				st = this.insert( opt );
+
+				if( st == null )
+				{
+					return;
+				}
+			}
+
+			synchronized( st )
+			{
+				if( this.isCurrent( st ) )
+				{
+					st.setCountRequestable( st.getCountRequestable() + option.getCountRequestable() );
+					return;
+				}
+			}
+		}
+	}
+
+	@Override
+	public StackType getFirstItem()
+	{
+		for( StackType stackType : this )
+		{
+			return stackType;
+		}
+
+		return null;
+	}
+
+	@Override
+	public int size()
+	{
+		return this.records.size();
+	}
+
+	@Override
+	public Iterator<StackType> iterator()
+	{
+		return new IndexedIterator( this.records.values().iterator() );
+	}
+
+	@Override
+	public void resetStatus()
+	{
+		for( StackType i : this )
+		{
+			i.reset();
+		}
+	}
+
+	/**
+	 * Skips and cleans out empty records like {@link MeaningfulIterator}, but only removes a record once it is sure no
+	 * merge into it is under way, and keeps the sorted index in sync.
+	 */
+	private final class IndexedIterator implements Iterator<StackType>
+	{
+
+		private final Iterator<StackType> parent;
+		private StackType next;
+		private StackType current;
+
+		private IndexedIterator( Iterator<StackType> parent )
+		{
+			this.parent = parent;
+		}
+
+		@Override
+		public boolean hasNext()
+		{
+			while( this.next == null && this.parent.hasNext() )
+			{
+				final StackType st = this.parent.next();
+				if( st.isMeaningful() )
+				{
+					this.next = st;
+				}
+				else
+				{
+					IndexedItemList.this.remove( st, true ); // self cleaning :3
+				}
+			}
+
+			return this.next != null;
+		}
+
+		@Override
+		public StackType next()
+		{
+			if( !this.hasNext() )
+			{
+				throw new NoSuchElementException();
+			}
+
+			this.current = this.next;
+			this.next = null;
+			return this.current;
+		}
+
+		@Override
+		public void remove()
+		{
+			if( this.current == null )
+			{
+				throw new IllegalStateException();
+			}
+
+			IndexedItemList.this.remove( this.current, false );
+			this.current = null;
+		}
+	}
+}
@@ -0,0 +1,155 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me.cache.helpers;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Tests for {@link TimingWheel}
+ */
+public final class TimingWheelTest
+{
+	private static final class Timer extends TimingWheel.Entry
+	{
+		private final int id;
+
+		private Timer( int id )
+		{
+			this.id = id;
+		}
+	}
+
+	private static List<Timer> advance( TimingWheel<Timer> wheel )
+	{
+		wheel.advance();
+
+		final List<Timer> fired = new ArrayList<Timer>();
+		Timer t;
+		while( ( t = wheel.poll() ) != null )
+		{
+			fired.add( t );
+		}
+
+		return fired;
+	}
+
+	@Test
+	public void testFiresOnDeadline_shouldPass()
+	{
+		final TimingWheel<Timer> wheel = new TimingWheel<Timer>();
+		final Timer timer = new Timer( 0 );
+
+		wheel.schedule( timer, 3 );
+
+		assertTrue( advance( wheel ).isEmpty() );
+		assertTrue( advance( wheel ).isEmpty() );
+		assertSame( timer, advance( wheel ).get( 0 ) );
+		assertFalse( wheel.isScheduled( timer ) );
+		assertEquals( 0, wheel.size() );
+	}
+
+	@Test
+	public void testPastDeadlineFiresNextTick_shouldPass()
+	{
+		final TimingWheel<Timer> wheel = new TimingWheel<Timer>( 100 );
+		final Timer timer = new Timer( 0 );
+
+		wheel.schedule( timer, 50 );
+
+		assertEquals( 1, advance( wheel ).size() );
+	}
+
+	@Test
+	public void testCancel_shouldPass()
+	{
+		final TimingWheel<Timer> wheel = new TimingWheel<Timer>();
+		final Timer timer = new Timer( 0 );
+
+		wheel.schedule( timer, 1000 );
+		assertTrue( wheel.cancel( timer ) );
+		assertFalse( wheel.cancel( timer ) );
+
+		for( int i = 0; i < 2000; i++ )
+		{
+			assertTrue( advance( wheel ).isEmpty() );
+		}
+	}
+
+	@Test
+	public void testRescheduleReplaces_shouldPass()
+	{
+		final TimingWheel<Timer> wheel = new TimingWheel<Timer>();
+		final Timer timer = new Timer( 0 );
+
+		wheel.schedule( timer, 10 );
+		wheel.schedule( timer, 5 );
+		assertEquals( 1, wheel.size() );
+
+		int fired = 0;
+		for( int i = 1; i <= 20; i++ )
+		{
+			for( Timer t : advance( wheel ) )
+			{
+				assertEquals( 5, i );
+				fired++;
+			}
+		}
+
+		assertEquals( 1, fired );
+	}
+
+	@Test
+	public void testRandomDeadlinesAcrossLevels_shouldPass()
+	{
+		final Random rand = new Random( 42 );
+		final TimingWheel<Timer> wheel = new TimingWheel<Timer>( 4090 );
+		final long[] deadlines = new long[5000];
+
+		for( int i = 0; i < deadlines.length; i++ )
+		{
+			deadlines[i] = wheel.getNow() + 1 + rand.nextInt( i % 10 == 0 ? 20000000 : 300000 );
+			wheel.schedule( new Timer( i ), deadlines[i] );
+		}
+
+		int fired = 0;
+		while( wheel.size() > 0 )
+		{
+			for( Timer t : advance( wheel ) )
+			{
+				assertEquals( deadlines[t.id], wheel.getNow() );
+				fired++;
+			}
+		}
+
+		assertEquals( deadlines.length, fired );
+		assertNull( wheel.poll() );
+	}
+}
@@ -0,0 +1,376 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+
+package appeng.me.pathfinding;
+
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import appeng.api.networking.GridFlags;
+import appeng.api.util.IReadOnlyCollection;
+import appeng.me.cache.PathGridCache;
+import appeng.util.ReadOnlyCollection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Tests for {@link PathRepair}, an incremental re-path has to route and assign channels like a full one.
+ */
+public final class PathRepairTest
+{
+	private static final class Item implements IPathItem
+	{
+		private final String name;
+		private final EnumSet<GridFlags> flags;
+		private final List<IPathItem> options = new ArrayList<IPathItem>();
+		private IPathItem route;
+		private int channels;
+
+		private Item( String name, boolean device )
+		{
+			this.name = name;
+			this.flags = device ? EnumSet.of( GridFlags.REQUIRE_CHANNEL ) : EnumSet.noneOf( GridFlags.class );
+		}
+
+		@Override
+		public IPathItem getControllerRoute()
+		{
+			return this.route;
+		}
+
+		@Override
+		public void setControllerRoute( IPathItem fast, boolean zeroOut )
+		{
+			if( zeroOut )
+			{
+				this.channels = 0;
+			}
+
+			this.route = fast;
+		}
+
+		@Override
+		public boolean canSupportMoreChannels()
+		{
+			return this.channels < 8;
+		}
+
+		@Override
+		public IReadOnlyCollection<IPathItem> getPossibleOptions()
+		{
+			return new ReadOnlyCollection<IPathItem>( this.options );
+		}
+
+		@Override
+		public void incrementChannelCount( int usedChannels )
+		{
+			this.channels += usedChannels;
+		}
+
+		@Override
+		public EnumSet<GridFlags> getFlags()
+		{
+			return this.flags;
+		}
+
+		@Override
+		public void finalizeChannels()
+		{
+		}
+
+		@Override
+		public String toString()
+		{
+			return this.name;
+		}
+	}
+
+	private static void connect( Item a, Item b )
+	{
+		a.options.add( b );
+		b.options.add( a );
+	}
+
+	private static void disconnect( Item a, Item b )
+	{
+		a.options.remove( b );
+		b.options.remove( a );
+	}
+
+	/**
+	 * same as {@link PathGridCache#onUpdateTick()}, one segment per controller connection, stepped in turns.
+	 */
+	private static Set<IPathItem> fullPath( Item controller, List<Item> items )
+	{
+		return fullPath( controller, items, new PathGridCache( null ) );
+	}
+
+	private static Set<IPathItem> fullPath( Item controller, List<Item> items, PathGridCache pgc )
+	{
+		for( Item item : items )
+		{
+			item.setControllerRoute( null, true );
+		}
+
+		final Set<IPathItem> closed = new HashSet<IPathItem>();
+		final Set<IPathItem> semiOpen = new HashSet<IPathItem>();
+		final List<PathSegment> active = new LinkedList<PathSegment>();
+
+		closed.add( controller );
+		for( IPathItem pi : controller.options )
+		{
+			final List<IPathItem> open = new LinkedList<IPathItem>();
+			closed.add( pi );
+			open.add( pi );
+			pi.setControllerRoute( controller, true );
+			active.add( new PathSegment( pgc, open, semiOpen, closed ) );
+		}
+
+		while( !active.isEmpty() )
+		{
+			final Iterator<PathSegment> i = active.iterator();
+			while( i.hasNext() )
+			{
+				if( i.next().step() )
+				{
+					i.remove();
+				}
+			}
+		}
+
+		return closed;
+	}
+
+	private static Map<IPathItem, Integer> depths( List<Item> items )
+	{
+		final Map<IPathItem, Integer> depths = new HashMap<IPathItem, Integer>();
+		for( Item item : items )
+		{
+			int depth = 0;
+			for( IPathItem pi = item.route; pi != null; pi = pi.getControllerRoute() )
+			{
+				depth++;
+			}
+
+			if( depth > 0 )
+			{
+				depths.put( item, depth );
+			}
+		}
+		return depths;
+	}
+
+	private static Map<Item, String> snapshot( List<Item> items )
+	{
+		final Map<Item, String> state = new HashMap<Item, String>();
+		for( Item item : items )
+		{
+			state.put( item, item.route + "/" + item.channels );
+		}
+		return state;
+	}
+
+	/**
+	 * controller, a chain a1 - a5 and a chain b1 - b4, both starting at the controller.
+	 */
+	private static List<Item> network( Item controller, Item[] a, Item[] b )
+	{
+		final List<Item> items = new ArrayList<Item>();
+		items.add( controller );
+
+		for( int x = 0; x < a.length; x++ )
+		{
+			a[x] = new Item( "a" + ( x + 1 ), false );
+			connect( x == 0 ? controller : a[x - 1], a[x] );
+			items.add( a[x] );
+		}
+
+		for( int x = 0; x < b.length; x++ )
+		{
+			b[x] = new Item( "b" + ( x + 1 ), false );
+			connect( x == 0 ? controller : b[x - 1], b[x] );
+			items.add( b[x] );
+		}
+
+		return items;
+	}
+
+	@Test
+	public void testNewDeviceMatchesFullPath_shouldPass()
+	{
+		final Item controller = new Item( "controller", false );
+		final Item[] a = new Item[5];
+		final Item[] b = new Item[4];
+		final List<Item> items = network( controller, a, b );
+		final Item device = new Item( "device", true );
+		connect( a[4], device );
+		connect( b[3], device );
+		items.add( device );
+
+		// full pathing of the final layout.
+		fullPath( controller, items );
+		final Map<Item, String> expected = snapshot( items );
+		assertSame( b[3], device.route );
+
+		// full pathing without the device, then the device joins.
+		disconnect( a[4], device );
+		disconnect( b[3], device );
+		final Set<IPathItem> closed = fullPath( controller, items );
+		closed.remove( device );
+		connect( a[4], device );
+		connect( b[3], device );
+
+		final List<IPathItem> seeds = new ArrayList<IPathItem>();
+		seeds.add( a[4] ); // the deeper seed first.
+		seeds.add( b[3] );
+
+		assertTrue( PathRepair.extend( new PathGridCache( null ), seeds, depths( items ), new HashSet<IPathItem>(), closed ) );
+		assertEquals( expected, snapshot( items ) );
+	}
+
+	@Test
+	public void testRemovedCableMatchesFullPath_shouldPass()
+	{
+		final Item controller = new Item( "controller", false );
+		final Item[] a = new Item[5];
+		final Item[] b = new Item[4];
+		final List<Item> items = network( controller, a, b );
+		final Item device = new Item( "device", true );
+		connect( a[1], device );
+		connect( b[2], device );
+		items.add( device );
+
+		final Set<IPathItem> closed = fullPath( controller, items );
+		assertSame( a[1], device.route );
+
+		// a2 goes away, a3 - a5 and the device lose their route.
+		final Map<IPathItem, Integer> depths = depths( items );
+		disconnect( a[0], a[1] );
+		disconnect( a[1], a[2] );
+		disconnect( a[1], device );
+		items.remove( a[1] );
+
+		for( IPathItem pi = device; pi != null; pi = pi.getControllerRoute() )
+		{
+			pi.incrementChannelCount( -1 );
+		}
+
+		final Item[] orphaned = { a[1], a[2], a[3], a[4], device };
+		for( Item pi : orphaned )
+		{
+			closed.remove( pi );
+			depths.remove( pi );
+			pi.setControllerRoute( null, true );
+		}
+
+		final List<IPathItem> seeds = new ArrayList<IPathItem>();
+		seeds.add( b[2] );
+
+		assertTrue( PathRepair.extend( new PathGridCache( null ), seeds, depths, new HashSet<IPathItem>(), closed ) );
+		assertSame( b[2], device.route );
+		final Map<Item, String> incremental = snapshot( items );
+
+		fullPath( controller, items );
+		assertEquals( snapshot( items ), incremental );
+	}
+
+	@Test
+	public void testShortcutNeedsFullPath_shouldPass()
+	{
+		final Item controller = new Item( "controller", false );
+		final Item[] a = new Item[5];
+		final Item[] b = new Item[4];
+		final List<Item> items = network( controller, a, b );
+
+		final Set<IPathItem> closed = fullPath( controller, items );
+		final Map<IPathItem, Integer> depths = depths( items );
+
+		// a cable from b1 to a5 makes a5 reachable at depth 3 instead of 5.
+		final Item cable = new Item( "cable", false );
+		connect( a[4], cable );
+		connect( b[0], cable );
+		items.add( cable );
+
+		final List<IPathItem> seeds = new ArrayList<IPathItem>();
+		seeds.add( a[4] );
+		seeds.add( b[0] );
+
+		assertFalse( PathRepair.extend( new PathGridCache( null ), seeds, depths, new HashSet<IPathItem>(), closed ) );
+	}
+
+	@Test
+	public void testFreedChannelNeedsFullPath_shouldPass()
+	{
+		final Item controller = new Item( "controller", false );
+		final Item cable = new Item( "cable", false );
+		final List<Item> items = new ArrayList<Item>();
+		final List<Item> devices = new ArrayList<Item>();
+		connect( controller, cable );
+		items.add( controller );
+		items.add( cable );
+
+		// nine devices on a cable with eight channels.
+		for( int x = 0; x < 9; x++ )
+		{
+			final Item device = new Item( "device" + ( x + 1 ), true );
+			connect( cable, device );
+			items.add( device );
+			devices.add( device );
+		}
+
+		final PathGridCache pgc = new PathGridCache( null );
+		fullPath( controller, items, pgc );
+
+		final Item last = devices.get( 8 );
+		assertEquals( 0, last.channels );
+		assertTrue( pgc.isStarved( last ) );
+		assertFalse( pgc.isStarved( devices.get( 0 ) ) );
+
+		// the first device goes away, it has no children to re-path from, so only a full re-path gives its channel to
+		// the last one.
+		final Item removed = devices.get( 0 );
+		for( IPathItem pi = removed; pi != null; pi = pi.getControllerRoute() )
+		{
+			pi.incrementChannelCount( -1 );
+		}
+
+		disconnect( cable, removed );
+		items.remove( removed );
+		assertEquals( 0, last.channels );
+
+		final PathGridCache repathed = new PathGridCache( null );
+		fullPath( controller, items, repathed );
+		assertEquals( 1, last.channels );
+		assertFalse( repathed.isStarved( last ) );
+	}
+}
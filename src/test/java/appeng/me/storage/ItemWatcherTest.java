@@ -0,0 +1,73 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+
+package appeng.me.storage;
+
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Tests for {@link ItemWatcher#crossedLevel(long, long)}, the level emitter is on at and above its threshold.
+ */
+public final class ItemWatcherTest
+{
+	private static ItemWatcher watcher( long threshold )
+	{
+		final ItemWatcher watcher = new ItemWatcher( null, null );
+		watcher.threshold = threshold;
+		return watcher;
+	}
+
+	@Test
+	public void testRisingOntoThreshold_shouldPass()
+	{
+		assertTrue( watcher( 10 ).crossedLevel( 9, 10 ) );
+	}
+
+	@Test
+	public void testFallingBelowThreshold_shouldPass()
+	{
+		assertTrue( watcher( 10 ).crossedLevel( 10, 9 ) );
+	}
+
+	@Test
+	public void testStayingAboveThreshold_shouldPass()
+	{
+		assertFalse( watcher( 10 ).crossedLevel( 11, 10 ) );
+		assertFalse( watcher( 10 ).crossedLevel( 10, 11 ) );
+	}
+
+	@Test
+	public void testStayingBelowThreshold_shouldPass()
+	{
+		assertFalse( watcher( 10 ).crossedLevel( 8, 9 ) );
+		assertFalse( watcher( 10 ).crossedLevel( 0, 9 ) );
+	}
+
+	@Test
+	public void testJumpingOverThreshold_shouldPass()
+	{
+		assertTrue( watcher( 10 ).crossedLevel( 0, 100 ) );
+		assertTrue( watcher( 10 ).crossedLevel( 100, 0 ) );
+	}
+}
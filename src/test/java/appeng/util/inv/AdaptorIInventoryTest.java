@@ -0,0 +1,83 @@
+/*
+ * This file is part of Applied Energistics 2.
+ * Copyright (c) 2013 - 2015, AlgorithmX2, All rights reserved.
+ *
+ * Applied Energistics 2 is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Applied Energistics 2 is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Applied Energistics 2.  If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+
+package appeng.util.inv;
+
+
+import org.junit.Test;
+
+import net.minecraft.inventory.IInventory;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.common.util.ForgeDirection;
+
+import appeng.tile.AEBaseInvTile;
+import appeng.tile.inventory.AppEngInternalInventory;
+import appeng.tile.inventory.InvOperation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Tests for {@link AdaptorIInventory#getChangeCount()} on the adaptor {@link appeng.util.InventoryAdaptor} creates for
+ * AE tiles.
+ */
+public final class AdaptorIInventoryTest
+{
+	private static final class InvTile extends AEBaseInvTile
+	{
+		private final AppEngInternalInventory inv = new AppEngInternalInventory( null, 4 );
+
+		@Override
+		public IInventory getInternalInventory()
+		{
+			return this.inv;
+		}
+
+		@Override
+		public void onChangeInventory( IInventory inv, int slot, InvOperation mc, ItemStack removed, ItemStack added )
+		{
+		}
+
+		@Override
+		public int[] getAccessibleSlotsBySide( ForgeDirection whichSide )
+		{
+			return new int[] { 0, 1, 2, 3 };
+		}
+	}
+
+	@Test
+	public void testTileAdaptorCountsChanges_shouldPass()
+	{
+		final InvTile tile = new InvTile();
+		final AdaptorIInventory adaptor = new AdaptorIInventory( new WrapperMCISidedInventory( tile, ForgeDirection.UP ) );
+
+		final long before = adaptor.getChangeCount();
+		assertTrue( before >= 0 );
+		assertEquals( before, adaptor.getChangeCount() );
+
+		tile.setInventorySlotContents( 1, null );
+		final long afterSet = adaptor.getChangeCount();
+		assertNotEquals( before, afterSet );
+
+		tile.markDirty();
+		assertNotEquals( afterSet, adaptor.getChangeCount() );
+	}
+}